@@ -0,0 +1,29 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.Cloner;
+import org.openjdk.jmh.annotations.*;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClonerBenchmark {
+
+    private ClassNode classNode;
+
+    @Setup
+    public void setup() {
+        this.classNode = SyntheticInputs.createClass(1, 16);
+    }
+
+    @Benchmark
+    public ClassNode cloneClass() {
+        return Cloner.clone(this.classNode);
+    }
+
+}
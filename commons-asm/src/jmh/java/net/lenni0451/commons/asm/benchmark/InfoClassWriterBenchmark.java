@@ -0,0 +1,91 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.info.ClassInfoProvider;
+import net.lenni0451.commons.asm.info.impl.asm.ASMClassInfoProvider;
+import net.lenni0451.commons.asm.io.InfoClassWriter;
+import net.lenni0451.commons.asm.provider.DelegatingClassProvider;
+import net.lenni0451.commons.asm.provider.LoaderClassProvider;
+import net.lenni0451.commons.asm.provider.MapClassProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InfoClassWriterBenchmark {
+
+    private static final int CLASS_COUNT = 256;
+    private static final int PAIRS = 64;
+
+    private Map<String, byte[]> entries;
+    private String[][] pairs;
+    private ExposedClassWriter warmWriter;
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.entries = SyntheticInputs.createJarEntries(CLASS_COUNT);
+        this.pairs = new String[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            int base = i * SyntheticInputs.HIERARCHY_DEPTH % CLASS_COUNT;
+            switch (i % 3) {
+                case 0: //Same hierarchy, the deeper class extends the other one
+                    this.pairs[i] = new String[]{SyntheticInputs.className(base + 6), SyntheticInputs.className(base + 2)};
+                    break;
+                case 1: //Different hierarchies
+                    this.pairs[i] = new String[]{SyntheticInputs.className(base + 7), SyntheticInputs.className((base + SyntheticInputs.HIERARCHY_DEPTH + 5) % CLASS_COUNT)};
+                    break;
+                default: //Class and interface
+                    this.pairs[i] = new String[]{SyntheticInputs.className(base + 4), SyntheticInputs.interfaceName(i)};
+                    break;
+            }
+        }
+        this.warmWriter = this.createWriter();
+        for (String[] pair : this.pairs) this.warmWriter.commonSuperClass(pair[0], pair[1]);
+    }
+
+    private ExposedClassWriter createWriter() {
+        ClassInfoProvider classInfoProvider = new ASMClassInfoProvider(new DelegatingClassProvider(
+                new MapClassProvider(this.entries, MapClassProvider.NameFormat.SLASH_CLASS),
+                new LoaderClassProvider()
+        ));
+        return new ExposedClassWriter(classInfoProvider);
+    }
+
+    /**
+     * Resolve a common super class with all class infos already cached.
+     */
+    @Benchmark
+    public String getCommonSuperClassCached() {
+        String[] pair = this.pairs[this.index = (this.index + 1) % PAIRS];
+        return this.warmWriter.commonSuperClass(pair[0], pair[1]);
+    }
+
+    /**
+     * Resolve all pairs using a new class info provider, including parsing the classes.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void getCommonSuperClassUncached(final Blackhole blackhole) {
+        ExposedClassWriter writer = this.createWriter();
+        for (String[] pair : this.pairs) blackhole.consume(writer.commonSuperClass(pair[0], pair[1]));
+    }
+
+
+    private static class ExposedClassWriter extends InfoClassWriter {
+        private ExposedClassWriter(final ClassInfoProvider classInfoProvider) {
+            super(COMPUTE_FRAMES, classInfoProvider);
+        }
+
+        private String commonSuperClass(final String type1, final String type2) {
+            return this.getCommonSuperClass(type1, type2);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.mappings.Mappings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingsBenchmark {
+
+    private static final int CLASS_COUNT = 1024;
+    private static final int MASK = CLASS_COUNT - 1;
+
+    private Mappings mappings;
+    private String[] classNames;
+    private String[] fieldDescriptors;
+    private String[] methodDescriptors;
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.mappings = SyntheticInputs.createMappings(CLASS_COUNT);
+        this.classNames = new String[CLASS_COUNT];
+        this.fieldDescriptors = new String[CLASS_COUNT];
+        this.methodDescriptors = new String[CLASS_COUNT];
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            this.classNames[i] = SyntheticInputs.className(i);
+            this.fieldDescriptors[i] = SyntheticInputs.fieldDescriptor(i, i % SyntheticInputs.FIELDS, CLASS_COUNT);
+            this.methodDescriptors[i] = "(I" + this.fieldDescriptors[i] + ")" + this.fieldDescriptors[i];
+        }
+    }
+
+    private int next() {
+        return this.index = (this.index + 1) & MASK;
+    }
+
+    @Benchmark
+    public String mapClass() {
+        return this.mappings.map(this.classNames[this.next()]);
+    }
+
+    @Benchmark
+    public String mapMissingClass() {
+        return this.mappings.map("missing/" + this.classNames[this.next()]);
+    }
+
+    @Benchmark
+    public String mapFieldName() {
+        int i = this.next();
+        return this.mappings.mapFieldName(this.classNames[i], "field" + (i % SyntheticInputs.FIELDS), this.fieldDescriptors[i]);
+    }
+
+    @Benchmark
+    public String mapMethodName() {
+        int i = this.next();
+        return this.mappings.mapMethodName(this.classNames[i], "method" + (i % SyntheticInputs.METHODS), "(I)" + this.fieldDescriptors[i]);
+    }
+
+    @Benchmark
+    public String mapDesc() {
+        return this.mappings.mapDesc(this.fieldDescriptors[this.next()]);
+    }
+
+    @Benchmark
+    public String mapMethodDesc() {
+        return this.mappings.mapMethodDesc(this.methodDescriptors[this.next()]);
+    }
+
+}
@@ -0,0 +1,69 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.mappings.Mappings;
+import net.lenni0451.commons.asm.mappings.loader.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingsLoaderBenchmark {
+
+    @Benchmark
+    public Mappings load(final FormatState state) throws Throwable {
+        InputStream is = new ByteArrayInputStream(state.mappingsFile);
+        switch (state.format) {
+            case PROGUARD:
+                return new ProguardMappingsLoader(is).load();
+            case RETROGUARD:
+                return new RetroguardMappingsLoader(is).load();
+            case SRG:
+                return new SrgMappingsLoader(is).load();
+            case TINY_V1:
+                return new TinyV1MappingsLoader(is, "obf", "named").load();
+            case TINY_V2:
+                return new TinyV2MappingsLoader(is, "obf", "named").load();
+            default:
+                throw new IllegalStateException("Unknown format: " + state.format);
+        }
+    }
+
+    @Benchmark
+    public Mappings loadTinyV2Parallel(final TinyV2State state) throws Throwable {
+        return new TinyV2MappingsLoader(new ByteArrayInputStream(state.mappingsFile), "obf", "named").enableParallelParsing().load();
+    }
+
+
+    @State(Scope.Benchmark)
+    public static class FormatState {
+        @Param({"PROGUARD", "RETROGUARD", "SRG", "TINY_V1", "TINY_V2"})
+        private SyntheticInputs.MappingsFormat format;
+        @Param({"5000"})
+        private int classCount;
+        private byte[] mappingsFile;
+
+        @Setup
+        public void setup() {
+            this.mappingsFile = SyntheticInputs.createMappingsFile(this.format, this.classCount);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TinyV2State {
+        @Param({"5000"})
+        private int classCount;
+        private byte[] mappingsFile;
+
+        @Setup
+        public void setup() {
+            this.mappingsFile = SyntheticInputs.createMappingsFile(SyntheticInputs.MappingsFormat.TINY_V2, this.classCount);
+        }
+    }
+
+}
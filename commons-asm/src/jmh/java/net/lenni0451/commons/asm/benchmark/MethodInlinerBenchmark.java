@@ -0,0 +1,38 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.Cloner;
+import net.lenni0451.commons.asm.MethodInliner;
+import org.openjdk.jmh.annotations.*;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInlinerBenchmark {
+
+    private ClassNode template;
+    private ClassNode classNode;
+
+    @Setup(Level.Trial)
+    public void setupTemplate() {
+        this.template = SyntheticInputs.createClass(1, 16);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupClass() {
+        //Inlining modifies the class, so every invocation needs a fresh copy
+        this.classNode = Cloner.clone(this.template);
+    }
+
+    @Benchmark
+    public ClassNode wrappedInline() {
+        MethodInliner.wrappedInline(this.classNode, "helper", "(II)I");
+        return this.classNode;
+    }
+
+}
@@ -0,0 +1,34 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.mappings.Mappings;
+import net.lenni0451.commons.asm.mappings.Remapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemapperBenchmark {
+
+    @Param({"100", "1000"})
+    private int classCount;
+    private Map<String, byte[]> entries;
+    private Mappings mappings;
+
+    @Setup
+    public void setup() {
+        this.entries = SyntheticInputs.createJarEntries(this.classCount);
+        this.mappings = SyntheticInputs.createMappings(this.classCount);
+    }
+
+    @Benchmark
+    public Map<String, byte[]> remapJarEntries() {
+        return Remapper.remapJarEntries(this.entries, this.mappings);
+    }
+
+}
@@ -0,0 +1,244 @@
+package net.lenni0451.commons.asm.benchmark;
+
+import net.lenni0451.commons.asm.ASMUtils;
+import net.lenni0451.commons.asm.io.ClassIO;
+import net.lenni0451.commons.asm.mappings.Mappings;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static net.lenni0451.commons.asm.ASMUtils.dot;
+
+/**
+ * Generates the inputs for the benchmarks locally.<br>
+ * All classes are in the {@code bench/} package and form inheritance chains of {@link #HIERARCHY_DEPTH} classes.
+ * Every class implements one of {@link #INTERFACES} interfaces and references other classes in its fields and methods.
+ */
+public class SyntheticInputs {
+
+    public static final int HIERARCHY_DEPTH = 8;
+    public static final int INTERFACES = 16;
+    public static final int FIELDS = 8;
+    public static final int METHODS = 8;
+
+    public static String className(final int index) {
+        return "bench/p" + (index % 10) + "/Class" + index;
+    }
+
+    public static String interfaceName(final int index) {
+        return "bench/api/Interface" + (index % INTERFACES);
+    }
+
+    public static String superName(final int index) {
+        if (index % HIERARCHY_DEPTH == 0) return "java/lang/Object";
+        return className(index - 1);
+    }
+
+    /**
+     * Generate a class with fields, methods and a static helper method which is called in a loop by the {@code compute} method.
+     *
+     * @param index      The index of the class
+     * @param classCount The total amount of classes
+     * @return The generated class node
+     */
+    public static ClassNode createClass(final int index, final int classCount) {
+        String name = className(index);
+        ClassNode classNode = ASMUtils.createEmptyClass(name);
+        classNode.superName = superName(index);
+        classNode.interfaces.add(interfaceName(index));
+        ((MethodInsnNode) classNode.methods.get(0).instructions.get(1)).owner = classNode.superName;
+
+        for (int i = 0; i < FIELDS; i++) {
+            classNode.fields.add(new FieldNode(Opcodes.ACC_PRIVATE, "field" + i, "L" + className((index + i + 1) % classCount) + ";", null, null));
+        }
+        for (int i = 0; i < METHODS; i++) {
+            String type = "L" + className((index + i + 1) % classCount) + ";";
+            MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "method" + i, "(I)" + type, null, null);
+            LabelNode recurse = new LabelNode();
+            method.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            method.instructions.add(new JumpInsnNode(Opcodes.IFEQ, recurse));
+            method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            method.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, name, "field" + (i % FIELDS), type));
+            method.instructions.add(new InsnNode(Opcodes.ARETURN));
+            method.instructions.add(recurse);
+            method.instructions.add(new LdcInsnNode(dot(name)));
+            method.instructions.add(new InsnNode(Opcodes.POP));
+            method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            method.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            method.instructions.add(new InsnNode(Opcodes.ICONST_1));
+            method.instructions.add(new InsnNode(Opcodes.ISUB));
+            method.instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, name, method.name, method.desc, false));
+            method.instructions.add(new InsnNode(Opcodes.ARETURN));
+            classNode.methods.add(method);
+        }
+
+        MethodNode helper = new MethodNode(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, "helper", "(II)I", null, null);
+        helper.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        helper.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+        helper.instructions.add(new InsnNode(Opcodes.IADD));
+        helper.instructions.add(new InsnNode(Opcodes.IRETURN));
+        classNode.methods.add(helper);
+
+        MethodNode compute = new MethodNode(Opcodes.ACC_PUBLIC, "compute", "(I)I", null, null);
+        LabelNode loop = new LabelNode();
+        LabelNode end = new LabelNode();
+        compute.instructions.add(new InsnNode(Opcodes.ICONST_0));
+        compute.instructions.add(new VarInsnNode(Opcodes.ISTORE, 2));
+        compute.instructions.add(loop);
+        compute.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+        compute.instructions.add(new JumpInsnNode(Opcodes.IFLE, end));
+        for (int i = 0; i < 4; i++) {
+            compute.instructions.add(new VarInsnNode(Opcodes.ILOAD, 2));
+            compute.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            compute.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, name, "helper", "(II)I", false));
+            compute.instructions.add(new VarInsnNode(Opcodes.ISTORE, 2));
+        }
+        compute.instructions.add(new IincInsnNode(1, -1));
+        compute.instructions.add(new JumpInsnNode(Opcodes.GOTO, loop));
+        compute.instructions.add(end);
+        compute.instructions.add(new VarInsnNode(Opcodes.ILOAD, 2));
+        compute.instructions.add(new InsnNode(Opcodes.IRETURN));
+        classNode.methods.add(compute);
+        return classNode;
+    }
+
+    public static ClassNode createInterface(final int index) {
+        ClassNode classNode = new ClassNode();
+        classNode.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT, interfaceName(index), null, "java/lang/Object", null);
+        return classNode;
+    }
+
+    /**
+     * Generate the entries of a jar file containing all classes, interfaces and a few resources.
+     *
+     * @param classCount The amount of classes to generate
+     * @return The jar entries
+     */
+    public static Map<String, byte[]> createJarEntries(final int classCount) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < INTERFACES; i++) entries.put(interfaceName(i) + ".class", ClassIO.toStacklessBytes(createInterface(i)));
+        for (int i = 0; i < classCount; i++) entries.put(className(i) + ".class", ClassIO.toStacklessBytes(createClass(i, classCount)));
+        for (int i = 0; i < classCount / 10; i++) entries.put("assets/resource" + i + ".txt", ("resource " + i).getBytes(StandardCharsets.UTF_8));
+        return entries;
+    }
+
+    public static String mappedClassName(final int index) {
+        return "a/" + Integer.toString(index, 36);
+    }
+
+    public static String mappedInterfaceName(final int index) {
+        return "b/" + Integer.toString(index % INTERFACES, 36);
+    }
+
+    /**
+     * Create mappings for all classes, fields and methods generated by {@link #createClass(int, int)}.
+     *
+     * @param classCount The amount of classes
+     * @return The mappings
+     */
+    public static Mappings createMappings(final int classCount) {
+        Mappings mappings = new Mappings();
+        for (int i = 0; i < INTERFACES; i++) mappings.addClassMapping(interfaceName(i), mappedInterfaceName(i));
+        for (int i = 0; i < classCount; i++) {
+            String name = className(i);
+            mappings.addClassMapping(name, mappedClassName(i));
+            for (int j = 0; j < FIELDS; j++) {
+                mappings.addFieldMapping(name, "field" + j, fieldDescriptor(i, j, classCount), "f" + j);
+            }
+            for (int j = 0; j < METHODS; j++) {
+                mappings.addMethodMapping(name, "method" + j, "(I)" + fieldDescriptor(i, j, classCount), "m" + j);
+            }
+            mappings.addMethodMapping(name, "compute", "(I)I", "c");
+        }
+        return mappings;
+    }
+
+    public static String fieldDescriptor(final int classIndex, final int fieldIndex, final int classCount) {
+        return "L" + className((classIndex + fieldIndex + 1) % classCount) + ";";
+    }
+
+    /**
+     * Write the mappings generated by {@link #createMappings(int)} in the given format.
+     *
+     * @param format     The format of the mappings
+     * @param classCount The amount of classes
+     * @return The mappings file content
+     */
+    public static byte[] createMappingsFile(final MappingsFormat format, final int classCount) {
+        StringBuilder out = new StringBuilder();
+        if (format == MappingsFormat.TINY_V1) out.append("v1\tobf\tnamed\n");
+        else if (format == MappingsFormat.TINY_V2) out.append("tiny\t2\t0\tobf\tnamed\n");
+        for (int i = 0; i < classCount; i++) {
+            String name = className(i);
+            String newName = mappedClassName(i);
+            switch (format) {
+                case PROGUARD:
+                    out.append(dot(name)).append(" -> ").append(dot(newName)).append(":\n");
+                    break;
+                case RETROGUARD:
+                    out.append(".class_map ").append(name).append(' ').append(newName).append('\n');
+                    break;
+                case SRG:
+                    out.append("CL: ").append(name).append(' ').append(newName).append('\n');
+                    break;
+                case TINY_V1:
+                    out.append("CLASS\t").append(name).append('\t').append(newName).append('\n');
+                    break;
+                case TINY_V2:
+                    out.append("c\t").append(name).append('\t').append(newName).append('\n');
+                    break;
+            }
+            for (int j = 0; j < FIELDS; j++) {
+                String desc = fieldDescriptor(i, j, classCount);
+                switch (format) {
+                    case PROGUARD:
+                        out.append("    ").append(dot(desc.substring(1, desc.length() - 1))).append(" field").append(j).append(" -> f").append(j).append('\n');
+                        break;
+                    case RETROGUARD:
+                        out.append(".field_map ").append(name).append("/field").append(j).append(" f").append(j).append('\n');
+                        break;
+                    case SRG:
+                        out.append("FD: ").append(name).append("/field").append(j).append(' ').append(newName).append("/f").append(j).append('\n');
+                        break;
+                    case TINY_V1:
+                        out.append("FIELD\t").append(name).append('\t').append(desc).append("\tfield").append(j).append("\tf").append(j).append('\n');
+                        break;
+                    case TINY_V2:
+                        out.append("\tf\t").append(desc).append("\tfield").append(j).append("\tf").append(j).append('\n');
+                        break;
+                }
+            }
+            for (int j = 0; j < METHODS; j++) {
+                String returnType = fieldDescriptor(i, j, classCount);
+                String desc = "(I)" + returnType;
+                switch (format) {
+                    case PROGUARD:
+                        out.append("    ").append(dot(returnType.substring(1, returnType.length() - 1))).append(" method").append(j).append("(int) -> m").append(j).append('\n');
+                        break;
+                    case RETROGUARD:
+                        out.append(".method_map ").append(name).append("/method").append(j).append(' ').append(desc).append(" m").append(j).append('\n');
+                        break;
+                    case SRG:
+                        out.append("MD: ").append(name).append("/method").append(j).append(' ').append(desc).append(' ').append(newName).append("/m").append(j).append('\n');
+                        break;
+                    case TINY_V1:
+                        out.append("METHOD\t").append(name).append('\t').append(desc).append("\tmethod").append(j).append("\tm").append(j).append('\n');
+                        break;
+                    case TINY_V2:
+                        out.append("\tm\t").append(desc).append("\tmethod").append(j).append("\tm").append(j).append('\n');
+                        break;
+                }
+            }
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    public enum MappingsFormat {
+        PROGUARD, RETROGUARD, SRG, TINY_V1, TINY_V2
+    }
+
+}
@@ -37,7 +37,8 @@ public class ASMUtils {
 
     /**
      * Get a field from a class node.<br>
-     * The field is searched by its name and descriptor.
+     * The field is searched by its name and descriptor.<br>
+     * If the class node has a {@link MemberIndex}, it is used for the lookup.
      *
      * @param classNode The class node to search in
      * @param name      The name of the field
@@ -45,6 +46,8 @@ public class ASMUtils {
      * @return The field node or null if no field was found
      */
     public static FieldNode getField(final ClassNode classNode, final String name, @Nullable final String desc) {
+        MemberIndex index = MemberIndex.get(classNode);
+        if (index != null) return index.getField(name, desc);
         for (FieldNode fieldNode : classNode.fields) {
             if (fieldNode.name.equals(name) && (desc == null || fieldNode.desc.equals(desc))) {
                 return fieldNode;
@@ -55,7 +58,8 @@ public class ASMUtils {
 
     /**
      * Get a method from a class node.<br>
-     * The method is searched by its name and descriptor.
+     * The method is searched by its name and descriptor.<br>
+     * If the class node has a {@link MemberIndex}, it is used for the lookup.
      *
      * @param classNode The class node to search in
      * @param name      The name of the method
@@ -63,6 +67,8 @@ public class ASMUtils {
      * @return The method node or null if no method was found
      */
     public static MethodNode getMethod(final ClassNode classNode, final String name, final String desc) {
+        MemberIndex index = MemberIndex.get(classNode);
+        if (index != null) return index.getMethod(name, desc);
         for (MethodNode methodNode : classNode.methods) {
             if (methodNode.name.equals(name) && methodNode.desc.equals(desc)) {
                 return methodNode;
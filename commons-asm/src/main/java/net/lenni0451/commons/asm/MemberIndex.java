@@ -0,0 +1,290 @@
+package net.lenni0451.commons.asm;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A hash based index for the fields and methods of a {@link ClassNode}.<br>
+ * The index replaces the field and method lists of the class node with lists that invalidate the index when they are modified.
+ * Because of this the index is bound to the lifetime of the class node and does not need to be removed manually.<br>
+ * Renaming a member or changing its descriptor is not detected, {@link #invalidate()} has to be called afterwards.
+ * Until then the member is not found by its new name, lookups of the old name don't return it anymore.<br>
+ * <br>
+ * {@link ASMUtils#getField(ClassNode, String, String)} and {@link ASMUtils#getMethod(ClassNode, String, String)} automatically use the index if it is available.
+ */
+public class MemberIndex {
+
+    /**
+     * Get the member index of the given class node or create a new one if none exists.
+     *
+     * @param classNode The class node
+     * @return The member index
+     */
+    public static MemberIndex of(final ClassNode classNode) {
+        MemberIndex index = get(classNode);
+        if (index != null) return index;
+
+        index = new MemberIndex();
+        classNode.fields = new IndexedList<>(classNode.fields, index);
+        classNode.methods = new IndexedList<>(classNode.methods, index);
+        index.fields = classNode.fields;
+        index.methods = classNode.methods;
+        return index;
+    }
+
+    /**
+     * Get the member index of the given class node.
+     *
+     * @param classNode The class node
+     * @return The member index or null if the class node is not indexed
+     */
+    @Nullable
+    public static MemberIndex get(final ClassNode classNode) {
+        if (!(classNode.fields instanceof IndexedList) || !(classNode.methods instanceof IndexedList)) return null;
+        MemberIndex index = ((IndexedList<?>) classNode.fields).memberIndex;
+        if (index != ((IndexedList<?>) classNode.methods).memberIndex) return null;
+        return index;
+    }
+
+
+    private final Map<String, FieldNode> fieldsByName = new HashMap<>();
+    private final Map<String, FieldNode> fieldsByNameAndDesc = new HashMap<>();
+    private final Map<String, MethodNode> methodsByNameAndDesc = new HashMap<>();
+    private List<FieldNode> fields;
+    private List<MethodNode> methods;
+    private boolean dirty = true;
+
+    private MemberIndex() {
+    }
+
+    /**
+     * Get a field by its name and descriptor.<br>
+     * If multiple fields match, the first one in the field list is returned.
+     *
+     * @param name The name of the field
+     * @param desc The descriptor of the field (null for any descriptor)
+     * @return The field node or null if no field was found
+     */
+    @Nullable
+    public FieldNode getField(final String name, @Nullable final String desc) {
+        this.ensureIndexed();
+        FieldNode fieldNode = this.findField(name, desc);
+        if (fieldNode == null || !matches(fieldNode, name, desc)) return null; //The indexed field has been renamed
+        return fieldNode;
+    }
+
+    /**
+     * Get a method by its name and descriptor.<br>
+     * If multiple methods match, the first one in the method list is returned.
+     *
+     * @param name The name of the method
+     * @param desc The descriptor of the method
+     * @return The method node or null if no method was found
+     */
+    @Nullable
+    public MethodNode getMethod(final String name, final String desc) {
+        this.ensureIndexed();
+        MethodNode methodNode = this.methodsByNameAndDesc.get(name + desc);
+        if (methodNode == null || !methodNode.name.equals(name) || !methodNode.desc.equals(desc)) return null; //The indexed method has been renamed
+        return methodNode;
+    }
+
+    /**
+     * Invalidate the index.<br>
+     * It will be rebuilt on the next lookup.
+     * This has to be called after a member has been renamed or its descriptor has been changed.
+     */
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    private static boolean matches(final FieldNode fieldNode, final String name, @Nullable final String desc) {
+        return fieldNode.name.equals(name) && (desc == null || fieldNode.desc.equals(desc));
+    }
+
+    private FieldNode findField(final String name, @Nullable final String desc) {
+        if (desc == null) return this.fieldsByName.get(name);
+        else return this.fieldsByNameAndDesc.get(name + ":" + desc);
+    }
+
+    private void ensureIndexed() {
+        if (!this.dirty) return;
+        this.fieldsByName.clear();
+        this.fieldsByNameAndDesc.clear();
+        this.methodsByNameAndDesc.clear();
+        for (FieldNode fieldNode : this.fields) {
+            this.fieldsByName.putIfAbsent(fieldNode.name, fieldNode);
+            this.fieldsByNameAndDesc.putIfAbsent(fieldNode.name + ":" + fieldNode.desc, fieldNode);
+        }
+        for (MethodNode methodNode : this.methods) {
+            this.methodsByNameAndDesc.putIfAbsent(methodNode.name + methodNode.desc, methodNode);
+        }
+        this.dirty = false;
+    }
+
+
+    /**
+     * A list which invalidates the owning index when it is structurally modified or elements are replaced.
+     *
+     * @param <T> The type of the elements
+     */
+    private static class IndexedList<T> extends ArrayList<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MemberIndex memberIndex;
+
+        private IndexedList(final Collection<? extends T> elements, final MemberIndex memberIndex) {
+            super(elements);
+            this.memberIndex = memberIndex;
+        }
+
+        @Override
+        public T set(int index, T element) {
+            this.memberIndex.invalidate();
+            return super.set(index, element);
+        }
+
+        @Override
+        public boolean add(T t) {
+            this.memberIndex.invalidate();
+            return super.add(t);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            this.memberIndex.invalidate();
+            super.add(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            this.memberIndex.invalidate();
+            return super.remove(index);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            this.memberIndex.invalidate();
+            return super.remove(o);
+        }
+
+        @Override
+        public void clear() {
+            this.memberIndex.invalidate();
+            super.clear();
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends T> c) {
+            this.memberIndex.invalidate();
+            return super.addAll(c);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends T> c) {
+            this.memberIndex.invalidate();
+            return super.addAll(index, c);
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            this.memberIndex.invalidate();
+            super.removeRange(fromIndex, toIndex);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            this.memberIndex.invalidate();
+            return super.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            this.memberIndex.invalidate();
+            return super.retainAll(c);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super T> filter) {
+            this.memberIndex.invalidate();
+            return super.removeIf(filter);
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<T> operator) {
+            this.memberIndex.invalidate();
+            super.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(Comparator<? super T> c) {
+            this.memberIndex.invalidate();
+            super.sort(c);
+        }
+
+        @Override
+        public List<T> subList(int fromIndex, int toIndex) {
+            //Sub lists modify the backing array directly, so all writes have to be intercepted
+            return new IndexedSubList<>(super.subList(fromIndex, toIndex), this.memberIndex);
+        }
+    }
+
+    /**
+     * A view of an {@link IndexedList} which invalidates the owning index when it is modified.<br>
+     * All other modifying methods of {@link AbstractList} are implemented using the overridden methods.
+     *
+     * @param <T> The type of the elements
+     */
+    private static class IndexedSubList<T> extends AbstractList<T> {
+        private final List<T> delegate;
+        private final MemberIndex memberIndex;
+
+        private IndexedSubList(final List<T> delegate, final MemberIndex memberIndex) {
+            this.delegate = delegate;
+            this.memberIndex = memberIndex;
+        }
+
+        @Override
+        public T get(int index) {
+            return this.delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.delegate.size();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            this.memberIndex.invalidate();
+            return this.delegate.set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            this.memberIndex.invalidate();
+            this.delegate.add(index, element);
+            this.modCount++;
+        }
+
+        @Override
+        public T remove(int index) {
+            this.memberIndex.invalidate();
+            T element = this.delegate.remove(index);
+            this.modCount++;
+            return element;
+        }
+
+        @Override
+        public List<T> subList(int fromIndex, int toIndex) {
+            return new IndexedSubList<>(this.delegate.subList(fromIndex, toIndex), this.memberIndex);
+        }
+    }
+
+}
@@ -41,6 +41,22 @@ public class MethodInliner {
         classNode.methods.remove(inlinedMethod);
     }
 
+    /**
+     * Inline a method of a class into all other methods of the same class.<br>
+     * The method is looked up using {@link ASMUtils#getMethod(ClassNode, String, String)} which uses the {@link MemberIndex} of the class if available.
+     *
+     * @param classNode The class with the methods to inline into
+     * @param name      The name of the method to inline
+     * @param desc      The descriptor of the method to inline
+     * @throws IllegalArgumentException If the method does not exist in the class
+     * @see #wrappedInline(ClassNode, MethodNode, String)
+     */
+    public static void wrappedInline(final ClassNode classNode, final String name, final String desc) {
+        MethodNode inlinedMethod = ASMUtils.getMethod(classNode, name, desc);
+        if (inlinedMethod == null) throw new IllegalArgumentException("Method " + name + desc + " not found in class " + classNode.name);
+        wrappedInline(classNode, inlinedMethod, classNode.name);
+    }
+
     private static AbstractInsnNode[] instructionCalling(final MethodNode method, final int callOpcode, final String owner, final String name, final String desc) {
         List<AbstractInsnNode> insns = new ArrayList<>();
         for (AbstractInsnNode instruction : method.instructions) {
@@ -2,6 +2,7 @@ package net.lenni0451.commons.asm.info;
 
 import net.lenni0451.commons.asm.info.impl.asm.ASMClassInfoProvider;
 import net.lenni0451.commons.asm.info.impl.jvm.JVMClassInfoProvider;
+import net.lenni0451.commons.asm.info.impl.jvm.JVMResourceClassInfoProvider;
 import net.lenni0451.commons.asm.provider.ClassProvider;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.ClassNode;
@@ -16,6 +17,10 @@ public interface ClassInfoProvider {
         return new JVMClassInfoProvider(classLoader);
     }
 
+    static JVMResourceClassInfoProvider createNonLoading(final ClassLoader classLoader) {
+        return new JVMResourceClassInfoProvider(classLoader);
+    }
+
     static ASMClassInfoProvider create(final ClassProvider classProvider) {
         return new ASMClassInfoProvider(classProvider);
     }
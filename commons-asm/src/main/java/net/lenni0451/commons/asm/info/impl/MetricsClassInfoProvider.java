@@ -0,0 +1,208 @@
+package net.lenni0451.commons.asm.info.impl;
+
+import net.lenni0451.commons.asm.info.ClassInfo;
+import net.lenni0451.commons.asm.info.ClassInfoProvider;
+import net.lenni0451.commons.asm.info.FieldInfo;
+import net.lenni0451.commons.asm.info.MethodInfo;
+import net.lenni0451.commons.asm.info.impl.asm.ASMClassInfoProvider;
+import net.lenni0451.commons.asm.metrics.LookupMetrics;
+import net.lenni0451.commons.asm.provider.ClassProvider;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A class info provider that records {@link LookupMetrics} for a delegate class info provider.<br>
+ * Lookups which throw an exception are counted as not found.<br>
+ * The returned class infos resolve their super classes and interfaces through this provider, so the lookups done by
+ * {@link org.objectweb.asm.ClassWriter#getCommonSuperClass(String, String)} are recorded as well.<br>
+ * The bytes read are only known if the provider is created from a {@link ClassProvider} using {@link #create(String, ClassProvider)}.
+ */
+public class MetricsClassInfoProvider implements ClassInfoProvider {
+
+    /**
+     * Create a class info provider which reads the classes from the given class provider.<br>
+     * The bytes of all classes which are read from the class provider are recorded.
+     *
+     * @param name          The name of the metrics
+     * @param classProvider The class provider to read the classes from
+     * @return The class info provider
+     */
+    public static MetricsClassInfoProvider create(final String name, final ClassProvider classProvider) {
+        LookupMetrics metrics = new LookupMetrics(name);
+        return new MetricsClassInfoProvider(new ASMClassInfoProvider(new ByteCountingClassProvider(classProvider, metrics)), metrics);
+    }
+
+
+    private final ClassInfoProvider delegate;
+    private final LookupMetrics metrics;
+    private final Map<String, MetricsClassInfo> classInfos = new ConcurrentHashMap<>();
+
+    public MetricsClassInfoProvider(final String name, final ClassInfoProvider delegate) {
+        this(delegate, new LookupMetrics(name));
+    }
+
+    public MetricsClassInfoProvider(final ClassInfoProvider delegate, final LookupMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public ClassInfoProvider getDelegate() {
+        return this.delegate;
+    }
+
+    public LookupMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Nonnull
+    @Override
+    public ClassInfo of(String className) {
+        return this.record(() -> this.delegate.of(className));
+    }
+
+    @Nonnull
+    @Override
+    public ClassInfo of(Type type) {
+        return this.record(() -> this.delegate.of(type));
+    }
+
+    @Nonnull
+    @Override
+    public ClassInfo of(Class<?> clazz) {
+        return this.record(() -> this.delegate.of(clazz));
+    }
+
+    @Nonnull
+    @Override
+    public ClassInfo of(ClassNode classNode) {
+        return this.record(() -> this.delegate.of(classNode));
+    }
+
+    private ClassInfo record(final Supplier<ClassInfo> lookup) {
+        long start = System.nanoTime();
+        ClassInfo classInfo;
+        try {
+            classInfo = lookup.get();
+        } catch (Throwable t) {
+            this.metrics.record(start, false, 0);
+            throw t;
+        }
+        this.metrics.record(start, true, 0);
+        return this.wrap(classInfo);
+    }
+
+    private ClassInfo wrap(final ClassInfo classInfo) {
+        //The same wrapper has to be returned for the same class info, the common super class calculation compares them
+        MetricsClassInfo wrapper = this.classInfos.get(classInfo.getName());
+        if (wrapper != null && wrapper.delegate == classInfo) return wrapper;
+        return this.classInfos.compute(classInfo.getName(), (name, existing) -> {
+            if (existing != null && existing.delegate == classInfo) return existing;
+            return new MetricsClassInfo(classInfo);
+        });
+    }
+
+
+    /**
+     * A class info which resolves its super classes and interfaces through the metrics provider.
+     */
+    private class MetricsClassInfo implements ClassInfo {
+        private final ClassInfo delegate;
+        private volatile ClassInfo superClassInfo;
+        private volatile ClassInfo[] interfaceInfos;
+        private volatile Set<ClassInfo> recursiveSuperClasses;
+
+        private MetricsClassInfo(final ClassInfo delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int getModifiers() {
+            return this.delegate.getModifiers();
+        }
+
+        @Override
+        public String getName() {
+            return this.delegate.getName();
+        }
+
+        @Nullable
+        @Override
+        public String getSuperClass() {
+            return this.delegate.getSuperClass();
+        }
+
+        @Override
+        public ClassInfo getSuperClassInfo() {
+            if (this.superClassInfo == null && this.getSuperClass() != null) {
+                this.superClassInfo = ClassInfoResolver.resolveSuperClass(MetricsClassInfoProvider.this, this);
+            }
+            return this.superClassInfo;
+        }
+
+        @Override
+        public String[] getInterfaces() {
+            return this.delegate.getInterfaces();
+        }
+
+        @Override
+        public ClassInfo[] getInterfaceInfos() {
+            if (this.interfaceInfos == null) this.interfaceInfos = ClassInfoResolver.resolveInterfaces(MetricsClassInfoProvider.this, this);
+            return this.interfaceInfos;
+        }
+
+        @Override
+        public Set<ClassInfo> getRecursiveSuperClasses() {
+            if (this.recursiveSuperClasses == null) this.recursiveSuperClasses = ClassInfoResolver.recursiveResolveSuperClasses(this, false);
+            return this.recursiveSuperClasses;
+        }
+
+        @Override
+        public FieldInfo[] getFields() {
+            return this.delegate.getFields();
+        }
+
+        @Override
+        public MethodInfo[] getMethods() {
+            return this.delegate.getMethods();
+        }
+
+        @Override
+        public String toString() {
+            return this.delegate.toString();
+        }
+    }
+
+    /**
+     * A class provider which records the bytes of all read classes.
+     */
+    private static class ByteCountingClassProvider implements ClassProvider {
+        private final ClassProvider delegate;
+        private final LookupMetrics metrics;
+
+        private ByteCountingClassProvider(final ClassProvider delegate, final LookupMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Nonnull
+        @Override
+        public byte[] getClass(String name) throws ClassNotFoundException {
+            byte[] bytecode = this.delegate.getClass(name);
+            this.metrics.recordBytes(bytecode.length);
+            return bytecode;
+        }
+
+        @Override
+        public void close() throws Exception {
+            this.delegate.close();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package net.lenni0451.commons.asm.info.impl.jvm;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import net.lenni0451.commons.asm.info.ClassInfo;
+import net.lenni0451.commons.asm.info.ClassInfoProvider;
+import net.lenni0451.commons.asm.info.FieldInfo;
+import net.lenni0451.commons.asm.info.MethodInfo;
+import net.lenni0451.commons.asm.info.impl.ClassInfoResolver;
+import net.lenni0451.commons.asm.info.impl.asm.ASMFieldInfo;
+import net.lenni0451.commons.asm.info.impl.asm.ASMMethodInfo;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A class info which is read from the class file header without loading the class.<br>
+ * The fields and methods are only parsed when they are requested. Method code is never parsed.
+ */
+public class JVMResourceClassInfo implements ClassInfo {
+
+    private final ClassInfoProvider classInfoProvider;
+    private final ClassReader classReader;
+    private final int modifiers;
+    private final String name;
+    private final String superClass;
+    private final String[] interfaces;
+
+    @Getter(lazy = true)
+    private final ClassInfo superClassInfo = ClassInfoResolver.resolveSuperClass(this.classInfoProvider, this);
+    @Getter(lazy = true)
+    private final ClassInfo[] interfaceInfos = ClassInfoResolver.resolveInterfaces(this.classInfoProvider, this);
+    @Getter(lazy = true)
+    private final Set<ClassInfo> recursiveSuperClasses = ClassInfoResolver.recursiveResolveSuperClasses(this, false);
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final Members members = this.resolveMembers();
+
+    public JVMResourceClassInfo(final ClassInfoProvider classInfoProvider, final byte[] bytecode) {
+        this.classInfoProvider = classInfoProvider;
+        this.classReader = new ClassReader(bytecode);
+        this.modifiers = this.classReader.getAccess();
+        this.name = this.classReader.getClassName();
+        this.superClass = this.classReader.getSuperName();
+        this.interfaces = this.classReader.getInterfaces();
+    }
+
+    @Override
+    public int getModifiers() {
+        return this.modifiers;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String getSuperClass() {
+        return this.superClass;
+    }
+
+    @Override
+    public String[] getInterfaces() {
+        return this.interfaces.clone();
+    }
+
+    @Override
+    public FieldInfo[] getFields() {
+        return this.getMembers().fields;
+    }
+
+    @Override
+    public MethodInfo[] getMethods() {
+        return this.getMembers().methods;
+    }
+
+
+    private Members resolveMembers() {
+        List<FieldInfo> fields = new ArrayList<>();
+        List<MethodInfo> methods = new ArrayList<>();
+        this.classReader.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                fields.add(new ASMFieldInfo(new FieldNode(access, name, descriptor, signature, value)));
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                methods.add(new ASMMethodInfo(new MethodNode(access, name, descriptor, signature, exceptions)));
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new Members(fields.toArray(new FieldInfo[0]), methods.toArray(new MethodInfo[0]));
+    }
+
+
+    private static class Members {
+        private final FieldInfo[] fields;
+        private final MethodInfo[] methods;
+
+        private Members(final FieldInfo[] fields, final MethodInfo[] methods) {
+            this.fields = fields;
+            this.methods = methods;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package net.lenni0451.commons.asm.info.impl.jvm;
+
+import lombok.SneakyThrows;
+import net.lenni0451.commons.asm.info.ClassInfo;
+import net.lenni0451.commons.asm.info.ClassInfoProvider;
+import net.lenni0451.commons.asm.provider.LoaderClassProvider;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.lenni0451.commons.asm.ASMUtils.dot;
+import static net.lenni0451.commons.asm.ASMUtils.slash;
+
+/**
+ * A class info provider which never triggers class loading.<br>
+ * The class info is read from the {@code .class} resources of the class loader and only the class header is parsed.<br>
+ * If a class is not available as a resource (e.g. because it was defined at runtime), the already loaded {@link Class} is used if the JVM allows looking it up.<br>
+ * Unlike the {@link JVMClassInfoProvider} no class loader locks are held and no class initializers are run.
+ * This makes it safe to use during frame computation in class transformers.
+ */
+public class JVMResourceClassInfoProvider implements ClassInfoProvider {
+
+    @Nullable
+    private static final MethodHandle FIND_LOADED_CLASS = findLoadedClassHandle();
+
+    @Nullable
+    private static MethodHandle findLoadedClassHandle() {
+        try {
+            Method findLoadedClass = ClassLoader.class.getDeclaredMethod("findLoadedClass", String.class);
+            findLoadedClass.setAccessible(true);
+            return MethodHandles.lookup().unreflect(findLoadedClass);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+
+    private final ClassLoader classLoader;
+    private final LoaderClassProvider classProvider;
+    private final Map<String, ClassInfo> classInfoCache;
+
+    public JVMResourceClassInfoProvider() {
+        this(JVMResourceClassInfoProvider.class.getClassLoader());
+    }
+
+    public JVMResourceClassInfoProvider(final ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.classProvider = new LoaderClassProvider(classLoader);
+        this.classInfoCache = new ConcurrentHashMap<>();
+    }
+
+    @Nonnull
+    @Override
+    @SneakyThrows
+    public ClassInfo of(String className) {
+        className = slash(className);
+        ClassInfo classInfo = this.classInfoCache.get(className);
+        if (classInfo != null) return classInfo;
+
+        //The class info is created outside the map to avoid holding locks while reading the class
+        try {
+            classInfo = new JVMResourceClassInfo(this, this.classProvider.getClass(className));
+        } catch (ClassNotFoundException e) {
+            Class<?> loadedClass = this.findLoadedClass(dot(className));
+            if (loadedClass == null) throw e;
+            classInfo = new JVMClassInfo(this, loadedClass);
+        }
+        ClassInfo existing = this.classInfoCache.putIfAbsent(className, classInfo);
+        return existing == null ? classInfo : existing;
+    }
+
+    @Nonnull
+    @Override
+    public ClassInfo of(Class<?> clazz) {
+        //The class is already loaded, so there is no need to read the class file
+        return this.classInfoCache.computeIfAbsent(slash(clazz.getName()), name -> new JVMClassInfo(this, clazz));
+    }
+
+    @Nullable
+    private Class<?> findLoadedClass(final String className) {
+        if (FIND_LOADED_CLASS == null) return null;
+        ClassLoader loader = this.classLoader;
+        while (loader != null) {
+            try {
+                Class<?> clazz = (Class<?>) FIND_LOADED_CLASS.invoke(loader, className);
+                if (clazz != null) return clazz;
+            } catch (Throwable ignored) {
+            }
+            loader = loader.getParent();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,91 @@
+package net.lenni0451.commons.asm.mappings;
+
+import lombok.experimental.UtilityClass;
+import net.lenni0451.commons.asm.info.MemberDeclaration;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+@UtilityClass
+class Composer {
+
+    public static Mappings compose(final Mappings first, final Mappings second) {
+        Mappings composed = first.emptyCopy();
+        Mappings firstReverse = Reverser.init(first);
+        composeClasses(first, firstReverse, second, composed);
+        composeFields(first, firstReverse, second, composed);
+        composeMethods(first, firstReverse, second, composed);
+        return composed;
+    }
+
+    private static void composeClasses(final Mappings first, final Mappings firstReverse, final Mappings second, final Mappings composed) {
+        for (String from : first.classMappings.keySet()) {
+            composed.classMappings.put(from, second.map(first.map(from)));
+        }
+        for (String intermediate : second.classMappings.keySet()) {
+            String from = firstReverse.map(intermediate);
+            if (composed.classMappings.containsKey(from) || first.classMappings.containsKey(from)) continue;
+            composed.classMappings.put(from, second.map(intermediate));
+        }
+        if (first.packageMappings.isEmpty() && second.packageMappings.isEmpty()) return;
+        //Package mappings are applied after the class mappings, so they can't be chained directly
+        //Instead all member owners are resolved into explicit class mappings
+        for (String from : first.fieldMappings.keySet()) {
+            resolveClass(first, second, composed, MemberDeclaration.fromFieldMapping(from).getOwner());
+        }
+        for (String from : first.methodMappings.keySet()) {
+            resolveClass(first, second, composed, MemberDeclaration.fromMethodMapping(from).getOwner());
+        }
+        for (String intermediate : second.fieldMappings.keySet()) {
+            resolveClass(first, second, composed, firstReverse.map(MemberDeclaration.fromFieldMapping(intermediate).getOwner()));
+        }
+        for (String intermediate : second.methodMappings.keySet()) {
+            resolveClass(first, second, composed, firstReverse.map(MemberDeclaration.fromMethodMapping(intermediate).getOwner()));
+        }
+    }
+
+    private static void resolveClass(final Mappings first, final Mappings second, final Mappings composed, final String from) {
+        if (!composed.classMappings.containsKey(from)) composed.classMappings.put(from, second.map(first.map(from)));
+    }
+
+    private static void composeFields(final Mappings first, final Mappings firstReverse, final Mappings second, final Mappings composed) {
+        for (Map.Entry<String, String> entry : first.fieldMappings.entrySet()) {
+            MemberDeclaration member = MemberDeclaration.fromFieldMapping(entry.getKey());
+            String owner = first.map(member.getOwner());
+            String descriptor = member.getDescriptor() == null ? null : first.mapDesc(member.getDescriptor());
+            composed.fieldMappings.put(entry.getKey(), mapFieldName(second, owner, entry.getValue(), descriptor));
+        }
+        for (Map.Entry<String, String> entry : second.fieldMappings.entrySet()) {
+            MemberDeclaration member = MemberDeclaration.fromFieldMapping(entry.getKey());
+            String owner = firstReverse.map(member.getOwner());
+            String name = mapFieldName(firstReverse, member.getOwner(), member.getName(), member.getDescriptor());
+            String descriptor = member.getDescriptor() == null ? null : firstReverse.mapDesc(member.getDescriptor());
+            String key = owner + "." + name + (descriptor == null ? "" : (":" + descriptor));
+            if (composed.fieldMappings.containsKey(key) || first.fieldMappings.containsKey(key) || first.fieldMappings.containsKey(owner + "." + name)) continue;
+            composed.fieldMappings.put(key, entry.getValue());
+        }
+    }
+
+    private static void composeMethods(final Mappings first, final Mappings firstReverse, final Mappings second, final Mappings composed) {
+        for (Map.Entry<String, String> entry : first.methodMappings.entrySet()) {
+            MemberDeclaration member = MemberDeclaration.fromMethodMapping(entry.getKey());
+            String owner = first.map(member.getOwner());
+            String descriptor = first.mapMethodDesc(member.getDescriptor());
+            composed.methodMappings.put(entry.getKey(), second.mapMethodName(owner, entry.getValue(), descriptor));
+        }
+        for (Map.Entry<String, String> entry : second.methodMappings.entrySet()) {
+            MemberDeclaration member = MemberDeclaration.fromMethodMapping(entry.getKey());
+            String owner = firstReverse.map(member.getOwner());
+            String name = firstReverse.mapMethodName(member.getOwner(), member.getName(), member.getDescriptor());
+            String key = owner + "." + name + firstReverse.mapMethodDesc(member.getDescriptor());
+            if (composed.methodMappings.containsKey(key) || first.methodMappings.containsKey(key)) continue;
+            composed.methodMappings.put(key, entry.getValue());
+        }
+    }
+
+    private static String mapFieldName(final Mappings mappings, final String owner, final String name, @Nullable final String descriptor) {
+        if (descriptor != null) return mappings.mapFieldName(owner, name, descriptor);
+        return mappings.fieldMappings.getOrDefault(owner + "." + name, name);
+    }
+
+}
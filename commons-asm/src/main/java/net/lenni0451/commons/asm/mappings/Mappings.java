@@ -414,6 +414,22 @@ public class Mappings extends Remapper {
         return this.reverse;
     }
 
+    /**
+     * Compose these mappings with the given mappings.<br>
+     * The source names of the given mappings have to be the target names of these mappings ({@code A -> B} + {@code B -> C}).<br>
+     * The composed mappings directly map from the source names of these mappings to the target names of the given mappings ({@code A -> C}).<br>
+     * Member owners and descriptors are resolved through the intermediate names.<br>
+     * <br>
+     * Package mappings can't be chained and are resolved into class mappings for all classes mentioned in either mappings.<br>
+     * Classes that are only covered by package mappings will not be remapped by the composed mappings.
+     *
+     * @param mappings The mappings to apply after these mappings
+     * @return The composed mappings
+     */
+    public Mappings compose(final Mappings mappings) {
+        return Composer.compose(this, mappings);
+    }
+
     @Override
     public String toString() {
         return "Mappings{" +
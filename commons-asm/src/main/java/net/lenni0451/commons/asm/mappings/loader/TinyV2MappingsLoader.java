@@ -12,7 +12,10 @@ import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Pattern;
 
 /**
@@ -22,15 +25,16 @@ import java.util.regex.Pattern;
 public class TinyV2MappingsLoader extends MappingsLoader {
 
     private static final String[] EMPTY_JAVADOC = new String[0];
+    private static final Pattern MULTI_WHITESPACE = Pattern.compile("\\s{2,}");
+    private static final Pattern LEADING_WHITESPACE = Pattern.compile("^\\s+");
+    private static final Pattern ESCAPED_NEWLINE = Pattern.compile(Pattern.quote("\\n"));
 
     private final String fromNamespace;
     private final String toNamespace;
     private final List<ClassMetaMapping> metaMappings = new ArrayList<>();
+    private String[] intermediateNamespaces = new String[0];
     private boolean parseMeta = false;
-    private ClassMetaMapping currentClassMeta = null;
-    private FieldMetaMapping currentFieldMeta = null;
-    private MethodMetaMapping currentMethodMeta = null;
-    private ParameterMetaMapping currentParameterMeta = null;
+    private ForkJoinPool parallelPool = null;
 
     public TinyV2MappingsLoader(final InputStream inputStream, final String fromNamespace, final String toNamespace) {
         super(inputStream);
@@ -61,6 +65,44 @@ public class TinyV2MappingsLoader extends MappingsLoader {
         return this;
     }
 
+    /**
+     * Enable parallel parsing using the {@link ForkJoinPool#commonPool()}.
+     *
+     * @return This loader
+     * @see #enableParallelParsing(ForkJoinPool)
+     */
+    public TinyV2MappingsLoader enableParallelParsing() {
+        return this.enableParallelParsing(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Enable parallel parsing using the given {@link ForkJoinPool}.<br>
+     * The mappings are split into chunks at class boundaries and each chunk is parsed in parallel.<br>
+     * The results are merged in the order of the file, so the result is the same as when parsing sequentially.
+     *
+     * @param pool The pool to parse the chunks in
+     * @return This loader
+     */
+    public TinyV2MappingsLoader enableParallelParsing(final ForkJoinPool pool) {
+        this.parallelPool = pool;
+        return this;
+    }
+
+    /**
+     * Compose the mappings through the given intermediate namespaces.<br>
+     * Names which are missing in a namespace fall back to the name of the previous namespace in the chain instead of the source name.<br>
+     * e.g. {@code official -> intermediary -> named} maps members without a named mapping to their intermediary name.<br>
+     * This produces the same result as composing the mappings of each step, but only requires a single pass.
+     *
+     * @param namespaces The intermediate namespaces in order
+     * @return This loader
+     * @see Mappings#compose(Mappings)
+     */
+    public TinyV2MappingsLoader composeThrough(final String... namespaces) {
+        this.intermediateNamespaces = namespaces.clone();
+        return this;
+    }
+
     /**
      * Get the parsed metadata mappings.<br>
      * Make sure to enable parsing of metadata before calling this method.<br>
@@ -78,105 +120,73 @@ public class TinyV2MappingsLoader extends MappingsLoader {
     @Override
     protected Mappings load(List<String> lines) {
         Mappings mappings = new Mappings();
+        if (lines.isEmpty()) return mappings;
         Mappings baseToSource = new Mappings();
         Mappings baseToTarget = new Mappings();
         List<UnmappedMember> unmappedMembers = new ArrayList<>();
 
-        int fromIndex = -1;
-        int toIndex = -1;
-
-        String currentClass = null;
-        for (String line : lines) {
-            String[] parts = line.replaceAll("\\s{2,}", "\t").replaceAll("^\\s+", "").split("\t", -1);
-            if (fromIndex == -1) { //Header
-                if (!parts[0].equals("tiny")) throw new IllegalStateException("Invalid tiny header (expected 'tiny', got '" + parts[0] + "')");
-                if (!parts[1].equals("2")) throw new IllegalStateException("Invalid tiny major version (expected '2', got '" + parts[1] + "')");
-                if (!parts[2].equals("0")) throw new IllegalStateException("Invalid tiny minor version (expected '0', got '" + parts[2] + "')");
-                if (parts.length < 5) throw new IllegalStateException("Invalid tiny header (missing namespaces)");
-
-                List<String> namespaces = Arrays.asList(Arrays.copyOfRange(parts, 3, parts.length));
-                fromIndex = namespaces.indexOf(this.fromNamespace);
-                toIndex = namespaces.indexOf(this.toNamespace);
-                if (fromIndex == -1) throw new IllegalStateException("Namespace '" + this.fromNamespace + "' not found in tiny mappings (available: " + namespaces + ")");
-                if (toIndex == -1) throw new IllegalStateException("Namespace '" + this.toNamespace + "' not found in tiny mappings (available: " + namespaces + ")");
-            } else if (line.startsWith("c\t")) { //Class mapping
-                String baseName = parts[1];
-                currentClass = parts[1 + fromIndex];
-                String toName = parts[1 + toIndex];
-                if (toName.isEmpty()) toName = currentClass;
-
-                baseToSource.addClassMapping(baseName, currentClass);
-                baseToTarget.addClassMapping(baseName, toName);
-                mappings.addClassMapping(currentClass, toName);
-                if (this.parseMeta) {
-                    this.updateMeta(UpdateLevel.CLASS);
-                    this.currentClassMeta = new ClassMetaMapping(toName, EMPTY_JAVADOC, new ArrayList<>(), new ArrayList<>());
-                }
-            } else if (line.startsWith("\tf\t")) { //Field mapping
-                if (currentClass == null) throw new IllegalStateException("Field mapping without class mapping");
-                String descriptor = parts[1];
-                String fromName = parts[2 + fromIndex];
-                String toName = parts[2 + toIndex];
-                if (toName.isEmpty()) toName = fromName;
-
-                unmappedMembers.add(new UnmappedMember(false, currentClass, fromName, descriptor, toName));
-                if (this.parseMeta) {
-                    this.updateMeta(UpdateLevel.FIELD);
-                    this.currentFieldMeta = new FieldMetaMapping(toName, descriptor, EMPTY_JAVADOC);
-                }
-            } else if (line.startsWith("\tm\t")) { //Method mapping
-                if (currentClass == null) throw new IllegalStateException("Method mapping without class mapping");
-                String descriptor = parts[1];
-                String fromName = parts[2 + fromIndex];
-                String toName = parts[2 + toIndex];
-                if (toName.isEmpty()) toName = fromName;
-
-                unmappedMembers.add(new UnmappedMember(true, currentClass, fromName, descriptor, toName));
-                if (this.parseMeta) {
-                    this.updateMeta(UpdateLevel.METHOD);
-                    this.currentMethodMeta = new MethodMetaMapping(toName, descriptor, EMPTY_JAVADOC, new ArrayList<>());
-                }
-            } else if (line.startsWith("\t\tp")) { //Parameter mapping
-                if (!this.parseMeta) continue;
-                if (this.currentMethodMeta == null) throw new IllegalStateException("Parameter mapping without method mapping");
-                int index = Integer.parseInt(parts[1]);
-                String name = parts[2];
-
-                this.updateMeta(UpdateLevel.PARAMETER);
-                this.currentParameterMeta = new ParameterMetaMapping(index, name, EMPTY_JAVADOC);
-            } else if (line.startsWith("\tc")) { //Class comment
-                if (!this.parseMeta) continue;
-                if (this.currentClassMeta == null) throw new IllegalStateException("Comment without class mapping");
-                String comment = String.join("\t", Arrays.copyOfRange(parts, 1, parts.length));
-                this.currentClassMeta = this.currentClassMeta.withJavadoc(comment.split(Pattern.quote("\\n")));
-            } else if (line.startsWith("\t\tc")) { //Field/Method comment
-                if (!this.parseMeta) continue;
-                if (this.currentFieldMeta != null && this.currentMethodMeta != null) {
-                    throw new IllegalStateException("Field and method meta at the same time");
-                } else if (this.currentFieldMeta != null) {
-                    String comment = String.join("\t", Arrays.copyOfRange(parts, 1, parts.length));
-                    this.currentFieldMeta = this.currentFieldMeta.withJavadoc(comment.split(Pattern.quote("\\n")));
-                } else if (this.currentMethodMeta != null) {
-                    String comment = String.join("\t", Arrays.copyOfRange(parts, 1, parts.length));
-                    this.currentMethodMeta = this.currentMethodMeta.withJavadoc(comment.split(Pattern.quote("\\n")));
-                } else {
-                    throw new IllegalStateException("Comment without field or method mapping");
-                }
-            } else if (line.startsWith("\t\t\tc")) { //Parameter comment
-                if (!this.parseMeta) continue;
-                if (this.currentParameterMeta == null) throw new IllegalStateException("Comment without parameter mapping");
-                String comment = String.join("\t", Arrays.copyOfRange(parts, 1, parts.length));
-                this.currentParameterMeta = this.currentParameterMeta.withJavadoc(comment.split(Pattern.quote("\\n")));
-            } else {
-                throw new IllegalStateException("Unknown line: " + line);
+        Header header = this.parseHeader(split(lines.get(0)));
+        List<ChunkResult> chunks;
+        if (this.parallelPool == null) {
+            chunks = Collections.singletonList(new ChunkParser(header, lines, 1, lines.size()).parse());
+        } else {
+            chunks = this.parseParallel(header, lines);
+        }
+        for (ChunkResult chunk : chunks) {
+            for (String[] classMapping : chunk.classes) {
+                baseToSource.addClassMapping(classMapping[0], classMapping[1]);
+                baseToTarget.addClassMapping(classMapping[0], classMapping[2]);
+                mappings.addClassMapping(classMapping[1], classMapping[2]);
             }
+            unmappedMembers.addAll(chunk.members);
+            if (this.parseMeta) this.metaMappings.addAll(chunk.metaMappings);
         }
-        this.updateMeta(UpdateLevel.CLASS);
         this.finalizeMemberMappings(mappings, baseToSource, unmappedMembers);
         if (this.parseMeta) this.finalizeMetaMappings(baseToTarget);
         return mappings;
     }
 
+    private Header parseHeader(final String[] parts) {
+        if (!parts[0].equals("tiny")) throw new IllegalStateException("Invalid tiny header (expected 'tiny', got '" + parts[0] + "')");
+        if (!parts[1].equals("2")) throw new IllegalStateException("Invalid tiny major version (expected '2', got '" + parts[1] + "')");
+        if (!parts[2].equals("0")) throw new IllegalStateException("Invalid tiny minor version (expected '0', got '" + parts[2] + "')");
+        if (parts.length < 5) throw new IllegalStateException("Invalid tiny header (missing namespaces)");
+
+        List<String> namespaces = Arrays.asList(Arrays.copyOfRange(parts, 3, parts.length));
+        int fromIndex = namespaces.indexOf(this.fromNamespace);
+        int toIndex = namespaces.indexOf(this.toNamespace);
+        if (fromIndex == -1) throw new IllegalStateException("Namespace '" + this.fromNamespace + "' not found in tiny mappings (available: " + namespaces + ")");
+        if (toIndex == -1) throw new IllegalStateException("Namespace '" + this.toNamespace + "' not found in tiny mappings (available: " + namespaces + ")");
+        int[] namespaceChain = new int[this.intermediateNamespaces.length + 1];
+        for (int i = 0; i < this.intermediateNamespaces.length; i++) {
+            namespaceChain[i] = namespaces.indexOf(this.intermediateNamespaces[i]);
+            if (namespaceChain[i] == -1) throw new IllegalStateException("Namespace '" + this.intermediateNamespaces[i] + "' not found in tiny mappings (available: " + namespaces + ")");
+        }
+        namespaceChain[namespaceChain.length - 1] = toIndex;
+        return new Header(fromIndex, namespaceChain);
+    }
+
+    private List<ChunkResult> parseParallel(final Header header, final List<String> lines) {
+        //Split the lines into chunks at class boundaries
+        //Each worker gets multiple chunks to balance uneven class sizes
+        int targetChunkSize = Math.max(1, lines.size() / (this.parallelPool.getParallelism() * 4));
+        List<ForkJoinTask<ChunkResult>> tasks = new ArrayList<>();
+        int chunkStart = 1;
+        for (int i = 1; i < lines.size(); i++) {
+            if (i - chunkStart >= targetChunkSize && lines.get(i).startsWith("c\t")) {
+                ChunkParser parser = new ChunkParser(header, lines, chunkStart, i);
+                tasks.add(this.parallelPool.submit(parser::parse));
+                chunkStart = i;
+            }
+        }
+        ChunkParser parser = new ChunkParser(header, lines, chunkStart, lines.size());
+        tasks.add(this.parallelPool.submit(parser::parse));
+
+        List<ChunkResult> results = new ArrayList<>();
+        for (ForkJoinTask<ChunkResult> task : tasks) results.add(task.join());
+        return results;
+    }
+
     private void finalizeMemberMappings(final Mappings mappings, final Mappings baseToSource, final List<UnmappedMember> unmappedMembers) {
         for (UnmappedMember member : unmappedMembers) {
             if (member.method) {
@@ -210,53 +220,183 @@ public class TinyV2MappingsLoader extends MappingsLoader {
         this.metaMappings.addAll(remappedMetaMappings);
     }
 
-    private void updateMeta(final UpdateLevel level) {
-        UpdateLevel[] updates;
-        switch (level) {
-            case CLASS:
-                updates = new UpdateLevel[]{UpdateLevel.PARAMETER, UpdateLevel.METHOD, UpdateLevel.FIELD, UpdateLevel.CLASS};
-                break;
-            case FIELD:
-            case METHOD:
-                updates = new UpdateLevel[]{UpdateLevel.PARAMETER, UpdateLevel.METHOD, UpdateLevel.FIELD};
-                break;
-            case PARAMETER:
-                updates = new UpdateLevel[]{UpdateLevel.PARAMETER};
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown update level: " + level);
+    private static String[] split(final String line) {
+        String normalized = MULTI_WHITESPACE.matcher(line).replaceAll("\t");
+        return LEADING_WHITESPACE.matcher(normalized).replaceFirst("").split("\t", -1);
+    }
+
+    private static String[] comment(final String[] parts) {
+        String comment = String.join("\t", Arrays.copyOfRange(parts, 1, parts.length));
+        return ESCAPED_NEWLINE.split(comment);
+    }
+
+    private static String resolveName(final String[] parts, final int offset, final String fromName, final int[] namespaceChain) {
+        String name = fromName;
+        for (int index : namespaceChain) {
+            String namespaceName = parts[offset + index];
+            if (!namespaceName.isEmpty()) name = namespaceName;
         }
-        for (UpdateLevel update : updates) {
-            switch (update) {
-                case CLASS:
-                    if (this.currentClassMeta != null && !this.currentClassMeta.isEmpty()) {
-                        this.metaMappings.add(this.currentClassMeta);
+        return name;
+    }
+
+
+    @AllArgsConstructor
+    private static class Header {
+        private final int fromIndex;
+        private final int[] namespaceChain;
+    }
+
+    private static class ChunkResult {
+        private final List<String[]> classes = new ArrayList<>();
+        private final List<UnmappedMember> members = new ArrayList<>();
+        private final List<ClassMetaMapping> metaMappings = new ArrayList<>();
+    }
+
+    /**
+     * A parser for a range of lines which starts at a class boundary.<br>
+     * All mutable parsing state is kept per chunk, so multiple chunks can be parsed in parallel.
+     */
+    private class ChunkParser {
+        private final Header header;
+        private final List<String> lines;
+        private final int start;
+        private final int end;
+        private final ChunkResult result = new ChunkResult();
+        private ClassMetaMapping currentClassMeta = null;
+        private FieldMetaMapping currentFieldMeta = null;
+        private MethodMetaMapping currentMethodMeta = null;
+        private ParameterMetaMapping currentParameterMeta = null;
+
+        private ChunkParser(final Header header, final List<String> lines, final int start, final int end) {
+            this.header = header;
+            this.lines = lines;
+            this.start = start;
+            this.end = end;
+        }
+
+        private ChunkResult parse() {
+            boolean parseMeta = TinyV2MappingsLoader.this.parseMeta;
+            int fromIndex = this.header.fromIndex;
+            int[] namespaceChain = this.header.namespaceChain;
+
+            String currentClass = null;
+            for (int i = this.start; i < this.end; i++) {
+                String line = this.lines.get(i);
+                String[] parts = split(line);
+                if (line.startsWith("c\t")) { //Class mapping
+                    String baseName = parts[1];
+                    currentClass = parts[1 + fromIndex];
+                    String toName = resolveName(parts, 1, currentClass, namespaceChain);
+
+                    this.result.classes.add(new String[]{baseName, currentClass, toName});
+                    if (parseMeta) {
+                        this.updateMeta(UpdateLevel.CLASS);
+                        this.currentClassMeta = new ClassMetaMapping(toName, EMPTY_JAVADOC, new ArrayList<>(), new ArrayList<>());
                     }
-                    this.currentClassMeta = null;
-                    break;
-                case FIELD:
-                    if (this.currentFieldMeta != null && !this.currentFieldMeta.isEmpty()) {
-                        this.currentClassMeta.getFields().add(this.currentFieldMeta);
+                } else if (line.startsWith("\tf\t")) { //Field mapping
+                    if (currentClass == null) throw new IllegalStateException("Field mapping without class mapping");
+                    String descriptor = parts[1];
+                    String fromName = parts[2 + fromIndex];
+                    String toName = resolveName(parts, 2, fromName, namespaceChain);
+
+                    this.result.members.add(new UnmappedMember(false, currentClass, fromName, descriptor, toName));
+                    if (parseMeta) {
+                        this.updateMeta(UpdateLevel.FIELD);
+                        this.currentFieldMeta = new FieldMetaMapping(toName, descriptor, EMPTY_JAVADOC);
                     }
-                    this.currentFieldMeta = null;
+                } else if (line.startsWith("\tm\t")) { //Method mapping
+                    if (currentClass == null) throw new IllegalStateException("Method mapping without class mapping");
+                    String descriptor = parts[1];
+                    String fromName = parts[2 + fromIndex];
+                    String toName = resolveName(parts, 2, fromName, namespaceChain);
+
+                    this.result.members.add(new UnmappedMember(true, currentClass, fromName, descriptor, toName));
+                    if (parseMeta) {
+                        this.updateMeta(UpdateLevel.METHOD);
+                        this.currentMethodMeta = new MethodMetaMapping(toName, descriptor, EMPTY_JAVADOC, new ArrayList<>());
+                    }
+                } else if (line.startsWith("\t\tp")) { //Parameter mapping
+                    if (!parseMeta) continue;
+                    if (this.currentMethodMeta == null) throw new IllegalStateException("Parameter mapping without method mapping");
+                    int index = Integer.parseInt(parts[1]);
+                    String name = parts[2];
+
+                    this.updateMeta(UpdateLevel.PARAMETER);
+                    this.currentParameterMeta = new ParameterMetaMapping(index, name, EMPTY_JAVADOC);
+                } else if (line.startsWith("\tc")) { //Class comment
+                    if (!parseMeta) continue;
+                    if (this.currentClassMeta == null) throw new IllegalStateException("Comment without class mapping");
+                    this.currentClassMeta = this.currentClassMeta.withJavadoc(comment(parts));
+                } else if (line.startsWith("\t\tc")) { //Field/Method comment
+                    if (!parseMeta) continue;
+                    if (this.currentFieldMeta != null && this.currentMethodMeta != null) {
+                        throw new IllegalStateException("Field and method meta at the same time");
+                    } else if (this.currentFieldMeta != null) {
+                        this.currentFieldMeta = this.currentFieldMeta.withJavadoc(comment(parts));
+                    } else if (this.currentMethodMeta != null) {
+                        this.currentMethodMeta = this.currentMethodMeta.withJavadoc(comment(parts));
+                    } else {
+                        throw new IllegalStateException("Comment without field or method mapping");
+                    }
+                } else if (line.startsWith("\t\t\tc")) { //Parameter comment
+                    if (!parseMeta) continue;
+                    if (this.currentParameterMeta == null) throw new IllegalStateException("Comment without parameter mapping");
+                    this.currentParameterMeta = this.currentParameterMeta.withJavadoc(comment(parts));
+                } else {
+                    throw new IllegalStateException("Unknown line: " + line);
+                }
+            }
+            if (parseMeta) this.updateMeta(UpdateLevel.CLASS);
+            return this.result;
+        }
+
+        private void updateMeta(final UpdateLevel level) {
+            UpdateLevel[] updates;
+            switch (level) {
+                case CLASS:
+                    updates = new UpdateLevel[]{UpdateLevel.PARAMETER, UpdateLevel.METHOD, UpdateLevel.FIELD, UpdateLevel.CLASS};
                     break;
+                case FIELD:
                 case METHOD:
-                    if (this.currentMethodMeta != null && !this.currentMethodMeta.isEmpty()) {
-                        this.currentClassMeta.getMethods().add(this.currentMethodMeta);
-                    }
-                    this.currentMethodMeta = null;
+                    updates = new UpdateLevel[]{UpdateLevel.PARAMETER, UpdateLevel.METHOD, UpdateLevel.FIELD};
                     break;
                 case PARAMETER:
-                    if (this.currentParameterMeta != null) {
-                        this.currentMethodMeta.getParameters().add(this.currentParameterMeta);
-                    }
-                    this.currentParameterMeta = null;
+                    updates = new UpdateLevel[]{UpdateLevel.PARAMETER};
                     break;
+                default:
+                    throw new IllegalArgumentException("Unknown update level: " + level);
+            }
+            for (UpdateLevel update : updates) {
+                switch (update) {
+                    case CLASS:
+                        if (this.currentClassMeta != null && !this.currentClassMeta.isEmpty()) {
+                            this.result.metaMappings.add(this.currentClassMeta);
+                        }
+                        this.currentClassMeta = null;
+                        break;
+                    case FIELD:
+                        if (this.currentFieldMeta != null && !this.currentFieldMeta.isEmpty()) {
+                            this.currentClassMeta.getFields().add(this.currentFieldMeta);
+                        }
+                        this.currentFieldMeta = null;
+                        break;
+                    case METHOD:
+                        if (this.currentMethodMeta != null && !this.currentMethodMeta.isEmpty()) {
+                            this.currentClassMeta.getMethods().add(this.currentMethodMeta);
+                        }
+                        this.currentMethodMeta = null;
+                        break;
+                    case PARAMETER:
+                        if (this.currentParameterMeta != null) {
+                            this.currentMethodMeta.getParameters().add(this.currentParameterMeta);
+                        }
+                        this.currentParameterMeta = null;
+                        break;
+                }
             }
         }
     }
 
-
     @AllArgsConstructor
     private static class UnmappedMember {
         private final boolean method;
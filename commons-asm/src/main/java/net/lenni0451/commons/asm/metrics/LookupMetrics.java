@@ -0,0 +1,185 @@
+package net.lenni0451.commons.asm.metrics;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low overhead lookup metrics for instrumented providers.<br>
+ * All counters are backed by {@link LongAdder}s, so recording is cheap even under high contention.<br>
+ * The latency histogram uses power of two buckets from {@code 1µs} up to {@code ~1s}.
+ */
+public class LookupMetrics implements LookupMetricsMXBean {
+
+    private static final int BUCKET_COUNT = 22;
+    private static final long[] BUCKET_BOUNDS = new long[BUCKET_COUNT];
+
+    static {
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) BUCKET_BOUNDS[i] = 1L << i;
+        BUCKET_BOUNDS[BUCKET_COUNT - 1] = Long.MAX_VALUE;
+    }
+
+
+    private final String name;
+    private final LongAdder found = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final LongAdder[] latencyBuckets = new LongAdder[BUCKET_COUNT];
+    private ObjectName objectName;
+
+    public LookupMetrics(final String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKET_COUNT; i++) this.latencyBuckets[i] = new LongAdder();
+    }
+
+    /**
+     * Record a lookup.
+     *
+     * @param startNanos The {@link System#nanoTime()} when the lookup was started
+     * @param found      If the class was found
+     * @param bytes      The amount of bytes read by the lookup
+     */
+    public void record(final long startNanos, final boolean found, final long bytes) {
+        long latency = System.nanoTime() - startNanos;
+        if (found) this.found.increment();
+        else this.notFound.increment();
+        if (bytes > 0) this.bytesRead.add(bytes);
+        this.totalLatency.add(latency);
+        this.latencyBuckets[bucketIndex(latency)].increment();
+    }
+
+    /**
+     * Record bytes which were read outside of a lookup.
+     *
+     * @param bytes The amount of bytes
+     */
+    public void recordBytes(final long bytes) {
+        this.bytesRead.add(bytes);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public long getLookups() {
+        return this.found.sum() + this.notFound.sum();
+    }
+
+    @Override
+    public long getFound() {
+        return this.found.sum();
+    }
+
+    @Override
+    public long getNotFound() {
+        return this.notFound.sum();
+    }
+
+    @Override
+    public double getFoundRatio() {
+        long found = this.found.sum();
+        long lookups = found + this.notFound.sum();
+        if (lookups == 0) return 0;
+        return (double) found / lookups;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return this.bytesRead.sum();
+    }
+
+    @Override
+    public long getTotalLatencyNanos() {
+        return this.totalLatency.sum();
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) histogram[i] = this.latencyBuckets[i].sum();
+        return histogram;
+    }
+
+    @Override
+    public long[] getLatencyBucketBoundsMicros() {
+        return BUCKET_BOUNDS.clone();
+    }
+
+    @Override
+    public void reset() {
+        this.found.reset();
+        this.notFound.reset();
+        this.bytesRead.reset();
+        this.totalLatency.reset();
+        for (LongAdder bucket : this.latencyBuckets) bucket.reset();
+    }
+
+    /**
+     * Create a snapshot of all metrics as a plain map.<br>
+     * The histogram buckets are stored as {@code latency.lt_<bound>us} and {@code latency.inf}.
+     *
+     * @return The snapshot
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long found = this.found.sum();
+        long notFound = this.notFound.sum();
+        snapshot.put("name", this.name);
+        snapshot.put("lookups", found + notFound);
+        snapshot.put("found", found);
+        snapshot.put("notFound", notFound);
+        snapshot.put("foundRatio", found + notFound == 0 ? 0D : (double) found / (found + notFound));
+        snapshot.put("bytesRead", this.bytesRead.sum());
+        snapshot.put("totalLatencyNanos", this.totalLatency.sum());
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            String key = BUCKET_BOUNDS[i] == Long.MAX_VALUE ? "latency.inf" : ("latency.lt_" + BUCKET_BOUNDS[i] + "us");
+            snapshot.put(key, this.latencyBuckets[i].sum());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Register these metrics as an MBean in the platform MBean server.<br>
+     * The object name is {@code net.lenni0451.commons.asm:type=LookupMetrics,name=<name>}.
+     *
+     * @return The object name of the registered MBean
+     * @throws JMException If the MBean could not be registered
+     */
+    public synchronized ObjectName registerMBean() throws JMException {
+        if (this.objectName != null) return this.objectName;
+        ObjectName objectName = new ObjectName("net.lenni0451.commons.asm:type=LookupMetrics,name=" + ObjectName.quote(this.name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Unregister the MBean of these metrics if it is registered.
+     *
+     * @throws JMException If the MBean could not be unregistered
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (this.objectName == null) return;
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+        this.objectName = null;
+    }
+
+    @Override
+    public String toString() {
+        return "LookupMetrics" + this.snapshot();
+    }
+
+    private static int bucketIndex(final long latencyNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        //Index of the first bound which is greater than the latency
+        int index = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+}
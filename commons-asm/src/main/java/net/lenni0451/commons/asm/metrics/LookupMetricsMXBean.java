@@ -0,0 +1,67 @@
+package net.lenni0451.commons.asm.metrics;
+
+/**
+ * The JMX interface of {@link LookupMetrics}.
+ */
+public interface LookupMetricsMXBean {
+
+    /**
+     * @return The name of the instrumented delegate
+     */
+    String getName();
+
+    /**
+     * @return The total amount of lookups
+     */
+    long getLookups();
+
+    /**
+     * The amount of lookups which found the class.<br>
+     * This is not a cache hit count, the delegate may have read the class from its source.
+     *
+     * @return The amount of lookups which found the class
+     */
+    long getFound();
+
+    /**
+     * @return The amount of lookups which did not find the class or failed
+     */
+    long getNotFound();
+
+    /**
+     * @return The ratio of lookups which found the class to all lookups ({@code 0} if there were no lookups)
+     */
+    double getFoundRatio();
+
+    /**
+     * @return The total amount of bytes read by all lookups
+     */
+    long getBytesRead();
+
+    /**
+     * @return The total time spent in all lookups in nanoseconds
+     */
+    long getTotalLatencyNanos();
+
+    /**
+     * Get the amount of lookups per latency bucket.<br>
+     * The upper bounds of the buckets are returned by {@link #getLatencyBucketBoundsMicros()}.
+     *
+     * @return The latency histogram
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * Get the exclusive upper bounds of the latency buckets in microseconds.<br>
+     * The last bucket has no upper bound and is represented by {@link Long#MAX_VALUE}.
+     *
+     * @return The upper bounds of the latency buckets
+     */
+    long[] getLatencyBucketBoundsMicros();
+
+    /**
+     * Reset all counters to {@code 0}.
+     */
+    void reset();
+
+}
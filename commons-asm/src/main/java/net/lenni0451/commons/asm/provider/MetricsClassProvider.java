@@ -0,0 +1,71 @@
+package net.lenni0451.commons.asm.provider;
+
+import net.lenni0451.commons.asm.metrics.LookupMetrics;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class provider that records {@link LookupMetrics} for a delegate class provider.<br>
+ * Lookups which throw a {@link ClassNotFoundException} are counted as not found.<br>
+ * Bytes read through the suppliers of {@link #getAllClasses()} are also recorded.
+ */
+public class MetricsClassProvider implements ClassProvider {
+
+    private final ClassProvider delegate;
+    private final LookupMetrics metrics;
+
+    public MetricsClassProvider(final String name, final ClassProvider delegate) {
+        this(delegate, new LookupMetrics(name));
+    }
+
+    public MetricsClassProvider(final ClassProvider delegate, final LookupMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public ClassProvider getDelegate() {
+        return this.delegate;
+    }
+
+    public LookupMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Nonnull
+    @Override
+    public byte[] getClass(String name) throws ClassNotFoundException {
+        long start = System.nanoTime();
+        byte[] bytecode;
+        try {
+            bytecode = this.delegate.getClass(name);
+        } catch (ClassNotFoundException | RuntimeException e) {
+            this.metrics.record(start, false, 0);
+            throw e;
+        }
+        this.metrics.record(start, true, bytecode.length);
+        return bytecode;
+    }
+
+    @Nonnull
+    @Override
+    public Map<String, ClassSupplier> getAllClasses() throws UnsupportedOperationException {
+        Map<String, ClassSupplier> classes = new HashMap<>();
+        for (Map.Entry<String, ClassSupplier> entry : this.delegate.getAllClasses().entrySet()) {
+            ClassSupplier supplier = entry.getValue();
+            classes.put(entry.getKey(), () -> {
+                byte[] bytecode = supplier.get();
+                this.metrics.recordBytes(bytecode.length);
+                return bytecode;
+            });
+        }
+        return classes;
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.delegate.close();
+    }
+
+}
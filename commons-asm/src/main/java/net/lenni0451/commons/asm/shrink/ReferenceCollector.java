@@ -0,0 +1,207 @@
+package net.lenni0451.commons.asm.shrink;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static net.lenni0451.commons.asm.ASMUtils.slash;
+
+/**
+ * A {@link Remapper} which does not change any names but collects all referenced classes.<br>
+ * The {@link ClassRemapper} visits every type in the class (super types, members, instructions, annotations, signatures, ...),
+ * so all references are collected without handling each instruction separately.
+ */
+class ReferenceCollector extends Remapper {
+
+    private static final Pattern CLASS_NAME = Pattern.compile("[\\w$]+([./][\\w$]+)+");
+
+    /**
+     * Collect all classes referenced by the given class.
+     *
+     * @param bytecode              The bytecode of the class
+     * @param followStringConstants If string constants that look like class names should be collected
+     * @return The internal names of all referenced classes
+     */
+    static Set<String> collect(final byte[] bytecode, final boolean followStringConstants) {
+        ReferenceCollector collector = new ReferenceCollector(followStringConstants);
+        new ClassReader(bytecode).accept(new CollectingClassRemapper(collector), ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return collector.references;
+    }
+
+
+    private final boolean followStringConstants;
+    private final Set<String> references = new HashSet<>();
+
+    private ReferenceCollector(final boolean followStringConstants) {
+        this.followStringConstants = followStringConstants;
+    }
+
+    @Override
+    public String map(String internalName) {
+        this.references.add(internalName);
+        return internalName;
+    }
+
+    @Override
+    public Object mapValue(Object value) {
+        if (this.followStringConstants && value instanceof String && CLASS_NAME.matcher((String) value).matches()) {
+            this.references.add(slash((String) value));
+        }
+        return super.mapValue(value);
+    }
+
+
+    /**
+     * A class remapper which ignores references that are not required for the class to work.<br>
+     * Inner classes and nest members are only kept if they are referenced somewhere else.
+     */
+    private static class CollectingClassRemapper extends ClassRemapper {
+        private CollectingClassRemapper(final ReferenceCollector collector) {
+            super(new ClassSink(), collector);
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            //Only the outer class of this class is required
+            if (name.equals(this.className) && outerName != null) this.remapper.mapType(outerName);
+        }
+
+        @Override
+        public void visitNestMember(String nestMember) {
+        }
+
+        @Override
+        public void visitPermittedSubclass(String permittedSubclass) {
+        }
+    }
+
+    /*
+     * The ClassRemapper only visits the children of a node if the delegate visitor is not null.
+     * These sinks accept everything to make sure all references are visited.
+     */
+
+    private static class ClassSink extends ClassVisitor {
+        private ClassSink() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public RecordComponentVisitor visitRecordComponent(String name, String descriptor, String signature) {
+            return new RecordComponentSink();
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            return new FieldSink();
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            return new MethodSink();
+        }
+    }
+
+    private static class RecordComponentSink extends RecordComponentVisitor {
+        private RecordComponentSink() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+    }
+
+    private static class FieldSink extends FieldVisitor {
+        private FieldSink() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+    }
+
+    private static class MethodSink extends MethodVisitor {
+        private MethodSink() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotationDefault() {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitInsnAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitTryCatchAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+
+        @Override
+        public AnnotationVisitor visitLocalVariableAnnotation(int typeRef, TypePath typePath, Label[] start, Label[] end, int[] index, String descriptor, boolean visible) {
+            return new AnnotationSink();
+        }
+    }
+
+    private static class AnnotationSink extends AnnotationVisitor {
+        private AnnotationSink() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            return this;
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return this;
+        }
+    }
+
+}
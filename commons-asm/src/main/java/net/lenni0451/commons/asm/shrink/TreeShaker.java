@@ -0,0 +1,295 @@
+package net.lenni0451.commons.asm.shrink;
+
+import net.lenni0451.commons.asm.provider.ClassProvider;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static net.lenni0451.commons.asm.ASMUtils.slash;
+
+/**
+ * A reachability analyzer which finds all classes that are reachable from the given entry points.<br>
+ * A class is live if it is an entry point, a reflection hint, or referenced by a live class.
+ * References include super types, member owners and descriptors, instructions, annotations and signatures.<br>
+ * Classes which can't be found in the class provider (e.g. JDK classes) are treated as external and not followed.<br>
+ * <br>
+ * When filtering jar entries, {@code META-INF/services} files are also followed:
+ * If a service interface is live, all of its implementations are live as well.<br>
+ * Removing classes invalidates the signature of a signed jar, so the signature files and digests are removed as well.
+ */
+public class TreeShaker {
+
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+    private static final String[] SIGNATURE_SUFFIXES = {".SF", ".RSA", ".DSA", ".EC"};
+
+    private final ClassProvider classProvider;
+    private final Set<String> entryPoints = new LinkedHashSet<>();
+    private final Set<String> reflectionHints = new LinkedHashSet<>();
+    private final Map<String, Set<String>> services = new HashMap<>();
+    private boolean followStringConstants = false;
+    private ForkJoinPool parallelPool = null;
+
+    public TreeShaker(final ClassProvider classProvider) {
+        this.classProvider = classProvider;
+    }
+
+    /**
+     * Add entry points for the analysis.<br>
+     * The names can be in internal or binary format.
+     *
+     * @param classNames The names of the entry point classes
+     * @return This tree shaker
+     */
+    public TreeShaker entryPoints(final String... classNames) {
+        for (String className : classNames) this.entryPoints.add(slash(className));
+        return this;
+    }
+
+    /**
+     * Add reflection hints for classes which are only accessed using reflection.<br>
+     * A hint ending with {@code *} keeps all classes with the given prefix (e.g. {@code com/example/plugins/*}).
+     * Prefix hints require the class provider to support {@link ClassProvider#getAllClasses()}.
+     *
+     * @param hints The reflection hints
+     * @return This tree shaker
+     */
+    public TreeShaker reflectionHints(final Collection<String> hints) {
+        for (String hint : hints) this.reflectionHints.add(slash(hint));
+        return this;
+    }
+
+    /**
+     * Add a service implementation which is kept if the service interface is live.
+     *
+     * @param service        The name of the service interface
+     * @param implementation The name of the implementation
+     * @return This tree shaker
+     */
+    public TreeShaker service(final String service, final String implementation) {
+        this.services.computeIfAbsent(slash(service), s -> new LinkedHashSet<>()).add(slash(implementation));
+        return this;
+    }
+
+    /**
+     * Treat string constants which look like class names as references.<br>
+     * This catches most uses of {@link Class#forName(String)} but may keep more classes than required.
+     *
+     * @return This tree shaker
+     */
+    public TreeShaker followStringConstants() {
+        this.followStringConstants = true;
+        return this;
+    }
+
+    /**
+     * Analyze the classes in parallel using the given pool.
+     *
+     * @param pool The pool to analyze the classes in
+     * @return This tree shaker
+     */
+    public TreeShaker parallel(final ForkJoinPool pool) {
+        this.parallelPool = pool;
+        return this;
+    }
+
+    /**
+     * Analyze all classes reachable from the entry points and reflection hints.
+     *
+     * @return The internal names of all live classes
+     */
+    public Set<String> analyze() {
+        return this.analyze(this.services);
+    }
+
+    private Set<String> analyze(final Map<String, Set<String>> services) {
+        Set<String> visited = ConcurrentHashMap.newKeySet();
+        Set<String> live = ConcurrentHashMap.newKeySet();
+        Set<String> frontier = new HashSet<>(this.entryPoints);
+        frontier.addAll(this.resolveReflectionHints());
+        while (!frontier.isEmpty()) {
+            Set<String> next = ConcurrentHashMap.newKeySet();
+            List<String> current = new ArrayList<>();
+            for (String className : frontier) {
+                if (visited.add(className)) current.add(className);
+            }
+            this.forEach(current, className -> {
+                byte[] bytecode;
+                try {
+                    bytecode = this.classProvider.getClass(className);
+                } catch (ClassNotFoundException e) {
+                    return; //External class
+                }
+                live.add(className);
+                for (String reference : ReferenceCollector.collect(bytecode, this.followStringConstants)) {
+                    if (!visited.contains(reference)) next.add(reference);
+                }
+            });
+            if (next.isEmpty()) {
+                //Services are only checked once everything else is resolved to avoid checking them after every step
+                for (Map.Entry<String, Set<String>> entry : services.entrySet()) {
+                    if (!live.contains(entry.getKey())) continue;
+                    for (String implementation : entry.getValue()) {
+                        if (!visited.contains(implementation)) next.add(implementation);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return live;
+    }
+
+    /**
+     * Remove all classes from the given jar entries which are not live.<br>
+     * The service files in the entries are used as services for this call only, they are not added to this tree shaker.
+     * Multi-release class entries are kept if the base class is live.
+     * If classes are removed, the signature files in {@code META-INF} are removed as well.
+     * All other resources are kept as they are.
+     *
+     * @param entries The entries of the jar file
+     * @return The filtered entries
+     */
+    public Map<String, byte[]> shakeJarEntries(final Map<String, byte[]> entries) {
+        Map<String, Set<String>> services = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : this.services.entrySet()) services.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            if (!entry.getKey().startsWith(SERVICES_PREFIX) || entry.getKey().length() == SERVICES_PREFIX.length()) continue;
+            String service = slash(entry.getKey().substring(SERVICES_PREFIX.length()));
+            for (String implementation : readServiceFile(entry.getValue())) {
+                services.computeIfAbsent(service, s -> new LinkedHashSet<>()).add(slash(implementation));
+            }
+        }
+        Set<String> live = this.analyze(services);
+        Map<String, byte[]> out = new LinkedHashMap<>();
+        boolean removed = false;
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            String className = toClassName(entry.getKey());
+            if (className == null || live.contains(className)) out.put(entry.getKey(), entry.getValue());
+            else removed = true;
+        }
+        if (removed) out.keySet().removeIf(TreeShaker::isSignatureFile);
+        return out;
+    }
+
+    /**
+     * Remove all classes which are not live from a jar file and write the result to the output path.<br>
+     * The class provider should provide the classes of the input jar.
+     *
+     * @param input  The input jar
+     * @param output The output jar
+     * @throws IOException If an I/O error occurs
+     * @see #shakeJarEntries(Map)
+     */
+    public void shakeJar(final Path input, final Path output) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        Manifest manifest;
+        try (JarInputStream jis = new JarInputStream(Files.newInputStream(input))) {
+            manifest = jis.getManifest();
+            JarEntry entry;
+            while ((entry = jis.getNextJarEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                entries.put(entry.getName(), readAll(jis));
+            }
+        }
+        Map<String, byte[]> shaken = this.shakeJarEntries(entries);
+        if (manifest != null && shaken.size() != entries.size()) removeDigests(manifest);
+        try (OutputStream os = Files.newOutputStream(output); JarOutputStream jos = manifest == null ? new JarOutputStream(os) : new JarOutputStream(os, manifest)) {
+            for (Map.Entry<String, byte[]> entry : shaken.entrySet()) {
+                jos.putNextEntry(new JarEntry(entry.getKey()));
+                jos.write(entry.getValue());
+                jos.closeEntry();
+            }
+        }
+    }
+
+    private Set<String> resolveReflectionHints() {
+        Set<String> classes = new HashSet<>();
+        Set<String> allClasses = null;
+        for (String hint : this.reflectionHints) {
+            if (hint.endsWith("*")) {
+                if (allClasses == null) allClasses = this.classProvider.getAllClasses().keySet();
+                String prefix = hint.substring(0, hint.length() - 1);
+                for (String className : allClasses) {
+                    //Not all class providers return the names in internal format
+                    className = slash(className);
+                    if (className.startsWith(prefix)) classes.add(className);
+                }
+            } else {
+                classes.add(hint);
+            }
+        }
+        return classes;
+    }
+
+    private void forEach(final List<String> classNames, final Consumer<String> action) {
+        if (this.parallelPool == null || classNames.size() <= 1) classNames.forEach(action);
+        else this.parallelPool.submit(() -> classNames.parallelStream().forEach(action)).join();
+    }
+
+    private static String toClassName(String entryName) {
+        if (!entryName.endsWith(".class")) return null;
+        if (entryName.startsWith(VERSIONS_PREFIX)) {
+            int versionEnd = entryName.indexOf('/', VERSIONS_PREFIX.length());
+            if (versionEnd == -1) return null;
+            entryName = entryName.substring(versionEnd + 1);
+        }
+        if (entryName.equals("module-info.class") || entryName.endsWith("/package-info.class")) return null;
+        return entryName.substring(0, entryName.length() - 6);
+    }
+
+    private static boolean isSignatureFile(final String entryName) {
+        if (!entryName.startsWith("META-INF/") || entryName.indexOf('/', 9) != -1) return false;
+        String upperName = entryName.toUpperCase(Locale.ROOT);
+        if (upperName.startsWith("META-INF/SIG-")) return true;
+        for (String suffix : SIGNATURE_SUFFIXES) {
+            if (upperName.endsWith(suffix)) return true;
+        }
+        return false;
+    }
+
+    private static void removeDigests(final Manifest manifest) {
+        //The per entry digests are only used for the signature, entries without other attributes are removed completely
+        Iterator<Attributes> it = manifest.getEntries().values().iterator();
+        while (it.hasNext()) {
+            Attributes attributes = it.next();
+            attributes.keySet().removeIf(name -> name.toString().toUpperCase(Locale.ROOT).endsWith("-DIGEST"));
+            if (attributes.isEmpty()) it.remove();
+        }
+    }
+
+    private static List<String> readServiceFile(final byte[] bytes) {
+        List<String> implementations = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int comment = line.indexOf('#');
+                if (comment != -1) line = line.substring(0, comment);
+                line = line.trim();
+                if (!line.isEmpty()) implementations.add(line);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read service file", e);
+        }
+        return implementations;
+    }
+
+    private static byte[] readAll(final InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int len;
+        while ((len = is.read(buf)) > 0) baos.write(buf, 0, len);
+        return baos.toByteArray();
+    }
+
+}
@@ -0,0 +1,95 @@
+package net.lenni0451.commons.asm;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.List;
+
+import static net.lenni0451.commons.asm.Types.methodDescriptor;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberIndexTest {
+
+    @Test
+    void lookup() {
+        ClassNode classNode = new ClassNode();
+        FieldNode field = new FieldNode(Opcodes.ACC_PUBLIC, "test", "I", null, null);
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "test", methodDescriptor(void.class), null, null);
+        classNode.fields.add(field);
+        classNode.methods.add(method);
+
+        assertNull(MemberIndex.get(classNode));
+        MemberIndex index = MemberIndex.of(classNode);
+        assertSame(index, MemberIndex.get(classNode));
+        assertSame(field, ASMUtils.getField(classNode, "test", null));
+        assertSame(field, ASMUtils.getField(classNode, "test", "I"));
+        assertNull(ASMUtils.getField(classNode, "test", "J"));
+        assertSame(method, ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+        assertNull(ASMUtils.getMethod(classNode, "test", methodDescriptor(int.class)));
+    }
+
+    @Test
+    void invalidation() {
+        ClassNode classNode = new ClassNode();
+        MemberIndex index = MemberIndex.of(classNode);
+        assertNull(ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "test", methodDescriptor(void.class), null, null);
+        classNode.methods.add(method);
+        assertSame(method, ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+
+        method.name = "renamed";
+        assertNull(ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+        index.invalidate();
+        assertSame(method, ASMUtils.getMethod(classNode, "renamed", methodDescriptor(void.class)));
+
+        classNode.methods.remove(method);
+        assertNull(ASMUtils.getMethod(classNode, "renamed", methodDescriptor(void.class)));
+    }
+
+    @Test
+    void renameWithInvalidate() {
+        ClassNode classNode = new ClassNode();
+        FieldNode field = new FieldNode(Opcodes.ACC_PUBLIC, "test", "I", null, null);
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "test", methodDescriptor(void.class), null, null);
+        classNode.fields.add(field);
+        classNode.methods.add(method);
+        MemberIndex index = MemberIndex.of(classNode);
+        assertSame(method, ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+        assertSame(field, ASMUtils.getField(classNode, "test", null));
+
+        method.name = "renamed";
+        field.name = "renamed";
+        //The stale entries are not returned, even before the index is rebuilt
+        assertNull(ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+        assertNull(ASMUtils.getField(classNode, "test", "I"));
+        index.invalidate();
+        assertSame(method, ASMUtils.getMethod(classNode, "renamed", methodDescriptor(void.class)));
+        assertSame(field, ASMUtils.getField(classNode, "renamed", "I"));
+        assertNull(ASMUtils.getMethod(classNode, "test", methodDescriptor(void.class)));
+        assertNull(ASMUtils.getField(classNode, "test", null));
+    }
+
+    @Test
+    void subListWrites() {
+        ClassNode classNode = new ClassNode();
+        MethodNode first = new MethodNode(Opcodes.ACC_PUBLIC, "first", methodDescriptor(void.class), null, null);
+        MethodNode second = new MethodNode(Opcodes.ACC_PUBLIC, "second", methodDescriptor(void.class), null, null);
+        classNode.methods.add(first);
+        MemberIndex.of(classNode);
+        List<MethodNode> subList = classNode.methods.subList(0, 1);
+        assertSame(first, ASMUtils.getMethod(classNode, "first", methodDescriptor(void.class)));
+
+        subList.set(0, second);
+        assertNull(ASMUtils.getMethod(classNode, "first", methodDescriptor(void.class)));
+        assertSame(second, ASMUtils.getMethod(classNode, "second", methodDescriptor(void.class)));
+
+        subList.subList(0, 1).clear();
+        assertNull(ASMUtils.getMethod(classNode, "second", methodDescriptor(void.class)));
+        assertTrue(classNode.methods.isEmpty());
+    }
+
+}
@@ -0,0 +1,43 @@
+package net.lenni0451.commons.asm.info.impl.jvm;
+
+import net.lenni0451.commons.asm.info.ClassInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static net.lenni0451.commons.asm.ASMUtils.slash;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JVMResourceClassInfoProviderTest {
+
+    @Test
+    void test() {
+        JVMResourceClassInfoProvider provider = new JVMResourceClassInfoProvider();
+        ClassInfo classInfo = Assertions.assertDoesNotThrow(() -> provider.of(slash(JVMResourceClassInfoProviderTest.class.getName())));
+        assertNotNull(classInfo);
+        assertEquals(slash(JVMResourceClassInfoProviderTest.class.getName()), classInfo.getName());
+        assertEquals(slash(JVMResourceClassInfoProviderTest.class.getSuperclass().getName()), classInfo.getSuperClass());
+        assertNotNull(classInfo.getSuperClassInfo());
+        assertEquals(JVMResourceClassInfoProviderTest.class.getInterfaces().length, classInfo.getInterfaces().length);
+        assertEquals(JVMResourceClassInfoProviderTest.class.getDeclaredFields().length, classInfo.getFields().length);
+        assertSame(classInfo, provider.of(JVMResourceClassInfoProviderTest.class.getName()));
+    }
+
+    @Test
+    void noClassLoading() {
+        JVMResourceClassInfoProvider provider = new JVMResourceClassInfoProvider();
+        ClassInfo classInfo = provider.of(slash(JVMResourceClassInfoProviderTest.class.getName()) + "$NotLoaded");
+        assertEquals(Runnable.class.getName(), classInfo.getInterfaceInfos()[0].getName().replace('/', '.'));
+        assertEquals(1, classInfo.getFields().length);
+        assertNull(System.getProperty("commons.asm.test.notLoaded"));
+    }
+
+
+    private static class NotLoaded implements Runnable {
+        private static final String LOADED = System.setProperty("commons.asm.test.notLoaded", "true");
+
+        @Override
+        public void run() {
+        }
+    }
+
+}
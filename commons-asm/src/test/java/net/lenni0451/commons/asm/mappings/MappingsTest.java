@@ -0,0 +1,29 @@
+package net.lenni0451.commons.asm.mappings;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappingsTest {
+
+    @Test
+    void compose() {
+        Mappings first = new Mappings();
+        first.addClassMapping("a", "class_1");
+        first.addFieldMapping("a", "b", "La;", "field_1");
+        first.addMethodMapping("a", "c", "(La;)V", "method_1");
+        Mappings second = new Mappings();
+        second.addClassMapping("class_1", "Named");
+        second.addClassMapping("class_2", "Other");
+        second.addFieldMapping("class_1", "field_1", "Lclass_1;", "field");
+        second.addMethodMapping("class_1", "method_2", "()V", "method");
+
+        Mappings composed = first.compose(second);
+        assertEquals("Named", composed.map("a"));
+        assertEquals("Other", composed.map("class_2"));
+        assertEquals("field", composed.mapFieldName("a", "b", "La;"));
+        assertEquals("method_1", composed.mapMethodName("a", "c", "(La;)V"));
+        assertEquals("method", composed.mapMethodName("a", "method_2", "()V"));
+    }
+
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -16,6 +17,12 @@ class TinyV2MappingsLoaderTest {
             "\tf\tI\tc\td",
             "\tm\t()I\te\tf"
     );
+    private static final String CHAINED_MAPPINGS = String.join("\n",
+            "tiny\t2\t0\tobf\tintermediary\tnamed",
+            "c\ta\tclass_1\tb",
+            "\tf\tI\tc\tfield_1\t",
+            "\tm\t()La;\te\tmethod_1\tf"
+    );
 
     @Test
     void test() {
@@ -29,4 +36,40 @@ class TinyV2MappingsLoaderTest {
         assertEquals("f", mappings.mapMethodName("a", "e", "()I"));
     }
 
+    @Test
+    void composeThrough() {
+        TinyV2MappingsLoader loader = new TinyV2MappingsLoader(new ByteArrayInputStream(CHAINED_MAPPINGS.getBytes(StandardCharsets.UTF_8)), "obf", "named").composeThrough("intermediary");
+        Mappings mappings = loader.getMappings();
+        assertEquals("b", mappings.map("a"));
+        assertEquals("field_1", mappings.mapFieldName("a", "c", "I"));
+        assertEquals("f", mappings.mapMethodName("a", "e", "()La;"));
+    }
+
+    @Test
+    void parallel() {
+        StringBuilder builder = new StringBuilder("tiny\t2\t0\tobf\tnamed\n");
+        for (int i = 0; i < 500; i++) {
+            builder.append("c\tc").append(i).append("\tClass").append(i).append("\n");
+            builder.append("\tc\tClass comment ").append(i).append("\n");
+            builder.append("\tf\tLc").append((i + 1) % 500).append(";\tf\tfield").append(i).append("\n");
+            builder.append("\tm\t(I)V\tm\tmethod").append(i).append("\n");
+            builder.append("\t\tp\t1\tparam").append(i).append("\n");
+        }
+        byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        TinyV2MappingsLoader sequential = new TinyV2MappingsLoader(new ByteArrayInputStream(bytes), "obf", "named").enableMetaParsing();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TinyV2MappingsLoader parallel = new TinyV2MappingsLoader(new ByteArrayInputStream(bytes), "obf", "named").enableMetaParsing().enableParallelParsing(pool);
+            assertEquals(sequential.getMappings().getClassMappings(), parallel.getMappings().getClassMappings());
+            assertEquals(sequential.getMappings().getFieldMappings(), parallel.getMappings().getFieldMappings());
+            assertEquals(sequential.getMappings().getMethodMappings(), parallel.getMappings().getMethodMappings());
+            assertEquals(sequential.getMetaMappings(), parallel.getMetaMappings());
+            assertEquals(500, parallel.getMetaMappings().size());
+            assertEquals("field0", parallel.getMappings().mapFieldName("c0", "f", "Lc1;"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 }
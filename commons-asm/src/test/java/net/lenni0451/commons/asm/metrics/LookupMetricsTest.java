@@ -0,0 +1,68 @@
+package net.lenni0451.commons.asm.metrics;
+
+import net.lenni0451.commons.asm.info.ClassInfo;
+import net.lenni0451.commons.asm.info.impl.MetricsClassInfoProvider;
+import net.lenni0451.commons.asm.info.impl.jvm.JVMClassInfoProvider;
+import net.lenni0451.commons.asm.provider.LoaderClassProvider;
+import net.lenni0451.commons.asm.provider.MapClassProvider;
+import net.lenni0451.commons.asm.provider.MetricsClassProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookupMetricsTest {
+
+    @Test
+    void classProvider() throws ClassNotFoundException {
+        MetricsClassProvider provider = new MetricsClassProvider("map", new MapClassProvider(Collections.singletonMap("a/B", new byte[10]), MapClassProvider.NameFormat.SLASH));
+        assertEquals(10, provider.getClass("a/B").length);
+        assertThrows(ClassNotFoundException.class, () -> provider.getClass("a/C"));
+
+        LookupMetrics metrics = provider.getMetrics();
+        assertEquals(2, metrics.getLookups());
+        assertEquals(1, metrics.getFound());
+        assertEquals(1, metrics.getNotFound());
+        assertEquals(0.5, metrics.getFoundRatio());
+        assertEquals(10, metrics.getBytesRead());
+        assertEquals(2, Arrays.stream(metrics.getLatencyHistogram()).sum());
+
+        Map<String, Object> snapshot = metrics.snapshot();
+        assertEquals("map", snapshot.get("name"));
+        assertEquals(2L, snapshot.get("lookups"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getLookups());
+    }
+
+    @Test
+    void classInfoProvider() {
+        MetricsClassInfoProvider provider = new MetricsClassInfoProvider("jvm", new JVMClassInfoProvider());
+        assertNotNull(provider.of("java/lang/String"));
+        assertNotNull(provider.of(Object.class));
+        assertThrows(ClassNotFoundException.class, () -> provider.of("does/not/Exist"));
+
+        LookupMetrics metrics = provider.getMetrics();
+        assertEquals(3, metrics.getLookups());
+        assertEquals(2, metrics.getFound());
+        assertEquals(1, metrics.getNotFound());
+    }
+
+    @Test
+    void nestedLookups() {
+        MetricsClassInfoProvider provider = MetricsClassInfoProvider.create("loader", new LoaderClassProvider(LookupMetricsTest.class.getClassLoader()));
+        ClassInfo arrayList = provider.of("java/util/ArrayList");
+        assertTrue(arrayList.getRecursiveSuperClasses().contains(provider.of("java/util/AbstractList")));
+        assertSame(arrayList.getSuperClassInfo(), provider.of("java/util/AbstractList"));
+
+        LookupMetrics metrics = provider.getMetrics();
+        //The super classes and interfaces are resolved through the metrics provider as well
+        assertTrue(metrics.getLookups() > 4);
+        assertEquals(0, metrics.getNotFound());
+        assertTrue(metrics.getBytesRead() > 0);
+    }
+
+}
@@ -0,0 +1,105 @@
+package net.lenni0451.commons.asm.shrink;
+
+import net.lenni0451.commons.asm.ASMUtils;
+import net.lenni0451.commons.asm.io.ClassIO;
+import net.lenni0451.commons.asm.provider.MapClassProvider;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeShakerTest {
+
+    private static Map<String, byte[]> createJar() {
+        ClassNode main = ASMUtils.createEmptyClass("test/Main");
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "()V", null, null);
+        method.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "test/A", "run", "()Ltest/Service;", false));
+        method.instructions.add(new InsnNode(Opcodes.POP));
+        method.instructions.add(new InsnNode(Opcodes.RETURN));
+        main.methods.add(method);
+        ClassNode a = ASMUtils.createEmptyClass("test/A");
+        a.superName = "test/B";
+        ClassNode service = ASMUtils.createEmptyClass("test/Service");
+        service.access |= Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT;
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("test/Main.class", ClassIO.toStacklessBytes(main));
+        entries.put("test/A.class", ClassIO.toStacklessBytes(a));
+        entries.put("test/B.class", ClassIO.toStacklessBytes(ASMUtils.createEmptyClass("test/B")));
+        entries.put("test/Service.class", ClassIO.toStacklessBytes(service));
+        entries.put("test/ServiceImpl.class", ClassIO.toStacklessBytes(ASMUtils.createEmptyClass("test/ServiceImpl")));
+        entries.put("test/Unused.class", ClassIO.toStacklessBytes(ASMUtils.createEmptyClass("test/Unused")));
+        entries.put("test/plugins/Plugin.class", ClassIO.toStacklessBytes(ASMUtils.createEmptyClass("test/plugins/Plugin")));
+        entries.put("META-INF/services/test.Service", "# comment\ntest.ServiceImpl\n".getBytes(StandardCharsets.UTF_8));
+        entries.put("resource.txt", new byte[0]);
+        return entries;
+    }
+
+    @Test
+    void analyze() {
+        Map<String, byte[]> entries = createJar();
+        TreeShaker shaker = new TreeShaker(new MapClassProvider(entries, MapClassProvider.NameFormat.SLASH_CLASS)).entryPoints("test.Main");
+        assertEquals(new HashSet<>(Arrays.asList("test/Main", "test/A", "test/B", "test/Service")), shaker.analyze());
+    }
+
+    @Test
+    void shakeJarEntries() {
+        Map<String, byte[]> entries = createJar();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            TreeShaker shaker = new TreeShaker(new MapClassProvider(entries, MapClassProvider.NameFormat.SLASH_CLASS))
+                    .entryPoints("test/Main")
+                    .reflectionHints(Collections.singletonList("test/plugins/*"))
+                    .parallel(pool);
+            Map<String, byte[]> shaken = shaker.shakeJarEntries(entries);
+            assertTrue(shaken.containsKey("test/ServiceImpl.class"));
+            assertTrue(shaken.containsKey("test/plugins/Plugin.class"));
+            assertTrue(shaken.containsKey("resource.txt"));
+            assertFalse(shaken.containsKey("test/Unused.class"));
+            assertEquals(entries.size() - 1, shaken.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void servicesAreNotKept() {
+        Map<String, byte[]> entries = createJar();
+        TreeShaker shaker = new TreeShaker(new MapClassProvider(entries, MapClassProvider.NameFormat.SLASH_CLASS)).entryPoints("test/Main");
+        assertTrue(shaker.shakeJarEntries(entries).containsKey("test/ServiceImpl.class"));
+
+        //The service file of the previous call must not be used again
+        Map<String, byte[]> withoutServices = new LinkedHashMap<>(entries);
+        withoutServices.remove("META-INF/services/test.Service");
+        assertFalse(shaker.shakeJarEntries(withoutServices).containsKey("test/ServiceImpl.class"));
+        assertFalse(shaker.analyze().contains("test/ServiceImpl"));
+    }
+
+    @Test
+    void signatureFilesAreRemoved() {
+        Map<String, byte[]> entries = createJar();
+        entries.put("META-INF/TEST.SF", new byte[0]);
+        entries.put("META-INF/TEST.RSA", new byte[0]);
+        entries.put("META-INF/other/TEST.SF", new byte[0]);
+        TreeShaker shaker = new TreeShaker(new MapClassProvider(entries, MapClassProvider.NameFormat.SLASH_CLASS))
+                .entryPoints("test/Main")
+                .reflectionHints(Collections.singletonList("test/*"));
+        //Nothing is removed, the signature stays valid
+        assertEquals(entries.keySet(), shaker.shakeJarEntries(entries).keySet());
+
+        shaker = new TreeShaker(new MapClassProvider(entries, MapClassProvider.NameFormat.SLASH_CLASS)).entryPoints("test/Main");
+        Map<String, byte[]> shaken = shaker.shakeJarEntries(entries);
+        assertFalse(shaken.containsKey("META-INF/TEST.SF"));
+        assertFalse(shaken.containsKey("META-INF/TEST.RSA"));
+        assertTrue(shaken.containsKey("META-INF/other/TEST.SF"));
+    }
+
+}
@@ -11,18 +11,25 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 
 /**
- * A class loader with the ability to load classes from a byte array.
+ * A class loader with the ability to load classes from a byte array.<br>
+ * The class loader is parallel capable and can be used to load classes and add entries from multiple threads.
  */
 public class ByteArrayClassLoader extends ClassLoader {
 
-    private final Map<String, byte[]> content = new HashMap<>();
-    private final Map<String, Class<?>> loadedClasses = new HashMap<>();
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+
+    private final Map<String, Supplier<byte[]>> content = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> loadedClasses = new ConcurrentHashMap<>();
 
     public ByteArrayClassLoader(@Nullable final ClassLoader parent) {
         super(parent);
@@ -30,12 +37,20 @@ public class ByteArrayClassLoader extends ClassLoader {
 
     /**
      * Add a jar to the class loader.<br>
-     * All entries will be iterated and added.
+     * Only the central directory of the jar is read. The entries are inflated when they are accessed and only softly cached.<br>
+     * The byte array must not be modified after it has been added.<br>
+     * If the jar can't be indexed (e.g. Zip64 or encrypted entries), all entries will be iterated and added.
      *
      * @param data The jar file as byte array
      * @throws IOException If an I/O error occurs
      */
     public void addJar(final byte[] data) throws IOException {
+        Map<String, Supplier<byte[]>> entries = LazyJarIndex.index(data);
+        if (entries != null) {
+            this.content.putAll(entries);
+            return;
+        }
+
         final JarInputStream jis = new JarInputStream(new ByteArrayInputStream(data));
         JarEntry entry;
         while ((entry = jis.getNextJarEntry()) != null) {
@@ -53,35 +68,39 @@ public class ByteArrayClassLoader extends ClassLoader {
      * @param data The data of the entry
      */
     public void addEntry(final String name, final byte[] data) {
-        this.content.put(name, data);
+        this.content.put(name, () -> data);
     }
 
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
-        try {
-            return super.findClass(name);
-        } catch (Throwable ignored) {
+        Class<?> clazz = this.loadedClasses.get(name);
+        if (clazz != null) return clazz;
+
+        //findClass may be called directly, so the lock has to be acquired here as well
+        synchronized (this.getClassLoadingLock(name)) {
+            clazz = this.loadedClasses.get(name);
+            if (clazz != null) return clazz;
+
+            byte[] data = this.getEntry(name.replace(".", "/") + ".class");
+            if (data == null) throw new ClassNotFoundException(name);
+            clazz = this.defineClass(name, data, 0, data.length);
+            this.defineClassPackage(clazz.getName());
+            this.loadedClasses.put(name, clazz);
+            return clazz;
         }
-        if (this.loadedClasses.containsKey(name)) return this.loadedClasses.get(name);
-
-        byte[] data = this.content.get(name.replace(".", "/") + ".class");
-        if (data == null) throw new ClassNotFoundException(name);
-        Class<?> clazz = this.defineClass(name, data, 0, data.length);
-        this.defineClassPackage(clazz.getName());
-        this.loadedClasses.put(name, clazz);
-        return clazz;
     }
 
     @Override
     public InputStream getResourceAsStream(String name) {
-        if (!this.content.containsKey(name)) return null;
-        return new ByteArrayInputStream(this.content.get(name));
+        byte[] data = this.getEntry(name);
+        if (data == null) return null;
+        return new ByteArrayInputStream(data);
     }
 
     @Override
     @SneakyThrows
     public URL getResource(String name) {
-        byte[] data = this.content.get(name);
+        byte[] data = this.getEntry(name);
         if (data == null) return super.getResource(name);
         return ByteArrayURLStreamHandler.makeURL(name, data);
     }
@@ -98,11 +117,22 @@ public class ByteArrayClassLoader extends ClassLoader {
         return new SingletonEnumeration<>(resource);
     }
 
+    @Nullable
+    private byte[] getEntry(final String name) {
+        Supplier<byte[]> entry = this.content.get(name);
+        if (entry == null) return null;
+        return entry.get();
+    }
+
     private void defineClassPackage(final String name) {
         if (!name.contains(".")) return;
         String packageName = name.substring(0, name.lastIndexOf("."));
         if (this.getPackage(packageName) != null) return;
-        this.definePackage(packageName, null, null, null, null, null, null, null);
+        try {
+            this.definePackage(packageName, null, null, null, null, null, null, null);
+        } catch (IllegalArgumentException ignored) {
+            //The package has been defined by another thread
+        }
     }
 
 }
@@ -0,0 +1,159 @@
+package net.lenni0451.commons.classloader;
+
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An index over the central directory of a zip file stored in a byte array.<br>
+ * The entries are not copied or inflated until they are accessed for the first time.<br>
+ * Inflated entries are only softly referenced, so they can be reclaimed by the garbage collector and are read again when needed.
+ */
+class LazyJarIndex {
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054B50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014B50;
+    private static final int LOCAL_FILE_HEADER = 0x04034B50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    /**
+     * Index all file entries of the given zip file.<br>
+     * Zip64 files, encrypted entries and unsupported compression methods are not supported.
+     *
+     * @param data The zip file as byte array
+     * @return The entries of the zip file or {@code null} if the zip file is not supported
+     */
+    @Nullable
+    static Map<String, Supplier<byte[]>> index(final byte[] data) {
+        int end = findEndOfCentralDirectory(data);
+        if (end == -1) return null;
+        int entryCount = readShort(data, end + 10);
+        long directoryOffset = readInt(data, end + 16) & 0xFFFF_FFFFL;
+        if (entryCount == 0xFFFF || directoryOffset == 0xFFFF_FFFFL) return null; //Zip64
+        if (directoryOffset > end) return null;
+
+        Map<String, Supplier<byte[]>> entries = new LinkedHashMap<>();
+        int offset = (int) directoryOffset;
+        for (int i = 0; i < entryCount; i++) {
+            if (offset + 46 > data.length || readInt(data, offset) != CENTRAL_DIRECTORY_HEADER) return null;
+            int flags = readShort(data, offset + 8);
+            int method = readShort(data, offset + 10);
+            long compressedSize = readInt(data, offset + 20) & 0xFFFF_FFFFL;
+            long size = readInt(data, offset + 24) & 0xFFFF_FFFFL;
+            int nameLength = readShort(data, offset + 28);
+            int extraLength = readShort(data, offset + 30);
+            int commentLength = readShort(data, offset + 32);
+            long localHeaderOffset = readInt(data, offset + 42) & 0xFFFF_FFFFL;
+            if (offset + 46 + nameLength > data.length) return null;
+            String name = new String(data, offset + 46, nameLength, StandardCharsets.UTF_8);
+            offset += 46 + nameLength + extraLength + commentLength;
+
+            if (name.endsWith("/")) continue;
+            if ((flags & 1) != 0) return null; //Encrypted
+            if (method != STORED && method != DEFLATED) return null;
+            if (compressedSize >= Integer.MAX_VALUE || size >= Integer.MAX_VALUE || localHeaderOffset >= data.length) return null;
+            entries.put(name, new Entry(data, (int) localHeaderOffset, method, (int) compressedSize, (int) size));
+        }
+        return entries;
+    }
+
+    private static int findEndOfCentralDirectory(final byte[] data) {
+        int min = Math.max(0, data.length - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_LENGTH);
+        for (int i = data.length - END_OF_CENTRAL_DIRECTORY_SIZE; i >= min; i--) {
+            if (readInt(data, i) == END_OF_CENTRAL_DIRECTORY) return i;
+        }
+        return -1;
+    }
+
+    private static int readShort(final byte[] data, final int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int readInt(final byte[] data, final int offset) {
+        return readShort(data, offset) | readShort(data, offset + 2) << 16;
+    }
+
+
+    /**
+     * A zip entry which is read from the original byte array when it is accessed.<br>
+     * The read data is kept until the garbage collector needs the memory, the compressed data is always available.
+     */
+    private static class Entry implements Supplier<byte[]> {
+        private final byte[] zip;
+        private final int localHeaderOffset;
+        private final int method;
+        private final int compressedSize;
+        private final int size;
+        private volatile SoftReference<byte[]> data;
+
+        private Entry(final byte[] zip, final int localHeaderOffset, final int method, final int compressedSize, final int size) {
+            this.zip = zip;
+            this.localHeaderOffset = localHeaderOffset;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+
+        @Override
+        public byte[] get() {
+            byte[] data = this.getCached();
+            if (data == null) {
+                synchronized (this) {
+                    data = this.getCached();
+                    if (data == null) {
+                        data = this.read();
+                        this.data = new SoftReference<>(data);
+                    }
+                }
+            }
+            return data;
+        }
+
+        @Nullable
+        private byte[] getCached() {
+            SoftReference<byte[]> data = this.data;
+            return data == null ? null : data.get();
+        }
+
+        private byte[] read() {
+            int offset = this.localHeaderOffset;
+            if (offset + 30 > this.zip.length || readInt(this.zip, offset) != LOCAL_FILE_HEADER) {
+                throw new IllegalStateException("Invalid local file header at offset " + offset);
+            }
+            //The name and extra field lengths of the local header may differ from the central directory
+            int dataOffset = offset + 30 + readShort(this.zip, offset + 26) + readShort(this.zip, offset + 28);
+            if (dataOffset + this.compressedSize > this.zip.length) throw new IllegalStateException("Entry data exceeds the zip file");
+
+            byte[] out = new byte[this.size];
+            if (this.method == STORED) {
+                System.arraycopy(this.zip, dataOffset, out, 0, this.size);
+                return out;
+            }
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(this.zip, dataOffset, this.compressedSize);
+                int length = 0;
+                while (length < out.length && !inflater.finished()) {
+                    int read = inflater.inflate(out, length, out.length - length);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    length += read;
+                }
+                if (length != out.length) throw new IllegalStateException("Entry size does not match the inflated size");
+                return out;
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Failed to inflate entry", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package net.lenni0451.commons.classloader;
+
+import net.lenni0451.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteArrayClassLoaderTest {
+
+    private static byte[] createClass(final String name) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", new String[]{"java/util/function/Supplier"});
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(1, 1);
+        constructor.visitEnd();
+
+        MethodVisitor get = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "get", "()Ljava/lang/Object;", null, null);
+        get.visitCode();
+        get.visitLdcInsn(name);
+        get.visitInsn(Opcodes.ARETURN);
+        get.visitMaxs(1, 1);
+        get.visitEnd();
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static byte[] createJar(final Map<String, byte[]> entries, final boolean stored) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (JarOutputStream jos = new JarOutputStream(baos)) {
+            jos.putNextEntry(new ZipEntry("net/lenni0451/"));
+            jos.closeEntry();
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                if (stored) {
+                    CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(entry.getValue().length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                jos.putNextEntry(zipEntry);
+                jos.write(entry.getValue());
+                jos.closeEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    void lazyJarEntries() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("net/lenni0451/test/A.class", createClass("net/lenni0451/test/A"));
+        entries.put("assets/test.txt", "Hello World".getBytes(StandardCharsets.UTF_8));
+
+        for (boolean stored : new boolean[]{false, true}) {
+            ByteArrayClassLoader classLoader = new ByteArrayClassLoader(null);
+            classLoader.addJar(createJar(entries, stored));
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                try (InputStream is = classLoader.getResourceAsStream(entry.getKey())) {
+                    assertNotNull(is);
+                    assertArrayEquals(entry.getValue(), IOUtils.readAll(is));
+                }
+            }
+            assertNull(classLoader.getResourceAsStream("net/lenni0451/"));
+            assertNotNull(classLoader.getResource("assets/test.txt"));
+
+            Class<?> clazz = assertDoesNotThrow(() -> classLoader.loadClass("net.lenni0451.test.A"));
+            Supplier<?> supplier = (Supplier<?>) assertDoesNotThrow(() -> clazz.getDeclaredConstructor().newInstance());
+            assertEquals("net/lenni0451/test/A", supplier.get());
+        }
+    }
+
+    @Test
+    void invalidJar() {
+        ByteArrayClassLoader classLoader = new ByteArrayClassLoader(null);
+        assertDoesNotThrow(() -> classLoader.addJar(new byte[64]));
+        assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass("net.lenni0451.test.A"));
+    }
+
+    @Test
+    void concurrentLoading() throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) entries.put("net/lenni0451/test/Class" + i + ".class", createClass("net/lenni0451/test/Class" + i));
+        ByteArrayClassLoader classLoader = new ByteArrayClassLoader(null);
+        classLoader.addJar(createJar(entries, false));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Class<?>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                for (int i = 0; i < 20; i++) {
+                    String name = "net.lenni0451.test.Class" + i;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return classLoader.findClass(name);
+                    }));
+                }
+            }
+            start.countDown();
+
+            Map<String, Class<?>> classes = new HashMap<>();
+            for (Future<Class<?>> future : futures) {
+                Class<?> clazz = future.get(10, TimeUnit.SECONDS);
+                Class<?> existing = classes.putIfAbsent(clazz.getName(), clazz);
+                if (existing != null) assertSame(existing, clazz);
+            }
+            assertEquals(20, classes.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
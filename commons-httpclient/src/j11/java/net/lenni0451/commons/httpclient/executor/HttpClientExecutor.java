@@ -5,35 +5,73 @@ import net.lenni0451.commons.httpclient.HttpResponse;
 import net.lenni0451.commons.httpclient.constants.HttpHeaders;
 import net.lenni0451.commons.httpclient.content.HttpContent;
 import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
+import net.lenni0451.commons.httpclient.events.RequestTimeline;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
+import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
 import net.lenni0451.commons.httpclient.proxy.ProxyType;
 import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
 import net.lenni0451.commons.httpclient.requests.HttpRequest;
-import net.lenni0451.commons.httpclient.utils.CloseListenerInputStream;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
 import net.lenni0451.commons.httpclient.utils.IgnoringTrustManager;
+import net.lenni0451.commons.httpclient.utils.ThreadUtils;
 import net.lenni0451.commons.httpclient.utils.URLWrapper;
 
 import javax.annotation.Nonnull;
-import java.io.Closeable;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
 import java.net.CookieManager;
+import java.net.MalformedURLException;
+import java.net.SocketAddress;
+import java.net.URL;
 import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest.BodyPublisher;
 import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandler;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.time.Duration;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Executor;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This executor uses the Java 11 HttpClient to execute requests.<br>
+ * One HttpClient is created and reused for every distinct client configuration (timeouts, proxy, SSL, redirects, cookies and protocol).
+ * Only the {@value #MAX_CLIENTS} most recently used clients are kept, older clients are shut down after their running requests.
+ * This allows the HttpClient to reuse connections, TLS sessions and HTTP/2 streams across requests.
+ * Concurrent HTTP/2 requests to the same origin are multiplexed over a single connection.<br>
+ * The Java 11 HttpClient does not expose its connections, so only the start, headers and body events are reported to the event listener.<br>
  * <b>Make sure you are running Java 11 or higher before loading this class!</b><br>
  * The safest way to access this class is by using Reflection.
  */
 public class HttpClientExecutor extends RequestExecutor {
 
+    private static final int MAX_CLIENTS = 16;
+    @Nullable
+    private static final Method SHUTDOWN = findMethod("shutdown");
+    @Nullable
+    private static final Method SHUTDOWN_NOW = findMethod("shutdownNow");
+
+    @Nullable
+    private static Method findMethod(final String name) {
+        try {
+            return java.net.http.HttpClient.class.getMethod(name); //Only available since Java 21
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+
+    private final Map<ClientConfig, java.net.http.HttpClient> clients = new LinkedHashMap<>(MAX_CLIENTS, 0.75F, true);
+    private ExecutorService executor;
+    private volatile boolean closed = false;
+
     public HttpClientExecutor(final HttpClient client) {
         super(client);
     }
@@ -41,51 +79,163 @@ public class HttpClientExecutor extends RequestExecutor {
     @Nonnull
     @Override
     public HttpResponse execute(@Nonnull final HttpRequest request) throws IOException {
-        ExecutorService executor = Executors.newCachedThreadPool();
-        java.net.http.HttpClient httpClient = null;
-        boolean close = true;
+        RequestTimeline timeline = this.startTimeline(request);
         try {
-            httpClient = this.buildClient(request, executor);
+            java.net.http.HttpClient httpClient = this.getClient(request);
             java.net.http.HttpRequest httpRequest = this.buildRequest(request);
             if (request.isStreamedResponse()) {
-                java.net.http.HttpResponse<InputStream> response = this.executeRequest(httpClient, httpRequest, BodyHandlers.ofInputStream());
-                InputStream inputStream = new CloseListenerInputStream(response.body(), this.closeListener(executor, httpClient));
-                close = false; //Closing the http client would also close the input stream
-                return new HttpResponse(new URLWrapper(response.uri()).toURL(), response.statusCode(), inputStream, response.headers().map());
+                java.net.http.HttpResponse<InputStream> response = this.executeRequest(httpClient, httpRequest, observe(timeline, BodyHandlers.ofInputStream()));
+                return new HttpResponse(new URLWrapper(response.uri()).toURL(), response.statusCode(), toProtocol(response.version()), timeline.observe(response.body()), response.headers().map());
             } else {
-                java.net.http.HttpResponse<byte[]> response = this.executeRequest(httpClient, httpRequest, BodyHandlers.ofByteArray());
-                return new HttpResponse(new URLWrapper(response.uri()).toURL(), response.statusCode(), response.body(), response.headers().map());
+                java.net.http.HttpResponse<byte[]> response = this.executeRequest(httpClient, httpRequest, observe(timeline, BodyHandlers.ofByteArray()));
+                timeline.bodyCompleted();
+                return new HttpResponse(new URLWrapper(response.uri()).toURL(), response.statusCode(), toProtocol(response.version()), response.body(), response.headers().map());
+            }
+        } catch (Throwable t) {
+            timeline.failed(t);
+            throw t;
+        }
+    }
+
+    /**
+     * Execute a request using the non-blocking API of the Java 11 HttpClient.<br>
+     * No thread is blocked while waiting for the response.
+     *
+     * @param request The request to execute
+     * @return A future which is completed with the response
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(@Nonnull final HttpRequest request) {
+        RequestTimeline timeline = this.startTimeline(request);
+        java.net.http.HttpClient httpClient;
+        java.net.http.HttpRequest httpRequest;
+        try {
+            httpClient = this.getClient(request);
+            httpRequest = this.buildRequest(request);
+        } catch (Throwable t) {
+            timeline.failed(t);
+            return CompletableFuture.failedFuture(t);
+        }
+        //Cancelling the returned future cancels the request, the body of a response which arrives afterward is closed
+        CompletableFuture<HttpResponse> future;
+        if (request.isStreamedResponse()) {
+            future = FutureUtils.mapResponse(httpClient.sendAsync(httpRequest, observe(timeline, BodyHandlers.ofInputStream())), response ->
+                    new HttpResponse(toURL(response), response.statusCode(), toProtocol(response.version()), timeline.observe(response.body()), response.headers().map())
+            );
+        } else {
+            future = FutureUtils.mapResponse(httpClient.sendAsync(httpRequest, observe(timeline, BodyHandlers.ofByteArray())), response -> {
+                timeline.bodyCompleted();
+                return new HttpResponse(toURL(response), response.statusCode(), toProtocol(response.version()), response.body(), response.headers().map());
+            });
+        }
+        future.whenComplete((response, t) -> {
+            if (t != null) timeline.failed(t);
+        });
+        return future;
+    }
+
+    /**
+     * Close all cached HttpClients and the shared thread pool.<br>
+     * Running requests are aborted and streamed responses which are still open are closed on Java 21+.
+     * Older clients can't be shut down, their requests keep running until they are finished.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        List<java.net.http.HttpClient> clients;
+        synchronized (this.clients) {
+            clients = new ArrayList<>(this.clients.values());
+            this.clients.clear();
+        }
+        //Closing the clients would wait for all running requests, including streamed responses which are never read
+        for (java.net.http.HttpClient httpClient : clients) invoke(SHUTDOWN_NOW, httpClient);
+        synchronized (this) {
+            if (this.executor != null) this.executor.shutdownNow();
+        }
+        super.close();
+    }
+
+    private java.net.http.HttpClient getClient(final HttpRequest request) throws IOException {
+        if (this.closed) throw new IllegalStateException("The executor has been closed");
+        ClientConfig config = new ClientConfig(
+                this.client.getConnectTimeout(),
+                this.getCookieManager(request),
+                this.isIgnoreInvalidSSL(request),
+                this.getRedirect(request),
+                this.client.getPreferredProtocol(),
+                this.getProxyHandler(request)
+        );
+        java.net.http.HttpClient httpClient;
+        synchronized (this.clients) {
+            httpClient = this.clients.get(config);
+        }
+        if (httpClient != null) return httpClient;
+
+        //Build the client outside the lock to avoid blocking other configurations
+        httpClient = this.buildClient(config);
+        java.net.http.HttpClient evicted = null;
+        synchronized (this.clients) {
+            java.net.http.HttpClient existing = this.clients.putIfAbsent(config, httpClient);
+            if (existing != null) return existing;
+            if (this.clients.size() > MAX_CLIENTS) {
+                Iterator<java.net.http.HttpClient> it = this.clients.values().iterator();
+                evicted = it.next();
+                it.remove();
+            }
+        }
+        if (evicted != null) shutdown(evicted);
+        if (this.closed) {
+            //The executor was closed while the client was built, it might not have seen the new client
+            synchronized (this.clients) {
+                this.clients.remove(config, httpClient);
             }
-        } finally {
-            if (close) this.closeListener(executor, httpClient).close();
+            shutdown(httpClient);
+            throw new IllegalStateException("The executor has been closed");
         }
+        return httpClient;
     }
 
-    private java.net.http.HttpClient buildClient(final HttpRequest request, final Executor executor) throws IOException {
-        java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder().executor(executor);
-        CookieManager cookieManager = this.getCookieManager(request);
-        if (cookieManager != null) builder.cookieHandler(cookieManager);
-        if (this.isIgnoreInvalidSSL(request)) builder.sslContext(IgnoringTrustManager.makeIgnoringSSLContext());
-        builder.connectTimeout(Duration.ofMillis(this.client.getConnectTimeout()));
+    private synchronized ExecutorService getExecutor() {
+        if (this.executor == null) {
+            if (this.client.isVirtualThreads()) this.executor = ThreadUtils.newVirtualExecutor("HttpClientExecutor");
+            if (this.executor == null) {
+                AtomicInteger threadId = new AtomicInteger();
+                this.executor = Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "HttpClientExecutor-" + threadId.incrementAndGet());
+                    thread.setDaemon(true); //The threads should not prevent the JVM from exiting if the client is not closed
+                    return thread;
+                });
+            }
+        }
+        return this.executor;
+    }
+
+    private Redirect getRedirect(final HttpRequest request) {
         switch (request.getFollowRedirects()) {
-            case NOT_SET:
-                builder.followRedirects(this.client.isFollowRedirects() ? Redirect.NORMAL : Redirect.NEVER);
-                break;
             case FOLLOW:
-                builder.followRedirects(Redirect.NORMAL);
-                break;
+                return Redirect.NORMAL;
             case IGNORE:
-                builder.followRedirects(Redirect.NEVER);
-                break;
+                return Redirect.NEVER;
+            default:
+                return this.client.isFollowRedirects() ? Redirect.NORMAL : Redirect.NEVER;
         }
-        if (this.client.getProxyHandler().isProxySet()) {
-            if (!ProxyType.HTTP.equals(this.client.getProxyHandler().getProxyType())) {
+    }
+
+    private java.net.http.HttpClient buildClient(final ClientConfig config) throws IOException {
+        java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder().executor(this.getExecutor());
+        if (config.cookieManager != null) builder.cookieHandler(config.cookieManager);
+        if (config.ignoreInvalidSSL) builder.sslContext(IgnoringTrustManager.makeIgnoringSSLContext());
+        builder.connectTimeout(Duration.ofMillis(config.connectTimeout));
+        builder.followRedirects(config.redirect);
+        builder.version(HttpProtocol.HTTP_2.equals(config.protocol) ? Version.HTTP_2 : Version.HTTP_1_1);
+        if (config.proxyType != null) {
+            if (!ProxyType.HTTP.equals(config.proxyType)) {
                 throw new UnsupportedOperationException("The Java 11 HttpClient only supports HTTP proxies");
             }
-            builder.proxy(this.client.getProxyHandler().getProxySelector());
-            if (this.client.getProxyHandler().getUsername() != null && this.client.getProxyHandler().getPassword() != null) {
-                builder.authenticator(this.client.getProxyHandler().getProxyAuthenticator());
-            }
+            ProxyHandler proxyHandler = new ProxyHandler(config.proxyType, config.proxyAddress, config.proxyUsername, config.proxyPassword);
+            builder.proxy(proxyHandler.getProxySelector());
+            if (proxyHandler.isAuthenticationSet()) builder.authenticator(proxyHandler.getProxyAuthenticator());
         }
         return builder.build();
     }
@@ -97,8 +247,23 @@ public class HttpClientExecutor extends RequestExecutor {
         if (request instanceof HttpContentRequest && ((HttpContentRequest) request).hasContent()) {
             HttpContent content = ((HttpContentRequest) request).getContent();
             if (content instanceof StreamedHttpContent) {
-                InputStream inputStream = ((StreamedHttpContent) content).getInputStream();
-                builder.method(request.getMethod(), BodyPublishers.ofInputStream(() -> inputStream));
+                StreamedHttpContent streamedContent = (StreamedHttpContent) content;
+                BodyPublisher publisher;
+                if (streamedContent.isRepeatable()) {
+                    //Repeatable contents open a new stream every time the body is sent
+                    publisher = BodyPublishers.ofInputStream(() -> {
+                        try {
+                            return streamedContent.getInputStream();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } else {
+                    InputStream inputStream = streamedContent.getInputStream();
+                    publisher = BodyPublishers.ofInputStream(() -> inputStream);
+                }
+                int contentLength = streamedContent.getContentLength();
+                builder.method(request.getMethod(), contentLength > 0 ? BodyPublishers.fromPublisher(publisher, contentLength) : publisher);
             } else {
                 builder.method(request.getMethod(), BodyPublishers.ofByteArray(content.getAsBytes()));
             }
@@ -120,11 +285,93 @@ public class HttpClientExecutor extends RequestExecutor {
         }
     }
 
-    private CloseListenerInputStream.CloseListener closeListener(final ExecutorService executor, final java.net.http.HttpClient httpClient) {
-        return () -> {
-            executor.shutdownNow();
-            if (httpClient instanceof Closeable) ((Closeable) httpClient).close();
+    private static void shutdown(final java.net.http.HttpClient httpClient) {
+        invoke(SHUTDOWN, httpClient);
+    }
+
+    private static void invoke(@Nullable final Method method, final java.net.http.HttpClient httpClient) {
+        //Clients before Java 21 can't be shut down, their resources are freed once they are no longer referenced
+        if (method == null) return;
+        try {
+            method.invoke(httpClient);
+        } catch (Throwable ignored) {
+        }
+    }
+
+    private static <T> BodyHandler<T> observe(final RequestTimeline timeline, final BodyHandler<T> bodyHandler) {
+        //The body handler is only called for the final response after all redirects have been followed
+        return responseInfo -> {
+            timeline.headersReceived(responseInfo.statusCode());
+            return bodyHandler.apply(responseInfo);
         };
     }
 
+    private static HttpProtocol toProtocol(final Version version) {
+        return Version.HTTP_2.equals(version) ? HttpProtocol.HTTP_2 : HttpProtocol.HTTP_1_1;
+    }
+
+    private static URL toURL(final java.net.http.HttpResponse<?> response) {
+        try {
+            return new URLWrapper(response.uri()).toURL();
+        } catch (MalformedURLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+
+    /**
+     * The options which can't be changed per request in the Java 11 HttpClient.<br>
+     * The proxy is stored by value because the proxy handler is mutable.
+     */
+    private static final class ClientConfig {
+        private final int connectTimeout;
+        @Nullable
+        private final CookieManager cookieManager;
+        private final boolean ignoreInvalidSSL;
+        private final Redirect redirect;
+        private final HttpProtocol protocol;
+        @Nullable
+        private final ProxyType proxyType;
+        @Nullable
+        private final SocketAddress proxyAddress;
+        @Nullable
+        private final String proxyUsername;
+        @Nullable
+        private final String proxyPassword;
+
+        private ClientConfig(final int connectTimeout, @Nullable final CookieManager cookieManager, final boolean ignoreInvalidSSL, final Redirect redirect, final HttpProtocol protocol, final ProxyHandler proxyHandler) {
+            this.connectTimeout = connectTimeout;
+            this.cookieManager = cookieManager;
+            this.ignoreInvalidSSL = ignoreInvalidSSL;
+            this.redirect = redirect;
+            this.protocol = protocol;
+            boolean proxySet = proxyHandler.isProxySet();
+            this.proxyType = proxySet ? proxyHandler.getProxyType() : null;
+            this.proxyAddress = proxySet ? proxyHandler.getAddress() : null;
+            this.proxyUsername = proxySet ? proxyHandler.getUsername() : null;
+            this.proxyPassword = proxySet ? proxyHandler.getPassword() : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || this.getClass() != o.getClass()) return false;
+            ClientConfig that = (ClientConfig) o;
+            return this.connectTimeout == that.connectTimeout
+                    && this.cookieManager == that.cookieManager //Cookie managers are compared by identity
+                    && this.ignoreInvalidSSL == that.ignoreInvalidSSL
+                    && this.redirect == that.redirect
+                    && this.protocol == that.protocol
+                    && this.proxyType == that.proxyType
+                    && Objects.equals(this.proxyAddress, that.proxyAddress)
+                    && Objects.equals(this.proxyUsername, that.proxyUsername)
+                    && Objects.equals(this.proxyPassword, that.proxyPassword);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.connectTimeout, System.identityHashCode(this.cookieManager), this.ignoreInvalidSSL, this.redirect, this.protocol, this.proxyType, this.proxyAddress, this.proxyUsername, this.proxyPassword);
+        }
+    }
+
 }
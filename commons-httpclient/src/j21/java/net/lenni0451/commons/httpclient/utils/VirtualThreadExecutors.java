@@ -0,0 +1,26 @@
+package net.lenni0451.commons.httpclient.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Create executors which run every task on a new virtual thread.<br>
+ * <b>Make sure you are running Java 21 or higher before loading this class!</b><br>
+ * The safest way to access this class is by using {@link ThreadUtils}.
+ */
+public final class VirtualThreadExecutors {
+
+    private VirtualThreadExecutors() {
+    }
+
+    /**
+     * Create a new executor which starts a virtual thread for every task.
+     *
+     * @param name The name prefix of the threads
+     * @return The executor
+     */
+    public static ExecutorService create(final String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+}
@@ -0,0 +1,83 @@
+package net.lenni0451.commons.httpclient;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Calculates the delay before a request is retried.<br>
+ * Jittered policies spread the retries of many clients over time, so they don't all hit the server at the same moment.
+ *
+ * @see RetryHandler#setBackoffPolicy(BackoffPolicy)
+ */
+@FunctionalInterface
+public interface BackoffPolicy {
+
+    /**
+     * Retry immediately.
+     */
+    BackoffPolicy NONE = (attempt, previousDelay) -> 0;
+
+    /**
+     * Always wait the same amount of time.
+     *
+     * @param delay The delay in milliseconds
+     * @return The backoff policy
+     */
+    static BackoffPolicy fixed(final long delay) {
+        if (delay < 0) throw new IllegalArgumentException("delay must be >= 0");
+        return (attempt, previousDelay) -> delay;
+    }
+
+    /**
+     * Double the delay after every attempt.<br>
+     * The delay is {@code min(maxDelay, baseDelay * 2^(attempt - 1))}.
+     *
+     * @param baseDelay The delay of the first retry in milliseconds
+     * @param maxDelay  The maximum delay in milliseconds
+     * @return The backoff policy
+     */
+    static BackoffPolicy exponential(final long baseDelay, final long maxDelay) {
+        if (baseDelay < 0) throw new IllegalArgumentException("baseDelay must be >= 0");
+        if (maxDelay < baseDelay) throw new IllegalArgumentException("maxDelay must be >= baseDelay");
+        return (attempt, previousDelay) -> (long) Math.min(maxDelay, baseDelay * Math.pow(2, Math.max(0, attempt - 1)));
+    }
+
+    /**
+     * Double the delay after every attempt and pick a random delay between zero and the calculated delay ("full jitter").
+     *
+     * @param baseDelay The delay of the first retry in milliseconds
+     * @param maxDelay  The maximum delay in milliseconds
+     * @return The backoff policy
+     * @see #exponential(long, long)
+     */
+    static BackoffPolicy exponentialJitter(final long baseDelay, final long maxDelay) {
+        BackoffPolicy exponential = exponential(baseDelay, maxDelay);
+        return (attempt, previousDelay) -> ThreadLocalRandom.current().nextLong(exponential.getDelay(attempt, previousDelay) + 1);
+    }
+
+    /**
+     * Pick a random delay between the base delay and three times the previous delay ("decorrelated jitter").<br>
+     * The delay is {@code min(maxDelay, random(baseDelay, previousDelay * 3))}.
+     *
+     * @param baseDelay The minimum delay in milliseconds
+     * @param maxDelay  The maximum delay in milliseconds
+     * @return The backoff policy
+     */
+    static BackoffPolicy decorrelatedJitter(final long baseDelay, final long maxDelay) {
+        if (baseDelay < 0) throw new IllegalArgumentException("baseDelay must be >= 0");
+        if (maxDelay < baseDelay) throw new IllegalArgumentException("maxDelay must be >= baseDelay");
+        return (attempt, previousDelay) -> {
+            long upper = Math.max(baseDelay, previousDelay > Long.MAX_VALUE / 3 ? Long.MAX_VALUE - 1 : previousDelay * 3);
+            return Math.min(maxDelay, ThreadLocalRandom.current().nextLong(baseDelay, upper + 1));
+        };
+    }
+
+    /**
+     * Get the delay before the given attempt.
+     *
+     * @param attempt       The number of the retry (starting at {@code 1})
+     * @param previousDelay The delay before the previous retry or {@code 0} for the first retry
+     * @return The delay in milliseconds
+     */
+    long getDelay(final int attempt, final long previousDelay);
+
+}
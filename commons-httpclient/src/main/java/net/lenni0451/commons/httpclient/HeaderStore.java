@@ -1,44 +1,43 @@
 package net.lenni0451.commons.httpclient;
 
+import net.lenni0451.commons.httpclient.model.HeaderMap;
 import net.lenni0451.commons.httpclient.model.HttpHeader;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public abstract class HeaderStore<T extends HeaderStore<T>> {
 
-    private final Map<String, List<String>> headers = new HashMap<>();
+    private final HeaderMap headers;
 
     public HeaderStore() {
+        this.headers = new HeaderMap();
     }
 
     public HeaderStore(final Map<String, List<String>> headers) {
-        headers.forEach((k, v) -> this.headers.put(k.toLowerCase(Locale.ROOT), new ArrayList<>(v)));
+        this.headers = new HeaderMap(headers);
     }
 
     /**
+     * Get all headers.<br>
+     * The returned map is a read-only view with lower case names, it is not copied and reflects later changes.
+     *
      * @return The headers
      */
     public Map<String, List<String>> getHeaders() {
-        return Collections.unmodifiableMap(
-                this.headers
-                        .entrySet()
-                        .stream()
-                        .collect(Collectors.toMap(
-                                Map.Entry::getKey,
-                                e -> new ArrayList<>(e.getValue())
-                        ))
-        );
+        return this.headers.asMap();
     }
 
     /**
      * Get a header.
      *
      * @param name The name of the header
-     * @return The header or null if not set
+     * @return A read-only view of the header values or null if not set
      */
     public List<String> getHeader(final String name) {
-        return this.headers.get(name.toLowerCase());
+        return this.headers.get(name);
     }
 
     /**
@@ -48,9 +47,7 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return The response header
      */
     public Optional<String> getFirstHeader(final String name) {
-        List<String> values = this.headers.get(name.toLowerCase(Locale.ROOT));
-        if (values == null || values.isEmpty()) return Optional.empty();
-        return Optional.of(values.get(0));
+        return Optional.ofNullable(this.headers.getFirst(name));
     }
 
     /**
@@ -60,9 +57,7 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return The response header
      */
     public Optional<String> getLastHeader(final String name) {
-        List<String> values = this.headers.get(name.toLowerCase(Locale.ROOT));
-        if (values == null || values.isEmpty()) return Optional.empty();
-        return Optional.of(values.get(values.size() - 1));
+        return Optional.ofNullable(this.headers.getLast(name));
     }
 
     /**
@@ -73,7 +68,7 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return This instance for chaining
      */
     public T appendHeader(final String name, final String value) {
-        this.headers.computeIfAbsent(name.toLowerCase(Locale.ROOT), n -> new ArrayList<>()).add(value);
+        this.headers.add(name, value);
         return (T) this;
     }
 
@@ -107,9 +102,7 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return This instance for chaining
      */
     public T setHeader(final String name, final String value) {
-        List<String> values = new ArrayList<>();
-        values.add(value);
-        this.headers.put(name.toLowerCase(Locale.ROOT), values);
+        this.headers.set(name, value);
         return (T) this;
     }
 
@@ -146,7 +139,7 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return This instance for chaining
      */
     public T removeHeader(final String name) {
-        this.headers.remove(name.toLowerCase(Locale.ROOT));
+        this.headers.remove(name);
         return (T) this;
     }
 
@@ -167,7 +160,7 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return Whether the header is set
      */
     public boolean hasHeader(final String name) {
-        return this.headers.containsKey(name.toLowerCase(Locale.ROOT));
+        return this.headers.contains(name);
     }
 
     /**
@@ -178,7 +171,8 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
      * @return Whether the header is set
      */
     public boolean hasHeader(final String name, final String value) {
-        return this.headers.get(name.toLowerCase(Locale.ROOT)).contains(value);
+        List<String> values = this.headers.get(name);
+        return values != null && values.contains(value);
     }
 
     /**
@@ -191,4 +185,11 @@ public abstract class HeaderStore<T extends HeaderStore<T>> {
         return this.hasHeader(header.getName(), header.getValue());
     }
 
+    /**
+     * @return The underlying header map
+     */
+    protected final HeaderMap getHeaderMap() {
+        return this.headers;
+    }
+
 }
@@ -1,13 +1,25 @@
 package net.lenni0451.commons.httpclient;
 
+import net.lenni0451.commons.httpclient.batch.HttpBatch;
+import net.lenni0451.commons.httpclient.cache.HttpCache;
+import net.lenni0451.commons.httpclient.compression.CompressionStats;
+import net.lenni0451.commons.httpclient.compression.ContentCompression;
 import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.constants.RequestMethods;
+import net.lenni0451.commons.httpclient.events.HttpEventListener;
+import net.lenni0451.commons.httpclient.exceptions.HttpRequestException;
 import net.lenni0451.commons.httpclient.exceptions.RetryExceededException;
 import net.lenni0451.commons.httpclient.executor.ExecutorType;
 import net.lenni0451.commons.httpclient.executor.RequestExecutor;
 import net.lenni0451.commons.httpclient.handler.HttpResponseHandler;
+import net.lenni0451.commons.httpclient.limiter.RequestLimiter;
+import net.lenni0451.commons.httpclient.model.HeaderMap;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
 import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
 import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
 import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import net.lenni0451.commons.httpclient.utils.ThreadUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -16,10 +28,13 @@ import java.io.IOException;
 import java.net.CookieManager;
 import java.net.ProtocolException;
 import java.net.UnknownHostException;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
-public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBuilder {
+public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBuilder, AutoCloseable {
 
     private RequestExecutor executor;
     @Nullable
@@ -30,6 +45,22 @@ public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBu
     private RetryHandler retryHandler = new RetryHandler();
     private ProxyHandler proxyHandler = new ProxyHandler();
     private boolean ignoreInvalidSSL = false;
+    private int maxAsyncThreads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private boolean virtualThreads = false;
+    private HttpProtocol preferredProtocol = HttpProtocol.HTTP_2;
+    @Nullable
+    private HttpCache cache;
+    private boolean responseDecompression = true;
+    private int requestCompressionThreshold = -1;
+    private final CompressionStats compressionStats = new CompressionStats();
+    @Nullable
+    private RequestLimiter limiter;
+    @Nullable
+    private HttpEventListener eventListener;
+    @Nullable
+    private RequestCoalescer coalescer;
+    @Nullable
+    private volatile DefaultHeaders defaultHeaders;
 
     /**
      * Create a new http client with the default executor.
@@ -60,14 +91,17 @@ public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBu
     }
 
     /**
-     * Set the executor to use for all requests.
+     * Set the executor to use for all requests.<br>
+     * The previous executor will be closed.
      *
      * @param executorSupplier The supplier for the executor to use
      * @return This instance for chaining
      */
     public HttpClient setExecutor(@Nonnull final Function<HttpClient, RequestExecutor> executorSupplier) {
-        this.executor = executorSupplier.apply(this);
-        if (this.executor == null) throw new IllegalArgumentException("Unsupported executor type");
+        RequestExecutor executor = executorSupplier.apply(this);
+        if (executor == null) throw new IllegalArgumentException("Unsupported executor type");
+        if (this.executor != null) this.executor.close();
+        this.executor = executor;
         return this;
     }
 
@@ -201,6 +235,242 @@ public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBu
         return this;
     }
 
+    /**
+     * @return The maximum amount of threads used for asynchronous requests by blocking executors
+     */
+    public int getMaxAsyncThreads() {
+        return this.maxAsyncThreads;
+    }
+
+    /**
+     * Set the maximum amount of threads used for asynchronous requests by blocking executors.<br>
+     * Executors which support non-blocking requests ignore this option.
+     * The option has to be set before the first asynchronous request is executed.
+     *
+     * @param maxAsyncThreads The maximum amount of threads
+     * @return This instance for chaining
+     */
+    public HttpClient setMaxAsyncThreads(final int maxAsyncThreads) {
+        if (maxAsyncThreads <= 0) throw new IllegalArgumentException("maxAsyncThreads must be > 0");
+        this.maxAsyncThreads = maxAsyncThreads;
+        return this;
+    }
+
+    /**
+     * @return Whether virtual threads should be used for asynchronous requests
+     */
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Set whether virtual threads should be used for asynchronous requests.<br>
+     * Every request gets its own virtual thread, so {@link #getMaxAsyncThreads()} is ignored.
+     * The Java 11 HttpClient executor also uses virtual threads for its internal work.<br>
+     * Virtual threads are only available on Java 21 and higher, older versions fall back to platform threads.
+     * The option has to be set before the first request is executed.
+     *
+     * @param virtualThreads Whether virtual threads should be used
+     * @return This instance for chaining
+     * @see ThreadUtils#isVirtualThreadsAvailable()
+     */
+    public HttpClient setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * @return The protocol which should be preferred for requests
+     */
+    public HttpProtocol getPreferredProtocol() {
+        return this.preferredProtocol;
+    }
+
+    /**
+     * Set the protocol which should be preferred for requests.<br>
+     * HTTP/2 is negotiated using ALPN for HTTPS and using the h2c upgrade for plain HTTP.
+     * If the server does not support HTTP/2, HTTP/1.1 is used instead.
+     * Concurrent requests to the same origin are multiplexed over a single HTTP/2 connection.<br>
+     * Only the Java 11 HttpClient executor supports HTTP/2, all other executors always use HTTP/1.1.
+     * The negotiated protocol can be checked using {@link HttpResponse#getProtocol()}.
+     *
+     * @param preferredProtocol The protocol which should be preferred ({@link HttpProtocol#HTTP_1_1} or {@link HttpProtocol#HTTP_2})
+     * @return This instance for chaining
+     * @throws IllegalArgumentException If the protocol can't be preferred
+     */
+    public HttpClient setPreferredProtocol(final HttpProtocol preferredProtocol) {
+        if (!HttpProtocol.HTTP_1_1.equals(preferredProtocol) && !HttpProtocol.HTTP_2.equals(preferredProtocol)) {
+            throw new IllegalArgumentException("Only HTTP/1.1 and HTTP/2 can be preferred");
+        }
+        this.preferredProtocol = preferredProtocol;
+        return this;
+    }
+
+    /**
+     * @return The response cache or {@code null} if responses are not cached
+     */
+    @Nullable
+    public HttpCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Set the response cache.<br>
+     * Cacheable {@code GET} requests are answered from the cache if possible.
+     * The same cache can be shared between multiple clients.<br>
+     * Requests with credentials ({@code Authorization} or {@code Cookie} headers, or cookies from the cookie manager) are never cached.
+     *
+     * @param cache The response cache or {@code null} to disable caching
+     * @return This instance for chaining
+     * @see HttpCache
+     */
+    public HttpClient setCache(@Nullable final HttpCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * @return Whether compressed responses are decompressed
+     */
+    public boolean isResponseDecompression() {
+        return this.responseDecompression;
+    }
+
+    /**
+     * Set whether compressed responses should be decompressed.<br>
+     * If enabled, the {@code Accept-Encoding: gzip, deflate} header is sent and {@code gzip} and {@code deflate} encoded responses are decompressed.
+     * Streamed responses are decompressed while they are read.<br>
+     * If the {@code Accept-Encoding} header is set manually in the client or the request, responses are returned as they were received.
+     *
+     * @param responseDecompression Whether compressed responses should be decompressed
+     * @return This instance for chaining
+     */
+    public HttpClient setResponseDecompression(final boolean responseDecompression) {
+        this.responseDecompression = responseDecompression;
+        return this;
+    }
+
+    /**
+     * @return The minimum size of request contents which are compressed or {@code -1} if request compression is disabled
+     */
+    public int getRequestCompressionThreshold() {
+        return this.requestCompressionThreshold;
+    }
+
+    /**
+     * Set the minimum size of request contents which are compressed using gzip.<br>
+     * The server has to support {@code Content-Encoding: gzip} for request bodies, so this is disabled by default.
+     * Streamed contents and requests which already have a {@code Content-Encoding} header are never compressed.
+     *
+     * @param requestCompressionThreshold The minimum size in bytes or {@code -1} to disable request compression
+     * @return This instance for chaining
+     */
+    public HttpClient setRequestCompressionThreshold(final int requestCompressionThreshold) {
+        if (requestCompressionThreshold < -1) throw new IllegalArgumentException("requestCompressionThreshold must be >= -1");
+        this.requestCompressionThreshold = requestCompressionThreshold;
+        return this;
+    }
+
+    /**
+     * @return The amount of compressed and uncompressed bytes sent and received by this client
+     */
+    public CompressionStats getCompressionStats() {
+        return this.compressionStats;
+    }
+
+    /**
+     * Get the headers which are sent with every request.<br>
+     * This contains the headers of this client and the default {@code Accept-Encoding} header.
+     * The returned map is read-only and only rebuilt when the headers of this client change.
+     *
+     * @return The default headers with lower case names
+     */
+    public Map<String, List<String>> getDefaultHeaders() {
+        int modificationCount = this.getHeaderMap().getModificationCount();
+        boolean responseDecompression = this.responseDecompression;
+        DefaultHeaders defaultHeaders = this.defaultHeaders;
+        if (defaultHeaders == null || defaultHeaders.modificationCount != modificationCount || defaultHeaders.responseDecompression != responseDecompression) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            if (responseDecompression) {
+                //Added before the client headers, so they can override the accepted encodings
+                headers.put(HeaderMap.normalize(HttpHeaders.ACCEPT_ENCODING), Collections.singletonList(ContentCompression.ACCEPT_ENCODING));
+            }
+            //The values are copied, so requests which are built concurrently don't see later changes
+            this.getHeaders().forEach((name, values) -> headers.put(name, Collections.unmodifiableList(new ArrayList<>(values))));
+            defaultHeaders = new DefaultHeaders(modificationCount, responseDecompression, Collections.unmodifiableMap(headers));
+            this.defaultHeaders = defaultHeaders;
+        }
+        return defaultHeaders.headers;
+    }
+
+    /**
+     * @return The request limiter or {@code null} if requests are not limited
+     */
+    @Nullable
+    public RequestLimiter getLimiter() {
+        return this.limiter;
+    }
+
+    /**
+     * Set the request limiter.<br>
+     * A permit is acquired before every attempt, so retries are limited as well.
+     * Asynchronous requests wait for their permit without blocking a thread.
+     *
+     * @param limiter The request limiter or {@code null} to disable limiting
+     * @return This instance for chaining
+     * @see net.lenni0451.commons.httpclient.limiter.TokenBucketLimiter
+     * @see net.lenni0451.commons.httpclient.limiter.AdaptiveConcurrencyLimiter
+     * @see net.lenni0451.commons.httpclient.limiter.PerHostLimiter
+     */
+    public HttpClient setLimiter(@Nullable final RequestLimiter limiter) {
+        this.limiter = limiter;
+        return this;
+    }
+
+    /**
+     * @return The event listener or {@code null} if no events are reported
+     */
+    @Nullable
+    public HttpEventListener getEventListener() {
+        return this.eventListener;
+    }
+
+    /**
+     * Set the event listener which receives the timings of every request attempt.<br>
+     * The events are reported by the executor, so responses from the cache are not included.
+     *
+     * @param eventListener The event listener or {@code null} to disable events
+     * @return This instance for chaining
+     * @see net.lenni0451.commons.httpclient.events.LatencyMetrics
+     */
+    public HttpClient setEventListener(@Nullable final HttpEventListener eventListener) {
+        this.eventListener = eventListener;
+        return this;
+    }
+
+    /**
+     * @return Whether concurrent identical requests share one execution
+     */
+    public boolean isRequestCoalescing() {
+        return this.coalescer != null;
+    }
+
+    /**
+     * Set whether concurrent identical requests should share one execution.<br>
+     * {@code GET} and {@code HEAD} requests with the same URL, headers and request options which are sent while an identical request
+     * is in flight wait for its response instead of being sent to the server again. If a cache is set, the coalescing happens on cache misses.<br>
+     * The shared response is read into memory, so requests with a streamed response are never coalesced and always sent on their own.
+     * Cancelling a coalesced request does not cancel the shared execution.
+     *
+     * @param requestCoalescing Whether concurrent identical requests should share one execution
+     * @return This instance for chaining
+     */
+    public HttpClient setRequestCoalescing(final boolean requestCoalescing) {
+        if (requestCoalescing == this.isRequestCoalescing()) return this;
+        this.coalescer = requestCoalescing ? new RequestCoalescer() : null;
+        return this;
+    }
+
     /**
      * Execute a request and pass the response to the response handler.<br>
      * The return value of the response handler will be returned.
@@ -216,7 +486,8 @@ public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBu
     }
 
     /**
-     * Execute a request and return the response.
+     * Execute a request and return the response.<br>
+     * If a cache is set, the response may be returned from the cache.
      *
      * @param request The request to execute
      * @return The response
@@ -225,42 +496,306 @@ public class HttpClient extends HeaderStore<HttpClient> implements HttpRequestBu
      * @throws IllegalStateException  If the maximum retry count was exceeded but no exception was thrown
      */
     public HttpResponse execute(final HttpRequest request) throws IOException {
+        HttpCache cache = this.getCache(request);
+        if (cache != null) return cache.execute(request, this::executeCoalesced, this::executeAsyncCoalesced);
+        return this.executeCoalesced(request);
+    }
+
+    @Nullable
+    private HttpCache getCache(final HttpRequest request) {
+        HttpCache cache = this.cache;
+        if (cache == null || !RequestMethods.GET.equalsIgnoreCase(request.getMethod())) return cache;
+        //The cache only sees the headers of the request, the credentials added by the client must not be shared with other clients
+        if (this.hasHeader(HttpHeaders.AUTHORIZATION) || this.hasHeader(HttpHeaders.COOKIE)) return null;
+        CookieManager cookieManager = request.isCookieManagerSet() ? request.getCookieManager() : this.cookieManager;
+        try {
+            for (List<String> cookies : HttpRequestUtils.getCookieHeaders(cookieManager, request.getURL()).values()) {
+                if (!cookies.isEmpty()) return null;
+            }
+        } catch (IOException e) {
+            return null; //The request will fail with the same exception when it is sent
+        }
+        return cache;
+    }
+
+    private HttpResponse executeCoalesced(final HttpRequest request) throws IOException {
+        RequestCoalescer coalescer = this.coalescer;
+        if (coalescer != null) return coalescer.execute(request, this::executeUncached);
+        return this.executeUncached(request);
+    }
+
+    private HttpResponse executeUncached(final HttpRequest request) throws IOException {
+        HttpRequest compressedRequest = ContentCompression.compressRequest(request, this.requestCompressionThreshold, this.compressionStats);
+        HttpResponse response = this.executeWithRetries(compressedRequest);
+        if (!this.shouldDecompress(request)) return response;
+        return ContentCompression.decompressResponse(response, this.compressionStats);
+    }
+
+    private HttpResponse executeWithRetries(final HttpRequest request) throws IOException {
         RetryHandler retryHandler = request.isRetryHandlerSet() ? request.getRetryHandler() : this.retryHandler;
 
+        long connectDelay = 0;
+        long headerDelay = 0;
         for (int connects = 0; connects <= retryHandler.getMaxConnectRetries(); connects++) {
             try {
                 HttpResponse response = null;
                 for (int headers = 0; headers <= retryHandler.getMaxHeaderRetries(); headers++) {
-                    response = this.executor.execute(request);
-                    Optional<String> retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
-                    if (retryAfter.isPresent()) {
-                        if (headers >= retryHandler.getMaxHeaderRetries()) break;
-                        Long delay = HttpRequestUtils.parseSecondsOrHttpDate(retryAfter.get());
-                        if (delay == null) return response; //An invalid retry after header. Treat as no retry
-                        if (delay > 0) Thread.sleep(delay);
-                    } else {
-                        return response;
-                    }
+                    response = this.executeLimited(request);
+                    long delay = retryHandler.getRetryDelay(response, headers + 1, headerDelay);
+                    if (delay < 0) return response;
+                    if (headers >= retryHandler.getMaxHeaderRetries()) break;
+                    FutureUtils.close(response); //The response is replaced by the retry, a streamed body would keep its connection
+                    headerDelay = delay;
+                    if (delay > 0) Thread.sleep(delay);
                 }
                 if (response == null) throw new IllegalStateException("Response not received but no exception was thrown");
                 if (retryHandler.getMaxHeaderRetries() == 0) return response;
                 else throw new RetryExceededException(response);
             } catch (InterruptedException e) {
                 throw new IOException(e);
-            } catch (UnknownHostException | SSLException | ProtocolException e) {
+            } catch (UnknownHostException | SSLException | ProtocolException | HttpRequestException e) {
                 //No need to retry these as they are not going to change
+                //The exceeded header retries are also an IOException, but must not start the header retries again
                 throw e;
             } catch (IOException e) {
                 if (connects >= retryHandler.getMaxConnectRetries()) throw e;
+                connectDelay = retryHandler.getBackoffPolicy().getDelay(connects + 1, connectDelay);
+                try {
+                    if (connectDelay > 0) Thread.sleep(connectDelay);
+                } catch (InterruptedException ie) {
+                    throw new IOException(ie);
+                }
             }
         }
         throw new IllegalStateException("Connect retry failed but no exception was thrown");
     }
 
+    private HttpResponse executeLimited(final HttpRequest request) throws IOException, InterruptedException {
+        RequestLimiter limiter = this.limiter;
+        if (limiter == null) return this.executor.execute(request);
+        CompletableFuture<RequestLimiter.Permit> permitFuture = limiter.acquire(request);
+        RequestLimiter.Permit permit;
+        try {
+            permit = permitFuture.get();
+        } catch (InterruptedException e) {
+            //The permit might have been granted after the interrupt, it has to be given back
+            if (!permitFuture.cancel(false) && !permitFuture.isCompletedExceptionally()) permitFuture.join().cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to acquire a request permit", FutureUtils.unwrap(e));
+        }
+        HttpResponse response = null;
+        try {
+            response = this.executor.execute(request);
+            return response;
+        } finally {
+            permit.release(response);
+        }
+    }
+
+    /**
+     * Execute a request asynchronously and pass the response to the response handler.<br>
+     * The future is completed with the return value of the response handler.
+     *
+     * @param request         The request to execute
+     * @param responseHandler The response handler
+     * @param <R>             The return type of the response handler
+     * @return A future which is completed with the return value of the response handler
+     * @see #executeAsync(HttpRequest)
+     */
+    public <R> CompletableFuture<R> executeAsync(final HttpRequest request, final HttpResponseHandler<R> responseHandler) {
+        return this.executeAsync(request).thenApply(response -> {
+            try {
+                return responseHandler.handle(response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Execute a request asynchronously.<br>
+     * Retries are handled the same way as in {@link #execute(HttpRequest)}, but the delays are scheduled instead of blocking a thread.<br>
+     * Cancelling the returned future stops all further retries.
+     *
+     * @param request The request to execute
+     * @return A future which is completed with the response
+     */
+    public CompletableFuture<HttpResponse> executeAsync(final HttpRequest request) {
+        HttpCache cache = this.getCache(request);
+        if (cache != null) return cache.executeAsync(request, this::executeAsyncCoalesced);
+        return this.executeAsyncCoalesced(request);
+    }
+
+    private CompletableFuture<HttpResponse> executeAsyncCoalesced(final HttpRequest request) {
+        RequestCoalescer coalescer = this.coalescer;
+        if (coalescer != null) return coalescer.executeAsync(request, this::executeAsyncUncached);
+        return this.executeAsyncUncached(request);
+    }
+
+    private CompletableFuture<HttpResponse> executeAsyncUncached(final HttpRequest request) {
+        HttpRequest compressedRequest;
+        try {
+            compressedRequest = ContentCompression.compressRequest(request, this.requestCompressionThreshold, this.compressionStats);
+        } catch (IOException e) {
+            return FutureUtils.failed(e);
+        }
+        RetryHandler retryHandler = request.isRetryHandlerSet() ? request.getRetryHandler() : this.retryHandler;
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        this.executeAsync(compressedRequest, retryHandler, result, new RetryState());
+        return result;
+    }
+
+    private void executeAsync(final HttpRequest request, final RetryHandler retryHandler, final CompletableFuture<HttpResponse> result, final RetryState state) {
+        if (result.isDone()) return;
+        CompletableFuture<HttpResponse> future;
+        try {
+            future = this.executeAsyncLimited(request);
+        } catch (Throwable t) {
+            future = FutureUtils.failed(t);
+        }
+        CompletableFuture<HttpResponse> attempt = future;
+        result.whenComplete((response, throwable) -> {
+            //Queued or waiting requests are not sent anymore if the result is cancelled
+            if (result.isCancelled()) attempt.cancel(false);
+        });
+        future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                this.handleAsyncFailure(request, retryHandler, result, state, FutureUtils.unwrap(throwable));
+                return;
+            }
+
+            long delay = retryHandler.getRetryDelay(response, state.headers + 1, state.headerDelay);
+            if (delay < 0) {
+                this.completeAsync(request, result, response);
+            } else if (state.headers >= retryHandler.getMaxHeaderRetries()) {
+                if (retryHandler.getMaxHeaderRetries() == 0) this.completeAsync(request, result, response);
+                else this.handleAsyncFailure(request, retryHandler, result, state, new RetryExceededException(response));
+            } else {
+                FutureUtils.close(response);
+                state.headers++;
+                state.headerDelay = delay;
+                FutureUtils.schedule(() -> this.executeAsync(request, retryHandler, result, state), delay);
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse> executeAsyncLimited(final HttpRequest request) {
+        RequestLimiter limiter = this.limiter;
+        if (limiter == null) return this.executor.executeAsync(request);
+        CompletableFuture<RequestLimiter.Permit> permitFuture = limiter.acquire(request);
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        permitFuture.whenComplete((permit, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+                return;
+            }
+            if (future.isDone()) {
+                //The request has been cancelled while waiting for the permit
+                permit.cancel();
+                return;
+            }
+            CompletableFuture<HttpResponse> requestFuture;
+            try {
+                requestFuture = this.executor.executeAsync(request);
+            } catch (Throwable t) {
+                requestFuture = FutureUtils.failed(t);
+            }
+            requestFuture.whenComplete((response, t) -> {
+                permit.release(response);
+                if (t != null) future.completeExceptionally(t);
+                else FutureUtils.completeResponse(future, response);
+            });
+            CompletableFuture<HttpResponse> finalRequestFuture = requestFuture;
+            future.whenComplete((response, t) -> {
+                if (future.isCancelled()) finalRequestFuture.cancel(false);
+            });
+        });
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) permitFuture.cancel(false);
+        });
+        return future;
+    }
+
+    private void completeAsync(final HttpRequest request, final CompletableFuture<HttpResponse> result, final HttpResponse response) {
+        if (!this.shouldDecompress(request)) {
+            FutureUtils.completeResponse(result, response);
+            return;
+        }
+        try {
+            FutureUtils.completeResponse(result, ContentCompression.decompressResponse(response, this.compressionStats));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+
+    private boolean shouldDecompress(final HttpRequest request) {
+        //If the user set the accepted encodings manually, the response is expected to be returned as received
+        return this.responseDecompression && !this.hasHeader(HttpHeaders.ACCEPT_ENCODING) && !request.hasHeader(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private void handleAsyncFailure(final HttpRequest request, final RetryHandler retryHandler, final CompletableFuture<HttpResponse> result, final RetryState state, final Throwable cause) {
+        if (cause instanceof UnknownHostException || cause instanceof SSLException || cause instanceof ProtocolException || cause instanceof HttpRequestException) {
+            //No need to retry these as they are not going to change
+            result.completeExceptionally(cause);
+        } else if (cause instanceof IOException && state.connects < retryHandler.getMaxConnectRetries()) {
+            state.connects++;
+            state.headers = 0;
+            state.connectDelay = retryHandler.getBackoffPolicy().getDelay(state.connects, state.connectDelay);
+            FutureUtils.schedule(() -> this.executeAsync(request, retryHandler, result, state), state.connectDelay);
+        } else {
+            result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Create a new batch for executing many requests with a limited amount of concurrent requests.
+     *
+     * @return The new batch
+     * @see HttpBatch
+     */
+    public HttpBatch batch() {
+        return new HttpBatch(this);
+    }
+
+    /**
+     * Close the executor of this client.<br>
+     * This releases all pooled connections and threads. The client should not be used anymore after it has been closed.
+     */
+    @Override
+    public void close() {
+        this.executor.close();
+    }
+
     @Override
     public <T extends HttpRequest> T bind(T request) {
         request.bind(this);
         return request;
     }
 
+
+    private static class DefaultHeaders {
+        private final int modificationCount;
+        private final boolean responseDecompression;
+        private final Map<String, List<String>> headers;
+
+        private DefaultHeaders(final int modificationCount, final boolean responseDecompression, final Map<String, List<String>> headers) {
+            this.modificationCount = modificationCount;
+            this.responseDecompression = responseDecompression;
+            this.headers = headers;
+        }
+    }
+
+
+    /**
+     * The retry counters and previous delays of an asynchronous request.<br>
+     * The attempts of a request run one after another, so the state is never accessed concurrently.
+     */
+    private static class RetryState {
+        private int connects;
+        private int headers;
+        private long connectDelay;
+        private long headerDelay;
+    }
+
 }
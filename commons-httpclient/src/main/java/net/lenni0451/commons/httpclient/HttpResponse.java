@@ -1,8 +1,10 @@
 package net.lenni0451.commons.httpclient;
 
 import lombok.SneakyThrows;
+import net.lenni0451.commons.httpclient.constants.HttpHeaders;
 import net.lenni0451.commons.httpclient.constants.StatusCodes;
 import net.lenni0451.commons.httpclient.model.ContentType;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
 import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
 
 import java.io.ByteArrayInputStream;
@@ -19,20 +21,31 @@ public class HttpResponse extends HeaderStore<HttpResponse> {
 
     private final URL url;
     private final int statusCode;
+    private final HttpProtocol protocol;
     private byte[] content;
     private InputStream inputStream;
 
     public HttpResponse(final URL url, final int statusCode, final byte[] content, final Map<String, List<String>> headers) {
+        this(url, statusCode, HttpProtocol.HTTP_1_1, content, headers);
+    }
+
+    public HttpResponse(final URL url, final int statusCode, final HttpProtocol protocol, final byte[] content, final Map<String, List<String>> headers) {
         super(headers);
         this.url = url;
         this.statusCode = statusCode;
+        this.protocol = protocol;
         this.content = content;
     }
 
     public HttpResponse(final URL url, final int statusCode, final InputStream inputStream, final Map<String, List<String>> headers) {
+        this(url, statusCode, HttpProtocol.HTTP_1_1, inputStream, headers);
+    }
+
+    public HttpResponse(final URL url, final int statusCode, final HttpProtocol protocol, final InputStream inputStream, final Map<String, List<String>> headers) {
         super(headers);
         this.url = url;
         this.statusCode = statusCode;
+        this.protocol = protocol;
         this.inputStream = inputStream;
     }
 
@@ -50,6 +63,13 @@ public class HttpResponse extends HeaderStore<HttpResponse> {
         return this.statusCode;
     }
 
+    /**
+     * @return The protocol which was used for the response
+     */
+    public HttpProtocol getProtocol() {
+        return this.protocol;
+    }
+
     /**
      * @return The message of the status code
      */
@@ -57,6 +77,28 @@ public class HttpResponse extends HeaderStore<HttpResponse> {
         return StatusCodes.STATUS_CODES.getOrDefault(this.statusCode, "Unknown");
     }
 
+    /**
+     * @return If the response body has not been read into memory yet
+     */
+    public boolean isStreamed() {
+        return this.content == null;
+    }
+
+    /**
+     * Get the length of the response body.<br>
+     * If the body is streamed, the {@code Content-Length} header is used.
+     *
+     * @return The length of the response body or {@code -1} if unknown
+     */
+    public long getContentLength() {
+        if (this.content != null) return this.content.length;
+        try {
+            return this.getFirstHeader(HttpHeaders.CONTENT_LENGTH).map(String::trim).map(Long::parseLong).filter(length -> length >= 0).orElse(-1L);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * @return The response body as a stream
      */
@@ -77,7 +119,7 @@ public class HttpResponse extends HeaderStore<HttpResponse> {
         if (this.content == null) {
             //If the content is null, the response is streamed
             //Since the user wants the entire content, we have to read the stream into memory
-            this.content = HttpRequestUtils.readFromStream(this.inputStream);
+            this.content = HttpRequestUtils.readFromStream(this.inputStream, this.getContentLength());
             //Close and null the stream to free resources
             this.inputStream.close();
             this.inputStream = null;
@@ -0,0 +1,164 @@
+package net.lenni0451.commons.httpclient;
+
+import net.lenni0451.commons.httpclient.cache.HttpCache;
+import net.lenni0451.commons.httpclient.constants.RequestMethods;
+import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Shares one execution between concurrent identical {@code GET} and {@code HEAD} requests.<br>
+ * Requests are identical if they have the same method, URL, headers and request specific options.
+ * The first request is sent to the server, all requests which arrive while it is in flight wait for its response.<br>
+ * The shared response is read into memory, every caller gets its own response with the same content.<br>
+ * Requests with a streamed response are never coalesced, buffering them would defeat the purpose of streaming.
+ */
+final class RequestCoalescer {
+
+    private final Map<Key, CompletableFuture<HttpResponse>> inFlight = new ConcurrentHashMap<>();
+
+    HttpResponse execute(final HttpRequest request, final HttpCache.NetworkExecutor network) throws IOException {
+        Key key = Key.of(request);
+        if (key == null) return network.execute(request);
+
+        CompletableFuture<HttpResponse> shared = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> existing = this.inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            try {
+                return copy(existing.get());
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = FutureUtils.unwrap(e);
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IOException(cause);
+            }
+        }
+
+        HttpResponse response;
+        try {
+            response = network.execute(request);
+            response.getContent(); //Read the content before other threads access the response
+        } catch (Throwable t) {
+            this.inFlight.remove(key, shared);
+            shared.completeExceptionally(t);
+            throw t;
+        }
+        this.inFlight.remove(key, shared);
+        shared.complete(response);
+        return copy(response);
+    }
+
+    CompletableFuture<HttpResponse> executeAsync(final HttpRequest request, final Function<HttpRequest, CompletableFuture<HttpResponse>> asyncNetwork) {
+        Key key = Key.of(request);
+        if (key == null) return asyncNetwork.apply(request);
+
+        CompletableFuture<HttpResponse> shared = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> existing = this.inFlight.putIfAbsent(key, shared);
+        if (existing == null) {
+            CompletableFuture<HttpResponse> future;
+            try {
+                future = asyncNetwork.apply(request);
+            } catch (Throwable t) {
+                future = FutureUtils.failed(t);
+            }
+            future.whenComplete((response, throwable) -> {
+                this.inFlight.remove(key, shared);
+                if (throwable != null) {
+                    shared.completeExceptionally(FutureUtils.unwrap(throwable));
+                    return;
+                }
+                try {
+                    response.getContent();
+                    shared.complete(response);
+                } catch (Throwable t) {
+                    shared.completeExceptionally(t);
+                }
+            });
+            existing = shared;
+        }
+        //Every caller gets its own future, cancelling it must not affect the other callers
+        return existing.thenApply(RequestCoalescer::copy);
+    }
+
+    private static HttpResponse copy(final HttpResponse response) {
+        return new HttpResponse(response.getURL(), response.getStatusCode(), response.getProtocol(), response.getContent(), response.getHeaders());
+    }
+
+
+    /**
+     * Everything which can change the response of a request.<br>
+     * The request options are compared by identity, the same as the executors use them.
+     */
+    private static final class Key {
+        @Nullable
+        private static Key of(final HttpRequest request) {
+            String method = request.getMethod().toUpperCase(Locale.ROOT);
+            if (!method.equals(RequestMethods.GET) && !method.equals(RequestMethods.HEAD)) return null;
+            if (request instanceof HttpContentRequest && ((HttpContentRequest) request).hasContent()) return null;
+            if (request.isStreamedResponse()) return null;
+            return new Key(request, method);
+        }
+
+
+        private final String method;
+        private final String url;
+        private final Map<String, List<String>> headers;
+        private final HttpRequest.FollowRedirects followRedirects;
+        @Nullable
+        private final Object cookieManager;
+        @Nullable
+        private final Object retryHandler;
+        @Nullable
+        private final Boolean ignoreInvalidSSL;
+        @Nullable
+        private final Object proxyHandler;
+
+        private Key(final HttpRequest request, final String method) {
+            this.method = method;
+            this.url = request.getURL().toString();
+            //The header names are already lower case, only the order of the names is irrelevant
+            this.headers = new TreeMap<>();
+            for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
+                this.headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+            this.followRedirects = request.getFollowRedirects();
+            this.cookieManager = request.isCookieManagerSet() ? request.getCookieManager() : null;
+            this.retryHandler = request.isRetryHandlerSet() ? request.getRetryHandler() : null;
+            this.ignoreInvalidSSL = request.isIgnoreInvalidSSLSet() ? request.getIgnoreInvalidSSL() : null;
+            this.proxyHandler = request.isProxyHandlerSet() ? request.getProxyHandler() : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || this.getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return this.method.equals(key.method)
+                    && this.url.equals(key.url)
+                    && this.headers.equals(key.headers)
+                    && this.followRedirects == key.followRedirects
+                    && this.cookieManager == key.cookieManager
+                    && this.retryHandler == key.retryHandler
+                    && Objects.equals(this.ignoreInvalidSSL, key.ignoreInvalidSSL)
+                    && this.proxyHandler == key.proxyHandler;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.method, this.url, this.headers, this.followRedirects, System.identityHashCode(this.cookieManager),
+                    System.identityHashCode(this.retryHandler), this.ignoreInvalidSSL, System.identityHashCode(this.proxyHandler));
+        }
+    }
+
+}
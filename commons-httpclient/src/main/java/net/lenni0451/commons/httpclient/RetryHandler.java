@@ -1,11 +1,18 @@
 package net.lenni0451.commons.httpclient;
 
 import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+import java.util.function.IntPredicate;
 
 public class RetryHandler {
 
     private int maxConnectRetries = 0;
     private int maxHeaderRetries = 0;
+    private BackoffPolicy backoffPolicy = BackoffPolicy.NONE;
+    private IntPredicate retryStatus = status -> false;
 
     public RetryHandler() {
     }
@@ -17,7 +24,7 @@ public class RetryHandler {
 
     /**
      * Get the maximum amount of connect retries.<br>
-     * A connect attempt is counted when the connection times out.
+     * A connect attempt is counted when the connection times out or fails.
      *
      * @return The maximum amount of connect retries
      */
@@ -39,7 +46,7 @@ public class RetryHandler {
 
     /**
      * Get the maximum amount of header retries.<br>
-     * A header retry is counted when the {@link HttpHeaders#RETRY_AFTER} header is present.
+     * A header retry is counted when the {@link HttpHeaders#RETRY_AFTER} header is present or the status code should be retried.
      *
      * @return The maximum amount of header retries
      */
@@ -59,4 +66,87 @@ public class RetryHandler {
         return this;
     }
 
+    /**
+     * @return The backoff policy for retries without a {@link HttpHeaders#RETRY_AFTER} header
+     */
+    @Nonnull
+    public BackoffPolicy getBackoffPolicy() {
+        return this.backoffPolicy;
+    }
+
+    /**
+     * Set the backoff policy which calculates the delay before connect retries and status retries.<br>
+     * If the response contains a valid {@link HttpHeaders#RETRY_AFTER} header, the delay of the header is used instead.
+     * Synchronous requests wait on the calling thread, asynchronous requests are scheduled without blocking a thread.
+     *
+     * @param backoffPolicy The backoff policy
+     * @return This instance for chaining
+     * @see BackoffPolicy
+     */
+    public RetryHandler setBackoffPolicy(@Nonnull final BackoffPolicy backoffPolicy) {
+        this.backoffPolicy = backoffPolicy;
+        return this;
+    }
+
+    /**
+     * Set the status codes which should be retried.<br>
+     * Status retries are counted as header retries.
+     *
+     * @param retryStatus The predicate which tests if a status code should be retried
+     * @return This instance for chaining
+     * @see #setMaxHeaderRetries(int)
+     */
+    public RetryHandler setRetryOnStatus(@Nonnull final IntPredicate retryStatus) {
+        this.retryStatus = retryStatus;
+        return this;
+    }
+
+    /**
+     * Set the status codes which should be retried.<br>
+     * Status retries are counted as header retries.
+     *
+     * @param statusCodes The status codes which should be retried
+     * @return This instance for chaining
+     * @see #setMaxHeaderRetries(int)
+     */
+    public RetryHandler setRetryOnStatus(final int... statusCodes) {
+        int[] codes = statusCodes.clone();
+        return this.setRetryOnStatus(status -> {
+            for (int code : codes) {
+                if (code == status) return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Check if the given status code should be retried.
+     *
+     * @param statusCode The status code
+     * @return If the status code should be retried
+     */
+    public boolean shouldRetryStatus(final int statusCode) {
+        return this.retryStatus.test(statusCode);
+    }
+
+    /**
+     * Get the delay before a response is retried.<br>
+     * A valid {@link HttpHeaders#RETRY_AFTER} header takes precedence over the backoff policy.
+     *
+     * @param response      The received response
+     * @param attempt       The number of the retry (starting at {@code 1})
+     * @param previousDelay The delay before the previous retry
+     * @return The delay in milliseconds or {@code -1} if the response should not be retried
+     */
+    long getRetryDelay(final HttpResponse response, final int attempt, final long previousDelay) {
+        Optional<String> retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (retryAfter.isPresent()) {
+            Long delay = HttpRequestUtils.parseSecondsOrHttpDate(retryAfter.get());
+            if (delay != null) return Math.max(0, delay);
+            //An invalid retry after header is treated like a missing header
+        }
+        if (!this.shouldRetryStatus(response.getStatusCode())) return -1;
+        return Math.max(0, this.backoffPolicy.getDelay(attempt, previousDelay));
+    }
+
 }
@@ -0,0 +1,289 @@
+package net.lenni0451.commons.httpclient.batch;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+
+import javax.annotation.Nullable;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A running batch of requests.<br>
+ * Every submitted request produces exactly one {@link BatchResult}, including requests which failed or were cancelled.
+ * The results are returned in the order they are completed.<br>
+ * Closing the execution cancels all requests which have not been completed yet.
+ *
+ * @see HttpBatch
+ */
+public class BatchExecution implements Iterable<BatchResult>, AutoCloseable {
+
+    private final HttpClient client;
+    private final int maxConcurrency;
+    private final int maxConcurrencyPerHost;
+    private final int total;
+    private final Map<String, Host> hosts = new LinkedHashMap<>();
+    private final Set<CompletableFuture<HttpResponse>> running = new HashSet<>();
+    private final BlockingQueue<BatchResult> results = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private int active;
+    private int pending;
+    private int completed;
+    private int received;
+    private boolean cancelled;
+    private boolean dispatching;
+    private boolean dispatchRequested;
+    @Nullable
+    private Iterator<Host> hostIterator;
+
+    BatchExecution(final HttpClient client, final Collection<? extends HttpRequest> requests, final int maxConcurrency, final int maxConcurrencyPerHost) {
+        this.client = client;
+        this.maxConcurrency = maxConcurrency;
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        this.total = requests.size();
+
+        int index = 0;
+        for (HttpRequest request : requests) {
+            Host host = this.hosts.computeIfAbsent(getHostKey(request.getURL()), key -> new Host());
+            host.pending.add(new Entry(index++, request, host));
+        }
+        this.pending = this.total;
+        if (this.total == 0) this.completion.complete(null);
+    }
+
+    /**
+     * @return The amount of submitted requests
+     */
+    public int getTotal() {
+        return this.total;
+    }
+
+    /**
+     * @return The amount of requests which have been completed
+     */
+    public synchronized int getCompleted() {
+        return this.completed;
+    }
+
+    /**
+     * @return If all requests have been completed
+     */
+    public synchronized boolean isDone() {
+        return this.completed == this.total;
+    }
+
+    /**
+     * Get a future which is completed when all requests have been completed.<br>
+     * The future is never completed exceptionally, failed requests are reported as results.
+     *
+     * @return The completion future
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return this.completion;
+    }
+
+    /**
+     * Wait for the next completed request.
+     *
+     * @return The next result or {@code null} if all results have been returned
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    @Nullable
+    public BatchResult next() throws InterruptedException {
+        synchronized (this.results) {
+            if (this.received >= this.total) return null;
+            BatchResult result = this.results.take();
+            this.received++;
+            return result;
+        }
+    }
+
+    /**
+     * Wait for the next completed request for the given time.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return The next result or {@code null} if all results have been returned or the timeout elapsed
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    @Nullable
+    public BatchResult poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        synchronized (this.results) {
+            if (this.received >= this.total) return null;
+            BatchResult result = this.results.poll(timeout, unit);
+            if (result != null) this.received++;
+            return result;
+        }
+    }
+
+    /**
+     * Iterate over the results in the order they are completed.<br>
+     * The iterator blocks until the next result is available.
+     * If the waiting thread is interrupted, an {@link IllegalStateException} is thrown and the interrupt flag is kept.
+     *
+     * @return The iterator
+     */
+    @Override
+    public Iterator<BatchResult> iterator() {
+        return new Iterator<BatchResult>() {
+            @Nullable
+            private BatchResult next;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next == null) {
+                    try {
+                        this.next = BatchExecution.this.next();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for the next result", e);
+                    }
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public BatchResult next() {
+                if (!this.hasNext()) throw new NoSuchElementException();
+                BatchResult result = this.next;
+                this.next = null;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Cancel all requests which have not been completed yet.<br>
+     * Pending requests are not started anymore and running requests are cancelled.
+     * A result with a {@link CancellationException} is returned for every cancelled request.
+     * Responses which arrive after the cancellation are closed.
+     */
+    public void cancel() {
+        List<CompletableFuture<HttpResponse>> running;
+        boolean done = false;
+        synchronized (this) {
+            if (this.cancelled) return;
+            this.cancelled = true;
+            for (Host host : this.hosts.values()) {
+                Entry entry;
+                while ((entry = host.pending.poll()) != null) {
+                    this.pending--;
+                    done |= this.complete(entry, null, new CancellationException("Batch cancelled"));
+                }
+            }
+            running = new ArrayList<>(this.running);
+        }
+        if (done) this.completion.complete(null);
+        //Cancelled outside the lock, because the futures complete the requests synchronously
+        for (CompletableFuture<HttpResponse> future : running) future.cancel(false);
+    }
+
+    @Override
+    public void close() {
+        this.cancel();
+    }
+
+    void dispatch() {
+        synchronized (this) {
+            this.dispatchRequested = true;
+            //Requests which complete synchronously dispatch again, the running loop picks them up instead of recursing
+            if (this.dispatching) return;
+            this.dispatching = true;
+        }
+        while (true) {
+            List<Entry> toStart = new ArrayList<>();
+            synchronized (this) {
+                if (!this.dispatchRequested) {
+                    this.dispatching = false;
+                    return;
+                }
+                this.dispatchRequested = false;
+                while (!this.cancelled && this.pending > 0 && this.active < this.maxConcurrency) {
+                    Entry entry = this.pollNext();
+                    if (entry == null) break; //All hosts with pending requests are at their limit
+                    this.pending--;
+                    this.active++;
+                    entry.host.active++;
+                    toStart.add(entry);
+                }
+            }
+            for (Entry entry : toStart) this.start(entry);
+        }
+    }
+
+    @Nullable
+    private Entry pollNext() {
+        //Round-robin over the hosts, so requests to one host don't delay all other hosts
+        for (int i = 0; i < this.hosts.size(); i++) {
+            if (this.hostIterator == null || !this.hostIterator.hasNext()) this.hostIterator = this.hosts.values().iterator();
+            Host host = this.hostIterator.next();
+            if (host.active < this.maxConcurrencyPerHost && !host.pending.isEmpty()) return host.pending.poll();
+        }
+        return null;
+    }
+
+    private void start(final Entry entry) {
+        CompletableFuture<HttpResponse> future;
+        try {
+            future = this.client.executeAsync(entry.request);
+        } catch (Throwable t) {
+            future = FutureUtils.failed(t);
+        }
+        boolean cancelled;
+        synchronized (this) {
+            cancelled = this.cancelled;
+            if (!cancelled) this.running.add(future);
+        }
+        CompletableFuture<HttpResponse> finalFuture = future;
+        future.whenComplete((response, throwable) -> {
+            boolean done;
+            boolean discard;
+            synchronized (this) {
+                this.running.remove(finalFuture);
+                this.active--;
+                entry.host.active--;
+                //Responses which arrive after the batch has been cancelled are closed, the caller might not read the results anymore
+                discard = this.cancelled && response != null;
+                if (discard) done = this.complete(entry, null, new CancellationException("Batch cancelled"));
+                else done = this.complete(entry, response, throwable == null ? null : FutureUtils.unwrap(throwable));
+            }
+            if (discard) FutureUtils.close(response);
+            if (done) this.completion.complete(null);
+            else this.dispatch();
+        });
+        //The batch may have been cancelled while the request was started
+        if (cancelled) future.cancel(false);
+    }
+
+    private boolean complete(final Entry entry, @Nullable final HttpResponse response, @Nullable final Throwable error) {
+        this.results.add(new BatchResult(entry.index, entry.request, response, error));
+        this.completed++;
+        return this.completed == this.total;
+    }
+
+    private static String getHostKey(final URL url) {
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+
+    private static class Host {
+        private final Deque<Entry> pending = new ArrayDeque<>();
+        private int active;
+    }
+
+    private static class Entry {
+        private final int index;
+        private final HttpRequest request;
+        private final Host host;
+
+        private Entry(final int index, final HttpRequest request, final Host host) {
+            this.index = index;
+            this.request = request;
+            this.host = host;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package net.lenni0451.commons.httpclient.batch;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The result of a single request of a batch.<br>
+ * Either the response or the error is set.
+ */
+public class BatchResult {
+
+    private final int index;
+    private final HttpRequest request;
+    @Nullable
+    private final HttpResponse response;
+    @Nullable
+    private final Throwable error;
+
+    BatchResult(final int index, final HttpRequest request, @Nullable final HttpResponse response, @Nullable final Throwable error) {
+        this.index = index;
+        this.request = request;
+        this.response = response;
+        this.error = error;
+    }
+
+    /**
+     * @return The index of the request in the submitted collection
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return The executed request
+     */
+    public HttpRequest getRequest() {
+        return this.request;
+    }
+
+    /**
+     * @return The response or {@code null} if the request failed
+     */
+    @Nullable
+    public HttpResponse getResponse() {
+        return this.response;
+    }
+
+    /**
+     * @return The error or {@code null} if the request was successful
+     */
+    @Nullable
+    public Throwable getError() {
+        return this.error;
+    }
+
+    /**
+     * @return If a response was received
+     */
+    public boolean isSuccessful() {
+        return this.response != null;
+    }
+
+    /**
+     * @return If the request was cancelled before a response was received
+     */
+    public boolean isCancelled() {
+        return this.error instanceof CancellationException;
+    }
+
+}
@@ -0,0 +1,90 @@
+package net.lenni0451.commons.httpclient.batch;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+
+/**
+ * Executes many requests with a limited amount of concurrent requests.<br>
+ * The limits are applied globally and per host, so a slow host can't block the requests to other hosts.
+ * Requests are executed using {@link HttpClient#executeAsync(HttpRequest)}, so executors which support non-blocking requests don't need a thread per request.<br>
+ * The results are returned in the order they are completed.
+ * <pre>{@code
+ * try (BatchExecution execution = new HttpBatch(client).setMaxConcurrencyPerHost(4).execute(requests)) {
+ *     for (BatchResult result : execution) {
+ *         //Handle the result
+ *     }
+ * }
+ * }</pre>
+ */
+public class HttpBatch {
+
+    private final HttpClient client;
+    private int maxConcurrency = 64;
+    private int maxConcurrencyPerHost = 8;
+
+    /**
+     * Create a new batch which executes the requests using the given client.
+     *
+     * @param client The client to use
+     */
+    public HttpBatch(@Nonnull final HttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @return The maximum amount of concurrent requests
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Set the maximum amount of concurrent requests.<br>
+     * Blocking executors are also limited by {@link HttpClient#getMaxAsyncThreads()}.
+     *
+     * @param maxConcurrency The maximum amount of concurrent requests
+     * @return This instance for chaining
+     */
+    public HttpBatch setMaxConcurrency(final int maxConcurrency) {
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be > 0");
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * @return The maximum amount of concurrent requests to the same host
+     */
+    public int getMaxConcurrencyPerHost() {
+        return this.maxConcurrencyPerHost;
+    }
+
+    /**
+     * Set the maximum amount of concurrent requests to the same host.<br>
+     * Hosts are identified by their name and port.
+     *
+     * @param maxConcurrencyPerHost The maximum amount of concurrent requests to the same host
+     * @return This instance for chaining
+     */
+    public HttpBatch setMaxConcurrencyPerHost(final int maxConcurrencyPerHost) {
+        if (maxConcurrencyPerHost <= 0) throw new IllegalArgumentException("maxConcurrencyPerHost must be > 0");
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        return this;
+    }
+
+    /**
+     * Start executing the given requests.<br>
+     * This method does not block, the results can be received using the returned execution.
+     *
+     * @param requests The requests to execute
+     * @return The execution of the requests
+     */
+    public BatchExecution execute(final Collection<? extends HttpRequest> requests) {
+        BatchExecution execution = new BatchExecution(this.client, requests, this.maxConcurrency, this.maxConcurrencyPerHost);
+        execution.dispatch();
+        return execution;
+    }
+
+}
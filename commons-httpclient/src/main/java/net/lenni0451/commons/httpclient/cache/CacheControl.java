@@ -0,0 +1,107 @@
+package net.lenni0451.commons.httpclient.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The parsed directives of {@code Cache-Control} headers which are relevant for the cache.
+ */
+class CacheControl {
+
+    /**
+     * Parse the given {@code Cache-Control} header values.<br>
+     * Unknown directives and invalid values are ignored.
+     *
+     * @param values The header values
+     * @return The parsed directives
+     */
+    static CacheControl parse(final List<String> values) {
+        CacheControl cacheControl = new CacheControl();
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                String name = directive;
+                String argument = null;
+                int equals = directive.indexOf('=');
+                if (equals != -1) {
+                    name = directive.substring(0, equals);
+                    argument = directive.substring(equals + 1).trim();
+                    if (argument.length() >= 2 && argument.startsWith("\"") && argument.endsWith("\"")) argument = argument.substring(1, argument.length() - 1);
+                }
+                switch (name.trim().toLowerCase(Locale.ROOT)) {
+                    case "no-store":
+                        cacheControl.noStore = true;
+                        break;
+                    case "no-cache":
+                        cacheControl.noCache = true;
+                        break;
+                    case "private":
+                        cacheControl.isPrivate = true;
+                        break;
+                    case "max-age":
+                        cacheControl.maxAge = parseSeconds(argument, cacheControl.maxAge);
+                        break;
+                    case "stale-while-revalidate":
+                        cacheControl.staleWhileRevalidate = parseSeconds(argument, cacheControl.staleWhileRevalidate);
+                        break;
+                }
+            }
+        }
+        return cacheControl;
+    }
+
+    private static long parseSeconds(final String argument, final long fallback) {
+        if (argument == null) return fallback;
+        try {
+            long seconds = Long.parseLong(argument);
+            return seconds < 0 ? fallback : seconds;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+
+    private boolean noStore;
+    private boolean noCache;
+    private boolean isPrivate;
+    private long maxAge = -1;
+    private long staleWhileRevalidate = 0;
+
+    private CacheControl() {
+    }
+
+    /**
+     * @return If the response must not be stored
+     */
+    boolean isNoStore() {
+        return this.noStore;
+    }
+
+    /**
+     * @return If the response has to be revalidated before every use
+     */
+    boolean isNoCache() {
+        return this.noCache;
+    }
+
+    /**
+     * @return If the response is intended for a single user and must not be stored in a shared cache
+     */
+    boolean isPrivate() {
+        return this.isPrivate;
+    }
+
+    /**
+     * @return The maximum age in seconds or {@code -1} if not set
+     */
+    long getMaxAge() {
+        return this.maxAge;
+    }
+
+    /**
+     * @return The time in seconds a stale response may be used while it is revalidated in the background
+     */
+    long getStaleWhileRevalidate() {
+        return this.staleWhileRevalidate;
+    }
+
+}
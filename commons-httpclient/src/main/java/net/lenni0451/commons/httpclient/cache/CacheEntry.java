@@ -0,0 +1,198 @@
+package net.lenni0451.commons.httpclient.cache;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+
+import javax.annotation.Nullable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable cached response.<br>
+ * The freshness information is calculated from the stored headers, so only the raw response has to be persisted.
+ */
+class CacheEntry {
+
+    /**
+     * Create a new entry from a received response.
+     *
+     * @param key      The cache key
+     * @param response The response to store
+     * @param now      The time the response was received
+     * @return The created entry
+     */
+    static CacheEntry of(final String key, final HttpResponse response, final long now) {
+        return new CacheEntry(key, response.getURL().toString(), response.getStatusCode(), response.getProtocol(), response.getHeaders(), response.getContent(), now);
+    }
+
+
+    private final String key;
+    private final String url;
+    private final int statusCode;
+    private final HttpProtocol protocol;
+    private final Map<String, List<String>> headers;
+    private final byte[] content;
+    private final long storedAt;
+    private final long lifetime;
+    private final long staleWhileRevalidate;
+    private final long initialAge;
+
+    CacheEntry(final String key, final String url, final int statusCode, final HttpProtocol protocol, final Map<String, List<String>> headers, final byte[] content, final long storedAt) {
+        this.key = key;
+        this.url = url;
+        this.statusCode = statusCode;
+        this.protocol = protocol;
+        this.headers = new HashMap<>();
+        headers.forEach((name, values) -> this.headers.put(name.toLowerCase(Locale.ROOT), Collections.unmodifiableList(new ArrayList<>(values))));
+        this.content = content;
+        this.storedAt = storedAt;
+
+        CacheControl cacheControl = CacheControl.parse(this.getHeader(HttpHeaders.CACHE_CONTROL));
+        boolean noCache = cacheControl.isNoCache() || (!this.headers.containsKey("cache-control") && this.getHeader(HttpHeaders.PRAGMA).contains("no-cache"));
+        if (noCache) {
+            this.lifetime = 0;
+        } else if (cacheControl.getMaxAge() >= 0) {
+            this.lifetime = TimeUnit.SECONDS.toMillis(cacheControl.getMaxAge());
+        } else {
+            this.lifetime = this.getExpiresLifetime();
+        }
+        this.staleWhileRevalidate = noCache ? 0 : TimeUnit.SECONDS.toMillis(cacheControl.getStaleWhileRevalidate());
+        this.initialAge = this.getFirstHeader(HttpHeaders.AGE).map(age -> {
+            try {
+                return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim())));
+            } catch (NumberFormatException e) {
+                return 0L;
+            }
+        }).orElse(0L);
+    }
+
+    private long getExpiresLifetime() {
+        Optional<String> expires = this.getFirstHeader(HttpHeaders.EXPIRES);
+        if (!expires.isPresent()) return 0;
+        try {
+            long expiresAt = HttpRequestUtils.parseHttpDate(expires.get()).toEpochMilli();
+            long date = this.getFirstHeader(HttpHeaders.DATE).map(value -> {
+                try {
+                    return HttpRequestUtils.parseHttpDate(value).toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }).orElse(this.storedAt);
+            return Math.max(0, expiresAt - date);
+        } catch (DateTimeParseException e) {
+            return 0; //Invalid dates are treated as already expired
+        }
+    }
+
+    private List<String> getHeader(final String name) {
+        return this.headers.getOrDefault(name.toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    private Optional<String> getFirstHeader(final String name) {
+        List<String> values = this.getHeader(name);
+        return values.isEmpty() ? Optional.empty() : Optional.of(values.get(0));
+    }
+
+    String getKey() {
+        return this.key;
+    }
+
+    String getUrl() {
+        return this.url;
+    }
+
+    int getStatusCode() {
+        return this.statusCode;
+    }
+
+    HttpProtocol getProtocol() {
+        return this.protocol;
+    }
+
+    Map<String, List<String>> getHeaders() {
+        return Collections.unmodifiableMap(this.headers);
+    }
+
+    byte[] getContent() {
+        return this.content;
+    }
+
+    long getStoredAt() {
+        return this.storedAt;
+    }
+
+    /**
+     * @param now The current time
+     * @return The age of the response in milliseconds
+     */
+    long getAge(final long now) {
+        return Math.max(0, now - this.storedAt) + this.initialAge;
+    }
+
+    /**
+     * @param now The current time
+     * @return If the response can be used without revalidating it
+     */
+    boolean isFresh(final long now) {
+        return this.getAge(now) < this.lifetime;
+    }
+
+    /**
+     * @param now The current time
+     * @return If the stale response can be used while it is revalidated in the background
+     */
+    boolean isStaleUsable(final long now) {
+        return this.staleWhileRevalidate > 0 && this.getAge(now) < this.lifetime + this.staleWhileRevalidate;
+    }
+
+    /**
+     * @return If the response can be used without contacting the server or can be revalidated
+     */
+    boolean isUseful() {
+        return this.lifetime > 0 || this.staleWhileRevalidate > 0 || this.getETag() != null || this.getLastModified() != null;
+    }
+
+    @Nullable
+    String getETag() {
+        return this.getFirstHeader(HttpHeaders.ETAG).orElse(null);
+    }
+
+    @Nullable
+    String getLastModified() {
+        return this.getFirstHeader(HttpHeaders.LAST_MODIFIED).orElse(null);
+    }
+
+    /**
+     * Create a new entry with the headers of a {@code 304 Not Modified} response.<br>
+     * The headers of the new response replace the stored headers, the body is kept.
+     *
+     * @param notModified The not modified response
+     * @param now         The time the response was received
+     * @return The updated entry
+     */
+    CacheEntry revalidate(final HttpResponse notModified, final long now) {
+        Map<String, List<String>> headers = new HashMap<>(this.headers);
+        notModified.getHeaders().forEach((name, values) -> {
+            //The length of a 304 response does not describe the stored body
+            if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) headers.put(name.toLowerCase(Locale.ROOT), values);
+        });
+        return new CacheEntry(this.key, this.url, this.statusCode, this.protocol, headers, this.content, now);
+    }
+
+    /**
+     * Create a response from the stored data.<br>
+     * Every response gets its own copy of the body, so it can't modify the cached body.
+     *
+     * @return The created response
+     * @throws MalformedURLException If the stored URL is invalid
+     */
+    HttpResponse toResponse() throws MalformedURLException {
+        return new HttpResponse(new URL(this.url), this.statusCode, this.protocol, this.content.clone(), this.headers);
+    }
+
+}
@@ -0,0 +1,144 @@
+package net.lenni0451.commons.httpclient.cache;
+
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Stores cache entries as files in a directory.<br>
+ * The file names are the SHA-256 hashes of the cache keys. Files are written to a temporary file first and then moved,
+ * so readers never see partially written entries.
+ */
+class DiskCacheStore {
+
+    private static final int MAGIC = 0x48434331; //HCC1
+    private static final String EXTENSION = ".cache";
+
+    private final Path directory;
+
+    DiskCacheStore(final Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Read an entry from the disk.<br>
+     * Corrupted entries are deleted.
+     *
+     * @param key The cache key
+     * @return The entry or {@code null} if not stored
+     */
+    @Nullable
+    CacheEntry get(final String key) {
+        Path file = this.getFile(key);
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (dis.readInt() != MAGIC) throw new IOException("Invalid cache file");
+            if (!dis.readUTF().equals(key)) return null; //Hash collision
+            String url = dis.readUTF();
+            int statusCode = dis.readInt();
+            HttpProtocol protocol = HttpProtocol.valueOf(dis.readUTF());
+            long storedAt = dis.readLong();
+            int headerCount = dis.readInt();
+            Map<String, List<String>> headers = new HashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                String name = dis.readUTF();
+                int valueCount = dis.readInt();
+                List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) values.add(dis.readUTF());
+                headers.put(name, values);
+            }
+            byte[] content = new byte[dis.readInt()];
+            dis.readFully(content);
+            return new CacheEntry(key, url, statusCode, protocol, headers, content, storedAt);
+        } catch (IOException | IllegalArgumentException e) {
+            this.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Write an entry to the disk.
+     *
+     * @param entry The entry to write
+     * @throws IOException If an I/O error occurs
+     */
+    void put(final CacheEntry entry) throws IOException {
+        Path file = this.getFile(entry.getKey());
+        Path temp = Files.createTempFile(this.directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                dos.writeInt(MAGIC);
+                dos.writeUTF(entry.getKey());
+                dos.writeUTF(entry.getUrl());
+                dos.writeInt(entry.getStatusCode());
+                dos.writeUTF(entry.getProtocol().name());
+                dos.writeLong(entry.getStoredAt());
+                dos.writeInt(entry.getHeaders().size());
+                for (Map.Entry<String, List<String>> header : entry.getHeaders().entrySet()) {
+                    dos.writeUTF(header.getKey());
+                    dos.writeInt(header.getValue().size());
+                    for (String value : header.getValue()) dos.writeUTF(value);
+                }
+                dos.writeInt(entry.getContent().length);
+                dos.write(entry.getContent());
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Remove an entry from the disk.
+     *
+     * @param key The cache key
+     */
+    void remove(final String key) {
+        try {
+            Files.deleteIfExists(this.getFile(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Remove all entries from the disk.
+     */
+    void clear() {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                }
+            });
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Path getFile(final String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + EXTENSION.length());
+            for (byte b : hash) name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return this.directory.resolve(name.append(EXTENSION).toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e); //Every Java implementation has to support SHA-256
+        }
+    }
+
+}
@@ -0,0 +1,383 @@
+package net.lenni0451.commons.httpclient.cache;
+
+import net.lenni0451.commons.httpclient.HeaderStore;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.constants.RequestMethods;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * An HTTP cache for {@code GET} requests.<br>
+ * The cache can be shared between multiple clients, so it behaves like a shared cache:
+ * Requests with an {@code Authorization} or {@code Cookie} header and responses with {@code Cache-Control: private} are not cached.<br>
+ * Responses are kept in a size limited in-memory LRU cache and optionally in a directory on disk.
+ * Entries which were evicted from memory are loaded from the disk again when they are requested.<br>
+ * <br>
+ * The following parts of the {@code Cache-Control} header are supported:
+ * <ul>
+ *     <li>{@code max-age} (falls back to {@code Expires})</li>
+ *     <li>{@code no-store} (request and response)</li>
+ *     <li>{@code no-cache} (request and response)</li>
+ *     <li>{@code private} (response)</li>
+ *     <li>{@code stale-while-revalidate}: The stale response is returned and revalidated in the background</li>
+ * </ul>
+ * Stale responses with an {@code ETag} or {@code Last-Modified} header are revalidated using {@code If-None-Match} and {@code If-Modified-Since}.
+ * If the server responds with {@code 304 Not Modified}, the cached response is returned.<br>
+ * Responses with a {@code Vary} header, streamed responses and requests which already contain conditional headers are not cached.
+ * Only {@code Vary: Accept-Encoding} is allowed if the body has been decoded by the client, the stored body is valid for every encoding.
+ * Successful requests with other methods (e.g. {@code POST}) invalidate the cached response of their URL.
+ */
+public class HttpCache {
+
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = new HashSet<>(Arrays.asList(
+            StatusCodes.OK,
+            StatusCodes.NON_AUTHORITATIVE_INFORMATION,
+            StatusCodes.MULTIPLE_CHOICES,
+            StatusCodes.MOVED_PERMANENTLY,
+            StatusCodes.PERMANENT_REDIRECT,
+            StatusCodes.NOT_FOUND,
+            StatusCodes.GONE
+    ));
+
+    private final Map<String, CacheEntry> memory;
+    @Nullable
+    private final DiskCacheStore disk;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private int maxContentSize = 8 * 1024 * 1024;
+
+    /**
+     * Create an in-memory cache.
+     *
+     * @param maxEntries The maximum amount of entries kept in memory
+     */
+    public HttpCache(final int maxEntries) {
+        this(maxEntries, (DiskCacheStore) null);
+    }
+
+    /**
+     * Create a cache which also stores the entries on disk.<br>
+     * The disk cache is not size limited and entries stay valid across restarts.
+     *
+     * @param maxEntries The maximum amount of entries kept in memory
+     * @param directory  The directory to store the entries in
+     * @throws IOException If the directory could not be created
+     */
+    public HttpCache(final int maxEntries, final Path directory) throws IOException {
+        this(maxEntries, new DiskCacheStore(directory));
+    }
+
+    private HttpCache(final int maxEntries, @Nullable final DiskCacheStore disk) {
+        if (maxEntries < 0) throw new IllegalArgumentException("The maximum amount of entries must not be negative");
+        this.memory = new LinkedHashMap<String, CacheEntry>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return this.size() > maxEntries;
+            }
+        };
+        this.disk = disk;
+    }
+
+    /**
+     * @return The maximum size of a response body which is cached
+     */
+    public int getMaxContentSize() {
+        return this.maxContentSize;
+    }
+
+    /**
+     * Set the maximum size of a response body which is cached.<br>
+     * Larger responses are passed through without being stored.
+     *
+     * @param maxContentSize The maximum size in bytes
+     * @return This instance for chaining
+     */
+    public HttpCache setMaxContentSize(final int maxContentSize) {
+        this.maxContentSize = maxContentSize;
+        return this;
+    }
+
+    /**
+     * @return The amount of requests which were answered from the cache without waiting for the server
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return The amount of requests which were answered by the server
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return The amount of requests which were answered from the cache after the server responded with {@code 304 Not Modified}
+     */
+    public long getRevalidationCount() {
+        return this.revalidations.get();
+    }
+
+    /**
+     * Reset the hit, miss and revalidation counters.
+     */
+    public void resetStats() {
+        this.hits.set(0);
+        this.misses.set(0);
+        this.revalidations.set(0);
+    }
+
+    /**
+     * Remove the cached response of the given URL.
+     *
+     * @param url The URL to remove
+     */
+    public void invalidate(final URL url) {
+        this.remove(getKey(url));
+    }
+
+    /**
+     * Remove all cached responses.
+     */
+    public void clear() {
+        synchronized (this.memory) {
+            this.memory.clear();
+        }
+        if (this.disk != null) this.disk.clear();
+    }
+
+    /**
+     * Execute a request through the cache.<br>
+     * This method is called by the {@link net.lenni0451.commons.httpclient.HttpClient} and should not be called directly.
+     *
+     * @param request      The request to execute
+     * @param network      The function which sends a request to the server
+     * @param asyncNetwork The function which sends a request to the server asynchronously (used for background revalidation)
+     * @return The response
+     * @throws IOException If an I/O error occurs
+     */
+    public HttpResponse execute(final HttpRequest request, final NetworkExecutor network, final Function<HttpRequest, CompletableFuture<HttpResponse>> asyncNetwork) throws IOException {
+        if (!this.isCacheable(request)) {
+            HttpResponse response = network.execute(request);
+            this.invalidateIfUnsafe(request, response);
+            return response;
+        }
+        String key = getKey(request.getURL());
+        CacheEntry entry = this.get(key);
+        long now = System.currentTimeMillis();
+        HttpResponse cached = this.getCachedResponse(request, entry, now, asyncNetwork);
+        if (cached != null) return cached;
+        return this.handleResponse(key, entry, network.execute(this.prepareRequest(request, entry)), false);
+    }
+
+    /**
+     * Execute a request through the cache asynchronously.<br>
+     * Cancelling the returned future also cancels the request to the server.
+     * This method is called by the {@link net.lenni0451.commons.httpclient.HttpClient} and should not be called directly.
+     *
+     * @param request      The request to execute
+     * @param asyncNetwork The function which sends a request to the server asynchronously
+     * @return A future which is completed with the response
+     */
+    public CompletableFuture<HttpResponse> executeAsync(final HttpRequest request, final Function<HttpRequest, CompletableFuture<HttpResponse>> asyncNetwork) {
+        if (!this.isCacheable(request)) {
+            return FutureUtils.mapResponse(asyncNetwork.apply(request), response -> {
+                this.invalidateIfUnsafe(request, response);
+                return response;
+            });
+        }
+        try {
+            String key = getKey(request.getURL());
+            CacheEntry entry = this.get(key);
+            long now = System.currentTimeMillis();
+            HttpResponse cached = this.getCachedResponse(request, entry, now, asyncNetwork);
+            if (cached != null) return CompletableFuture.completedFuture(cached);
+            return FutureUtils.mapResponse(asyncNetwork.apply(this.prepareRequest(request, entry)), response -> {
+                try {
+                    return this.handleResponse(key, entry, response, false);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (Throwable t) {
+            return FutureUtils.failed(t);
+        }
+    }
+
+    @Nullable
+    private HttpResponse getCachedResponse(final HttpRequest request, @Nullable final CacheEntry entry, final long now, final Function<HttpRequest, CompletableFuture<HttpResponse>> asyncNetwork) throws MalformedURLException {
+        if (entry == null || getCacheControl(request).isNoCache()) return null;
+        if (entry.isFresh(now)) {
+            this.hits.incrementAndGet();
+            return entry.toResponse();
+        }
+        if (entry.isStaleUsable(now)) {
+            this.hits.incrementAndGet();
+            this.revalidateInBackground(request, entry, asyncNetwork);
+            return entry.toResponse();
+        }
+        return null;
+    }
+
+    private void revalidateInBackground(final HttpRequest request, final CacheEntry entry, final Function<HttpRequest, CompletableFuture<HttpResponse>> asyncNetwork) {
+        if (!this.revalidating.add(entry.getKey())) return; //Only revalidate once at a time
+        CompletableFuture<HttpResponse> future;
+        try {
+            future = asyncNetwork.apply(this.prepareRequest(request, entry));
+        } catch (Throwable t) {
+            future = FutureUtils.failed(t);
+        }
+        future.whenComplete((response, throwable) -> {
+            try {
+                if (response != null) this.handleResponse(entry.getKey(), entry, response, true);
+            } catch (IOException ignored) {
+                //The stale response was already returned, the next request will try again
+            } finally {
+                this.revalidating.remove(entry.getKey());
+            }
+        });
+    }
+
+    private HttpRequest prepareRequest(final HttpRequest request, @Nullable final CacheEntry entry) {
+        if (entry == null || (entry.getETag() == null && entry.getLastModified() == null)) return request;
+        //The original request should not be modified, so a copy with the conditional headers is sent
+        HttpRequest conditional = HttpRequestUtils.copy(request);
+        if (entry.getETag() != null) conditional.setHeader(HttpHeaders.IF_NONE_MATCH, entry.getETag());
+        if (entry.getLastModified() != null) conditional.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.getLastModified());
+        return conditional;
+    }
+
+    private HttpResponse handleResponse(final String key, @Nullable final CacheEntry entry, final HttpResponse response, final boolean background) throws IOException {
+        long now = System.currentTimeMillis();
+        if (entry != null && response.getStatusCode() == StatusCodes.NOT_MODIFIED) {
+            this.revalidations.incrementAndGet();
+            CacheEntry revalidated = entry.revalidate(response, now);
+            this.put(revalidated);
+            return revalidated.toResponse();
+        }
+        if (!background) this.misses.incrementAndGet();
+        CacheEntry newEntry = this.isStorable(response) ? CacheEntry.of(key, response, now) : null;
+        if (newEntry != null && newEntry.isUseful()) this.put(newEntry);
+        else if (entry != null) this.remove(key); //The old response has been replaced by one which can't be cached
+        return response;
+    }
+
+    private boolean isCacheable(final HttpRequest request) {
+        if (!RequestMethods.GET.equalsIgnoreCase(request.getMethod())) return false;
+        if (request.isStreamedResponse()) return false;
+        if (request instanceof HttpContentRequest && ((HttpContentRequest) request).hasContent()) return false;
+        if (request.hasHeader(HttpHeaders.IF_NONE_MATCH) || request.hasHeader(HttpHeaders.IF_MODIFIED_SINCE)) return false;
+        if (request.hasHeader(HttpHeaders.AUTHORIZATION) || request.hasHeader(HttpHeaders.COOKIE)) return false;
+        return !getCacheControl(request).isNoStore();
+    }
+
+    private boolean isStorable(final HttpResponse response) {
+        if (!CACHEABLE_STATUS_CODES.contains(response.getStatusCode())) return false;
+        if (!isVaryIgnorable(response)) return false;
+        CacheControl cacheControl = getCacheControl(response);
+        if (cacheControl.isNoStore() || cacheControl.isPrivate()) return false;
+        long contentLength = response.getContentLength();
+        return contentLength >= 0 && contentLength <= this.maxContentSize;
+    }
+
+    private static boolean isVaryIgnorable(final HttpResponse response) {
+        List<String> values = response.getHeader(HttpHeaders.VARY);
+        if (values == null) return true;
+        //Servers which compress their responses vary on the accepted encodings, decoded bodies don't depend on them
+        boolean decoded = !response.hasHeader(HttpHeaders.CONTENT_ENCODING);
+        for (String value : values) {
+            for (String field : value.split(",")) {
+                field = field.trim();
+                if (field.isEmpty() || (decoded && field.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING))) continue;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void invalidateIfUnsafe(final HttpRequest request, final HttpResponse response) {
+        String method = request.getMethod().toUpperCase(Locale.ROOT);
+        if (method.equals(RequestMethods.GET) || method.equals(RequestMethods.HEAD) || method.equals(RequestMethods.OPTIONS) || method.equals(RequestMethods.TRACE)) return;
+        if (response.getStatusCode() < 400) this.invalidate(request.getURL());
+    }
+
+    @Nullable
+    private CacheEntry get(final String key) {
+        synchronized (this.memory) {
+            CacheEntry entry = this.memory.get(key);
+            if (entry != null) return entry;
+        }
+        if (this.disk == null) return null;
+        CacheEntry entry = this.disk.get(key);
+        if (entry != null) {
+            synchronized (this.memory) {
+                this.memory.putIfAbsent(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    private void put(final CacheEntry entry) {
+        synchronized (this.memory) {
+            this.memory.put(entry.getKey(), entry);
+        }
+        if (this.disk != null) {
+            try {
+                this.disk.put(entry);
+            } catch (IOException ignored) {
+                //The disk cache is optional, the entry is still cached in memory
+            }
+        }
+    }
+
+    private void remove(final String key) {
+        synchronized (this.memory) {
+            this.memory.remove(key);
+        }
+        if (this.disk != null) this.disk.remove(key);
+    }
+
+    private static CacheControl getCacheControl(final HeaderStore<?> headers) {
+        List<String> values = headers.getHeader(HttpHeaders.CACHE_CONTROL);
+        return CacheControl.parse(values == null ? Collections.emptyList() : values);
+    }
+
+    private static String getKey(final URL url) {
+        return RequestMethods.GET + " " + url.toString();
+    }
+
+
+    /**
+     * Sends a request to the server.
+     */
+    @FunctionalInterface
+    public interface NetworkExecutor {
+        /**
+         * Execute the request.
+         *
+         * @param request The request to execute
+         * @return The response
+         * @throws IOException If an I/O error occurs
+         */
+        HttpResponse execute(final HttpRequest request) throws IOException;
+    }
+
+}
@@ -0,0 +1,72 @@
+package net.lenni0451.commons.httpclient.compression;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes which were sent and received with and without compression.<br>
+ * Bodies are only counted if they were compressed. Streamed responses are counted while they are read.
+ */
+public class CompressionStats {
+
+    private final AtomicLong compressedBytesReceived = new AtomicLong();
+    private final AtomicLong decompressedBytesReceived = new AtomicLong();
+    private final AtomicLong uncompressedBytesSent = new AtomicLong();
+    private final AtomicLong compressedBytesSent = new AtomicLong();
+
+    /**
+     * @return The amount of compressed response bytes which were received
+     */
+    public long getCompressedBytesReceived() {
+        return this.compressedBytesReceived.get();
+    }
+
+    /**
+     * @return The amount of bytes the compressed responses were decompressed to
+     */
+    public long getDecompressedBytesReceived() {
+        return this.decompressedBytesReceived.get();
+    }
+
+    /**
+     * @return The size of the request bodies before they were compressed
+     */
+    public long getUncompressedBytesSent() {
+        return this.uncompressedBytesSent.get();
+    }
+
+    /**
+     * @return The size of the request bodies after they were compressed
+     */
+    public long getCompressedBytesSent() {
+        return this.compressedBytesSent.get();
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+        this.compressedBytesReceived.set(0);
+        this.decompressedBytesReceived.set(0);
+        this.uncompressedBytesSent.set(0);
+        this.compressedBytesSent.set(0);
+    }
+
+    void addReceived(final long compressed, final long decompressed) {
+        this.compressedBytesReceived.addAndGet(compressed);
+        this.decompressedBytesReceived.addAndGet(decompressed);
+    }
+
+    void addCompressedReceived(final long compressed) {
+        this.compressedBytesReceived.addAndGet(compressed);
+    }
+
+    void addDecompressedReceived(final long decompressed) {
+        this.decompressedBytesReceived.addAndGet(decompressed);
+    }
+
+    void addSent(final long uncompressed, final long compressed) {
+        this.uncompressedBytesSent.addAndGet(uncompressed);
+        this.compressedBytesSent.addAndGet(compressed);
+    }
+
+}
@@ -0,0 +1,108 @@
+package net.lenni0451.commons.httpclient.compression;
+
+import lombok.experimental.UtilityClass;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
+import net.lenni0451.commons.httpclient.content.impl.ByteArrayContent;
+import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses request bodies and decompresses response bodies.<br>
+ * Only the {@code gzip} and {@code deflate} encodings are supported.
+ */
+@UtilityClass
+public class ContentCompression {
+
+    /**
+     * The value of the {@code Accept-Encoding} header which is sent if response decompression is enabled.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    /**
+     * Compress the content of a request using gzip if it is at least as large as the threshold.<br>
+     * Streamed contents, requests which already have a {@code Content-Encoding} and contents which don't get smaller are not compressed.
+     * The original request is not modified, a copy with the compressed content is returned instead.
+     *
+     * @param request   The request to compress
+     * @param threshold The minimum size of the content in bytes or {@code -1} to disable compression
+     * @param stats     The stats to update
+     * @return The compressed request or the original request if it was not compressed
+     * @throws IOException If the content could not be read
+     */
+    public static HttpRequest compressRequest(final HttpRequest request, final int threshold, final CompressionStats stats) throws IOException {
+        if (threshold < 0 || !(request instanceof HttpContentRequest)) return request;
+        HttpContent content = ((HttpContentRequest) request).getContent();
+        if (content == null || content instanceof StreamedHttpContent) return request;
+        if (request.hasHeader(HttpHeaders.CONTENT_ENCODING) || content.getContentLength() < threshold) return request;
+
+        byte[] raw = content.getAsBytes();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(32, raw.length / 2));
+        try (GZIPOutputStream gos = new GZIPOutputStream(baos)) {
+            gos.write(raw);
+        }
+        if (baos.size() >= raw.length) return request;
+        byte[] compressed = baos.toByteArray();
+        stats.addSent(raw.length, compressed.length);
+
+        HttpContentRequest copy = (HttpContentRequest) HttpRequestUtils.copy(request);
+        copy.setContent(new ByteArrayContent(content.getContentType(), compressed));
+        copy.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return copy;
+    }
+
+    /**
+     * Decompress the body of a response if it is encoded using gzip or deflate.<br>
+     * Streamed responses are decompressed while they are read.
+     * The {@code Content-Encoding} and {@code Content-Length} headers are removed from the decompressed response.
+     *
+     * @param response The response to decompress
+     * @param stats    The stats to update
+     * @return The decompressed response or the original response if it was not compressed
+     * @throws IOException If the body could not be decompressed
+     */
+    public static HttpResponse decompressResponse(final HttpResponse response, final CompressionStats stats) throws IOException {
+        Optional<String> encoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (!encoding.isPresent()) return response;
+        boolean gzip;
+        switch (encoding.get().trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                gzip = true;
+                break;
+            case "deflate":
+                gzip = false;
+                break;
+            default:
+                return response; //Unknown or multiple encodings are passed through
+        }
+
+        Map<String, List<String>> headers = new HashMap<>(response.getHeaders());
+        headers.remove(HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ROOT));
+        headers.remove(HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT));
+        if (response.isStreamed()) {
+            InputStream compressed = new CountingInputStream(response.getInputStream(), stats::addCompressedReceived);
+            InputStream decompressed = new CountingInputStream(new DecodingInputStream(compressed, gzip), stats::addDecompressedReceived);
+            return new HttpResponse(response.getURL(), response.getStatusCode(), response.getProtocol(), decompressed, headers);
+        } else {
+            byte[] compressed = response.getContent();
+            byte[] decompressed;
+            try (InputStream is = new DecodingInputStream(new ByteArrayInputStream(compressed), gzip)) {
+                decompressed = HttpRequestUtils.readFromStream(is);
+            }
+            stats.addReceived(compressed.length, decompressed.length);
+            return new HttpResponse(response.getURL(), response.getStatusCode(), response.getProtocol(), decompressed, headers);
+        }
+    }
+
+}
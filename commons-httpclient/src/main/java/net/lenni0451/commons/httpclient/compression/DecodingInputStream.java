@@ -0,0 +1,83 @@
+package net.lenni0451.commons.httpclient.compression;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An input stream which decodes a gzip or deflate encoded stream.<br>
+ * The decoder is created when the stream is read for the first time, so creating the stream never blocks.
+ * Empty streams are passed through, because responses without a body (e.g. {@code HEAD}) may still have a content encoding.<br>
+ * Deflate streams are accepted with and without the zlib wrapper, because many servers send raw deflate data.
+ */
+class DecodingInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final boolean gzip;
+    @Nullable
+    private InputStream decoder;
+    @Nullable
+    private Inflater inflater;
+
+    DecodingInputStream(final InputStream in, final boolean gzip) {
+        this.in = in;
+        this.gzip = gzip;
+    }
+
+    private InputStream getDecoder() throws IOException {
+        if (this.decoder != null) return this.decoder;
+        PushbackInputStream pushback = new PushbackInputStream(this.in, 2);
+        byte[] header = new byte[2];
+        int length = 0;
+        while (length < header.length) {
+            int read = pushback.read(header, length, header.length - length);
+            if (read == -1) break;
+            length += read;
+        }
+        pushback.unread(header, 0, length);
+        if (length == 0) {
+            this.decoder = pushback;
+        } else if (this.gzip) {
+            this.decoder = new GZIPInputStream(pushback, BUFFER_SIZE);
+        } else {
+            //A zlib header has the compression method 8 and is a multiple of 31
+            boolean zlib = length == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+            this.inflater = new Inflater(!zlib);
+            this.decoder = new InflaterInputStream(pushback, this.inflater, BUFFER_SIZE);
+        }
+        return this.decoder;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return this.getDecoder().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return this.getDecoder().read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.decoder == null ? 0 : this.decoder.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.decoder != null) this.decoder.close();
+            else this.in.close();
+        } finally {
+            //Inflaters passed to an InflaterInputStream are not ended by the stream
+            if (this.inflater != null) this.inflater.end();
+        }
+    }
+
+}
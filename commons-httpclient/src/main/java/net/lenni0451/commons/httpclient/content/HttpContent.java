@@ -4,6 +4,7 @@ import net.lenni0451.commons.httpclient.content.impl.*;
 import net.lenni0451.commons.httpclient.model.ContentType;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -108,6 +109,19 @@ public abstract class HttpContent {
         return new StreamedHttpContent(contentType, inputStream, contentLength);
     }
 
+    /**
+     * Create a new streamed content of unknown length from the given input stream.<br>
+     * The content is sent using chunked transfer encoding.
+     *
+     * @param contentType The content type
+     * @param inputStream The input stream
+     * @return The created content
+     * @see StreamedHttpContent#setChunkSize(int)
+     */
+    public static StreamedHttpContent streamed(final ContentType contentType, final InputStream inputStream) {
+        return new StreamedHttpContent(contentType, inputStream);
+    }
+
 
     private final ContentType contentType;
     protected byte[] content;
@@ -133,6 +147,18 @@ public abstract class HttpContent {
         return this.content;
     }
 
+    /**
+     * Open a stream to read the content.<br>
+     * Contents which are not stored in memory (e.g. files) are read directly from their source.
+     *
+     * @return The content as a stream
+     * @throws IOException If an I/O error occurs
+     */
+    @Nonnull
+    public InputStream getAsStream() throws IOException {
+        return new ByteArrayInputStream(this.getAsBytes());
+    }
+
     /**
      * @return The content as a UTF-8 string
      * @throws IOException If an I/O error occurs
@@ -155,7 +181,7 @@ public abstract class HttpContent {
     }
 
     /**
-     * @return The content length
+     * @return The content length or {@code -1} if the length of a streamed content is unknown
      */
     public abstract int getContentLength();
 
@@ -12,7 +12,8 @@ import java.io.InputStream;
  * Represents a streamed http content which is not fully loaded into memory.<br>
  * It requires special handling in the executor to support this type of content.<br>
  * It is fully backwards compatible if the executor does not support this feature by reading the entire stream into memory.<br>
- * All built-in executors support this type of content.
+ * All built-in executors support this type of content.<br>
+ * If the length of the content is unknown, it is sent using chunked transfer encoding.
  */
 public class StreamedHttpContent extends HttpContent {
 
@@ -34,6 +35,18 @@ public class StreamedHttpContent extends HttpContent {
     private final InputStream inputStream;
     private final int contentLength;
     private int bufferSize = 1024;
+    private int chunkSize = 8192;
+
+    /**
+     * Create a streamed content of unknown length.<br>
+     * The content is sent using chunked transfer encoding.
+     *
+     * @param contentType The content type
+     * @param inputStream The input stream
+     */
+    public StreamedHttpContent(final ContentType contentType, final InputStream inputStream) {
+        this(contentType, inputStream, -1);
+    }
 
     public StreamedHttpContent(final ContentType contentType, final InputStream inputStream, final int contentLength) {
         super(contentType);
@@ -41,13 +54,36 @@ public class StreamedHttpContent extends HttpContent {
         this.contentLength = contentLength;
     }
 
+    /**
+     * Create a streamed content which produces its stream on demand.<br>
+     * Subclasses using this constructor have to override {@link #getInputStream()} and {@link #getContentLength()}.
+     *
+     * @param contentType The content type
+     */
+    protected StreamedHttpContent(final ContentType contentType) {
+        super(contentType);
+        this.inputStream = null;
+        this.contentLength = -1;
+    }
+
     /**
      * @return The input stream
+     * @throws IOException If an I/O error occurs
      */
-    public InputStream getInputStream() {
+    public InputStream getInputStream() throws IOException {
         return this.inputStream;
     }
 
+    /**
+     * Check if the content can be sent multiple times (e.g. after a redirect or when a connection has to be retried).<br>
+     * Contents which wrap a single input stream can only be sent once.
+     *
+     * @return If the content can be sent multiple times
+     */
+    public boolean isRepeatable() {
+        return false;
+    }
+
     /**
      * @return The buffer size for reading the stream
      */
@@ -67,16 +103,43 @@ public class StreamedHttpContent extends HttpContent {
         return this;
     }
 
+    /**
+     * @return The maximum size of a chunk if the content is sent using chunked transfer encoding
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Set the maximum size of a chunk if the content is sent using chunked transfer encoding.<br>
+     * Data read from the stream is sent as soon as it is available, so chunks may be smaller than this.
+     * This option is only used if the content length is unknown.
+     *
+     * @param chunkSize The chunk size
+     * @return This instance for chaining
+     */
+    public StreamedHttpContent setChunkSize(final int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
     @Override
     public int getContentLength() {
         return this.contentLength;
     }
 
+    @Nonnull
+    @Override
+    public InputStream getAsStream() throws IOException {
+        return this.getInputStream();
+    }
+
     @Nonnull
     @Override
     protected byte[] compute() throws IOException {
         //Calling this method 100% defeats the purpose of a streamed content
-        return HttpRequestUtils.readFromStream(this.inputStream);
+        return HttpRequestUtils.readFromStream(this.getInputStream(), this.getContentLength());
     }
 
 }
@@ -9,6 +9,7 @@ import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 public class FileContent extends HttpContent {
 
@@ -23,16 +24,29 @@ public class FileContent extends HttpContent {
         this.file = file;
     }
 
+    /**
+     * @return The file to send
+     */
+    public File getFile() {
+        return this.file;
+    }
+
     @Override
     public int getContentLength() {
         return (int) this.file.length();
     }
 
+    @Nonnull
+    @Override
+    public InputStream getAsStream() throws IOException {
+        return new FileInputStream(this.file);
+    }
+
     @Nonnull
     @Override
     protected byte[] compute() throws IOException {
         try (FileInputStream fis = new FileInputStream(this.file)) {
-            return HttpRequestUtils.readFromStream(fis);
+            return HttpRequestUtils.readFromStream(fis, this.file.length());
         }
     }
 
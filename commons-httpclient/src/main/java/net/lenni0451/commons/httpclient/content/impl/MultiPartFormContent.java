@@ -4,21 +4,31 @@ import lombok.SneakyThrows;
 import net.lenni0451.commons.httpclient.HeaderStore;
 import net.lenni0451.commons.httpclient.constants.HttpHeaders;
 import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
 import net.lenni0451.commons.httpclient.model.ContentType;
 
-import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-public class MultiPartFormContent extends HttpContent {
+/**
+ * A multipart form content which is streamed part by part instead of being loaded into memory.<br>
+ * File parts are read directly from the disk when the body is sent and streamed parts are passed through.
+ * The length of the body is calculated from the lengths of the parts, so it can be sent with a fixed content length.
+ */
+public class MultiPartFormContent extends StreamedHttpContent {
 
     private final String boundary;
     private final List<FormPart> parts = new ArrayList<>();
+    @Nullable
+    private List<HttpContent> segments;
 
     public MultiPartFormContent() {
         this("---" + UUID.randomUUID() + "---");
@@ -61,32 +71,94 @@ public class MultiPartFormContent extends HttpContent {
      */
     public MultiPartFormContent addPart(final FormPart part) {
         this.parts.add(part);
+        this.segments = null;
         return this;
     }
 
-    @Override
-    @SneakyThrows
-    public int getContentLength() {
-        return this.getAsBytes().length;
-    }
-
-    @Nonnull
-    @Override
-    protected byte[] compute() throws IOException {
+    /**
+     * Split the body into the segments which have to be sent in order.<br>
+     * The boundaries, part headers and in-memory parts are merged into {@link ByteArrayContent}s.
+     * {@link FileContent} and {@link StreamedHttpContent} parts are returned as they are, so executors can send them without loading them into memory.
+     * The segments are cached until a new part is added, so the headers of the parts must not be changed after the body has been built.
+     *
+     * @return The segments of the body
+     * @throws IOException If an I/O error occurs
+     */
+    public synchronized List<HttpContent> getSegments() throws IOException {
+        if (this.segments != null) return this.segments;
+        List<HttpContent> segments = new ArrayList<>();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         for (FormPart part : this.parts) {
-            baos.write(("--" + this.boundary + "\r\n").getBytes());
+            baos.write(("--" + this.boundary + "\r\n").getBytes(StandardCharsets.UTF_8));
             for (Map.Entry<String, List<String>> entry : part.getHeaders().entrySet()) {
                 for (String value : entry.getValue()) {
-                    baos.write((entry.getKey() + ": " + value + "\r\n").getBytes());
+                    baos.write((entry.getKey() + ": " + value + "\r\n").getBytes(StandardCharsets.UTF_8));
                 }
             }
-            baos.write("\r\n".getBytes());
-            baos.write(part.getContent().getAsBytes());
-            baos.write("\r\n".getBytes());
+            baos.write("\r\n".getBytes(StandardCharsets.UTF_8));
+
+            HttpContent content = part.getContent();
+            if (content instanceof FileContent || content instanceof StreamedHttpContent) {
+                segments.add(new ByteArrayContent(baos.toByteArray()));
+                segments.add(content);
+                baos.reset();
+            } else {
+                baos.write(content.getAsBytes());
+            }
+            baos.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        baos.write(("--" + this.boundary + "--").getBytes(StandardCharsets.UTF_8));
+        segments.add(new ByteArrayContent(baos.toByteArray()));
+        this.segments = Collections.unmodifiableList(segments);
+        return this.segments;
+    }
+
+    /**
+     * Open a new stream of the body.<br>
+     * Every call returns a new stream starting at the first part.
+     *
+     * @return The stream of the body
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new MultiPartInputStream(this.getSegments());
+    }
+
+    /**
+     * @return If the content does not contain any streamed parts
+     */
+    @Override
+    public boolean isRepeatable() {
+        for (FormPart part : this.parts) {
+            if (part.getContent() instanceof StreamedHttpContent && !((StreamedHttpContent) part.getContent()).isRepeatable()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Calculate the length of the body from the lengths of its parts.<br>
+     * The lengths of file parts are read from the file system, so the files must not change until the body is sent.
+     * If the length of a streamed part is unknown or the body is larger than {@link Integer#MAX_VALUE} bytes, the length of the body is unknown too
+     * and it is sent in chunks.
+     *
+     * @return The content length or {@code -1} if it is unknown
+     */
+    @Override
+    @SneakyThrows
+    public int getContentLength() {
+        long length = 0;
+        for (HttpContent segment : this.getSegments()) {
+            if (segment instanceof FileContent) {
+                length += ((FileContent) segment).getFile().length();
+            } else {
+                int segmentLength = segment.getContentLength();
+                if (segmentLength < 0) return -1;
+                length += segmentLength;
+            }
         }
-        baos.write(("--" + this.boundary + "--").getBytes());
-        return baos.toByteArray();
+        if (length > Integer.MAX_VALUE) return -1;
+        return (int) length;
     }
 
 
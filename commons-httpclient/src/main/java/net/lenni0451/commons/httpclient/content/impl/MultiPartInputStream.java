@@ -0,0 +1,112 @@
+package net.lenni0451.commons.httpclient.content.impl;
+
+import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
+import net.lenni0451.commons.httpclient.utils.ChannelTransferable;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A stream which reads the segments of a multipart body one after another.<br>
+ * The stream of a segment is only opened when the previous segment has been fully read.
+ * When transferred to a channel, file segments are sent using {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+ */
+class MultiPartInputStream extends InputStream implements ChannelTransferable {
+
+    private final Iterator<HttpContent> segments;
+    @Nullable
+    private InputStream current;
+    private boolean closed;
+
+    MultiPartInputStream(final List<HttpContent> segments) {
+        this.segments = segments.iterator();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = this.read(b, 0, 1);
+        return read == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (this.closed) throw new IOException("Stream closed");
+        if (len == 0) return 0;
+        while (true) {
+            if (this.current == null) {
+                if (!this.segments.hasNext()) return -1;
+                this.current = this.segments.next().getAsStream();
+            }
+            int read = this.current.read(b, off, len);
+            if (read != -1) return read;
+            this.closeCurrent();
+        }
+    }
+
+    @Override
+    public long transferTo(final WritableByteChannel channel) throws IOException {
+        if (this.closed) throw new IOException("Stream closed");
+        long total = 0;
+        while (true) {
+            if (this.current == null) {
+                if (!this.segments.hasNext()) return total;
+                HttpContent segment = this.segments.next();
+                if (segment instanceof FileContent) {
+                    total += transferFile(((FileContent) segment).getFile(), channel);
+                    continue;
+                }
+                this.current = segment.getAsStream();
+            }
+            total += HttpRequestUtils.transfer(this.current, channel);
+            this.closeCurrent();
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.current == null ? 0 : this.current.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        this.closeCurrent();
+        //Streamed parts which have not been reached yet would otherwise stay open
+        while (this.segments.hasNext()) {
+            HttpContent segment = this.segments.next();
+            if (segment instanceof StreamedHttpContent) segment.getAsStream().close();
+        }
+    }
+
+    private void closeCurrent() throws IOException {
+        if (this.current == null) return;
+        InputStream current = this.current;
+        this.current = null;
+        current.close();
+    }
+
+    private static long transferFile(final File file, final WritableByteChannel channel) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = fileChannel.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = fileChannel.transferTo(position, size - position, channel);
+                if (transferred <= 0) break; //The file has been truncated while sending it
+                position += transferred;
+            }
+            return position;
+        }
+    }
+
+}
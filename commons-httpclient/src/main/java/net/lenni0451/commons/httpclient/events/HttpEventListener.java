@@ -0,0 +1,70 @@
+package net.lenni0451.commons.httpclient.events;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+
+/**
+ * Receives the events of all requests which are sent by a {@link HttpClient}.<br>
+ * Every attempt to send a request (including retries) has its own {@link RequestTimeline} which is passed to all events of the attempt.
+ * The timeline contains the timestamps of all phases which have been reached so far.<br>
+ * Events are called on the thread which observed them (e.g. a Netty event loop), so listeners must not block and should not throw.
+ * Executors which can't observe a phase skip its event.
+ *
+ * @see LatencyMetrics
+ */
+public interface HttpEventListener {
+
+    /**
+     * Called when the executor starts sending a request.
+     *
+     * @param timeline The timeline of the attempt
+     */
+    default void requestStarted(final RequestTimeline timeline) {
+    }
+
+    /**
+     * Called when a connection has been acquired for the request.<br>
+     * New connections have been connected at this point, the TLS handshake might still be running.
+     *
+     * @param timeline The timeline of the attempt
+     * @see RequestTimeline#isConnectionReused()
+     */
+    default void connectionAcquired(final RequestTimeline timeline) {
+    }
+
+    /**
+     * Called when the request and its content have been sent.
+     *
+     * @param timeline The timeline of the attempt
+     */
+    default void requestSent(final RequestTimeline timeline) {
+    }
+
+    /**
+     * Called when the status line and headers of the response have been received.
+     *
+     * @param timeline The timeline of the attempt
+     * @see RequestTimeline#getStatusCode()
+     */
+    default void headersReceived(final RequestTimeline timeline) {
+    }
+
+    /**
+     * Called when the body of the response has been fully received.<br>
+     * For streamed responses this is the case when the stream has been read to the end or closed.
+     *
+     * @param timeline The timeline of the attempt
+     */
+    default void bodyCompleted(final RequestTimeline timeline) {
+    }
+
+    /**
+     * Called when the attempt failed.<br>
+     * This is the last event of the attempt, {@link #bodyCompleted(RequestTimeline)} is not called afterward.
+     *
+     * @param timeline The timeline of the attempt
+     * @param cause    The cause of the failure
+     */
+    default void requestFailed(final RequestTimeline timeline, final Throwable cause) {
+    }
+
+}
@@ -0,0 +1,139 @@
+package net.lenni0451.commons.httpclient.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds.<br>
+ * Values are counted in logarithmic buckets with 8 linear sub-buckets per power of two, so percentiles have a relative error of at most 12.5%.
+ * The minimum, maximum and mean are exact.<br>
+ * Reading the histogram while values are recorded returns a close approximation.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        //The leading bit selects the power of two, the following bits the linear sub-bucket
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long bucketUpperBound(final int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long base = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return base + (1L << shift) - 1;
+    }
+
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Record a latency.<br>
+     * Negative values are ignored.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        if (nanos < 0) return;
+        this.buckets.incrementAndGet(bucketIndex(nanos));
+        this.count.increment();
+        this.sum.add(nanos);
+        this.min.accumulateAndGet(nanos, Math::min);
+        this.max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return The amount of recorded values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return The smallest recorded value or {@code 0} if no values have been recorded
+     */
+    public long getMin() {
+        long min = this.min.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    /**
+     * @return The largest recorded value or {@code 0} if no values have been recorded
+     */
+    public long getMax() {
+        long max = this.max.get();
+        return max == Long.MIN_VALUE ? 0 : max;
+    }
+
+    /**
+     * @return The mean of all recorded values or {@code 0} if no values have been recorded
+     */
+    public long getMean() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : this.sum.sum() / count;
+    }
+
+    /**
+     * Get the value below which the given percentage of values fall.<br>
+     * The upper bound of the matching bucket is returned, capped at the largest recorded value.
+     *
+     * @param percentile The percentile between {@code 0} and {@code 100}
+     * @return The value at the percentile or {@code 0} if no values have been recorded
+     * @throws IllegalArgumentException If the percentile is out of range
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) count += this.buckets.get(i);
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= target) return Math.min(bucketUpperBound(i), this.getMax());
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Remove all recorded values.<br>
+     * Values which are recorded concurrently might be partially kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) this.buckets.set(i, 0);
+        this.count.reset();
+        this.sum.reset();
+        this.min.set(Long.MAX_VALUE);
+        this.max.set(Long.MIN_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{"
+                + "count=" + this.getCount()
+                + ", min=" + millis(this.getMin())
+                + ", mean=" + millis(this.getMean())
+                + ", p50=" + millis(this.getPercentile(50))
+                + ", p90=" + millis(this.getPercentile(90))
+                + ", p99=" + millis(this.getPercentile(99))
+                + ", max=" + millis(this.getMax())
+                + "}";
+    }
+
+    private static String millis(final long nanos) {
+        return String.format("%.3fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+}
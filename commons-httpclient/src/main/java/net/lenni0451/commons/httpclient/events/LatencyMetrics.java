@@ -0,0 +1,202 @@
+package net.lenni0451.commons.httpclient.events;
+
+import javax.annotation.Nullable;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An event listener which aggregates the phases of all requests into latency histograms per host and status class.<br>
+ * Every attempt is recorded when its body has been completed or it failed. Phases which were not observed by the executor are skipped.
+ *
+ * <pre>{@code
+ * LatencyMetrics metrics = new LatencyMetrics();
+ * HttpClient client = new HttpClient().setEventListener(metrics);
+ * ...
+ * LatencyHistogram ttfb = metrics.getHistogram("example.com", LatencyMetrics.StatusClass.SUCCESS, LatencyMetrics.Phase.TIME_TO_FIRST_BYTE);
+ * }</pre>
+ */
+public class LatencyMetrics implements HttpEventListener {
+
+    private final Map<String, Map<StatusClass, Map<Phase, LatencyHistogram>>> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void bodyCompleted(final RequestTimeline timeline) {
+        this.record(timeline, StatusClass.of(timeline.getStatusCode()));
+    }
+
+    @Override
+    public void requestFailed(final RequestTimeline timeline, final Throwable cause) {
+        this.record(timeline, StatusClass.FAILED);
+    }
+
+    /**
+     * @return All hosts which have been recorded
+     */
+    public Set<String> getHosts() {
+        return Collections.unmodifiableSet(this.histograms.keySet());
+    }
+
+    /**
+     * Get the status classes which have been recorded for a host.
+     *
+     * @param host The host (with the port if it is not the default port)
+     * @return The recorded status classes
+     */
+    public Set<StatusClass> getStatusClasses(final String host) {
+        Map<StatusClass, Map<Phase, LatencyHistogram>> statusClasses = this.histograms.get(host.toLowerCase(Locale.ROOT));
+        if (statusClasses == null) return Collections.emptySet();
+        return Collections.unmodifiableSet(statusClasses.keySet());
+    }
+
+    /**
+     * Get the histogram of a phase.
+     *
+     * @param host        The host (with the port if it is not the default port)
+     * @param statusClass The status class of the responses
+     * @param phase       The phase
+     * @return The histogram or {@code null} if no request has been recorded for the host and status class
+     */
+    @Nullable
+    public LatencyHistogram getHistogram(final String host, final StatusClass statusClass, final Phase phase) {
+        Map<StatusClass, Map<Phase, LatencyHistogram>> statusClasses = this.histograms.get(host.toLowerCase(Locale.ROOT));
+        if (statusClasses == null) return null;
+        Map<Phase, LatencyHistogram> phases = statusClasses.get(statusClass);
+        if (phases == null) return null;
+        return phases.get(phase);
+    }
+
+    /**
+     * Remove all recorded histograms.
+     */
+    public void reset() {
+        this.histograms.clear();
+    }
+
+    private void record(final RequestTimeline timeline, final StatusClass statusClass) {
+        Map<Phase, LatencyHistogram> phases = this.histograms
+                .computeIfAbsent(getHost(timeline.getRequest().getURL()), host -> new ConcurrentHashMap<>())
+                .computeIfAbsent(statusClass, s -> {
+                    Map<Phase, LatencyHistogram> map = new EnumMap<>(Phase.class);
+                    for (Phase phase : Phase.values()) map.put(phase, new LatencyHistogram());
+                    return map;
+                });
+        for (Phase phase : Phase.values()) phases.get(phase).record(phase.measure(timeline));
+    }
+
+    private static String getHost(final URL url) {
+        String host = url.getHost().toLowerCase(Locale.ROOT);
+        if (url.getPort() == -1 || url.getPort() == url.getDefaultPort()) return host;
+        return host + ":" + url.getPort();
+    }
+
+
+    /**
+     * The phases of a request which are measured.
+     */
+    public enum Phase {
+        /**
+         * Acquiring a connection, including connecting and the TLS handshake for new connections.
+         */
+        CONNECTION {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getStartNanos(), timeline.getConnectionAcquiredNanos());
+            }
+        },
+        /**
+         * Resolving the host name and connecting to the server. Only measured for new connections.
+         */
+        CONNECT {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getConnectStartNanos(), timeline.getConnectEndNanos());
+            }
+        },
+        /**
+         * The TLS handshake after connecting to the server. Only measured for new connections.
+         */
+        TLS {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getConnectEndNanos(), timeline.getSecureConnectEndNanos());
+            }
+        },
+        /**
+         * Sending the request and its content. Starts when the connection has been acquired.
+         */
+        REQUEST {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getConnectionAcquiredNanos(), timeline.getRequestSentNanos());
+            }
+        },
+        /**
+         * Waiting for the response headers after the request has been sent.<br>
+         * The {@link java.net.HttpURLConnection} only sends requests without a streamed content when the response is read,
+         * so for the URL connection executor this also includes sending those requests.
+         */
+        TIME_TO_FIRST_BYTE {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getRequestSentNanos(), timeline.getHeadersReceivedNanos());
+            }
+        },
+        /**
+         * Receiving the body after the headers.
+         */
+        BODY {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getHeadersReceivedNanos(), timeline.getEndNanos());
+            }
+        },
+        /**
+         * The whole attempt from the start until the body has been received or the attempt failed.
+         */
+        TOTAL {
+            @Override
+            long measure(final RequestTimeline timeline) {
+                return RequestTimeline.duration(timeline.getStartNanos(), timeline.getEndNanos());
+            }
+        };
+
+        abstract long measure(final RequestTimeline timeline);
+    }
+
+
+    /**
+     * The classes of response status codes.
+     */
+    public enum StatusClass {
+        INFORMATIONAL, SUCCESS, REDIRECTION, CLIENT_ERROR, SERVER_ERROR,
+        /**
+         * The request failed before a response was received or while receiving the body.
+         */
+        FAILED;
+
+        /**
+         * Get the class of a status code.
+         *
+         * @param statusCode The status code
+         * @return The status class
+         */
+        public static StatusClass of(final int statusCode) {
+            switch (statusCode / 100) {
+                case 1:
+                    return INFORMATIONAL;
+                case 2:
+                    return SUCCESS;
+                case 3:
+                    return REDIRECTION;
+                case 4:
+                    return CLIENT_ERROR;
+                case 5:
+                    return SERVER_ERROR;
+                default:
+                    return FAILED;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package net.lenni0451.commons.httpclient.events;
+
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The timestamps of a single attempt to send a request.<br>
+ * All timestamps are taken from {@link System#nanoTime()} and are {@code -1} if the phase has not been reached or is not reported by the executor.
+ * If the executor follows redirects itself, the timestamps of the last hop are kept.<br>
+ * The methods which mark a phase are called by the executors and notify the event listener.
+ */
+public final class RequestTimeline {
+
+    /**
+     * Start a new timeline and notify the listener.
+     *
+     * @param listener The listener to notify or {@code null} to only record the timestamps
+     * @param request  The request which is sent
+     * @return The started timeline
+     */
+    public static RequestTimeline start(@Nullable final HttpEventListener listener, @Nonnull final HttpRequest request) {
+        RequestTimeline timeline = new RequestTimeline(listener, request);
+        if (listener != null) listener.requestStarted(timeline);
+        return timeline;
+    }
+
+    /**
+     * Get the duration between two timestamps of a timeline.
+     *
+     * @param startNanos The first timestamp
+     * @param endNanos   The second timestamp
+     * @return The duration in nanoseconds or {@code -1} if one of the timestamps is missing
+     */
+    public static long duration(final long startNanos, final long endNanos) {
+        if (startNanos < 0 || endNanos < 0) return -1;
+        return endNanos - startNanos;
+    }
+
+
+    @Nullable
+    private final HttpEventListener listener;
+    private final HttpRequest request;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private volatile long connectStartNanos = -1;
+    private volatile long connectEndNanos = -1;
+    private volatile long secureConnectEndNanos = -1;
+    private volatile long connectionAcquiredNanos = -1;
+    private volatile boolean connectionReused;
+    private volatile long requestSentNanos = -1;
+    private volatile long headersReceivedNanos = -1;
+    private volatile int statusCode = -1;
+    private volatile long endNanos = -1;
+    @Nullable
+    private volatile Throwable failure;
+
+    private RequestTimeline(@Nullable final HttpEventListener listener, final HttpRequest request) {
+        this.listener = listener;
+        this.request = request;
+    }
+
+    /**
+     * @return The request which is sent
+     */
+    public HttpRequest getRequest() {
+        return this.request;
+    }
+
+    /**
+     * @return The time when the attempt was started
+     */
+    public long getStartNanos() {
+        return this.startNanos;
+    }
+
+    /**
+     * The time when connecting to the server was started.<br>
+     * This includes resolving the host name.
+     *
+     * @return The timestamp or {@code -1} if no new connection was opened
+     */
+    public long getConnectStartNanos() {
+        return this.connectStartNanos;
+    }
+
+    /**
+     * @return The time when the connection was established or {@code -1} if no new connection was opened
+     */
+    public long getConnectEndNanos() {
+        return this.connectEndNanos;
+    }
+
+    /**
+     * @return The time when the TLS handshake was completed or {@code -1} if no handshake was observed
+     */
+    public long getSecureConnectEndNanos() {
+        return this.secureConnectEndNanos;
+    }
+
+    /**
+     * @return The time when a connection was acquired for the request
+     */
+    public long getConnectionAcquiredNanos() {
+        return this.connectionAcquiredNanos;
+    }
+
+    /**
+     * @return If a pooled connection was reused
+     */
+    public boolean isConnectionReused() {
+        return this.connectionReused;
+    }
+
+    /**
+     * @return The time when the request was sent
+     */
+    public long getRequestSentNanos() {
+        return this.requestSentNanos;
+    }
+
+    /**
+     * @return The time when the headers of the response were received
+     */
+    public long getHeadersReceivedNanos() {
+        return this.headersReceivedNanos;
+    }
+
+    /**
+     * @return The status code of the response or {@code -1} if no response was received
+     */
+    public int getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * @return The time when the body was completed or the attempt failed
+     */
+    public long getEndNanos() {
+        return this.endNanos;
+    }
+
+    /**
+     * @return The cause of the failure or {@code null} if the attempt did not fail
+     */
+    @Nullable
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Mark that a new connection has been established.
+     *
+     * @param connectStartNanos The time when connecting was started
+     */
+    public void connected(final long connectStartNanos) {
+        this.connectStartNanos = connectStartNanos;
+        this.connectEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Mark that the TLS handshake has been completed.
+     */
+    public void secureConnected() {
+        this.secureConnectEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Mark that a connection has been acquired.
+     *
+     * @param reused If a pooled connection was reused
+     */
+    public void connectionAcquired(final boolean reused) {
+        this.connectionReused = reused;
+        this.connectionAcquiredNanos = System.nanoTime();
+        if (this.listener != null) this.listener.connectionAcquired(this);
+    }
+
+    /**
+     * Mark that the request has been sent.
+     */
+    public void requestSent() {
+        this.requestSentNanos = System.nanoTime();
+        if (this.listener != null) this.listener.requestSent(this);
+    }
+
+    /**
+     * Mark that the headers of the response have been received.
+     *
+     * @param statusCode The status code of the response
+     */
+    public void headersReceived(final int statusCode) {
+        this.statusCode = statusCode;
+        this.headersReceivedNanos = System.nanoTime();
+        if (this.listener != null) this.listener.headersReceived(this);
+    }
+
+    /**
+     * Mark that the body of the response has been received.<br>
+     * Only the first call to this method or {@link #failed(Throwable)} has an effect.
+     */
+    public void bodyCompleted() {
+        if (!this.ended.compareAndSet(false, true)) return;
+        this.endNanos = System.nanoTime();
+        if (this.listener != null) this.listener.bodyCompleted(this);
+    }
+
+    /**
+     * Mark that the attempt has failed.<br>
+     * Only the first call to this method or {@link #bodyCompleted()} has an effect.
+     *
+     * @param cause The cause of the failure
+     */
+    public void failed(final Throwable cause) {
+        if (!this.ended.compareAndSet(false, true)) return;
+        this.failure = cause;
+        this.endNanos = System.nanoTime();
+        if (this.listener != null) this.listener.requestFailed(this, cause);
+    }
+
+    /**
+     * Wrap the body stream of a streamed response.<br>
+     * The body is completed when the stream has been read to the end or is closed. Read errors fail the attempt.
+     *
+     * @param body The body stream
+     * @return The wrapped stream
+     */
+    public InputStream observe(final InputStream body) {
+        return new TimelineInputStream(body, this);
+    }
+
+}
@@ -0,0 +1,52 @@
+package net.lenni0451.commons.httpclient.events;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A stream which completes a timeline when the body has been read to the end or is closed.
+ */
+class TimelineInputStream extends FilterInputStream {
+
+    private final RequestTimeline timeline;
+
+    TimelineInputStream(final InputStream in, final RequestTimeline timeline) {
+        super(in);
+        this.timeline = timeline;
+    }
+
+    @Override
+    public int read() throws IOException {
+        try {
+            int read = super.read();
+            if (read == -1) this.timeline.bodyCompleted();
+            return read;
+        } catch (IOException e) {
+            this.timeline.failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        try {
+            int read = super.read(b, off, len);
+            if (read == -1) this.timeline.bodyCompleted();
+            return read;
+        } catch (IOException e) {
+            this.timeline.failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            this.timeline.bodyCompleted();
+        }
+    }
+
+}
@@ -9,14 +9,15 @@ public enum ExecutorType {
     /**
      * Automatically choose the best executor type for the current Java version.<br>
      * This will try to use the other types in reverse order and use the first one that is available.<br>
-     * e.g. if {@link #HTTP_CLIENT} is available it will be used, otherwise {@link #URL_CONNECTION} will be used.
+     * e.g. if {@link #HTTP_CLIENT} is available it will be used, otherwise {@link #URL_CONNECTION} will be used.<br>
+     * {@link #NETTY} is never chosen automatically because it depends on optional libraries.
      */
     AUTO {
         @Override
         public RequestExecutor initExecutor(HttpClient client) {
             for (int i = values().length - 1; i >= 0; i--) {
                 ExecutorType type = values()[i];
-                if (AUTO.equals(type)) continue;
+                if (AUTO.equals(type) || NETTY.equals(type)) continue;
                 if (type.isAvailable()) {
                     RequestExecutor executor = type.makeExecutor(client);
                     if (executor != null) return executor;
@@ -55,6 +56,27 @@ public enum ExecutorType {
             return (RequestExecutor) this.constructor.newInstance(client);
         }
     },
+    /**
+     * Use an HTTP/1.1 executor based on Netty.<br>
+     * Connections are pooled per host and the event loops are shared with the other clients of commons-netty.<br>
+     * This requires Netty and commons-netty to be on the classpath.
+     */
+    NETTY {
+        private Constructor<?> constructor;
+
+        @Override
+        protected void init() throws Throwable {
+            Class.forName("io.netty.handler.codec.http.HttpClientCodec");
+            Class.forName("net.lenni0451.commons.netty.TCPChannelType");
+            Class<?> executorClass = Class.forName("net.lenni0451.commons.httpclient.executor.NettyExecutor");
+            this.constructor = executorClass.getDeclaredConstructor(HttpClient.class);
+        }
+
+        @Override
+        protected RequestExecutor initExecutor(HttpClient client) throws Throwable {
+            return (RequestExecutor) this.constructor.newInstance(client);
+        }
+    },
     ;
 
 
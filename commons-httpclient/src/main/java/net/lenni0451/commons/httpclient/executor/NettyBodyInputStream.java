@@ -0,0 +1,183 @@
+package net.lenni0451.commons.httpclient.executor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import net.lenni0451.commons.httpclient.utils.ChannelTransferable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A blocking input stream which is fed with the body chunks received by a Netty channel.<br>
+ * The chunks are kept in their original (pooled) buffers until they are read.
+ * If too many bytes are queued, reading from the channel is paused until the consumer caught up.
+ */
+class NettyBodyInputStream extends InputStream implements ChannelTransferable {
+
+    private static final int HIGH_WATER_MARK = 1024 * 1024;
+    private static final int LOW_WATER_MARK = HIGH_WATER_MARK / 4;
+
+    private final Channel channel;
+    private final Deque<ByteBuf> chunks = new ArrayDeque<>();
+    private int queuedBytes;
+    private boolean paused;
+    private boolean ended;
+    private boolean closed;
+    @Nullable
+    private Throwable failure;
+
+    NettyBodyInputStream(final Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Add a chunk to the stream.<br>
+     * The stream takes ownership of the buffer.
+     *
+     * @param chunk The chunk to add
+     */
+    synchronized void offer(final ByteBuf chunk) {
+        if (this.closed || !chunk.isReadable()) {
+            chunk.release();
+            return;
+        }
+        this.chunks.add(chunk);
+        this.queuedBytes += chunk.readableBytes();
+        if (!this.paused && this.queuedBytes > HIGH_WATER_MARK) {
+            this.paused = true;
+            this.channel.config().setAutoRead(false);
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Mark the end of the body.
+     */
+    synchronized void end() {
+        this.ended = true;
+        this.resume();
+        this.notifyAll();
+    }
+
+    /**
+     * Fail the stream with the given cause.<br>
+     * All following reads will throw an exception after the queued chunks have been read.
+     *
+     * @param cause The cause of the failure
+     */
+    synchronized void fail(final Throwable cause) {
+        if (this.ended) return;
+        this.failure = cause;
+        this.ended = true;
+        this.notifyAll();
+    }
+
+    /**
+     * @return If the stream was closed before the body was fully received
+     */
+    synchronized boolean isAborted() {
+        return this.closed && !this.ended;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = this.read(b, 0, 1);
+        return read == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) return 0;
+        ByteBuf chunk = this.awaitChunk();
+        if (chunk == null) return -1;
+        int read = Math.min(len, chunk.readableBytes());
+        chunk.readBytes(b, off, read);
+        this.queuedBytes -= read;
+        if (!chunk.isReadable()) this.chunks.poll().release();
+        if (this.paused && this.queuedBytes < LOW_WATER_MARK) this.resume();
+        return read;
+    }
+
+    /**
+     * Write the queued chunks directly to the channel.<br>
+     * Direct buffers are written without being copied to the heap.
+     * The lock is not held while writing, so slow channels don't block the event loop.
+     *
+     * @param channel The channel to write to
+     * @return The amount of transferred bytes
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public long transferTo(final WritableByteChannel channel) throws IOException {
+        long total = 0;
+        while (true) {
+            ByteBuf chunk;
+            synchronized (this) {
+                chunk = this.awaitChunk();
+                if (chunk == null) return total;
+                this.chunks.poll();
+                this.queuedBytes -= chunk.readableBytes();
+                if (this.paused && this.queuedBytes < LOW_WATER_MARK) this.resume();
+            }
+            try {
+                ByteBuffer buffer = chunk.nioBuffer();
+                while (buffer.hasRemaining()) total += channel.write(buffer);
+            } finally {
+                chunk.release();
+            }
+        }
+    }
+
+    @Override
+    public synchronized int available() {
+        return this.queuedBytes;
+    }
+
+    @Override
+    public void close() {
+        boolean abort;
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+            abort = !this.ended;
+            ByteBuf chunk;
+            while ((chunk = this.chunks.poll()) != null) chunk.release();
+            this.queuedBytes = 0;
+        }
+        //The rest of the body would still be sent over the connection, so it can't be reused
+        if (abort) this.channel.close();
+    }
+
+    @Nullable
+    private ByteBuf awaitChunk() throws IOException {
+        while (true) {
+            if (this.closed) throw new IOException("Stream closed");
+            ByteBuf chunk = this.chunks.peek();
+            if (chunk != null) return chunk;
+            if (this.ended) {
+                if (this.failure == null) return null;
+                if (this.failure instanceof IOException) throw (IOException) this.failure;
+                throw new IOException(this.failure);
+            }
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for data", e);
+            }
+        }
+    }
+
+    private void resume() {
+        if (!this.paused) return;
+        this.paused = false;
+        this.channel.config().setAutoRead(true);
+    }
+
+}
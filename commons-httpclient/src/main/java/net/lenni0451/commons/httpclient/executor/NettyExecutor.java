@@ -0,0 +1,647 @@
+package net.lenni0451.commons.httpclient.executor;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.SimpleChannelPool;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.proxy.HttpProxyHandler;
+import io.netty.handler.proxy.Socks4ProxyHandler;
+import io.netty.handler.proxy.Socks5ProxyHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.resolver.NoopAddressResolverGroup;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.RequestMethods;
+import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
+import net.lenni0451.commons.httpclient.content.impl.FileContent;
+import net.lenni0451.commons.httpclient.content.impl.MultiPartFormContent;
+import net.lenni0451.commons.httpclient.events.RequestTimeline;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
+import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
+import net.lenni0451.commons.httpclient.proxy.ProxyType;
+import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import net.lenni0451.commons.netty.TCPChannelType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.File;
+import java.io.IOException;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This executor uses Netty to execute requests.<br>
+ * Connections are pooled per host and reused for following requests to the same host.
+ * The event loops are shared with all other Netty clients of the {@link TCPChannelType}, which uses epoll or kqueue if available.<br>
+ * Request and response bodies are kept in pooled buffers until they are passed to the caller.
+ * Only HTTP/1.1 is supported.<br>
+ * <b>Make sure Netty and commons-netty are on the classpath before loading this class!</b><br>
+ * The safest way to access this class is by using Reflection.
+ */
+public class NettyExecutor extends RequestExecutor {
+
+    private static final int MAX_REDIRECTS = 20;
+    private static final String HANDLER_NAME = "response-handler";
+    private static final AttributeKey<Boolean> REUSED = AttributeKey.valueOf("commons-httpclient-reused");
+    private static final AttributeKey<Long> CONNECT_START = AttributeKey.valueOf("commons-httpclient-connect-start");
+
+    private final TCPChannelType channelType;
+    private final Map<PoolKey, ChannelPool> pools = new ConcurrentHashMap<>();
+    private SslContext sslContext;
+    private SslContext insecureSslContext;
+    private volatile boolean closed = false;
+
+    public NettyExecutor(final HttpClient client) {
+        this(client, TCPChannelType.getBest());
+    }
+
+    public NettyExecutor(final HttpClient client, final TCPChannelType channelType) {
+        super(client);
+        this.channelType = channelType;
+    }
+
+    @Nonnull
+    @Override
+    public HttpResponse execute(@Nonnull final HttpRequest request) throws IOException, InterruptedException {
+        try {
+            return this.executeAsync(request).get();
+        } catch (ExecutionException e) {
+            Throwable cause = FutureUtils.unwrap(e);
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Execute a request on the event loops of Netty.<br>
+     * No thread is blocked while waiting for the response.
+     *
+     * @param request The request to execute
+     * @return A future which is completed with the response
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(@Nonnull final HttpRequest request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        RequestTimeline timeline = this.startTimeline(request);
+        //Failures are reported before completing the future, this only covers cancellations
+        future.whenComplete((response, t) -> {
+            if (t != null) timeline.failed(t);
+        });
+        try {
+            if (this.closed) throw new IllegalStateException("The executor has been closed");
+            HttpContent content = null;
+            if (request instanceof HttpContentRequest) content = ((HttpContentRequest) request).getContent();
+            this.send(new Exchange(request, request.getURL(), request.getMethod(), content, future, timeline), 0);
+        } catch (Throwable t) {
+            timeline.failed(t);
+            future.completeExceptionally(t);
+        }
+        return future;
+    }
+
+    /**
+     * Close all pooled connections.<br>
+     * The event loops are shared and therefore not shut down.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        for (ChannelPool pool : this.pools.values()) pool.close();
+        this.pools.clear();
+        super.close();
+    }
+
+    private void send(final Exchange exchange, final int attempt) throws IOException {
+        PoolKey key = new PoolKey(exchange.url, this.isIgnoreInvalidSSL(exchange.request), this.client.getConnectTimeout(), this.getProxyHandler(exchange.request));
+        ChannelPool pool = this.getPool(key);
+        io.netty.handler.codec.http.HttpRequest httpRequest = this.buildRequest(exchange, key);
+        pool.acquire().addListener((io.netty.util.concurrent.Future<Channel> acquire) -> {
+            if (!acquire.isSuccess()) {
+                ReferenceCountUtil.release(httpRequest);
+                Throwable cause = unwrap(acquire.cause());
+                exchange.timeline.failed(cause);
+                exchange.future.completeExceptionally(cause);
+                return;
+            }
+            Channel channel = acquire.getNow();
+            if (exchange.future.isDone()) {
+                //The request has been cancelled while waiting for the connection
+                ReferenceCountUtil.release(httpRequest);
+                pool.release(channel);
+                return;
+            }
+            boolean reused = Boolean.TRUE.equals(channel.attr(REUSED).getAndSet(true));
+            if (!reused) {
+                Long connectStart = channel.attr(CONNECT_START).get();
+                if (connectStart != null) exchange.timeline.connected(connectStart);
+                SslHandler sslHandler = channel.pipeline().get(SslHandler.class);
+                if (sslHandler != null) {
+                    sslHandler.handshakeFuture().addListener(handshake -> {
+                        if (handshake.isSuccess()) exchange.timeline.secureConnected();
+                    });
+                }
+            }
+            exchange.timeline.connectionAcquired(reused);
+            ResponseHandler handler = new ResponseHandler(exchange, pool, channel, reused && attempt == 0 && canResend(exchange));
+            try {
+                channel.pipeline().addLast(HANDLER_NAME, handler);
+                //Cancelling the request closes the connection, the response can't be read anymore
+                exchange.future.whenComplete((response, t) -> {
+                    if (exchange.future.isCancelled()) handler.fail(t);
+                });
+                ChannelFutureListener failListener = write -> {
+                    if (!write.isSuccess()) handler.fail(write.cause());
+                };
+                //The listener has to be added before writing, this thread might not be the event loop of the channel
+                ChannelPromise sent = channel.newPromise();
+                sent.addListener(write -> {
+                    if (write.isSuccess()) exchange.timeline.requestSent();
+                });
+                if (exchange.content instanceof StreamedHttpContent) {
+                    //The read timeout only starts after the body has been sent, large uploads would time out otherwise
+                    sent.addListener(write -> {
+                        if (write.isSuccess()) handler.scheduleTimeout();
+                    });
+                    this.writeStreamed(channel, httpRequest, (StreamedHttpContent) exchange.content, failListener, sent);
+                } else {
+                    channel.writeAndFlush(httpRequest, sent).addListener(failListener);
+                    handler.scheduleTimeout();
+                }
+            } catch (Throwable t) {
+                handler.fail(t);
+            }
+        });
+    }
+
+    private ChannelPool getPool(final PoolKey key) {
+        ChannelPool pool = this.pools.get(key);
+        if (pool != null) return pool;
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(this.channelType.getClientLoopGroup())
+                .channel(this.channelType.getClientChannel())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, key.connectTimeout)
+                .remoteAddress(InetSocketAddress.createUnresolved(key.host, key.port));
+        if (key.proxyType != null) bootstrap.resolver(NoopAddressResolverGroup.INSTANCE); //The proxy resolves the host
+        pool = new SimpleChannelPool(bootstrap, new AbstractChannelPoolHandler() {
+            @Override
+            public void channelCreated(Channel channel) throws SSLException {
+                //Called right before connecting, the time waiting for the pool or a health check is not part of connecting
+                channel.attr(CONNECT_START).set(System.nanoTime());
+                NettyExecutor.this.initChannel(channel, key);
+            }
+        }, ChannelHealthChecker.ACTIVE);
+        ChannelPool existing = this.pools.putIfAbsent(key, pool);
+        if (existing == null) return pool;
+        pool.close();
+        return existing;
+    }
+
+    private void initChannel(final Channel channel, final PoolKey key) throws SSLException {
+        ChannelPipeline pipeline = channel.pipeline();
+        if (key.proxyType != null) pipeline.addLast("proxy", key.createProxyHandler());
+        if (key.secure) {
+            SSLEngine sslEngine = this.getSslContext(key.ignoreInvalidSSL).newEngine(channel.alloc(), key.host, key.port);
+            if (!key.ignoreInvalidSSL) {
+                SSLParameters sslParameters = sslEngine.getSSLParameters();
+                sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslEngine.setSSLParameters(sslParameters);
+            }
+            pipeline.addLast("ssl", new SslHandler(sslEngine));
+        }
+        pipeline.addLast("codec", new HttpClientCodec());
+        pipeline.addLast("chunked", new ChunkedWriteHandler());
+    }
+
+    private synchronized SslContext getSslContext(final boolean ignoreInvalidSSL) throws SSLException {
+        if (ignoreInvalidSSL) {
+            if (this.insecureSslContext == null) {
+                this.insecureSslContext = SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+            }
+            return this.insecureSslContext;
+        } else {
+            if (this.sslContext == null) this.sslContext = SslContextBuilder.forClient().build();
+            return this.sslContext;
+        }
+    }
+
+    private io.netty.handler.codec.http.HttpRequest buildRequest(final Exchange exchange, final PoolKey key) throws IOException {
+        String uri = exchange.url.getFile();
+        if (uri.isEmpty()) uri = "/";
+        boolean streamed = exchange.content instanceof StreamedHttpContent;
+        ByteBuf body = exchange.content == null || streamed ? null : this.writeContent(exchange.content);
+        io.netty.handler.codec.http.HttpRequest httpRequest;
+        if (streamed) httpRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(exchange.method), uri);
+        else if (body == null) httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(exchange.method), uri);
+        else httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(exchange.method), uri, body);
+
+        Map<String, List<String>> headers = this.getHeaders(exchange.request, this.getCookieManager(exchange.request), exchange.url);
+        if (exchange.content == null) {
+            //The method of a redirect might have been changed to GET
+            headers.remove(HttpHeaderNames.CONTENT_TYPE.toString());
+            headers.remove(HttpHeaderNames.CONTENT_LENGTH.toString());
+        }
+        io.netty.handler.codec.http.HttpHeaders httpHeaders = httpRequest.headers();
+        httpHeaders.set(HttpHeaderNames.HOST, key.port == key.defaultPort ? key.host : key.host + ":" + key.port);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (HttpHeaderNames.COOKIE.contentEqualsIgnoreCase(entry.getKey())) httpHeaders.set(entry.getKey(), String.join("; ", entry.getValue()));
+            else httpHeaders.set(entry.getKey(), entry.getValue());
+        }
+        if (body != null) {
+            HttpUtil.setContentLength(httpRequest, body.readableBytes());
+        } else if (streamed) {
+            int contentLength = exchange.content.getContentLength();
+            if (contentLength >= 0) HttpUtil.setContentLength(httpRequest, contentLength);
+            else HttpUtil.setTransferEncodingChunked(httpRequest, true);
+        }
+        return httpRequest;
+    }
+
+    private ByteBuf writeContent(final HttpContent content) throws IOException {
+        ByteBuf body = ByteBufAllocator.DEFAULT.buffer(Math.max(0, content.getContentLength()));
+        try {
+            body.writeBytes(content.getAsBytes());
+            return body;
+        } catch (Throwable t) {
+            body.release();
+            throw t;
+        }
+    }
+
+    /**
+     * Write the request followed by a streamed body.<br>
+     * The body is read lazily by the {@link ChunkedWriteHandler} while the channel is writable.
+     * Streams are read on the async executor, so the event loop is never blocked by a slow stream.
+     * If the length of the content is unknown, the body is sent using chunked transfer encoding.
+     * Otherwise a stream which ends before the length has been sent fails the request.<br>
+     * Files of multipart contents are sent as {@link DefaultFileRegion}s, which use {@code FileChannel#transferTo} to send them without copying them into user space.
+     * If the connection is encrypted, files are read in chunks instead.
+     *
+     * @param channel      The channel to write to
+     * @param httpRequest  The request without body
+     * @param content      The content to send
+     * @param failListener The listener which is notified if one of the writes fails
+     * @param sent         The promise which is completed when the last write has been sent
+     * @throws IOException If an I/O error occurs
+     */
+    private void writeStreamed(final Channel channel, final io.netty.handler.codec.http.HttpRequest httpRequest, final StreamedHttpContent content, final ChannelFutureListener failListener, final ChannelPromise sent) throws IOException {
+        boolean fileRegions = channel.pipeline().get(SslHandler.class) == null;
+        List<HttpContent> segments = content instanceof MultiPartFormContent ? ((MultiPartFormContent) content).getSegments() : Collections.singletonList(content);
+        channel.write(httpRequest).addListener(failListener);
+        for (HttpContent segment : segments) {
+            Object message;
+            if (segment instanceof FileContent) {
+                File file = ((FileContent) segment).getFile();
+                message = fileRegions ? new DefaultFileRegion(file, 0, file.length()) : new ChunkedNioFile(file);
+            } else if (segment instanceof StreamedHttpContent) {
+                StreamedHttpContent streamedSegment = (StreamedHttpContent) segment;
+                int length = streamedSegment.getContentLength();
+                NettyStreamChunkedInput input = new NettyStreamChunkedInput(channel, streamedSegment.getInputStream(), length, length < 0 ? streamedSegment.getChunkSize() : streamedSegment.getBufferSize());
+                input.start(this.getAsyncExecutor());
+                message = input;
+            } else {
+                message = Unpooled.wrappedBuffer(segment.getAsBytes());
+            }
+            channel.write(message).addListener(failListener);
+        }
+        channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT, sent).addListener(failListener);
+    }
+
+    @Nullable
+    private Exchange redirect(final Exchange exchange, final int statusCode, @Nullable final String location) throws IOException {
+        if (location == null) return null;
+        HttpRequest.FollowRedirects followRedirects = exchange.request.getFollowRedirects();
+        if (HttpRequest.FollowRedirects.IGNORE.equals(followRedirects)) return null;
+        if (HttpRequest.FollowRedirects.NOT_SET.equals(followRedirects) && !this.client.isFollowRedirects()) return null;
+        URL target = new URL(exchange.url, location);
+        if (!target.getProtocol().equalsIgnoreCase("http") && !target.getProtocol().equalsIgnoreCase("https")) return null;
+        //Same as the JDK: Never downgrade from HTTPS to HTTP
+        if (exchange.url.getProtocol().equalsIgnoreCase("https") && target.getProtocol().equalsIgnoreCase("http")) return null;
+
+        boolean keepMethod = statusCode == 307 || statusCode == 308;
+        if (keepMethod) {
+            //Streamed content can only be sent once
+            if (!isRepeatable(exchange.content)) return null;
+            return new Exchange(exchange.request, target, exchange.method, exchange.content, exchange.future, exchange.timeline);
+        } else if (exchange.method.equalsIgnoreCase("HEAD")) {
+            return new Exchange(exchange.request, target, exchange.method, null, exchange.future, exchange.timeline);
+        } else {
+            return new Exchange(exchange.request, target, "GET", null, exchange.future, exchange.timeline);
+        }
+    }
+
+    private static boolean canResend(final Exchange exchange) {
+        //A closed connection doesn't mean the server didn't process the request, so only idempotent requests are sent again
+        switch (exchange.method.toUpperCase(Locale.ROOT)) {
+            case RequestMethods.GET:
+            case RequestMethods.HEAD:
+            case RequestMethods.OPTIONS:
+            case RequestMethods.TRACE:
+            case RequestMethods.PUT:
+            case RequestMethods.DELETE:
+                return isRepeatable(exchange.content);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isRepeatable(@Nullable final HttpContent content) {
+        return !(content instanceof StreamedHttpContent) || ((StreamedHttpContent) content).isRepeatable();
+    }
+
+    private static Throwable unwrap(final Throwable cause) {
+        if (cause instanceof DecoderException && cause.getCause() != null) return cause.getCause();
+        return cause;
+    }
+
+
+    /**
+     * The state of a single request and all of its redirects.
+     */
+    private static class Exchange {
+        private final HttpRequest request;
+        private final URL url;
+        private final String method;
+        @Nullable
+        private final HttpContent content;
+        private final CompletableFuture<HttpResponse> future;
+        private final RequestTimeline timeline;
+        private int redirects;
+
+        private Exchange(final HttpRequest request, final URL url, final String method, @Nullable final HttpContent content, final CompletableFuture<HttpResponse> future, final RequestTimeline timeline) {
+            this.request = request;
+            this.url = url;
+            this.method = method;
+            this.content = content;
+            this.future = future;
+            this.timeline = timeline;
+        }
+    }
+
+    /**
+     * Reads a single response from a pooled channel and releases the channel afterward.
+     */
+    private class ResponseHandler extends ChannelInboundHandlerAdapter {
+        private final Exchange exchange;
+        private final ChannelPool pool;
+        private final Channel channel;
+        private final boolean retryOnClose;
+        private ScheduledFuture<?> timeout;
+        private long lastRead = System.nanoTime();
+        private boolean done;
+
+        private int statusCode;
+        private HttpProtocol protocol;
+        private Map<String, List<String>> headers;
+        private boolean keepAlive;
+        @Nullable
+        private Exchange redirect;
+        @Nullable
+        private CompositeByteBuf body;
+        @Nullable
+        private NettyBodyInputStream stream;
+
+        private ResponseHandler(final Exchange exchange, final ChannelPool pool, final Channel channel, final boolean retryOnClose) {
+            this.exchange = exchange;
+            this.pool = pool;
+            this.channel = channel;
+            this.retryOnClose = retryOnClose;
+        }
+
+        private void scheduleTimeout() {
+            this.channel.eventLoop().execute(() -> {
+                this.lastRead = System.nanoTime();
+                this.checkTimeout(NettyExecutor.this.client.getReadTimeout());
+            });
+        }
+
+        private void checkTimeout(final long delay) {
+            if (this.done || delay <= 0) return;
+            long idle = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastRead);
+            //A paused stream is waiting for its consumer and not for the server
+            if (idle >= delay && this.channel.config().isAutoRead()) {
+                this.fail(new SocketTimeoutException("Read timed out"));
+            } else {
+                long next = idle >= delay ? delay : delay - idle;
+                this.timeout = this.channel.eventLoop().schedule(() -> this.checkTimeout(delay), next, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            this.lastRead = System.nanoTime();
+            try {
+                if (this.done) return;
+                if (msg instanceof io.netty.handler.codec.http.HttpResponse) this.onResponse((io.netty.handler.codec.http.HttpResponse) msg);
+                if (msg instanceof io.netty.handler.codec.http.HttpContent) this.onContent((io.netty.handler.codec.http.HttpContent) msg);
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        private void onResponse(final io.netty.handler.codec.http.HttpResponse response) throws IOException {
+            if (response.decoderResult().isFailure()) throw new ProtocolException("Invalid response: " + response.decoderResult().cause());
+            this.statusCode = response.status().code();
+            this.protocol = HttpProtocol.parse(response.protocolVersion().text());
+            if (this.protocol == null) this.protocol = HttpProtocol.HTTP_1_1;
+            this.exchange.timeline.headersReceived(this.statusCode);
+            this.keepAlive = HttpUtil.isKeepAlive(response);
+            this.headers = new LinkedHashMap<>();
+            for (String name : response.headers().names()) this.headers.put(name, response.headers().getAll(name));
+            HttpRequestUtils.updateCookies(NettyExecutor.this.getCookieManager(this.exchange.request), this.exchange.url, this.headers);
+
+            if (this.statusCode >= 300 && this.statusCode <= 308 && this.exchange.redirects < MAX_REDIRECTS) {
+                this.redirect = NettyExecutor.this.redirect(this.exchange, this.statusCode, response.headers().get(HttpHeaderNames.LOCATION));
+                if (this.redirect != null) return; //The body of the redirect is discarded
+            }
+            if (this.exchange.request.isStreamedResponse()) {
+                this.stream = new NettyBodyInputStream(this.channel);
+                FutureUtils.completeResponse(this.exchange.future, new HttpResponse(this.exchange.url, this.statusCode, this.protocol, this.exchange.timeline.observe(this.stream), this.headers));
+            } else {
+                this.body = this.channel.alloc().compositeBuffer(Integer.MAX_VALUE);
+            }
+        }
+
+        private void onContent(final io.netty.handler.codec.http.HttpContent content) throws IOException {
+            if (content.decoderResult().isFailure()) throw new ProtocolException("Invalid response: " + content.decoderResult().cause());
+            if (this.stream != null) this.stream.offer(content.content().retain());
+            else if (this.body != null) this.body.addComponent(true, content.content().retain());
+            if (content instanceof LastHttpContent) this.complete();
+        }
+
+        private void complete() {
+            byte[] bytes = null;
+            if (this.body != null) {
+                bytes = ByteBufUtil.getBytes(this.body);
+                this.body.release();
+                this.body = null;
+            }
+            this.finish(!this.keepAlive);
+            if (this.stream != null) {
+                this.stream.end();
+            } else if (this.redirect != null) {
+                this.redirect.redirects = this.exchange.redirects + 1;
+                try {
+                    NettyExecutor.this.send(this.redirect, 0);
+                } catch (Throwable t) {
+                    this.exchange.timeline.failed(t);
+                    this.exchange.future.completeExceptionally(t);
+                }
+            } else if (bytes != null) {
+                this.exchange.timeline.bodyCompleted();
+                this.exchange.future.complete(new HttpResponse(this.exchange.url, this.statusCode, this.protocol, bytes, this.headers));
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            //Pooled connections might have been closed by the server while being idle
+            if (!this.done && this.retryOnClose && this.headers == null) {
+                this.finish(true);
+                try {
+                    NettyExecutor.this.send(this.exchange, 1);
+                } catch (Throwable t) {
+                    this.exchange.timeline.failed(t);
+                    this.exchange.future.completeExceptionally(t);
+                }
+                return;
+            }
+            this.fail(new SocketException("Connection closed"));
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            this.fail(cause);
+        }
+
+        private void fail(final Throwable cause) {
+            if (!this.channel.eventLoop().inEventLoop()) {
+                this.channel.eventLoop().execute(() -> this.fail(cause));
+                return;
+            }
+            if (this.done) return;
+            Throwable unwrapped = unwrap(cause);
+            this.finish(true);
+            this.exchange.timeline.failed(unwrapped);
+            if (this.stream != null) this.stream.fail(unwrapped);
+            else this.exchange.future.completeExceptionally(unwrapped);
+        }
+
+        private void finish(final boolean close) {
+            if (this.done) return;
+            this.done = true;
+            if (this.timeout != null) this.timeout.cancel(false);
+            if (this.body != null) {
+                this.body.release();
+                this.body = null;
+            }
+            if (this.channel.pipeline().get(HANDLER_NAME) == this) this.channel.pipeline().remove(this);
+            if (close) this.channel.close();
+            this.pool.release(this.channel);
+        }
+    }
+
+    /**
+     * The options which are bound to a connection.<br>
+     * The proxy is stored by value because the proxy handler is mutable.
+     */
+    private static final class PoolKey {
+        private final boolean secure;
+        private final String host;
+        private final int port;
+        private final int defaultPort;
+        private final boolean ignoreInvalidSSL;
+        private final int connectTimeout;
+        @Nullable
+        private final ProxyType proxyType;
+        @Nullable
+        private final SocketAddress proxyAddress;
+        @Nullable
+        private final String proxyUsername;
+        @Nullable
+        private final String proxyPassword;
+
+        private PoolKey(final URL url, final boolean ignoreInvalidSSL, final int connectTimeout, final ProxyHandler proxyHandler) {
+            this.secure = url.getProtocol().equalsIgnoreCase("https");
+            this.host = url.getHost();
+            this.defaultPort = this.secure ? 443 : 80;
+            this.port = url.getPort() == -1 ? this.defaultPort : url.getPort();
+            this.ignoreInvalidSSL = this.secure && ignoreInvalidSSL;
+            this.connectTimeout = connectTimeout;
+            boolean proxySet = proxyHandler.isProxySet();
+            this.proxyType = proxySet ? proxyHandler.getProxyType() : null;
+            this.proxyAddress = proxySet ? proxyHandler.getAddress() : null;
+            this.proxyUsername = proxySet ? proxyHandler.getUsername() : null;
+            this.proxyPassword = proxySet ? proxyHandler.getPassword() : null;
+        }
+
+        private io.netty.handler.proxy.ProxyHandler createProxyHandler() {
+            boolean authentication = this.proxyUsername != null && this.proxyPassword != null;
+            switch (Objects.requireNonNull(this.proxyType)) {
+                case HTTP:
+                    return authentication ? new HttpProxyHandler(this.proxyAddress, this.proxyUsername, this.proxyPassword) : new HttpProxyHandler(this.proxyAddress);
+                case SOCKS4:
+                    return new Socks4ProxyHandler(this.proxyAddress, this.proxyUsername);
+                case SOCKS5:
+                    return authentication ? new Socks5ProxyHandler(this.proxyAddress, this.proxyUsername, this.proxyPassword) : new Socks5ProxyHandler(this.proxyAddress);
+                default:
+                    throw new IllegalStateException("Unknown proxy type: " + this.proxyType.name());
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || this.getClass() != o.getClass()) return false;
+            PoolKey poolKey = (PoolKey) o;
+            return this.secure == poolKey.secure
+                    && this.port == poolKey.port
+                    && this.ignoreInvalidSSL == poolKey.ignoreInvalidSSL
+                    && this.connectTimeout == poolKey.connectTimeout
+                    && this.host.equalsIgnoreCase(poolKey.host)
+                    && this.proxyType == poolKey.proxyType
+                    && Objects.equals(this.proxyAddress, poolKey.proxyAddress)
+                    && Objects.equals(this.proxyUsername, poolKey.proxyUsername)
+                    && Objects.equals(this.proxyPassword, poolKey.proxyPassword);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.secure, this.host.toLowerCase(Locale.ROOT), this.port, this.ignoreInvalidSSL, this.connectTimeout, this.proxyType, this.proxyAddress, this.proxyUsername, this.proxyPassword);
+        }
+    }
+
+}
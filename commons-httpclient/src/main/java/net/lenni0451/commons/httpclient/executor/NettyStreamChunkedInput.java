@@ -0,0 +1,193 @@
+package net.lenni0451.commons.httpclient.executor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+/**
+ * A chunked input which reads a blocking input stream on a separate thread.<br>
+ * The event loop never waits for the stream, so slow or live sources don't block other connections.
+ * Only a few chunks are read ahead, the stream is not read faster than the connection can send it.<br>
+ * The read task only runs while chunks are missing and is scheduled again when the connection has sent a chunk.
+ * A read which blocks on the stream still holds a thread of the executor until it returns.<br>
+ * If the length is known, at most that many bytes are read and a stream which ends early fails the input.
+ */
+class NettyStreamChunkedInput implements ChunkedInput<ByteBuf> {
+
+    private static final int READ_AHEAD = 4;
+
+    private final Channel channel;
+    private final InputStream inputStream;
+    private final long length;
+    private final int chunkSize;
+    private final Deque<ByteBuf> chunks = new ArrayDeque<>();
+    private Executor executor;
+    private long progress;
+    private long readBytes;
+    private boolean reading;
+    private boolean ended;
+    private boolean closed;
+    @Nullable
+    private Throwable failure;
+
+    NettyStreamChunkedInput(final Channel channel, final InputStream inputStream, final long length, final int chunkSize) {
+        this.channel = channel;
+        this.inputStream = inputStream;
+        this.length = length;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Start reading the stream.
+     *
+     * @param executor The executor to read the stream on
+     */
+    void start(final Executor executor) {
+        this.executor = executor;
+        this.schedule();
+    }
+
+    @Override
+    public synchronized boolean isEndOfInput() throws Exception {
+        if (!this.chunks.isEmpty() || !this.ended) return false;
+        if (this.failure == null) return true;
+        if (this.failure instanceof Exception) throw (Exception) this.failure;
+        throw new IOException(this.failure);
+    }
+
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+            ByteBuf chunk;
+            while ((chunk = this.chunks.poll()) != null) chunk.release();
+        }
+        //Only some streams (e.g. sockets) abort a blocking read when closed, others finish the read first and the chunk is released afterwards
+        this.inputStream.close();
+    }
+
+    @Override
+    @Deprecated
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+        return this.readChunk(ctx.alloc());
+    }
+
+    /**
+     * Get the next chunk which has been read from the stream.<br>
+     * If no chunk is available yet, {@code null} is returned and the {@link ChunkedWriteHandler} is resumed when the next chunk has been read.
+     *
+     * @param allocator The allocator (unused)
+     * @return The next chunk or {@code null} if none is available yet
+     * @throws Exception If the stream could not be read
+     */
+    @Nullable
+    @Override
+    public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+        ByteBuf chunk;
+        synchronized (this) {
+            chunk = this.chunks.poll();
+            if (chunk == null) {
+                this.isEndOfInput(); //Rethrow the failure of the stream
+                return null;
+            }
+            this.progress += chunk.readableBytes();
+        }
+        this.schedule();
+        return chunk;
+    }
+
+    @Override
+    public long length() {
+        return this.length;
+    }
+
+    @Override
+    public synchronized long progress() {
+        return this.progress;
+    }
+
+    private void schedule() {
+        synchronized (this) {
+            if (this.reading || this.closed || this.ended || this.chunks.size() >= READ_AHEAD) return;
+            this.reading = true;
+        }
+        try {
+            this.executor.execute(this::read);
+        } catch (Throwable t) {
+            synchronized (this) {
+                this.reading = false;
+                this.failure = t;
+                this.ended = true;
+            }
+            this.resume();
+        }
+    }
+
+    private void read() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    //Don't hold the thread while the connection is busy, reading is scheduled again when a chunk was sent
+                    if (this.closed || this.chunks.size() >= READ_AHEAD) {
+                        this.reading = false;
+                        return;
+                    }
+                }
+                int size = this.length < 0 ? this.chunkSize : (int) Math.min(this.chunkSize, this.length - this.readBytes);
+                if (size == 0) break; //All bytes of the content have been read
+                ByteBuf chunk = this.channel.alloc().buffer(size);
+                int read;
+                try {
+                    read = chunk.writeBytes(this.inputStream, size);
+                } catch (Throwable t) {
+                    chunk.release();
+                    throw t;
+                }
+                if (read == -1 && this.length >= 0) {
+                    //The server would wait for the missing bytes forever
+                    chunk.release();
+                    throw new IOException("The stream ended after " + this.readBytes + " of " + this.length + " bytes");
+                }
+                synchronized (this) {
+                    if (read == -1 || this.closed) {
+                        chunk.release();
+                        break;
+                    }
+                    this.readBytes += read;
+                    if (read > 0) this.chunks.add(chunk);
+                    else chunk.release();
+                }
+                this.resume();
+            }
+            synchronized (this) {
+                this.reading = false;
+                this.ended = true;
+            }
+        } catch (Throwable t) {
+            synchronized (this) {
+                this.reading = false;
+                if (this.closed) return;
+                this.failure = t;
+                this.ended = true;
+            }
+        }
+        this.resume();
+    }
+
+    private void resume() {
+        ChunkedWriteHandler handler = this.channel.pipeline().get(ChunkedWriteHandler.class);
+        if (handler != null) handler.resumeTransfer();
+    }
+
+}
@@ -4,23 +4,37 @@ import net.lenni0451.commons.httpclient.HttpClient;
 import net.lenni0451.commons.httpclient.HttpResponse;
 import net.lenni0451.commons.httpclient.constants.HttpHeaders;
 import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.events.RequestTimeline;
+import net.lenni0451.commons.httpclient.model.HeaderMap;
+import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
 import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
 import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
 import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import net.lenni0451.commons.httpclient.utils.ThreadUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.CookieManager;
+import java.net.URL;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
-public abstract class RequestExecutor {
+public abstract class RequestExecutor implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = HeaderMap.normalize(HttpHeaders.CONTENT_TYPE);
+    private static final String CONTENT_LENGTH = HeaderMap.normalize(HttpHeaders.CONTENT_LENGTH);
 
     @Nonnull
     protected final HttpClient client;
+    @Nullable
+    private ExecutorService asyncExecutor;
 
     public RequestExecutor(@Nonnull final HttpClient client) {
         this.client = client;
@@ -29,30 +43,119 @@ public abstract class RequestExecutor {
     @Nonnull
     public abstract HttpResponse execute(@Nonnull final HttpRequest request) throws IOException, InterruptedException;
 
+    /**
+     * Execute a request asynchronously.<br>
+     * The default implementation runs {@link #execute(HttpRequest)} on a bounded thread pool.
+     * The size of the pool can be configured using {@link HttpClient#setMaxAsyncThreads(int)}.
+     * If {@link HttpClient#setVirtualThreads(boolean)} is enabled and supported, every request runs on its own virtual thread instead.<br>
+     * Executors which support non-blocking requests should override this method.
+     *
+     * @param request The request to execute
+     * @return A future which is completed with the response
+     */
+    @Nonnull
+    public CompletableFuture<HttpResponse> executeAsync(@Nonnull final HttpRequest request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        try {
+            this.getAsyncExecutor().execute(() -> {
+                if (future.isDone()) return; //The future has been cancelled while waiting in the queue
+                try {
+                    //Running requests can't be aborted, the response of a cancelled request is closed
+                    FutureUtils.completeResponse(future, this.execute(request));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+        return future;
+    }
+
+    /**
+     * Close all resources held by this executor (e.g. pooled connections or threads).<br>
+     * The executor should not be used anymore after it has been closed.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.asyncExecutor != null) this.asyncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the thread pool which is used for asynchronous requests and other blocking work of the executor.<br>
+     * The pool is created lazily on the first call.
+     *
+     * @return The executor for blocking tasks
+     */
+    protected final synchronized Executor getAsyncExecutor() {
+        if (this.asyncExecutor == null) {
+            String name = this.getClass().getSimpleName() + "-Async";
+            if (this.client.isVirtualThreads()) this.asyncExecutor = ThreadUtils.newVirtualExecutor(name);
+            if (this.asyncExecutor == null) this.asyncExecutor = ThreadUtils.newDaemonPool(name, this.client.getMaxAsyncThreads());
+        }
+        return this.asyncExecutor;
+    }
+
+    /**
+     * Start the timeline of a request attempt.<br>
+     * The timeline reports the events of the attempt to the event listener of the client.
+     *
+     * @param request The request which is sent
+     * @return The started timeline
+     */
+    @Nonnull
+    protected final RequestTimeline startTimeline(@Nonnull final HttpRequest request) {
+        return RequestTimeline.start(this.client.getEventListener(), request);
+    }
+
     @Nullable
     protected final CookieManager getCookieManager(@Nonnull final HttpRequest request) {
         return request.isCookieManagerSet() ? request.getCookieManager() : this.client.getCookieManager();
     }
 
+    @Nonnull
+    protected final ProxyHandler getProxyHandler(@Nonnull final HttpRequest request) {
+        return request.isProxyHandlerSet() ? request.getProxyHandler() : this.client.getProxyHandler();
+    }
+
     protected final boolean isIgnoreInvalidSSL(@Nonnull final HttpRequest request) {
         return request.isIgnoreInvalidSSLSet() ? request.getIgnoreInvalidSSL() : this.client.isIgnoreInvalidSSL();
     }
 
     protected final Map<String, List<String>> getHeaders(@Nonnull final HttpRequest request, @Nullable final CookieManager cookieManager) throws IOException {
-        Map<String, List<String>> headers = new HashMap<>();
+        return this.getHeaders(request, cookieManager, request.getURL());
+    }
+
+    /**
+     * Build the headers of a request.<br>
+     * Request headers override the client headers, which override the content headers and cookies.
+     * The default headers of the client are reused, so only the returned map itself is allocated.
+     * The returned map is owned by the caller and can be modified, the value lists are read-only.
+     *
+     * @param request       The request
+     * @param cookieManager The cookie manager or {@code null} if no cookies should be sent
+     * @param url           The url to get the cookies for
+     * @return The headers with lower case names
+     * @throws IOException If the cookies could not be read
+     */
+    protected final Map<String, List<String>> getHeaders(@Nonnull final HttpRequest request, @Nullable final CookieManager cookieManager, @Nonnull final URL url) throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>(this.client.getDefaultHeaders());
         if (request instanceof HttpContentRequest) {
             HttpContent content = ((HttpContentRequest) request).getContent();
             if (content != null) {
-                headers.put(HttpHeaders.CONTENT_TYPE, Collections.singletonList(content.getContentType().toString()));
-                headers.put(HttpHeaders.CONTENT_LENGTH, Collections.singletonList(String.valueOf(content.getContentLength())));
+                headers.putIfAbsent(CONTENT_TYPE, Collections.singletonList(content.getContentType().toString()));
+                int contentLength = content.getContentLength();
+                //Contents of unknown length are sent using chunked transfer encoding
+                if (contentLength >= 0) headers.putIfAbsent(CONTENT_LENGTH, Collections.singletonList(String.valueOf(contentLength)));
             }
         }
-        return HttpRequestUtils.mergeHeaders(
-                HttpRequestUtils.getCookieHeaders(cookieManager, request.getURL()),
-                headers,
-                this.client.getHeaders(),
-                request.getHeaders()
-        );
+        for (Map.Entry<String, List<String>> entry : HttpRequestUtils.getCookieHeaders(cookieManager, url).entrySet()) {
+            if (!entry.getValue().isEmpty()) headers.putIfAbsent(HeaderMap.normalize(entry.getKey()), entry.getValue());
+        }
+        headers.putAll(request.getHeaders());
+        return headers;
     }
 
 }
@@ -4,9 +4,14 @@ import net.lenni0451.commons.httpclient.HttpClient;
 import net.lenni0451.commons.httpclient.HttpResponse;
 import net.lenni0451.commons.httpclient.content.HttpContent;
 import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
-import net.lenni0451.commons.httpclient.proxy.SingleProxySelector;
+import net.lenni0451.commons.httpclient.events.RequestTimeline;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
+import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
+import net.lenni0451.commons.httpclient.proxy.ProxyType;
+import net.lenni0451.commons.httpclient.proxy.ThreadLocalAuthenticator;
 import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
 import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.ChannelTransferable;
 import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
 import net.lenni0451.commons.httpclient.utils.IgnoringTrustManager;
 
@@ -18,7 +23,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.CookieManager;
 import java.net.HttpURLConnection;
+import java.net.PasswordAuthentication;
 import java.net.URL;
+import java.nio.channels.Channels;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,28 +39,57 @@ public class URLConnectionExecutor extends RequestExecutor {
     @Nonnull
     @Override
     public HttpResponse execute(@Nonnull final HttpRequest request) throws IOException {
-        CookieManager cookieManager = this.getCookieManager(request);
-        HttpURLConnection connection = this.openConnection(request, cookieManager);
-        return this.executeRequest(connection, cookieManager, request);
+        RequestTimeline timeline = this.startTimeline(request);
+        try {
+            return this.execute(request, timeline);
+        } catch (Throwable t) {
+            timeline.failed(t);
+            throw t;
+        }
     }
 
-    private HttpURLConnection openConnection(final HttpRequest request, final CookieManager cookieManager) throws IOException {
-        SingleProxySelector proxySelector = null;
-        if (this.client.getProxyHandler().isProxySet()) proxySelector = this.client.getProxyHandler().getProxySelector();
+    private HttpResponse execute(final HttpRequest request, final RequestTimeline timeline) throws IOException {
+        CookieManager cookieManager = this.getCookieManager(request);
+        ProxyHandler proxyHandler = this.getProxyHandler(request);
+        if (!proxyHandler.isProxySet() || !proxyHandler.isAuthenticationSet() || this.isConnectionAuthenticator(proxyHandler)) {
+            HttpURLConnection connection = this.openConnection(request, cookieManager, proxyHandler, timeline);
+            return this.executeRequest(connection, cookieManager, request, timeline);
+        }
+
+        //Credentials which can't be set per connection (SOCKS or Java 8) are requested from the default authenticator on the current thread
+        PasswordAuthentication previous = ThreadLocalAuthenticator.setCredentials(new PasswordAuthentication(proxyHandler.getUsername(), proxyHandler.getPassword().toCharArray()));
         try {
-            if (proxySelector != null) proxySelector.set();
-            URL url = request.getURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            if (this.isIgnoreInvalidSSL(request) && connection instanceof HttpsURLConnection) {
-                HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
-                httpsConnection.setSSLSocketFactory(IgnoringTrustManager.makeIgnoringSSLContext().getSocketFactory());
-            }
-            this.setupConnection(connection, cookieManager, request);
-            connection.connect();
-            return connection;
+            HttpURLConnection connection = this.openConnection(request, cookieManager, proxyHandler, timeline);
+            return this.executeRequest(connection, cookieManager, request, timeline);
         } finally {
-            if (proxySelector != null) proxySelector.reset();
+            ThreadLocalAuthenticator.setCredentials(previous);
+        }
+    }
+
+    private HttpURLConnection openConnection(final HttpRequest request, final CookieManager cookieManager, final ProxyHandler proxyHandler, final RequestTimeline timeline) throws IOException {
+        URL url = request.getURL();
+        HttpURLConnection connection;
+        if (proxyHandler.isProxySet()) {
+            connection = (HttpURLConnection) url.openConnection(proxyHandler.toJavaProxy());
+            if (proxyHandler.isAuthenticationSet() && this.isConnectionAuthenticator(proxyHandler)) {
+                ThreadLocalAuthenticator.setAuthenticator(connection, proxyHandler.getProxyAuthenticator());
+            }
+        } else {
+            connection = (HttpURLConnection) url.openConnection();
         }
+        if (this.isIgnoreInvalidSSL(request) && connection instanceof HttpsURLConnection) {
+            HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+            httpsConnection.setSSLSocketFactory(IgnoringTrustManager.makeIgnoringSSLContext().getSocketFactory());
+        }
+        this.setupConnection(connection, cookieManager, request);
+        connection.connect();
+        //The connection might have been taken from the keep-alive cache, but this is not exposed
+        timeline.connectionAcquired(false);
+        return connection;
+    }
+
+    private boolean isConnectionAuthenticator(final ProxyHandler proxyHandler) {
+        return ProxyType.HTTP.equals(proxyHandler.getProxyType()) && ThreadLocalAuthenticator.isConnectionAuthenticatorSupported();
     }
 
     private void setupConnection(final HttpURLConnection connection, @Nullable final CookieManager cookieManager, final HttpRequest request) throws IOException {
@@ -67,7 +103,11 @@ public class URLConnectionExecutor extends RequestExecutor {
         connection.setDoInput(true);
         if (contentRequest != null && content != null) {
             connection.setDoOutput(true);
-            if (content instanceof StreamedHttpContent) connection.setFixedLengthStreamingMode(content.getContentLength());
+            if (content instanceof StreamedHttpContent) {
+                int contentLength = content.getContentLength();
+                if (contentLength >= 0) connection.setFixedLengthStreamingMode(contentLength);
+                else connection.setChunkedStreamingMode(((StreamedHttpContent) content).getChunkSize());
+            }
         } else {
             connection.setDoOutput(false);
         }
@@ -84,7 +124,7 @@ public class URLConnectionExecutor extends RequestExecutor {
         }
     }
 
-    private HttpResponse executeRequest(final HttpURLConnection connection, @Nullable final CookieManager cookieManager, final HttpRequest request) throws IOException {
+    private HttpResponse executeRequest(final HttpURLConnection connection, @Nullable final CookieManager cookieManager, final HttpRequest request, final RequestTimeline timeline) throws IOException {
         boolean closeConnection = true;
         try {
             if (connection.getDoOutput()) {
@@ -93,26 +133,42 @@ public class URLConnectionExecutor extends RequestExecutor {
                 if (content instanceof StreamedHttpContent) {
                     StreamedHttpContent streamedContent = (StreamedHttpContent) content;
                     InputStream is = streamedContent.getInputStream();
-                    byte[] buffer = new byte[streamedContent.getBufferSize()];
-                    int read;
-                    while ((read = is.read(buffer)) != -1) os.write(buffer, 0, read);
+                    if (is instanceof ChannelTransferable) {
+                        //Files are transferred without being copied through the buffer
+                        HttpRequestUtils.transfer(is, Channels.newChannel(os));
+                    } else {
+                        //Chunks are sent as soon as data is available instead of waiting for a full chunk
+                        boolean chunked = streamedContent.getContentLength() < 0;
+                        byte[] buffer = new byte[streamedContent.getBufferSize()];
+                        int read;
+                        while ((read = is.read(buffer)) != -1) {
+                            os.write(buffer, 0, read);
+                            if (chunked) os.flush();
+                        }
+                    }
                     is.close();
                 } else {
                     os.write(content.getAsBytes());
                 }
                 os.flush();
             }
+            //Only streamed contents are written to the connection directly
+            //Other requests are buffered and sent when the response is requested, there is no way to observe that
+            timeline.requestSent();
 
             Map<String, List<String>> headers = new HashMap<>(connection.getHeaderFields());
+            timeline.headersReceived(connection.getResponseCode());
             headers.remove(null);
+            HttpProtocol protocol = getProtocol(connection.getHeaderField(0));
             HttpResponse response;
             if (request.isStreamedResponse()) {
-                InputStream body = HttpRequestUtils.getInputStream(connection);
-                response = new HttpResponse(request.getURL(), connection.getResponseCode(), body, headers);
+                InputStream body = timeline.observe(HttpRequestUtils.getInputStream(connection));
+                response = new HttpResponse(request.getURL(), connection.getResponseCode(), protocol, body, headers);
                 closeConnection = false; //The connection needs to remain open for streamed responses
             } else {
                 byte[] body = HttpRequestUtils.readBody(connection);
-                response = new HttpResponse(request.getURL(), connection.getResponseCode(), body, headers);
+                timeline.bodyCompleted();
+                response = new HttpResponse(request.getURL(), connection.getResponseCode(), protocol, body, headers);
             }
             HttpRequestUtils.updateCookies(cookieManager, request.getURL(), connection.getHeaderFields());
             return response;
@@ -121,4 +177,12 @@ public class URLConnectionExecutor extends RequestExecutor {
         }
     }
 
+    private static HttpProtocol getProtocol(@Nullable final String statusLine) {
+        //The status line looks like "HTTP/1.1 200 OK"
+        if (statusLine == null) return HttpProtocol.HTTP_1_1;
+        int space = statusLine.indexOf(' ');
+        HttpProtocol protocol = HttpProtocol.parse(space == -1 ? statusLine : statusLine.substring(0, space));
+        return protocol == null ? HttpProtocol.HTTP_1_1 : protocol;
+    }
+
 }
@@ -0,0 +1,80 @@
+package net.lenni0451.commons.httpclient.handler;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A response handler which reads the response body into a {@link ByteBuffer}.<br>
+ * The buffer is pre-sized using the {@code Content-Length} of the response.
+ * Bodies which are already in memory are wrapped without copying them if no direct buffer is requested.<br>
+ * The result is a buffer which is ready to be read (position {@code 0}, limit at the end of the body).
+ */
+public class ByteBufferResponseHandler implements HttpResponseHandler<ByteBuffer> {
+
+    private static final int DEFAULT_SIZE = 8192;
+    private static final int MAX_PRESIZE = 16 * 1024 * 1024;
+
+    private final boolean direct;
+
+    public ByteBufferResponseHandler() {
+        this(false);
+    }
+
+    /**
+     * @param direct If the body should be read into a direct buffer
+     */
+    public ByteBufferResponseHandler(final boolean direct) {
+        this.direct = direct;
+    }
+
+    @Override
+    public ByteBuffer handle(@Nonnull HttpResponse response) throws IOException {
+        if (!response.isStreamed()) {
+            byte[] content = response.getContent();
+            if (!this.direct) return ByteBuffer.wrap(content);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content);
+            ((Buffer) buffer).flip(); //Cast to Buffer to stay compatible with Java 8
+            return buffer;
+        }
+
+        long contentLength = response.getContentLength();
+        ByteBuffer buffer = this.allocate(contentLength >= 0 ? (int) Math.min(contentLength, MAX_PRESIZE) : DEFAULT_SIZE);
+        try (InputStream is = response.getInputStream()) {
+            ReadableByteChannel channel = Channels.newChannel(is);
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    //Check if the body is finished before growing the buffer to avoid a copy if the length was correct
+                    ByteBuffer probe = ByteBuffer.allocate(1);
+                    if (channel.read(probe) == -1) break;
+                    buffer = this.grow(buffer);
+                    ((Buffer) probe).flip();
+                    buffer.put(probe);
+                }
+                if (channel.read(buffer) == -1) break;
+            }
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    private ByteBuffer allocate(final int size) {
+        return this.direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    private ByteBuffer grow(final ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() >= Integer.MAX_VALUE - 8) throw new IOException("The body is too large to be read into a buffer");
+        ByteBuffer grown = this.allocate((int) Math.min(Integer.MAX_VALUE - 8, Math.max(DEFAULT_SIZE, buffer.capacity() * 2L)));
+        ((Buffer) buffer).flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+}
@@ -0,0 +1,39 @@
+package net.lenni0451.commons.httpclient.handler;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A response handler which writes the response body to a channel.<br>
+ * Streamed bodies are transferred without collecting them in memory first, bodies which are already in memory are written as they are.
+ * The channel is not closed after the body has been written.<br>
+ * The result is the amount of written bytes.
+ */
+public class ChannelResponseHandler implements HttpResponseHandler<Long> {
+
+    private final WritableByteChannel channel;
+
+    public ChannelResponseHandler(@WillNotClose final WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public Long handle(@Nonnull HttpResponse response) throws IOException {
+        if (!response.isStreamed()) {
+            ByteBuffer buffer = ByteBuffer.wrap(response.getContent());
+            while (buffer.hasRemaining()) this.channel.write(buffer);
+            return (long) buffer.limit();
+        }
+        try (InputStream is = response.getInputStream()) {
+            return HttpRequestUtils.transfer(is, this.channel);
+        }
+    }
+
+}
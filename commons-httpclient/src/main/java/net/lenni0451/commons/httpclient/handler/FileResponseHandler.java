@@ -0,0 +1,35 @@
+package net.lenni0451.commons.httpclient.handler;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A response handler which writes the response body to a file.<br>
+ * The body is written using a {@link FileChannel}, so streamed responses are not collected in memory.
+ * Existing files are overwritten.<br>
+ * The result is the path of the file.
+ *
+ * @see ChannelResponseHandler
+ */
+public class FileResponseHandler implements HttpResponseHandler<Path> {
+
+    private final Path path;
+
+    public FileResponseHandler(final Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Path handle(@Nonnull HttpResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new ChannelResponseHandler(channel).handle(response);
+        }
+        return this.path;
+    }
+
+}
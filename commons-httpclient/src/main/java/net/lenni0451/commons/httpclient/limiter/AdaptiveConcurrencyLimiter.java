@@ -0,0 +1,195 @@
+package net.lenni0451.commons.httpclient.limiter;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Limits the amount of concurrent requests and adapts the limit to the observed latency and responses.<br>
+ * The limit is adjusted similar to TCP Vegas: The lowest observed latency is used as the baseline and the amount of queued requests is estimated from the latency of each response.
+ * If less than {@code alpha} requests are queued the limit is increased by one, if more than {@code beta} requests are queued it is decreased by one.<br>
+ * {@code 429 Too Many Requests}, {@code 503 Service Unavailable} and failed requests multiply the limit by the backoff ratio.<br>
+ * Requests which exceed the limit are delayed until a running request is completed.
+ */
+public class AdaptiveConcurrencyLimiter implements RequestLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private int alpha = 3;
+    private int beta = 6;
+    private double backoffRatio = 0.5;
+    private final Deque<CompletableFuture<Permit>> waiting = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long minLatency = Long.MAX_VALUE;
+
+    /**
+     * Create a new adaptive concurrency limiter with an initial limit of {@code 10}, a minimum of {@code 1} and a maximum of {@code 200}.
+     */
+    public AdaptiveConcurrencyLimiter() {
+        this(10, 1, 200);
+    }
+
+    /**
+     * Create a new adaptive concurrency limiter.
+     *
+     * @param initialLimit The initial limit
+     * @param minLimit     The minimum limit
+     * @param maxLimit     The maximum limit
+     */
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit) {
+        if (minLimit <= 0) throw new IllegalArgumentException("minLimit must be > 0");
+        if (maxLimit < minLimit) throw new IllegalArgumentException("maxLimit must be >= minLimit");
+        if (initialLimit < minLimit || initialLimit > maxLimit) throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Set the thresholds for the estimated amount of queued requests.
+     *
+     * @param alpha The limit is increased if less requests are queued
+     * @param beta  The limit is decreased if more requests are queued
+     * @return This instance for chaining
+     */
+    public AdaptiveConcurrencyLimiter setThresholds(final int alpha, final int beta) {
+        if (alpha < 0 || beta < alpha) throw new IllegalArgumentException("0 <= alpha <= beta is required");
+        synchronized (this) {
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+        return this;
+    }
+
+    /**
+     * Set the ratio the limit is multiplied with if the server is overloaded.
+     *
+     * @param backoffRatio The backoff ratio ({@code 0 < ratio < 1})
+     * @return This instance for chaining
+     */
+    public AdaptiveConcurrencyLimiter setBackoffRatio(final double backoffRatio) {
+        if (backoffRatio <= 0 || backoffRatio >= 1) throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        synchronized (this) {
+            this.backoffRatio = backoffRatio;
+        }
+        return this;
+    }
+
+    /**
+     * @return The current limit
+     */
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * @return The amount of running requests
+     */
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    /**
+     * @return The amount of requests waiting for a permit
+     */
+    public synchronized int getWaiting() {
+        return this.waiting.size();
+    }
+
+    @Override
+    public CompletableFuture<Permit> acquire(final HttpRequest request) {
+        synchronized (this) {
+            if (this.inFlight < (int) this.limit) {
+                this.inFlight++;
+                return CompletableFuture.completedFuture(new AdaptivePermit());
+            }
+            CompletableFuture<Permit> future = new CompletableFuture<>();
+            this.waiting.add(future);
+            //Cancelled waiters would otherwise be kept until the next permit is released
+            future.whenComplete((permit, t) -> {
+                if (!future.isCancelled()) return;
+                synchronized (this) {
+                    this.waiting.remove(future);
+                }
+            });
+            return future;
+        }
+    }
+
+    private void release(final long latency, @Nullable final HttpResponse response) {
+        synchronized (this) {
+            this.inFlight--;
+            if (latency >= 0) this.update(latency, response); //Cancelled requests don't change the limit
+        }
+        this.dispatch();
+    }
+
+    private void dispatch() {
+        List<CompletableFuture<Permit>> toComplete = new ArrayList<>();
+        synchronized (this) {
+            while (this.inFlight < (int) this.limit && !this.waiting.isEmpty()) {
+                CompletableFuture<Permit> future = this.waiting.poll();
+                if (future.isDone()) continue; //Cancelled while waiting
+                this.inFlight++;
+                toComplete.add(future);
+            }
+        }
+        //Completed outside the lock, because the requests are started synchronously
+        for (CompletableFuture<Permit> future : toComplete) {
+            if (future.complete(new AdaptivePermit())) continue;
+            //The future was cancelled in the meantime, so the permit is given to the next request
+            synchronized (this) {
+                this.inFlight--;
+            }
+            this.dispatch();
+        }
+    }
+
+    private void update(final long latency, @Nullable final HttpResponse response) {
+        if (response == null || response.getStatusCode() == StatusCodes.TOO_MANY_REQUESTS || response.getStatusCode() == StatusCodes.SERVICE_UNAVAILABLE) {
+            this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+            return;
+        }
+        this.minLatency = Math.min(this.minLatency, latency);
+        double queued = this.limit * (1 - this.minLatency / (double) Math.max(1, latency));
+        if (queued < this.alpha) {
+            //Only grow if the limit is actually used, otherwise it would grow without bounds
+            if (this.inFlight + 1 >= this.limit / 2) this.limit = Math.min(this.maxLimit, this.limit + 1);
+        } else if (queued > this.beta) {
+            this.limit = Math.max(this.minLimit, this.limit - 1);
+        }
+    }
+
+
+    private class AdaptivePermit implements Permit {
+        private final long start = System.nanoTime();
+        private boolean released;
+
+        @Override
+        public void release(@Nullable HttpResponse response) {
+            synchronized (this) {
+                if (this.released) return;
+                this.released = true;
+            }
+            AdaptiveConcurrencyLimiter.this.release(System.nanoTime() - this.start, response);
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (this.released) return;
+                this.released = true;
+            }
+            AdaptiveConcurrencyLimiter.this.release(-1, null);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package net.lenni0451.commons.httpclient.limiter;
+
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Uses a separate limiter for every host.<br>
+ * Hosts are identified by their name and port. The limiters are created when the first request to a host is sent.
+ * <pre>{@code
+ * client.setLimiter(new PerHostLimiter(() -> new TokenBucketLimiter(10)));
+ * }</pre>
+ */
+public class PerHostLimiter implements RequestLimiter {
+
+    private final Supplier<RequestLimiter> limiterSupplier;
+    private final Map<String, RequestLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new per host limiter.
+     *
+     * @param limiterSupplier The supplier for the limiter of each host
+     */
+    public PerHostLimiter(final Supplier<RequestLimiter> limiterSupplier) {
+        this.limiterSupplier = limiterSupplier;
+    }
+
+    /**
+     * Get the limiter for the host of the given url.
+     *
+     * @param url The url
+     * @return The limiter of the host
+     */
+    public RequestLimiter getLimiter(final URL url) {
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return this.limiters.computeIfAbsent(url.getHost().toLowerCase(Locale.ROOT) + ":" + port, host -> this.limiterSupplier.get());
+    }
+
+    @Override
+    public CompletableFuture<Permit> acquire(final HttpRequest request) {
+        return this.getLimiter(request.getURL()).acquire(request);
+    }
+
+}
@@ -0,0 +1,50 @@
+package net.lenni0451.commons.httpclient.limiter;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Limits the requests sent by a {@link net.lenni0451.commons.httpclient.HttpClient}.<br>
+ * A permit is acquired before every attempt (including retries) and released when the response headers were received or the attempt failed.
+ * Acquiring a permit must not block, limiters complete the returned future when the request may be sent.
+ *
+ * @see TokenBucketLimiter
+ * @see AdaptiveConcurrencyLimiter
+ * @see PerHostLimiter
+ */
+public interface RequestLimiter {
+
+    /**
+     * Acquire a permit for sending the given request.
+     *
+     * @param request The request which should be sent
+     * @return A future which is completed with the permit when the request may be sent
+     */
+    CompletableFuture<Permit> acquire(final HttpRequest request);
+
+
+    /**
+     * A permit for sending a single request.
+     */
+    interface Permit {
+        /**
+         * Release the permit after the request has been sent.<br>
+         * This must be called exactly once for every acquired permit.
+         *
+         * @param response The received response or {@code null} if the request failed
+         */
+        void release(@Nullable final HttpResponse response);
+
+        /**
+         * Release the permit without sending the request (e.g. because the request has been cancelled).<br>
+         * This must be called instead of {@link #release(HttpResponse)}.
+         */
+        default void cancel() {
+            this.release(null);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package net.lenni0451.commons.httpclient.limiter;
+
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of requests using a token bucket.<br>
+ * The bucket is refilled with {@code rate} tokens per second and holds at most {@code burst} tokens.
+ * Every request takes one token, if the bucket is empty the request is delayed until a token is available.<br>
+ * Delayed requests reserve their token in advance, so they are sent in the order they were acquired.
+ * The token of a request which is cancelled before it has been sent is put back into the bucket.
+ */
+public class TokenBucketLimiter implements RequestLimiter {
+
+    private final Permit permit = new Permit() {
+        @Override
+        public void release(@Nullable HttpResponse response) {
+        }
+
+        @Override
+        public void cancel() {
+            TokenBucketLimiter.this.refund();
+        }
+    };
+    private final double rate;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Create a new token bucket limiter which allows bursts of one request.
+     *
+     * @param rate The amount of requests per second
+     */
+    public TokenBucketLimiter(final double rate) {
+        this(rate, 1);
+    }
+
+    /**
+     * Create a new token bucket limiter.
+     *
+     * @param rate  The amount of requests per second
+     * @param burst The maximum amount of requests which can be sent at once
+     */
+    public TokenBucketLimiter(final double rate, final int burst) {
+        if (rate <= 0) throw new IllegalArgumentException("rate must be > 0");
+        if (burst <= 0) throw new IllegalArgumentException("burst must be > 0");
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return The amount of requests per second
+     */
+    public double getRate() {
+        return this.rate;
+    }
+
+    /**
+     * @return The amount of currently available tokens
+     */
+    public synchronized double getAvailableTokens() {
+        this.refill();
+        return Math.max(0, this.tokens);
+    }
+
+    @Override
+    public CompletableFuture<Permit> acquire(final HttpRequest request) {
+        long delay = this.reserve();
+        if (delay <= 0) return CompletableFuture.completedFuture(this.permit);
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        FutureUtils.schedule(() -> future.complete(this.permit), delay);
+        future.whenComplete((permit, t) -> {
+            if (future.isCancelled()) this.refund();
+        });
+        return future;
+    }
+
+    /**
+     * Take a token from the bucket.<br>
+     * If no token is available, the bucket goes into debt and the returned delay is the time until the token is refilled.
+     *
+     * @return The delay in milliseconds
+     */
+    private synchronized long reserve() {
+        this.refill();
+        this.tokens--;
+        if (this.tokens >= 0) return 0;
+        return (long) Math.ceil(-this.tokens / this.rate * 1000);
+    }
+
+    private synchronized void refund() {
+        this.refill();
+        this.tokens = Math.min(this.burst, this.tokens + 1);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsed = (now - this.lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+        this.tokens = Math.min(this.burst, this.tokens + elapsed * this.rate);
+        this.lastRefill = now;
+    }
+
+}
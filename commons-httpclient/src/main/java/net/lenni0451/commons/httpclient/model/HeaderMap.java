@@ -0,0 +1,187 @@
+package net.lenni0451.commons.httpclient.model;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A case-insensitive, insertion ordered multimap for HTTP headers.<br>
+ * Header names are stored in lower case. All returned maps and lists are read-only views, so reading the headers never copies them.
+ * The views reflect later changes of the map.<br>
+ * This class is not thread-safe.
+ */
+public class HeaderMap {
+
+    private final Map<String, List<String>> values = new LinkedHashMap<>();
+    private final Map<String, List<String>> views = new LinkedHashMap<>();
+    private final Map<String, List<String>> view = Collections.unmodifiableMap(this.views);
+    private int modificationCount;
+
+    public HeaderMap() {
+    }
+
+    public HeaderMap(final Map<String, List<String>> headers) {
+        headers.forEach(this::set);
+    }
+
+    /**
+     * Normalize a header name.
+     *
+     * @param name The name of the header
+     * @return The lower case name
+     */
+    public static String normalize(final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return A read-only view of all headers with lower case names
+     */
+    public Map<String, List<String>> asMap() {
+        return this.view;
+    }
+
+    /**
+     * Get all values of a header.
+     *
+     * @param name The name of the header
+     * @return A read-only view of the values or {@code null} if the header is not set
+     */
+    @Nullable
+    public List<String> get(final String name) {
+        return this.views.get(normalize(name));
+    }
+
+    /**
+     * Get the first value of a header.
+     *
+     * @param name The name of the header
+     * @return The first value or {@code null} if the header is not set
+     */
+    @Nullable
+    public String getFirst(final String name) {
+        List<String> values = this.values.get(normalize(name));
+        return values == null ? null : values.get(0);
+    }
+
+    /**
+     * Get the last value of a header.
+     *
+     * @param name The name of the header
+     * @return The last value or {@code null} if the header is not set
+     */
+    @Nullable
+    public String getLast(final String name) {
+        List<String> values = this.values.get(normalize(name));
+        return values == null ? null : values.get(values.size() - 1);
+    }
+
+    /**
+     * Check if a header is set.
+     *
+     * @param name The name of the header
+     * @return If the header is set
+     */
+    public boolean contains(final String name) {
+        return this.values.containsKey(normalize(name));
+    }
+
+    /**
+     * Add a value to a header.<br>
+     * The existing values of the header are kept.
+     *
+     * @param name  The name of the header
+     * @param value The value to add
+     */
+    public void add(final String name, final String value) {
+        String key = normalize(name);
+        List<String> values = this.values.get(key);
+        if (values == null) this.put(key, new ArrayList<>(1)).add(value);
+        else values.add(value);
+        this.modificationCount++;
+    }
+
+    /**
+     * Set the value of a header.<br>
+     * The existing values of the header are replaced.
+     *
+     * @param name  The name of the header
+     * @param value The new value
+     */
+    public void set(final String name, final String value) {
+        this.put(normalize(name), new ArrayList<>(1)).add(value);
+        this.modificationCount++;
+    }
+
+    /**
+     * Set the values of a header.<br>
+     * The existing values of the header are replaced. If no values are given, the header is removed.
+     *
+     * @param name   The name of the header
+     * @param values The new values
+     */
+    public void set(final String name, final Collection<String> values) {
+        if (values.isEmpty()) {
+            this.remove(name);
+        } else {
+            this.put(normalize(name), new ArrayList<>(values));
+            this.modificationCount++;
+        }
+    }
+
+    /**
+     * Remove a header.
+     *
+     * @param name The name of the header
+     */
+    public void remove(final String name) {
+        String key = normalize(name);
+        if (this.values.remove(key) == null) return;
+        this.views.remove(key);
+        this.modificationCount++;
+    }
+
+    /**
+     * Remove all headers.
+     */
+    public void clear() {
+        this.values.clear();
+        this.views.clear();
+        this.modificationCount++;
+    }
+
+    /**
+     * @return The amount of different headers
+     */
+    public int size() {
+        return this.values.size();
+    }
+
+    /**
+     * @return If no headers are set
+     */
+    public boolean isEmpty() {
+        return this.values.isEmpty();
+    }
+
+    /**
+     * Get a counter which changes whenever the headers are modified.<br>
+     * This can be used to cache data derived from the headers.
+     *
+     * @return The modification count
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
+    private List<String> put(final String key, final List<String> values) {
+        this.values.put(key, values);
+        this.views.put(key, Collections.unmodifiableList(values));
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return this.values.toString();
+    }
+
+}
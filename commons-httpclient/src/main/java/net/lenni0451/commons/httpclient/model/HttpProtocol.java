@@ -0,0 +1,48 @@
+package net.lenni0451.commons.httpclient.model;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+
+public enum HttpProtocol {
+
+    HTTP_1_0("HTTP/1.0"),
+    HTTP_1_1("HTTP/1.1"),
+    HTTP_2("HTTP/2");
+
+    /**
+     * Parse a protocol version string (e.g. {@code HTTP/1.1} or {@code HTTP/2.0}).
+     *
+     * @param protocol The protocol version string
+     * @return The parsed protocol or {@code null} if the protocol is unknown
+     */
+    @Nullable
+    public static HttpProtocol parse(@Nullable final String protocol) {
+        if (protocol == null) return null;
+        switch (protocol.trim().toUpperCase(Locale.ROOT)) {
+            case "HTTP/1.0":
+                return HTTP_1_0;
+            case "HTTP/1.1":
+                return HTTP_1_1;
+            case "HTTP/2":
+            case "HTTP/2.0":
+                return HTTP_2;
+            default:
+                return null;
+        }
+    }
+
+
+    private final String name;
+
+    HttpProtocol(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the protocol as used in the status line (e.g. {@code HTTP/1.1})
+     */
+    public String getName() {
+        return this.name;
+    }
+
+}
@@ -25,7 +25,10 @@ public class SingleProxySelector extends ProxySelector {
     /**
      * Set this proxy selector as default.<br>
      * This also sets the authenticator if username and password are set.
+     *
+     * @deprecated Replacing the global proxy selector affects concurrent requests. Pass the proxy to the connection instead
      */
+    @Deprecated
     public void set() {
         ProxySelector.setDefault(this);
         if (this.username != null && this.password != null) {
@@ -35,7 +38,10 @@ public class SingleProxySelector extends ProxySelector {
 
     /**
      * Reset the default proxy selector and authenticator.
+     *
+     * @deprecated Replacing the global proxy selector affects concurrent requests. Pass the proxy to the connection instead
      */
+    @Deprecated
     public void reset() {
         ProxySelector.setDefault(this.defaultProxySelector);
         if (this.username != null && this.password != null) {
@@ -0,0 +1,184 @@
+package net.lenni0451.commons.httpclient.proxy;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.Authenticator;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.PasswordAuthentication;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An authenticator which answers proxy authentication requests with the credentials of the current thread.<br>
+ * The JDK only asks the default authenticator for SOCKS credentials (and for HTTP proxy credentials on Java 8).
+ * This authenticator is installed as default once, so concurrent requests can use different credentials without replacing the global authenticator for every request.<br>
+ * All other authentication requests are passed to the previous default authenticator.
+ * If the default authenticator is replaced afterward, this authenticator is installed again on top of the new one.
+ */
+public class ThreadLocalAuthenticator extends Authenticator {
+
+    private static final ThreadLocal<PasswordAuthentication> CREDENTIALS = new ThreadLocal<>();
+    @Nullable
+    private static final Method SET_AUTHENTICATOR = findMethod(HttpURLConnection.class, "setAuthenticator", Authenticator.class);
+    @Nullable
+    private static final Method REQUEST_INSTANCE = findMethod(Authenticator.class, "requestPasswordAuthenticationInstance", String.class, InetAddress.class, int.class, String.class, String.class, String.class, URL.class, RequestorType.class);
+    @Nullable
+    private static final Method GET_DEFAULT = findMethod(Authenticator.class, "getDefault");
+    //Java 8 doesn't expose the default authenticator and has no way to pass a request to another authenticator
+    @Nullable
+    private static final Field DEFAULT_FIELD = GET_DEFAULT == null ? accessible(findField("theAuthenticator")) : null;
+    @Nullable
+    private static final Method GET_PASSWORD_AUTHENTICATION = REQUEST_INSTANCE == null ? accessible(findMethod(Authenticator.class, "getPasswordAuthentication")) : null;
+    @Nullable
+    private static final Field[] REQUEST_FIELDS = GET_PASSWORD_AUTHENTICATION != null ? findRequestFields() : null;
+    private static ThreadLocalAuthenticator instance;
+
+    @Nullable
+    private static Method findMethod(final Class<?> owner, final String name, final Class<?>... parameterTypes) {
+        try {
+            return owner.getDeclaredMethod(name, parameterTypes);
+        } catch (Throwable t) {
+            return null; //Only available since Java 9
+        }
+    }
+
+    @Nullable
+    private static Field findField(final String name) {
+        try {
+            return Authenticator.class.getDeclaredField(name);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Field[] findRequestFields() {
+        try {
+            List<Field> fields = new ArrayList<>();
+            for (Field field : Authenticator.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                field.setAccessible(true);
+                fields.add(field);
+            }
+            return fields.toArray(new Field[0]);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static <T extends AccessibleObject> T accessible(@Nullable final T member) {
+        if (member == null) return null;
+        try {
+            member.setAccessible(true);
+            return member;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * @return If authenticators can be set per connection
+     */
+    public static boolean isConnectionAuthenticatorSupported() {
+        return SET_AUTHENTICATOR != null;
+    }
+
+    /**
+     * Set an authenticator which is only used by the given connection.<br>
+     * This is only supported on Java 9 and higher.
+     *
+     * @param connection    The connection
+     * @param authenticator The authenticator
+     * @return If the authenticator was set
+     */
+    public static boolean setAuthenticator(final HttpURLConnection connection, final Authenticator authenticator) {
+        if (SET_AUTHENTICATOR == null) return false;
+        try {
+            SET_AUTHENTICATOR.invoke(connection, authenticator);
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Set the proxy credentials for the current thread.<br>
+     * The authenticator is installed as default if it is not the default authenticator yet.
+     *
+     * @param credentials The credentials or {@code null} to remove them
+     * @return The previous credentials of the current thread
+     */
+    @Nullable
+    public static PasswordAuthentication setCredentials(@Nullable final PasswordAuthentication credentials) {
+        install();
+        PasswordAuthentication previous = CREDENTIALS.get();
+        if (credentials == null) CREDENTIALS.remove();
+        else CREDENTIALS.set(credentials);
+        return previous;
+    }
+
+    private static synchronized void install() {
+        Authenticator current;
+        try {
+            current = getDefault();
+        } catch (Throwable t) {
+            //Without access to the default authenticator it is only replaced once
+            if (instance != null) return;
+            current = null;
+        }
+        if (instance != null && current == instance) return;
+        instance = new ThreadLocalAuthenticator(current);
+        Authenticator.setDefault(instance);
+    }
+
+    @Nullable
+    private static Authenticator getDefault() throws ReflectiveOperationException {
+        if (GET_DEFAULT != null) return (Authenticator) GET_DEFAULT.invoke(null);
+        if (DEFAULT_FIELD != null) return (Authenticator) DEFAULT_FIELD.get(null);
+        throw new NoSuchFieldException("The default authenticator is not accessible");
+    }
+
+
+    @Nullable
+    private final Authenticator parent;
+
+    private ThreadLocalAuthenticator(@Nullable final Authenticator parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    protected PasswordAuthentication getPasswordAuthentication() {
+        PasswordAuthentication credentials = CREDENTIALS.get();
+        //SOCKS authentication requests are made with the server requestor type
+        String protocol = this.getRequestingProtocol();
+        if (credentials != null && (RequestorType.PROXY.equals(this.getRequestorType()) || (protocol != null && protocol.startsWith("SOCKS")))) {
+            return credentials;
+        }
+        return this.requestParent();
+    }
+
+    @Nullable
+    private PasswordAuthentication requestParent() {
+        if (this.parent == null) return null;
+        try {
+            if (REQUEST_INSTANCE != null) {
+                return (PasswordAuthentication) REQUEST_INSTANCE.invoke(this.parent, this.getRequestingHost(), this.getRequestingSite(), this.getRequestingPort(), this.getRequestingProtocol(), this.getRequestingPrompt(), this.getRequestingScheme(), this.getRequestingURL(), this.getRequestorType());
+            } else if (GET_PASSWORD_AUTHENTICATION != null && REQUEST_FIELDS != null) {
+                //The JDK also synchronizes on the authenticator while its request fields are set
+                synchronized (this.parent) {
+                    for (Field field : REQUEST_FIELDS) field.set(this.parent, field.get(this));
+                    return (PasswordAuthentication) GET_PASSWORD_AUTHENTICATION.invoke(this.parent);
+                }
+            }
+        } catch (Throwable ignored) {
+        }
+        return null;
+    }
+
+}
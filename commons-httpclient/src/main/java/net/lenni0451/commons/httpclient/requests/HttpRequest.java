@@ -5,6 +5,7 @@ import net.lenni0451.commons.httpclient.HttpClient;
 import net.lenni0451.commons.httpclient.HttpResponse;
 import net.lenni0451.commons.httpclient.RetryHandler;
 import net.lenni0451.commons.httpclient.handler.HttpResponseHandler;
+import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
 import net.lenni0451.commons.httpclient.utils.ResettableStorage;
 
 import javax.annotation.Nonnull;
@@ -14,9 +15,24 @@ import java.lang.ref.WeakReference;
 import java.net.CookieManager;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 public class HttpRequest extends HeaderStore<HttpRequest> {
 
+    private static HttpClient defaultClient;
+
+    /**
+     * Get the client which is used to execute requests which are not bound to a client.<br>
+     * The client is created when it is first used and shared by all unbound requests.
+     *
+     * @return The default client
+     */
+    private static synchronized HttpClient getDefaultClient() {
+        if (defaultClient == null) defaultClient = new HttpClient();
+        return defaultClient;
+    }
+
+
     private final String method;
     private final URL url;
     private boolean streamedResponse;
@@ -24,6 +40,7 @@ public class HttpRequest extends HeaderStore<HttpRequest> {
     private final ResettableStorage<CookieManager> cookieManager = new ResettableStorage<>();
     private final ResettableStorage<RetryHandler> retryHandler = new ResettableStorage<>();
     private final ResettableStorage<Boolean> ignoreInvalidSSL = new ResettableStorage<>();
+    private final ResettableStorage<ProxyHandler> proxyHandler = new ResettableStorage<>();
     private WeakReference<HttpClient> boundClient;
 
     public HttpRequest(final String method, final String url) throws MalformedURLException {
@@ -208,6 +225,44 @@ public class HttpRequest extends HeaderStore<HttpRequest> {
         return this;
     }
 
+    /**
+     * @return If the proxy handler is set
+     */
+    public boolean isProxyHandlerSet() {
+        return this.proxyHandler.isSet();
+    }
+
+    /**
+     * Unset the proxy handler.
+     *
+     * @return This instance for chaining
+     */
+    public HttpRequest unsetProxyHandler() {
+        this.proxyHandler.unset();
+        return this;
+    }
+
+    /**
+     * @return The set proxy handler
+     * @throws IllegalStateException If the proxy handler is not set
+     */
+    @Nonnull
+    public ProxyHandler getProxyHandler() {
+        return this.proxyHandler.get();
+    }
+
+    /**
+     * Set the proxy handler to use for this request.<br>
+     * Use an empty {@link ProxyHandler} to connect directly even if the client has a proxy set.
+     *
+     * @param proxyHandler The proxy handler to use
+     * @return This instance for chaining
+     */
+    public HttpRequest setProxyHandler(@Nonnull final ProxyHandler proxyHandler) {
+        this.proxyHandler.set(proxyHandler);
+        return this;
+    }
+
     /**
      * Bind this request to a client for execution.
      *
@@ -223,22 +278,19 @@ public class HttpRequest extends HeaderStore<HttpRequest> {
     /**
      * Execute this request and return the response.<br>
      * If a client is bound to this request it will be used for execution.<br>
-     * If no client is bound a new client will be created.
+     * If no client is bound a shared default client will be used.
      *
      * @return The response of the request
      * @throws IOException If an I/O error occurs
      */
     public HttpResponse execute() throws IOException {
-        HttpClient client = null;
-        if (this.boundClient != null) client = this.boundClient.get();
-        if (client == null) client = new HttpClient();
-        return client.execute(this);
+        return this.getClient().execute(this);
     }
 
     /**
      * Execute this request and pass the response to the response handler.<br>
      * If a client is bound to this request it will be used for execution.<br>
-     * If no client is bound a new client will be created.
+     * If no client is bound a shared default client will be used.
      *
      * @param responseHandler The response handler
      * @param <R>             The return type of the response handler
@@ -246,10 +298,40 @@ public class HttpRequest extends HeaderStore<HttpRequest> {
      * @throws IOException If an I/O error occurs
      */
     public <R> R execute(final HttpResponseHandler<R> responseHandler) throws IOException {
+        return this.getClient().execute(this, responseHandler);
+    }
+
+    /**
+     * Execute this request asynchronously.<br>
+     * If a client is bound to this request it will be used for execution.<br>
+     * If no client is bound a shared default client will be used.
+     *
+     * @return A future which is completed with the response
+     * @see HttpClient#executeAsync(HttpRequest)
+     */
+    public CompletableFuture<HttpResponse> executeAsync() {
+        return this.getClient().executeAsync(this);
+    }
+
+    /**
+     * Execute this request asynchronously and pass the response to the response handler.<br>
+     * If a client is bound to this request it will be used for execution.<br>
+     * If no client is bound a shared default client will be used.
+     *
+     * @param responseHandler The response handler
+     * @param <R>             The return type of the response handler
+     * @return A future which is completed with the return value of the response handler
+     * @see HttpClient#executeAsync(HttpRequest, HttpResponseHandler)
+     */
+    public <R> CompletableFuture<R> executeAsync(final HttpResponseHandler<R> responseHandler) {
+        return this.getClient().executeAsync(this, responseHandler);
+    }
+
+    private HttpClient getClient() {
         HttpClient client = null;
         if (this.boundClient != null) client = this.boundClient.get();
-        if (client == null) client = new HttpClient();
-        return client.execute(this, responseHandler);
+        if (client == null) client = getDefaultClient();
+        return client;
     }
 
 
@@ -0,0 +1,23 @@
+package net.lenni0451.commons.httpclient.utils;
+
+import javax.annotation.WillNotClose;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A stream which can write its buffers or files directly to a channel without copying them into a heap array first.
+ *
+ * @see HttpRequestUtils#transfer(java.io.InputStream, WritableByteChannel)
+ */
+public interface ChannelTransferable {
+
+    /**
+     * Write all remaining bytes of the stream to the given channel.
+     *
+     * @param channel The channel to write to
+     * @return The amount of transferred bytes
+     * @throws IOException If an I/O error occurs
+     */
+    long transferTo(@WillNotClose final WritableByteChannel channel) throws IOException;
+
+}
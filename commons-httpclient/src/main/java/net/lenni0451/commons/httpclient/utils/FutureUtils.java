@@ -0,0 +1,118 @@
+package net.lenni0451.commons.httpclient.utils;
+
+import lombok.experimental.UtilityClass;
+import net.lenni0451.commons.httpclient.HttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+@UtilityClass
+public class FutureUtils {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HttpClient-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create a future which is completed exceptionally.<br>
+     * This is a replacement for {@code CompletableFuture.failedFuture} which was added in Java 9.
+     *
+     * @param throwable The exception
+     * @param <T>       The type of the future
+     * @return The failed future
+     */
+    public static <T> CompletableFuture<T> failed(final Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    /**
+     * Unwrap the cause of a {@link CompletionException} or {@link ExecutionException}.
+     *
+     * @param throwable The exception to unwrap
+     * @return The cause of the exception
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Run a task after the given delay without blocking the calling thread.<br>
+     * The task is run on a shared scheduler thread, so it should only start other asynchronous work.
+     *
+     * @param task  The task to run
+     * @param delay The delay in milliseconds
+     */
+    public static void schedule(final Runnable task, final long delay) {
+        if (delay <= 0) task.run();
+        else SCHEDULER.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Complete the future with the given response.<br>
+     * If the future has already been completed (e.g. because it was cancelled), the response is closed instead.
+     * This prevents streamed responses which nobody receives from keeping their connection open.
+     *
+     * @param future   The future to complete
+     * @param response The response
+     * @return If the future has been completed with the response
+     */
+    public static boolean completeResponse(final CompletableFuture<HttpResponse> future, final HttpResponse response) {
+        if (future.complete(response)) return true;
+        close(response);
+        return false;
+    }
+
+    /**
+     * Map the result of a future to a response.<br>
+     * Unlike {@link CompletableFuture#thenApply(Function)}, cancelling the returned future also cancels the source future.
+     * If the returned future is already done when the response is available, the response is closed.
+     *
+     * @param source The source future
+     * @param mapper The function which creates the response
+     * @param <T>    The type of the source future
+     * @return The mapped future
+     */
+    public static <T> CompletableFuture<HttpResponse> mapResponse(final CompletableFuture<T> source, final Function<T, HttpResponse> mapper) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        source.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(unwrap(throwable));
+                return;
+            }
+            HttpResponse response;
+            try {
+                response = mapper.apply(result);
+            } catch (Throwable t) {
+                future.completeExceptionally(unwrap(t));
+                return;
+            }
+            completeResponse(future, response);
+        });
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) source.cancel(false);
+        });
+        return future;
+    }
+
+    /**
+     * Close the body of a response which is not used anymore.
+     *
+     * @param response The response to close
+     */
+    public static void close(final HttpResponse response) {
+        if (!response.isStreamed()) return;
+        try {
+            response.getInputStream().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+}
@@ -2,17 +2,24 @@ package net.lenni0451.commons.httpclient.utils;
 
 import lombok.experimental.UtilityClass;
 import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
 
 import javax.annotation.Nullable;
 import javax.annotation.WillNotClose;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.CookieManager;
 import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -21,6 +28,10 @@ import java.util.*;
 @UtilityClass
 public class HttpRequestUtils {
 
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_PRESIZE = 16 * 1024 * 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
     /**
      * Merge multiple headers into one map.
      *
@@ -100,14 +111,15 @@ public class HttpRequestUtils {
     }
 
     /**
-     * Read the body of a connection.
+     * Read the body of a connection.<br>
+     * The {@code Content-Length} of the response is used to pre-size the body.
      *
      * @param connection The connection to read the body from
      * @return The body of the connection
      * @throws IOException If an I/O error occurs
      */
     public static byte[] readBody(final HttpURLConnection connection) throws IOException {
-        return readFromStream(getInputStream(connection));
+        return readFromStream(getInputStream(connection), connection.getContentLengthLong());
     }
 
     /**
@@ -133,11 +145,102 @@ public class HttpRequestUtils {
      * @throws IOException If an I/O error occurs
      */
     public static byte[] readFromStream(@WillNotClose final InputStream is) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
+        return readFromStream(is, -1);
+    }
+
+    /**
+     * Read the body of a connection.<br>
+     * If the size of the body is known, the body is read directly into an array of that size without any further copies.
+     * The size hint is only used for the initial allocation (up to 16 MB), so wrong hints still return the entire body.
+     *
+     * @param is       The input stream to read the body from
+     * @param sizeHint The expected size of the body or {@code -1} if unknown
+     * @return The body of the connection
+     * @throws IOException If an I/O error occurs
+     */
+    public static byte[] readFromStream(@WillNotClose final InputStream is, final long sizeHint) throws IOException {
+        byte[] buf = new byte[sizeHint >= 0 ? (int) Math.min(sizeHint, MAX_PRESIZE) : BUFFER_SIZE];
+        int length = 0;
+        while (true) {
+            if (length == buf.length) {
+                //Check if the stream is finished before growing the buffer to avoid a copy if the hint was correct
+                int next = is.read();
+                if (next == -1) return buf;
+                buf = Arrays.copyOf(buf, grow(buf.length));
+                buf[length++] = (byte) next;
+            }
+            int len = is.read(buf, length, buf.length - length);
+            if (len == -1) return length == buf.length ? buf : Arrays.copyOf(buf, length);
+            length += len;
+        }
+    }
+
+    /**
+     * Transfer all remaining bytes of a stream to a channel.<br>
+     * Streams which implement {@link ChannelTransferable} write their buffers directly to the channel.
+     * {@link FileChannel}s are filled using {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}.
+     *
+     * @param is      The input stream to read from
+     * @param channel The channel to write to
+     * @return The amount of transferred bytes
+     * @throws IOException If an I/O error occurs
+     */
+    public static long transfer(@WillNotClose final InputStream is, @WillNotClose final WritableByteChannel channel) throws IOException {
+        if (is instanceof ChannelTransferable) return ((ChannelTransferable) is).transferTo(channel);
+        if (channel instanceof FileChannel) {
+            FileChannel fileChannel = (FileChannel) channel;
+            ReadableByteChannel source = Channels.newChannel(is);
+            long start = fileChannel.position();
+            long position = start;
+            long transferred;
+            while ((transferred = fileChannel.transferFrom(source, position, Long.MAX_VALUE)) > 0) position += transferred;
+            fileChannel.position(position); //transferFrom does not update the position of the channel
+            return position - start;
+        }
+        byte[] buf = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(buf);
+        long total = 0;
         int len;
-        while ((len = is.read(buf)) != -1) baos.write(buf, 0, len);
-        return baos.toByteArray();
+        while ((len = is.read(buf)) != -1) {
+            //Cast to Buffer to stay compatible with Java 8
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).limit(len);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            total += len;
+        }
+        return total;
+    }
+
+    private static int grow(final int size) throws IOException {
+        if (size >= MAX_ARRAY_SIZE) throw new IOException("The body is too large to be read into memory");
+        return (int) Math.min(MAX_ARRAY_SIZE, Math.max(BUFFER_SIZE, size * 2L));
+    }
+
+    /**
+     * Create a copy of a request.<br>
+     * The headers and all set options are copied. The content of content requests is shared with the copy.
+     * The copy is not bound to a client.
+     *
+     * @param request The request to copy
+     * @return The copied request
+     */
+    public static HttpRequest copy(final HttpRequest request) {
+        HttpRequest copy;
+        if (request instanceof HttpContentRequest) {
+            HttpContentRequest contentRequest = new HttpContentRequest(request.getMethod(), request.getURL());
+            contentRequest.setContent(((HttpContentRequest) request).getContent());
+            copy = contentRequest;
+        } else {
+            copy = new HttpRequest(request.getMethod(), request.getURL());
+        }
+        request.getHeaders().forEach((name, values) -> values.forEach(value -> copy.appendHeader(name, value)));
+        copy.setStreamedResponse(request.isStreamedResponse());
+        copy.setFollowRedirects(request.getFollowRedirects());
+        if (request.isCookieManagerSet()) copy.setCookieManager(request.getCookieManager());
+        if (request.isRetryHandlerSet()) copy.setRetryHandler(request.getRetryHandler());
+        if (request.isIgnoreInvalidSSLSet()) copy.setIgnoreInvalidSSL(request.getIgnoreInvalidSSL());
+        if (request.isProxyHandlerSet()) copy.setProxyHandler(request.getProxyHandler());
+        return copy;
     }
 
     /**
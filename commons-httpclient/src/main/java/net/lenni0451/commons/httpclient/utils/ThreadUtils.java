@@ -0,0 +1,73 @@
+package net.lenni0451.commons.httpclient.utils;
+
+import lombok.experimental.UtilityClass;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@UtilityClass
+public class ThreadUtils {
+
+    @Nullable
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    @Nullable
+    private static Method findVirtualExecutor() {
+        try {
+            Class.forName("java.lang.Thread$Builder$OfVirtual");
+            Class<?> executors = Class.forName("net.lenni0451.commons.httpclient.utils.VirtualThreadExecutors");
+            return executors.getDeclaredMethod("create", String.class);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * @return If virtual threads are supported by the current JVM
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Create a new executor which runs every task on a new virtual thread.<br>
+     * If virtual threads are not available {@code null} is returned.
+     *
+     * @param name The name prefix of the threads
+     * @return The executor or {@code null} if virtual threads are not available
+     */
+    @Nullable
+    public static ExecutorService newVirtualExecutor(final String name) {
+        if (VIRTUAL_EXECUTOR == null) return null;
+        try {
+            return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null, name);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a new bounded pool of daemon threads.<br>
+     * Idle threads are stopped after 60 seconds.
+     *
+     * @param name    The name prefix of the threads
+     * @param threads The maximum amount of threads
+     * @return The executor
+     */
+    public static ExecutorService newDaemonPool(final String name, final int threads) {
+        AtomicInteger threadId = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
@@ -8,6 +8,9 @@ import net.lenni0451.commons.httpclient.content.impl.ByteArrayContent;
 import net.lenni0451.commons.httpclient.content.impl.StringContent;
 import net.lenni0451.commons.httpclient.content.impl.URLEncodedFormContent;
 import net.lenni0451.commons.httpclient.exceptions.RetryExceededException;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.proxy.ProxyHandler;
+import net.lenni0451.commons.httpclient.proxy.ProxyType;
 import net.lenni0451.commons.httpclient.requests.HttpRequest;
 import net.lenni0451.commons.httpclient.server.TestWebServer;
 import org.junit.jupiter.api.AfterAll;
@@ -17,20 +20,30 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.CookieManager;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class HttpClientTest {
 
     private static TestWebServer server;
+    private static int port;
     private static String baseUrl;
     private HttpClient client;
 
     @BeforeAll
     static void startServer() throws IOException {
         server = new TestWebServer();
-        baseUrl = "http://127.0.0.1:" + server.bind();
+        port = server.bind();
+        baseUrl = "http://127.0.0.1:" + port;
     }
 
     @AfterAll
@@ -151,4 +164,153 @@ class HttpClientTest {
         assertEquals("Hello World", response.getContentAsString());
     }
 
+    @Test
+    void connectionReuse() throws IOException {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        try (HttpClient httpClient = new HttpClient(ExecutorType.HTTP_CLIENT)) {
+            String first = httpClient.get(baseUrl + "/remoteAddress").execute().getContentAsString();
+            String second = httpClient.get(baseUrl + "/remoteAddress").execute().getContentAsString();
+            assertEquals(first, second);
+        }
+    }
+
+    @Test
+    void manyClientConfigurations() throws IOException {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        try (HttpClient httpClient = new HttpClient(ExecutorType.HTTP_CLIENT)) {
+            //Every cookie manager requires its own client, the least recently used ones are evicted
+            for (int i = 0; i < 40; i++) {
+                HttpResponse response = httpClient.get(baseUrl + "/echo").setCookieManager(new CookieManager()).execute();
+                assertEquals(StatusCodes.OK, response.getStatusCode());
+            }
+            assertEquals(StatusCodes.OK, httpClient.get(baseUrl + "/echo").execute().getStatusCode());
+        }
+    }
+
+    @Test
+    void closeWithOpenStream() throws IOException {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        HttpClient httpClient = new HttpClient(ExecutorType.HTTP_CLIENT);
+        byte[] payload = new byte[16 * 1024 * 1024];
+        HttpResponse response = httpClient.post(baseUrl + "/echo")
+                .setContent(new ByteArrayContent(payload))
+                .setStreamedResponse(true)
+                .execute();
+        assertEquals(StatusCodes.OK, response.getStatusCode());
+        //The body is never read, closing must not wait for it
+        assertTimeoutPreemptively(Duration.ofSeconds(10), httpClient::close);
+        response.getInputStream().close();
+    }
+
+    @Test
+    void unboundRequest() throws Exception {
+        HttpRequest request = new HttpRequest("GET", baseUrl + "/response?content=123&code=200");
+        assertEquals("123", request.execute().getContentAsString());
+        assertEquals("123", request.executeAsync(HttpResponse::getContentAsString).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closedClient() {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        HttpClient httpClient = new HttpClient(ExecutorType.HTTP_CLIENT);
+        httpClient.close();
+        assertThrows(IllegalStateException.class, () -> httpClient.get(baseUrl + "/echo").execute());
+    }
+
+    @Test
+    void asyncGet() throws Exception {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient httpClient = new HttpClient(executorType)) {
+                HttpResponse response = httpClient.get(baseUrl + "/response?content=123&code=200").executeAsync().get(10, TimeUnit.SECONDS);
+                assertEquals(StatusCodes.OK, response.getStatusCode());
+                assertEquals("123", response.getContentAsString());
+            }
+        }
+    }
+
+    @Test
+    void asyncHeaderRetry() throws Exception {
+        this.client.setRetryHandler(new RetryHandler(0, 4/*1 initial request + 4 retries*/));
+        String content = this.client.get(baseUrl + "/retryCookie").executeAsync(HttpResponse::getContentAsString).get(30, TimeUnit.SECONDS);
+        assertEquals("OK", content);
+    }
+
+    @Test
+    void asyncFailingHeaderRetry() throws IOException {
+        HttpRequest request = this.client.get(baseUrl + "/retryCookie");
+        request.setRetryHandler(new RetryHandler(0, 1));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> request.executeAsync().get(30, TimeUnit.SECONDS));
+        assertInstanceOf(RetryExceededException.class, exception.getCause());
+    }
+
+    @Test
+    void asyncConcurrent() throws Exception {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient httpClient = new HttpClient(executorType).setMaxAsyncThreads(4)) {
+                List<CompletableFuture<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    futures.add(httpClient.post(baseUrl + "/echo").setContent(new StringContent("Request " + i)).executeAsync(HttpResponse::getContentAsString));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    assertEquals("Request " + i, futures.get(i).get(30, TimeUnit.SECONDS));
+                }
+            }
+        }
+    }
+
+    @Test
+    void asyncVirtualThreads() throws Exception {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            //Falls back to platform threads if virtual threads are not available
+            try (HttpClient httpClient = new HttpClient(executorType).setVirtualThreads(true)) {
+                List<CompletableFuture<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    futures.add(httpClient.post(baseUrl + "/echo").setContent(new StringContent("Request " + i)).executeAsync(HttpResponse::getContentAsString));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    assertEquals("Request " + i, futures.get(i).get(30, TimeUnit.SECONDS));
+                }
+            }
+        }
+    }
+
+    @Test
+    void requestProxy() throws Exception {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient httpClient = new HttpClient(executorType)) {
+                //The .invalid host can only be reached through the proxy
+                HttpResponse response = httpClient.get("http://proxied.invalid/proxy")
+                        .setProxyHandler(new ProxyHandler(ProxyType.HTTP, "127.0.0.1", port))
+                        .execute();
+                assertEquals("proxied.invalid:", response.getContentAsString());
+
+                httpClient.setProxyHandler(new ProxyHandler(ProxyType.HTTP, "127.0.0.1", port));
+                response = httpClient.get(baseUrl + "/echo").setProxyHandler(new ProxyHandler()).execute();
+                assertEquals(StatusCodes.OK, response.getStatusCode());
+            }
+        }
+    }
+
+    @Test
+    void concurrentProxyAuthentication() throws Exception {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient httpClient = new HttpClient(executorType)) {
+                List<CompletableFuture<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    HttpRequest request = httpClient.get("http://proxied.invalid/proxy/auth")
+                            .setProxyHandler(new ProxyHandler(ProxyType.HTTP, "127.0.0.1", port, "user" + i, "password"));
+                    futures.add(request.executeAsync(HttpResponse::getContentAsString));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    assertEquals("proxied.invalid:user" + i, futures.get(i).get(30, TimeUnit.SECONDS));
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,109 @@
+package net.lenni0451.commons.httpclient;
+
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.model.HttpProtocol;
+import net.lenni0451.commons.httpclient.server.Http2TestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class HttpProtocolTest {
+
+    private static Http2TestServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws InterruptedException {
+        server = new Http2TestServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void parse() {
+        assertEquals(HttpProtocol.HTTP_1_0, HttpProtocol.parse("HTTP/1.0"));
+        assertEquals(HttpProtocol.HTTP_1_1, HttpProtocol.parse("http/1.1"));
+        assertEquals(HttpProtocol.HTTP_2, HttpProtocol.parse("HTTP/2"));
+        assertEquals(HttpProtocol.HTTP_2, HttpProtocol.parse("HTTP/2.0"));
+        assertNull(HttpProtocol.parse("SPDY/3"));
+        assertNull(HttpProtocol.parse(null));
+    }
+
+    @Test
+    void invalidPreferredProtocol() {
+        HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION);
+        assertThrows(IllegalArgumentException.class, () -> client.setPreferredProtocol(HttpProtocol.HTTP_1_0));
+        assertThrows(IllegalArgumentException.class, () -> client.setPreferredProtocol(null));
+        assertEquals(HttpProtocol.HTTP_2, client.getPreferredProtocol());
+    }
+
+    @Test
+    void http2Upgrade() throws IOException {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        try (HttpClient client = new HttpClient(ExecutorType.HTTP_CLIENT).setPreferredProtocol(HttpProtocol.HTTP_2)) {
+            HttpResponse response = client.get(baseUrl).execute();
+            assertEquals(HttpProtocol.HTTP_2, response.getProtocol());
+            assertTrue(response.getContentAsString().startsWith("HTTP/2:"));
+        }
+    }
+
+    @Test
+    void http2Multiplexing() throws Exception {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        try (HttpClient client = new HttpClient(ExecutorType.HTTP_CLIENT).setPreferredProtocol(HttpProtocol.HTTP_2)) {
+            //The first request upgrades the connection, all following requests are sent as streams over it
+            String connection = client.get(baseUrl).execute().getContentAsString();
+            int connections = server.getConnections();
+
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) futures.add(client.get(baseUrl).executeAsync());
+            Set<String> contents = new HashSet<>();
+            for (CompletableFuture<HttpResponse> future : futures) {
+                HttpResponse response = future.get(10, TimeUnit.SECONDS);
+                assertEquals(HttpProtocol.HTTP_2, response.getProtocol());
+                contents.add(response.getContentAsString());
+            }
+            assertEquals(1, contents.size());
+            assertEquals(connection, contents.iterator().next());
+            assertEquals(connections, server.getConnections());
+        }
+    }
+
+    @Test
+    void preferHttp11() throws IOException {
+        assumeTrue(ExecutorType.HTTP_CLIENT.isAvailable());
+        try (HttpClient client = new HttpClient(ExecutorType.HTTP_CLIENT).setPreferredProtocol(HttpProtocol.HTTP_1_1)) {
+            HttpResponse response = client.get(baseUrl).execute();
+            assertEquals(HttpProtocol.HTTP_1_1, response.getProtocol());
+            assertTrue(response.getContentAsString().startsWith("HTTP/1.1:"));
+        }
+    }
+
+    @Test
+    void http11Executors() throws IOException {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType).setPreferredProtocol(HttpProtocol.HTTP_2)) {
+                HttpResponse response = client.get(baseUrl).execute();
+                assertEquals(HttpProtocol.HTTP_1_1, response.getProtocol(), executorType.name());
+                assertTrue(response.getContentAsString().startsWith("HTTP/1.1:"), executorType.name());
+            }
+        }
+    }
+
+}
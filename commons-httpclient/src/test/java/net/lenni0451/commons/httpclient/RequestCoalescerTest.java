@@ -0,0 +1,121 @@
+package net.lenni0451.commons.httpclient;
+
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    private static String slow() {
+        return baseUrl + "/flaky?id=" + UUID.randomUUID() + "&delay=500";
+    }
+
+    @Test
+    void coalesceIdenticalRequests() throws Exception {
+        String url = slow();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (HttpClient client = new HttpClient().setRequestCoalescing(true)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<HttpResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return client.get(url).execute();
+                }));
+            }
+            start.countDown();
+            Thread.sleep(100);
+            responses.add(client.get(url).executeAsync());
+
+            for (Future<HttpResponse> future : responses) {
+                HttpResponse response = future.get(5, TimeUnit.SECONDS);
+                assertEquals(200, response.getStatusCode());
+                assertEquals("1", response.getContentAsString());
+            }
+
+            //The shared execution is finished, the next request is sent again
+            assertEquals("2", client.get(url).execute().getContentAsString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentRequestsAreNotCoalesced() throws Exception {
+        String url = slow();
+        try (HttpClient client = new HttpClient().setRequestCoalescing(true)) {
+            CompletableFuture<HttpResponse> first = client.get(url).setHeader("X-Test", "a").executeAsync();
+            CompletableFuture<HttpResponse> second = client.get(url).setHeader("X-Test", "b").executeAsync();
+            CompletableFuture<HttpResponse> post = client.post(url).executeAsync();
+            assertNotEquals(first.get(5, TimeUnit.SECONDS).getContentAsString(), second.get(5, TimeUnit.SECONDS).getContentAsString());
+            assertEquals(200, post.get(5, TimeUnit.SECONDS).getStatusCode());
+        }
+    }
+
+    @Test
+    void streamedRequestsAreNotCoalesced() throws Exception {
+        String url = slow();
+        try (HttpClient client = new HttpClient().setRequestCoalescing(true)) {
+            CompletableFuture<HttpResponse> first = client.get(url).setStreamedResponse(true).executeAsync();
+            CompletableFuture<HttpResponse> second = client.get(url).setStreamedResponse(true).executeAsync();
+            CompletableFuture<HttpResponse> buffered = client.get(url).executeAsync();
+
+            //Every streamed request is sent on its own and keeps its stream
+            HttpResponse response = first.get(5, TimeUnit.SECONDS);
+            assertTrue(response.isStreamed());
+            try (InputStream is = response.getInputStream()) {
+                String content = new String(HttpRequestUtils.readFromStream(is));
+                assertNotEquals(content, second.get(5, TimeUnit.SECONDS).getContentAsString());
+                assertNotEquals(content, buffered.get(5, TimeUnit.SECONDS).getContentAsString());
+            }
+        }
+    }
+
+    @Test
+    void disabledByDefault() throws Exception {
+        String url = slow();
+        try (HttpClient client = new HttpClient()) {
+            assertFalse(client.isRequestCoalescing());
+            CompletableFuture<HttpResponse> first = client.get(url).executeAsync();
+            CompletableFuture<HttpResponse> second = client.get(url).executeAsync();
+            assertNotEquals(first.get(5, TimeUnit.SECONDS).getContentAsString(), second.get(5, TimeUnit.SECONDS).getContentAsString());
+        }
+    }
+
+    @Test
+    void cancellationIsIndependent() throws Exception {
+        String url = slow();
+        try (HttpClient client = new HttpClient().setRequestCoalescing(true)) {
+            CompletableFuture<HttpResponse> first = client.get(url).executeAsync();
+            CompletableFuture<HttpResponse> second = client.get(url).executeAsync();
+            first.cancel(false);
+            assertEquals("1", second.get(5, TimeUnit.SECONDS).getContentAsString());
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package net.lenni0451.commons.httpclient;
+
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.exceptions.RetryExceededException;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryHandlerTest {
+
+    private static final ExecutorType[] EXECUTOR_TYPES = {ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY};
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    private static String flaky(final int failures, final int status) {
+        return baseUrl + "/flaky?id=" + UUID.randomUUID() + "&failures=" + failures + "&status=" + status;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void backoffPolicies() {
+        assertEquals(0, BackoffPolicy.NONE.getDelay(5, 100));
+        assertEquals(50, BackoffPolicy.fixed(50).getDelay(3, 0));
+
+        BackoffPolicy exponential = BackoffPolicy.exponential(100, 1000);
+        assertEquals(100, exponential.getDelay(1, 0));
+        assertEquals(200, exponential.getDelay(2, 100));
+        assertEquals(800, exponential.getDelay(4, 400));
+        assertEquals(1000, exponential.getDelay(5, 800));
+        assertEquals(1000, exponential.getDelay(Integer.MAX_VALUE, 1000));
+
+        BackoffPolicy exponentialJitter = BackoffPolicy.exponentialJitter(100, 1000);
+        BackoffPolicy decorrelatedJitter = BackoffPolicy.decorrelatedJitter(100, 1000);
+        long previous = 0;
+        for (int i = 1; i <= 100; i++) {
+            long delay = exponentialJitter.getDelay(i, 0);
+            assertTrue(delay >= 0 && delay <= Math.min(1000, 100L << Math.min(i - 1, 10)));
+            delay = decorrelatedJitter.getDelay(i, previous);
+            assertTrue(delay >= 100 && delay <= Math.min(1000, Math.max(100, previous * 3)));
+            previous = delay;
+        }
+        long capped = decorrelatedJitter.getDelay(1, Long.MAX_VALUE);
+        assertTrue(capped >= 100 && capped <= 1000);
+
+        assertThrows(IllegalArgumentException.class, () -> BackoffPolicy.fixed(-1));
+        assertThrows(IllegalArgumentException.class, () -> BackoffPolicy.exponential(100, 50));
+        assertThrows(IllegalArgumentException.class, () -> BackoffPolicy.decorrelatedJitter(-1, 50));
+    }
+
+    @Test
+    void statusRetry() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                client.setRetryHandler(new RetryHandler(0, 3).setRetryOnStatus(StatusCodes.SERVICE_UNAVAILABLE, StatusCodes.BAD_GATEWAY).setBackoffPolicy(BackoffPolicy.fixed(10)));
+
+                HttpResponse response = client.get(flaky(2, StatusCodes.SERVICE_UNAVAILABLE)).execute();
+                assertEquals(StatusCodes.OK, response.getStatusCode(), executorType.name());
+                assertEquals("3", response.getContentAsString());
+
+                response = client.get(flaky(3, StatusCodes.BAD_GATEWAY)).executeAsync().get(5, TimeUnit.SECONDS);
+                assertEquals(StatusCodes.OK, response.getStatusCode(), executorType.name());
+                assertEquals("4", response.getContentAsString());
+
+                //Other status codes are not retried
+                response = client.get(flaky(1, StatusCodes.INTERNAL_SERVER_ERROR)).execute();
+                assertEquals(StatusCodes.INTERNAL_SERVER_ERROR, response.getStatusCode(), executorType.name());
+
+                assertThrows(RetryExceededException.class, () -> client.get(flaky(4, StatusCodes.SERVICE_UNAVAILABLE)).execute());
+                ExecutionException e = assertThrows(ExecutionException.class, () -> client.get(flaky(4, StatusCodes.SERVICE_UNAVAILABLE)).executeAsync().get(5, TimeUnit.SECONDS));
+                assertInstanceOf(RetryExceededException.class, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    void exceededStatusRetriesAreNotConnectRetried() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                client.setRetryHandler(new RetryHandler(2, 1).setRetryOnStatus(StatusCodes.SERVICE_UNAVAILABLE).setBackoffPolicy(BackoffPolicy.NONE));
+
+                //Only the header retries are used, the connect retries would send the request again
+                String url = flaky(3, StatusCodes.SERVICE_UNAVAILABLE);
+                assertThrows(RetryExceededException.class, () -> client.get(url).execute(), executorType.name());
+                assertEquals("3", client.get(url).setRetryHandler(new RetryHandler(0, 0)).execute().getContentAsString(), executorType.name());
+
+                String asyncUrl = flaky(3, StatusCodes.SERVICE_UNAVAILABLE);
+                ExecutionException e = assertThrows(ExecutionException.class, () -> client.get(asyncUrl).executeAsync().get(5, TimeUnit.SECONDS));
+                assertInstanceOf(RetryExceededException.class, e.getCause(), executorType.name());
+                assertEquals("3", client.get(asyncUrl).setRetryHandler(new RetryHandler(0, 0)).execute().getContentAsString(), executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void statusRetryBackoff() throws Exception {
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            client.setRetryHandler(new RetryHandler(0, 2).setRetryOnStatus(status -> status >= 500).setBackoffPolicy(BackoffPolicy.exponential(50, 1000)));
+
+            long start = System.nanoTime();
+            assertEquals(StatusCodes.OK, client.get(flaky(2, StatusCodes.SERVICE_UNAVAILABLE)).execute().getStatusCode());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150); //50ms + 100ms
+
+            start = System.nanoTime();
+            CompletableFuture<HttpResponse> future = client.get(flaky(2, StatusCodes.SERVICE_UNAVAILABLE)).executeAsync();
+            assertEquals(StatusCodes.OK, future.get(5, TimeUnit.SECONDS).getStatusCode());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        }
+    }
+
+    @Test
+    void connectRetryBackoff() throws Exception {
+        String url = "http://127.0.0.1:" + unusedPort();
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            client.setRetryHandler(new RetryHandler(2, 0).setBackoffPolicy(BackoffPolicy.fixed(100)));
+
+            long start = System.nanoTime();
+            assertThrows(ConnectException.class, () -> client.get(url).execute());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+
+            start = System.nanoTime();
+            CompletableFuture<HttpResponse> future = client.get(url).executeAsync();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ConnectException.class, FutureUtils.unwrap(e));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        }
+    }
+
+    @Test
+    void asyncRetriesDontBlockThreads() throws Exception {
+        //With a single async thread, the delays would add up if they blocked the thread
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION).setMaxAsyncThreads(1)) {
+            client.setRetryHandler(new RetryHandler(0, 1).setRetryOnStatus(StatusCodes.SERVICE_UNAVAILABLE).setBackoffPolicy(BackoffPolicy.fixed(500)));
+
+            long start = System.nanoTime();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[4];
+            for (int i = 0; i < futures.length; i++) futures[i] = client.get(flaky(1, StatusCodes.SERVICE_UNAVAILABLE)).executeAsync();
+            CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+        }
+    }
+
+}
@@ -0,0 +1,285 @@
+package net.lenni0451.commons.httpclient.batch;
+
+import com.sun.net.httpserver.HttpServer;
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.cache.HttpCache;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.events.HttpEventListener;
+import net.lenni0451.commons.httpclient.events.RequestTimeline;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.executor.RequestExecutor;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.requests.impl.GetRequest;
+import net.lenni0451.commons.httpclient.utils.FutureUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class HttpBatchTest {
+
+    private static final ExecutorType[] EXECUTOR_TYPES = {ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY};
+
+    private static final SlowServer first = new SlowServer(true, 50);
+    private static final SlowServer second = new SlowServer(true, 50);
+    private static final AtomicInteger globalActive = new AtomicInteger();
+    private static final AtomicInteger globalMax = new AtomicInteger();
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        first.start();
+        second.start();
+    }
+
+    @AfterAll
+    static void stopServers() {
+        first.stop();
+        second.stop();
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        globalMax.set(0);
+        first.max.set(0);
+        second.max.set(0);
+    }
+
+    private static List<HttpRequest> requests(final int perServer) throws IOException {
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < perServer; i++) {
+            requests.add(new GetRequest(first.url + "/" + i));
+            requests.add(new GetRequest(second.url + "/" + i));
+        }
+        return requests;
+    }
+
+    @Test
+    void perHostLimit() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            this.resetCounters();
+            try (HttpClient client = new HttpClient(executorType)) {
+                List<HttpRequest> requests = requests(10);
+                Set<Integer> indices = new HashSet<>();
+                try (BatchExecution execution = client.batch().setMaxConcurrency(10).setMaxConcurrencyPerHost(2).execute(requests)) {
+                    for (BatchResult result : execution) {
+                        assertTrue(result.isSuccessful(), executorType.name());
+                        assertEquals(StatusCodes.OK, result.getResponse().getStatusCode());
+                        assertSame(requests.get(result.getIndex()), result.getRequest());
+                        assertEquals(result.getRequest().getURL().getPath(), result.getResponse().getContentAsString());
+                        indices.add(result.getIndex());
+                    }
+                    assertTrue(execution.isDone());
+                    assertEquals(requests.size(), execution.getCompleted());
+                }
+                assertEquals(requests.size(), indices.size());
+                assertEquals(2, first.max.get(), executorType.name());
+                assertEquals(2, second.max.get(), executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void globalLimit() throws Exception {
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            BatchExecution execution = client.batch().setMaxConcurrency(3).setMaxConcurrencyPerHost(10).execute(requests(6));
+            execution.getCompletion().get(10, TimeUnit.SECONDS);
+            assertEquals(3, globalMax.get());
+            int results = 0;
+            while (execution.next() != null) results++;
+            assertEquals(12, results);
+        }
+    }
+
+    @Test
+    void cancel() throws Exception {
+        //Blocking requests which are already running can't be stopped, so they must not reach the shared servers
+        SlowServer server = new SlowServer(false, 50);
+        server.start();
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            List<HttpRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 20; i++) requests.add(new GetRequest(server.url + "/" + i));
+            BatchExecution execution = client.batch().setMaxConcurrency(1).execute(requests);
+            BatchResult firstResult = execution.next();
+            assertNotNull(firstResult);
+            assertTrue(firstResult.isSuccessful());
+            execution.cancel();
+
+            int cancelled = 0;
+            int results = 1;
+            BatchResult result;
+            while ((result = execution.poll(10, TimeUnit.SECONDS)) != null) {
+                results++;
+                if (result.isCancelled()) cancelled++;
+            }
+            assertEquals(20, results);
+            assertTrue(cancelled >= 18, "Only " + cancelled + " requests were cancelled");
+            assertTrue(execution.isDone());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void cancelWithCache() throws Exception {
+        assumeTrue(ExecutorType.NETTY.isAvailable());
+        //The cache wraps the future of the request, the cancellation still has to abort the request
+        SlowServer server = new SlowServer(false, 5000);
+        server.start();
+        CountDownLatch aborted = new CountDownLatch(1);
+        HttpEventListener listener = new HttpEventListener() {
+            @Override
+            public void requestFailed(RequestTimeline timeline, Throwable cause) {
+                aborted.countDown();
+            }
+        };
+        try (HttpClient client = new HttpClient(ExecutorType.NETTY).setCache(new HttpCache(16)).setEventListener(listener)) {
+            BatchExecution execution = client.batch().execute(Collections.singletonList(new GetRequest(server.url + "/slow")));
+            Thread.sleep(200);
+            execution.cancel();
+            BatchResult result = execution.poll(1, TimeUnit.SECONDS);
+            assertNotNull(result);
+            assertTrue(result.isCancelled());
+            assertTrue(aborted.await(2, TimeUnit.SECONDS));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void synchronousCompletion() throws Exception {
+        //All requests fail before the future is returned, so every request completes while the previous one is dispatched
+        HttpClient client = new HttpClient(c -> new RequestExecutor(c) {
+            @Nonnull
+            @Override
+            public HttpResponse execute(@Nonnull HttpRequest request) throws IOException {
+                throw new IOException("Not connected");
+            }
+
+            @Nonnull
+            @Override
+            public CompletableFuture<HttpResponse> executeAsync(@Nonnull HttpRequest request) {
+                return FutureUtils.failed(new IOException("Not connected"));
+            }
+        });
+        client.getRetryHandler().setMaxConnectRetries(0);
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) requests.add(new GetRequest(first.url + "/" + i));
+        BatchExecution execution = client.batch().setMaxConcurrency(1).execute(requests);
+        assertTrue(execution.isDone());
+        int failed = 0;
+        BatchResult result;
+        while ((result = execution.next()) != null) {
+            if (!result.isSuccessful()) failed++;
+        }
+        assertEquals(requests.size(), failed);
+    }
+
+    @Test
+    void failures() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            client.getRetryHandler().setMaxConnectRetries(0);
+            List<HttpRequest> requests = Arrays.asList(new GetRequest("http://127.0.0.1:" + port), new GetRequest(first.url + "/ok"));
+            try (BatchExecution execution = client.batch().execute(requests)) {
+                for (BatchResult result : execution) {
+                    if (result.getIndex() == 0) {
+                        assertFalse(result.isSuccessful());
+                        assertInstanceOf(IOException.class, result.getError());
+                    } else {
+                        assertTrue(result.isSuccessful());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void empty() throws Exception {
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            BatchExecution execution = client.batch().execute(Collections.emptyList());
+            assertTrue(execution.isDone());
+            assertNull(execution.next());
+        }
+    }
+
+    @Test
+    void invalidLimits() {
+        HttpBatch batch = new HttpBatch(new HttpClient(ExecutorType.URL_CONNECTION));
+        assertThrows(IllegalArgumentException.class, () -> batch.setMaxConcurrency(0));
+        assertThrows(IllegalArgumentException.class, () -> batch.setMaxConcurrencyPerHost(-1));
+    }
+
+
+    /**
+     * A server which answers every request after a delay with the requested path.<br>
+     * The maximum amount of concurrent requests is tracked per server and for all global servers.
+     */
+    private static class SlowServer {
+        private final boolean global;
+        private final long delay;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+        private HttpServer server;
+        private ExecutorService executor;
+        private URL url;
+
+        private SlowServer(final boolean global, final long delay) {
+            this.global = global;
+            this.delay = delay;
+        }
+
+        private void start() throws IOException {
+            this.executor = Executors.newCachedThreadPool();
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            this.server.setExecutor(this.executor);
+            this.server.createContext("/", exchange -> {
+                this.max.accumulateAndGet(this.active.incrementAndGet(), Math::max);
+                if (this.global) globalMax.accumulateAndGet(globalActive.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(this.delay);
+                    //Decremented before responding, because the client may start the next request as soon as the response is received
+                    if (this.global) globalActive.decrementAndGet();
+                    this.active.decrementAndGet();
+                    byte[] body = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(StatusCodes.OK, body.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(body);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            this.server.start();
+            this.url = new URL("http://127.0.0.1:" + this.server.getAddress().getPort());
+        }
+
+        private void stop() {
+            this.server.stop(0);
+            this.executor.shutdownNow();
+        }
+    }
+
+}
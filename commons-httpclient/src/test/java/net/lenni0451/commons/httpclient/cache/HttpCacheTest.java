@@ -0,0 +1,233 @@
+package net.lenni0451.commons.httpclient.cache;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.server.CacheHandler;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCacheTest {
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    private static HttpClient client(final HttpCache cache) {
+        return new HttpClient(ExecutorType.URL_CONNECTION).setCache(cache);
+    }
+
+    private static String get(final HttpClient client, final String path) throws IOException {
+        HttpResponse response = client.get(baseUrl + path).execute();
+        assertEquals(StatusCodes.OK, response.getStatusCode());
+        return response.getContentAsString();
+    }
+
+    @Test
+    void cacheControl() {
+        CacheControl cacheControl = CacheControl.parse(Arrays.asList("max-age=\"60\", no-cache", "stale-while-revalidate=30, unknown"));
+        assertEquals(60, cacheControl.getMaxAge());
+        assertEquals(30, cacheControl.getStaleWhileRevalidate());
+        assertTrue(cacheControl.isNoCache());
+        assertFalse(cacheControl.isNoStore());
+
+        cacheControl = CacheControl.parse(Collections.singletonList("max-age=invalid, NO-STORE, private"));
+        assertEquals(-1, cacheControl.getMaxAge());
+        assertTrue(cacheControl.isNoStore());
+        assertTrue(cacheControl.isPrivate());
+    }
+
+    @Test
+    void maxAge() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        assertEquals("1", get(client, "/cache/maxAge?control=max-age=60"));
+        assertEquals("1", get(client, "/cache/maxAge?control=max-age=60"));
+        assertEquals(1, CacheHandler.getRequests("/cache/maxAge"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        //Requests with no-cache skip fresh responses
+        assertEquals("2", client.get(baseUrl + "/cache/maxAge?control=max-age=60").setHeader("Cache-Control", "no-cache").execute().getContentAsString());
+        assertEquals("2", get(client, "/cache/maxAge?control=max-age=60"));
+    }
+
+    @Test
+    void noStore() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        assertEquals("1", get(client, "/cache/noStore?control=no-store"));
+        assertEquals("2", get(client, "/cache/noStore?control=no-store"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void privateResponses() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        assertEquals("1", get(client, "/cache/private?control=private,max-age=60"));
+        assertEquals("2", get(client, "/cache/private?control=private,max-age=60"));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void varyAcceptEncoding() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        //The body is decoded before it is stored, so it is valid for every accepted encoding
+        assertEquals("1", get(client, "/cache/vary?control=max-age=60&vary=Accept-Encoding&gzip=true"));
+        assertEquals("1", get(client, "/cache/vary?control=max-age=60&vary=Accept-Encoding&gzip=true"));
+        assertEquals(1, CacheHandler.getRequests("/cache/vary"));
+
+        //Encoded bodies which are returned as received are not stored
+        String url = baseUrl + "/cache/varyEncoded?control=max-age=60&vary=Accept-Encoding&gzip=true";
+        assertEquals("gzip", client.get(url).setHeader("Accept-Encoding", "gzip").execute().getFirstHeader("Content-Encoding").orElse(null));
+        client.get(url).setHeader("Accept-Encoding", "gzip").execute();
+        assertEquals(2, CacheHandler.getRequests("/cache/varyEncoded"));
+
+        //Other headers might change the response
+        assertEquals("1", get(client, "/cache/varyOther?control=max-age=60&vary=Accept-Encoding,User-Agent"));
+        assertEquals("2", get(client, "/cache/varyOther?control=max-age=60&vary=Accept-Encoding,User-Agent"));
+        assertEquals("1", get(client, "/cache/varyAll?control=max-age=60&vary=*"));
+        assertEquals("2", get(client, "/cache/varyAll?control=max-age=60&vary=*"));
+    }
+
+    @Test
+    void credentials() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        String url = baseUrl + "/cache/credentials?control=max-age=60";
+        assertEquals("1", client.get(url).setHeader("Authorization", "Bearer a").execute().getContentAsString());
+        assertEquals("2", client.get(url).setHeader("Cookie", "a=b").execute().getContentAsString());
+
+        //Another client sharing the cache with the credentials as default headers
+        HttpClient authorized = client(cache).setHeader("Authorization", "Bearer b");
+        assertEquals("3", authorized.get(url).execute().getContentAsString());
+
+        CookieManager cookieManager = new CookieManager();
+        HttpCookie cookie = new HttpCookie("session", "secret");
+        cookie.setPath("/");
+        cookieManager.getCookieStore().add(URI.create(baseUrl), cookie);
+        assertEquals("4", client.get(url).setCookieManager(cookieManager).execute().getContentAsString());
+
+        //Nothing has been stored, the first request without credentials is sent to the server
+        assertEquals("5", client.get(url).execute().getContentAsString());
+        assertEquals("5", client.get(url).execute().getContentAsString());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void revalidation() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        assertEquals("1", get(client, "/cache/revalidation?control=no-cache&etag=v1"));
+        assertEquals("1", get(client, "/cache/revalidation?control=no-cache&etag=v1"));
+        assertEquals("1", get(client, "/cache/revalidation?control=no-cache&etag=v1"));
+        assertEquals(3, CacheHandler.getRequests("/cache/revalidation"));
+        assertEquals(2, cache.getRevalidationCount());
+        assertEquals(1, cache.getMissCount());
+
+        //A changed ETag returns the new response
+        assertEquals("4", get(client, "/cache/revalidation?control=no-cache&etag=v2"));
+    }
+
+    @Test
+    void staleWhileRevalidate() throws Exception {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        String path = "/cache/stale?control=max-age=0,stale-while-revalidate=60";
+        assertEquals("1", get(client, path));
+        assertEquals("1", get(client, path)); //The stale response is returned and revalidated in the background
+
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        String body;
+        while (!(body = get(client, path)).equals("2")) {
+            assertEquals("1", body);
+            assertTrue(System.currentTimeMillis() < end, "The response was not revalidated");
+            Thread.sleep(10);
+        }
+        assertTrue(cache.getHitCount() >= 2);
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void lruEviction() throws IOException {
+        HttpClient client = client(new HttpCache(1));
+        assertEquals("1", get(client, "/cache/lruA?control=max-age=60"));
+        assertEquals("1", get(client, "/cache/lruB?control=max-age=60"));
+        assertEquals("2", get(client, "/cache/lruA?control=max-age=60"));
+        assertEquals("2", get(client, "/cache/lruB?control=max-age=60"));
+    }
+
+    @Test
+    void unsafeInvalidation() throws IOException {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        assertEquals("1", get(client, "/cache/invalidate?control=max-age=60"));
+        assertEquals(StatusCodes.OK, client.post(baseUrl + "/cache/invalidate?control=max-age=60").execute().getStatusCode());
+        assertEquals("3", get(client, "/cache/invalidate?control=max-age=60"));
+    }
+
+    @Test
+    void asyncRequests() {
+        HttpCache cache = new HttpCache(16);
+        HttpClient client = client(cache);
+        assertDoesNotThrow(() -> {
+            assertEquals("1", client.get(baseUrl + "/cache/async?control=max-age=60").executeAsync().get(10, TimeUnit.SECONDS).getContentAsString());
+            assertEquals("1", client.get(baseUrl + "/cache/async?control=max-age=60").executeAsync().get(10, TimeUnit.SECONDS).getContentAsString());
+        });
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void diskCache() throws IOException {
+        Path directory = Files.createTempDirectory("http-cache");
+        try {
+            HttpClient client = client(new HttpCache(0, directory));
+            assertEquals("1", get(client, "/cache/disk?control=max-age=60"));
+            assertEquals("1", get(client, "/cache/disk?control=max-age=60"));
+
+            //A new cache loads the entries from the disk
+            HttpCache cache = new HttpCache(16, directory);
+            assertEquals("1", get(client(cache), "/cache/disk?control=max-age=60"));
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, CacheHandler.getRequests("/cache/disk"));
+
+            cache.clear();
+            assertEquals("2", get(client(cache), "/cache/disk?control=max-age=60"));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+package net.lenni0451.commons.httpclient.compression;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.ContentTypes;
+import net.lenni0451.commons.httpclient.constants.HttpHeaders;
+import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.server.CompressionHandler;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentCompressionTest {
+
+    private static final ExecutorType[] EXECUTOR_TYPES = {ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY};
+    private static final String[] ENCODINGS = {"gzip", "zlib", "deflate"};
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind() + "/compression";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void decompressResponse() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                for (String encoding : ENCODINGS) {
+                    String message = executorType.name() + " " + encoding;
+                    HttpResponse response = client.get(baseUrl + "?encoding=" + encoding).execute();
+                    assertEquals(ContentCompression.ACCEPT_ENCODING, response.getFirstHeader("X-Accept-Encoding").orElse(null), message);
+                    assertFalse(response.hasHeader(HttpHeaders.CONTENT_ENCODING), message);
+                    assertEquals(CompressionHandler.PAYLOAD, response.getContentAsString(), message);
+
+                    response = client.get(baseUrl + "?encoding=" + encoding).executeAsync().get(10, TimeUnit.SECONDS);
+                    assertEquals(CompressionHandler.PAYLOAD, response.getContentAsString(), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void decompressStreamedResponse() throws IOException {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                for (String encoding : ENCODINGS) {
+                    HttpResponse response = client.get(baseUrl + "?encoding=" + encoding).setStreamedResponse(true).execute();
+                    assertTrue(response.isStreamed());
+                    assertEquals(-1, response.getContentLength());
+                    try (InputStream is = response.getInputStream()) {
+                        assertEquals(CompressionHandler.PAYLOAD, new String(HttpRequestUtils.readFromStream(is), StandardCharsets.UTF_8), executorType.name() + " " + encoding);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void stats() throws IOException {
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            CompressionStats stats = client.getCompressionStats();
+            int payloadLength = CompressionHandler.PAYLOAD.getBytes(StandardCharsets.UTF_8).length;
+
+            client.get(baseUrl + "?encoding=gzip").execute();
+            assertEquals(payloadLength, stats.getDecompressedBytesReceived());
+            assertTrue(stats.getCompressedBytesReceived() > 0 && stats.getCompressedBytesReceived() < payloadLength);
+
+            //Streamed responses are counted while they are read
+            stats.reset();
+            HttpResponse response = client.get(baseUrl + "?encoding=gzip").setStreamedResponse(true).execute();
+            assertEquals(0, stats.getDecompressedBytesReceived());
+            response.getContent();
+            assertEquals(payloadLength, stats.getDecompressedBytesReceived());
+
+            //Uncompressed responses are not counted
+            stats.reset();
+            client.get(baseUrl).execute();
+            assertEquals(0, stats.getCompressedBytesReceived());
+            assertEquals(0, stats.getDecompressedBytesReceived());
+        }
+    }
+
+    @Test
+    void manualAcceptEncoding() throws IOException {
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION)) {
+            HttpResponse response = client.get(baseUrl + "?encoding=gzip").setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip").execute();
+            assertEquals("gzip", response.getFirstHeader("X-Accept-Encoding").orElse(null));
+            assertEquals("gzip", response.getFirstHeader(HttpHeaders.CONTENT_ENCODING).orElse(null));
+            assertNotEquals(CompressionHandler.PAYLOAD, response.getContentAsString());
+        }
+    }
+
+    @Test
+    void decompressionDisabled() throws IOException {
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION).setResponseDecompression(false)) {
+            HttpResponse response = client.get(baseUrl).execute();
+            assertFalse(response.hasHeader("X-Accept-Encoding"));
+            assertEquals(CompressionHandler.PAYLOAD, response.getContentAsString());
+        }
+    }
+
+    @Test
+    void compressRequest() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType).setRequestCompressionThreshold(1024)) {
+                String message = executorType.name();
+                HttpResponse response = client.post(baseUrl).setContent(HttpContent.string(CompressionHandler.PAYLOAD)).execute();
+                assertEquals("gzip", response.getFirstHeader("X-Content-Encoding").orElse(null), message);
+                assertEquals(CompressionHandler.PAYLOAD, response.getContentAsString(), message);
+                assertEquals(CompressionHandler.PAYLOAD.length(), client.getCompressionStats().getUncompressedBytesSent(), message);
+                assertTrue(client.getCompressionStats().getCompressedBytesSent() < CompressionHandler.PAYLOAD.length(), message);
+
+                response = client.post(baseUrl).setContent(HttpContent.string(CompressionHandler.PAYLOAD)).executeAsync().get(10, TimeUnit.SECONDS);
+                assertEquals("gzip", response.getFirstHeader("X-Content-Encoding").orElse(null), message);
+                assertEquals(CompressionHandler.PAYLOAD, response.getContentAsString(), message);
+
+                //Contents below the threshold and streamed contents are sent as they are
+                response = client.post(baseUrl).setContent(HttpContent.string("small")).execute();
+                assertFalse(response.hasHeader("X-Content-Encoding"), message);
+                assertEquals("small", response.getContentAsString(), message);
+                byte[] payload = CompressionHandler.PAYLOAD.getBytes(StandardCharsets.UTF_8);
+                response = client.post(baseUrl).setContent(HttpContent.streamed(ContentTypes.TEXT_PLAIN, new ByteArrayInputStream(payload), payload.length)).execute();
+                assertFalse(response.hasHeader("X-Content-Encoding"), message);
+            }
+        }
+    }
+
+    @Test
+    void emptyCompressedBody() throws IOException {
+        CompressionStats stats = new CompressionStats();
+        HttpResponse response = new HttpResponse(null, 204, new byte[0], Collections.singletonMap(HttpHeaders.CONTENT_ENCODING, Collections.singletonList("gzip")));
+        assertEquals(0, ContentCompression.decompressResponse(response, stats).getContent().length);
+        response = new HttpResponse(null, 204, new ByteArrayInputStream(new byte[0]), Collections.singletonMap(HttpHeaders.CONTENT_ENCODING, Collections.singletonList("deflate")));
+        assertEquals(0, ContentCompression.decompressResponse(response, stats).getContent().length);
+    }
+
+}
@@ -0,0 +1,191 @@
+package net.lenni0451.commons.httpclient.content;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.ContentTypes;
+import net.lenni0451.commons.httpclient.content.impl.FileContent;
+import net.lenni0451.commons.httpclient.content.impl.MultiPartFormContent;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiPartFormContentTest {
+
+    private static final ExecutorType[] EXECUTOR_TYPES = {ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY};
+    private static final String BOUNDARY = "boundary";
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind() + "/echo";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void format() throws IOException {
+        File file = this.createFile(16);
+        MultiPartFormContent content = new MultiPartFormContent(BOUNDARY)
+                .addPart("text", HttpContent.string("Hello"))
+                .addPart("file", new FileContent(file), "test.bin");
+
+        byte[] expected = concat(
+                ("--boundary\r\n"
+                        + "content-disposition: form-data; name=\"text\"\r\n"
+                        + "content-type: application/octet-stream\r\n"
+                        + "\r\n"
+                        + "Hello\r\n"
+                        + "--boundary\r\n"
+                        + "content-disposition: form-data; name=\"file\"; filename=\"test.bin\"\r\n"
+                        + "content-type: application/octet-stream\r\n"
+                        + "\r\n").getBytes(StandardCharsets.UTF_8),
+                Files.readAllBytes(file.toPath()),
+                "\r\n--boundary--".getBytes(StandardCharsets.UTF_8)
+        );
+        assertArrayEquals(expected, content.getAsBytes());
+        assertEquals(expected.length, content.getContentLength());
+        assertArrayEquals("--boundary--".getBytes(StandardCharsets.UTF_8), new MultiPartFormContent(BOUNDARY).getAsBytes());
+    }
+
+    @Test
+    void segments() throws IOException {
+        File file = this.createFile(16);
+        MultiPartFormContent content = new MultiPartFormContent(BOUNDARY)
+                .addPart("a", HttpContent.string("a"))
+                .addPart("b", HttpContent.string("b"))
+                .addPart("file", new FileContent(file));
+
+        //In-memory parts are merged, the file is passed through
+        List<HttpContent> segments = content.getSegments();
+        assertEquals(3, segments.size());
+        assertInstanceOf(FileContent.class, segments.get(1));
+        assertEquals(content.getContentLength(), segments.stream().mapToInt(HttpContent::getContentLength).sum());
+    }
+
+    @Test
+    void cachedSegments() throws IOException {
+        MultiPartFormContent content = new MultiPartFormContent(BOUNDARY).addPart("a", HttpContent.string("a"));
+        List<HttpContent> segments = content.getSegments();
+        assertSame(segments, content.getSegments());
+        assertThrows(UnsupportedOperationException.class, () -> segments.add(HttpContent.string("b")));
+
+        //Adding a part rebuilds the segments
+        content.addPart("b", HttpContent.string("b"));
+        assertNotSame(segments, content.getSegments());
+        assertEquals(content.getAsBytes().length, content.getContentLength());
+    }
+
+    @Test
+    void largeFile() throws IOException {
+        File file = new File(this.tempDir, "large.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(Integer.MAX_VALUE + 1L);
+        }
+        MultiPartFormContent content = new MultiPartFormContent(BOUNDARY).addPart("file", new FileContent(file));
+        //The body is too large for a fixed length and has to be sent in chunks
+        assertEquals(-1, content.getContentLength());
+    }
+
+    @Test
+    void repeatable() throws IOException {
+        MultiPartFormContent content = new MultiPartFormContent(BOUNDARY).addPart("file", new FileContent(this.createFile(1024)));
+        assertTrue(content.isRepeatable());
+        byte[] first = readFully(content.getInputStream());
+        assertArrayEquals(first, readFully(content.getInputStream()));
+
+        content.addPart("stream", HttpContent.streamed(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(new byte[1]), 1));
+        assertFalse(content.isRepeatable());
+    }
+
+    @Test
+    void transferToChannel() throws IOException {
+        File file = this.createFile(256 * 1024);
+        byte[] expected = readFully(createStreamedContent(file).getInputStream());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = createStreamedContent(file).getInputStream()) {
+            assertEquals(expected.length, HttpRequestUtils.transfer(is, Channels.newChannel(baos)));
+        }
+        assertArrayEquals(expected, baos.toByteArray());
+        assertEquals(expected.length, createStreamedContent(file).getContentLength());
+    }
+
+    @Test
+    void upload() throws Exception {
+        File file = this.createFile(1024 * 1024);
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                MultiPartFormContent content = new MultiPartFormContent(BOUNDARY)
+                        .addPart("text", HttpContent.string("Hello"))
+                        .addPart("file", new FileContent(file), "test.bin");
+                byte[] expected = content.getAsBytes();
+
+                HttpResponse response = client.post(baseUrl).setContent(content).execute();
+                assertEquals(200, response.getStatusCode(), executorType.name());
+                assertEquals(String.valueOf(expected.length), response.getFirstHeader("X-Content-Length").orElse(null), executorType.name());
+                assertArrayEquals(expected, response.getContent(), executorType.name());
+
+                response = client.post(baseUrl).setContent(content).executeAsync().get(10, TimeUnit.SECONDS);
+                assertArrayEquals(expected, response.getContent(), executorType.name());
+            }
+        }
+    }
+
+    private File createFile(final int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        File file = new File(this.tempDir, "part-" + size + ".bin");
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private static MultiPartFormContent createStreamedContent(final File file) {
+        byte[] stream = "World".getBytes(StandardCharsets.UTF_8);
+        return new MultiPartFormContent(BOUNDARY)
+                .addPart("text", HttpContent.string("Hello"))
+                .addPart("file", new FileContent(file), "test.bin")
+                .addPart("stream", HttpContent.streamed(ContentTypes.TEXT_PLAIN, new ByteArrayInputStream(stream), stream.length));
+    }
+
+    private static byte[] readFully(final InputStream is) throws IOException {
+        try (InputStream stream = is) {
+            return HttpRequestUtils.readFromStream(stream);
+        }
+    }
+
+    private static byte[] concat(final byte[]... arrays) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (byte[] array : arrays) baos.write(array, 0, array.length);
+        return baos.toByteArray();
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.lenni0451.commons.httpclient.content;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.ContentTypes;
+import net.lenni0451.commons.httpclient.content.impl.MultiPartFormContent;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamedHttpContentTest {
+
+    private static final ExecutorType[] EXECUTOR_TYPES = {ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY};
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind() + "/echo";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void invalidChunkSize() {
+        StreamedHttpContent content = HttpContent.streamed(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> content.setChunkSize(0));
+        assertEquals(-1, content.getContentLength());
+    }
+
+    @Test
+    void unknownLength() throws Exception {
+        byte[] payload = new byte[100_000];
+        new Random(0).nextBytes(payload);
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                StreamedHttpContent content = HttpContent.streamed(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(payload)).setChunkSize(4096);
+                HttpResponse response = client.post(baseUrl).setContent(content).execute();
+                assertEquals("chunked", response.getFirstHeader("X-Transfer-Encoding").orElse(null), executorType.name());
+                assertFalse(response.hasHeader("X-Content-Length"), executorType.name());
+                assertArrayEquals(payload, response.getContent(), executorType.name());
+
+                content = HttpContent.streamed(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(payload));
+                response = client.post(baseUrl).setContent(content).executeAsync().get(10, TimeUnit.SECONDS);
+                assertArrayEquals(payload, response.getContent(), executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void liveSource() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                PipedInputStream source = new PipedInputStream();
+                PipedOutputStream sink = new PipedOutputStream(source);
+                Thread producer = new Thread(() -> {
+                    try (PipedOutputStream os = sink) {
+                        for (int i = 0; i < 10; i++) {
+                            os.write(("line " + i + "\n").getBytes());
+                            os.flush();
+                            Thread.sleep(20);
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                producer.start();
+
+                HttpResponse response = client.post(baseUrl).setContent(HttpContent.streamed(ContentTypes.TEXT_PLAIN, source)).execute();
+                producer.join();
+                StringBuilder expected = new StringBuilder();
+                for (int i = 0; i < 10; i++) expected.append("line ").append(i).append("\n");
+                assertEquals(expected.toString(), response.getContentAsString(), executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void multiPartUnknownLength() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                MultiPartFormContent content = new MultiPartFormContent("boundary")
+                        .addPart("text", HttpContent.string("Hello"))
+                        .addPart("stream", HttpContent.streamed(ContentTypes.TEXT_PLAIN, new ByteArrayInputStream("World".getBytes())));
+                assertEquals(-1, content.getContentLength());
+
+                HttpResponse response = client.post(baseUrl).setContent(content).execute();
+                assertEquals("chunked", response.getFirstHeader("X-Transfer-Encoding").orElse(null), executorType.name());
+                String body = response.getContentAsString();
+                assertTrue(body.startsWith("--boundary\r\n"), executorType.name());
+                assertTrue(body.endsWith("World\r\n--boundary--"), executorType.name());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package net.lenni0451.commons.httpclient.events;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.RetryHandler;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyMetricsTest {
+
+    private static final ExecutorType[] EXECUTOR_TYPES = {ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY};
+
+    private static TestWebServer server;
+    private static String host;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        int port = server.bind();
+        host = "127.0.0.1:" + port;
+        baseUrl = "http://" + host;
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 1; i <= 1000; i++) histogram.record(i * 1000L);
+        histogram.record(-1);
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean());
+        assertEquals(500_000, histogram.getPercentile(50), 500_000 * 0.125);
+        assertEquals(990_000, histogram.getPercentile(99), 990_000 * 0.125);
+        assertEquals(1_000_000, histogram.getPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void eventOrder() throws IOException {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            try (HttpClient client = new HttpClient(executorType).setEventListener(new RecordingListener(events))) {
+                HttpResponse response = client.get(baseUrl + "/response").execute();
+                assertEquals(200, response.getStatusCode(), executorType.name());
+            }
+
+            assertEquals("start", events.get(0), executorType.name());
+            assertEquals("completed 200", events.get(events.size() - 1), executorType.name());
+            assertTrue(events.indexOf("headers") < events.indexOf("completed 200"), executorType.name());
+            if (!ExecutorType.HTTP_CLIENT.equals(executorType)) {
+                assertTrue(events.indexOf("acquired") < events.indexOf("sent"), executorType.name());
+                assertTrue(events.indexOf("sent") < events.indexOf("headers"), executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void streamedBody() throws IOException {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            try (HttpClient client = new HttpClient(executorType).setEventListener(new RecordingListener(events))) {
+                HttpResponse response = client.get(baseUrl + "/response").setStreamedResponse(true).execute();
+                try (InputStream body = response.getInputStream()) {
+                    assertFalse(events.contains("completed 200"), executorType.name());
+                    byte[] buffer = new byte[1024];
+                    while (body.read(buffer) != -1) {
+                        assertFalse(events.contains("completed 200"), executorType.name());
+                    }
+                }
+                assertEquals(1, Collections.frequency(events, "completed 200"), executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void metrics() throws Exception {
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            LatencyMetrics metrics = new LatencyMetrics();
+            try (HttpClient client = new HttpClient(executorType).setEventListener(metrics)) {
+                for (int i = 0; i < 3; i++) client.get(baseUrl + "/response").execute();
+                client.get(baseUrl + "/response").executeAsync().get(10, TimeUnit.SECONDS);
+                client.get(baseUrl + "/missing").execute();
+            }
+
+            assertEquals(Collections.singleton(host), metrics.getHosts(), executorType.name());
+            LatencyHistogram total = metrics.getHistogram(host, LatencyMetrics.StatusClass.SUCCESS, LatencyMetrics.Phase.TOTAL);
+            assertNotNull(total, executorType.name());
+            assertEquals(4, total.getCount(), executorType.name());
+            assertTrue(total.getMax() > 0, executorType.name());
+            assertEquals(1, metrics.getHistogram(host, LatencyMetrics.StatusClass.CLIENT_ERROR, LatencyMetrics.Phase.TOTAL).getCount(), executorType.name());
+            assertNull(metrics.getHistogram(host, LatencyMetrics.StatusClass.SERVER_ERROR, LatencyMetrics.Phase.TOTAL), executorType.name());
+            if (ExecutorType.NETTY.equals(executorType)) {
+                //Only the first request opens a new connection, all others reuse it
+                assertEquals(1, metrics.getHistogram(host, LatencyMetrics.StatusClass.SUCCESS, LatencyMetrics.Phase.CONNECT).getCount());
+                assertEquals(4, metrics.getHistogram(host, LatencyMetrics.StatusClass.SUCCESS, LatencyMetrics.Phase.TIME_TO_FIRST_BYTE).getCount());
+            }
+        }
+    }
+
+    @Test
+    void failedRequest() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        for (ExecutorType executorType : EXECUTOR_TYPES) {
+            if (!executorType.isAvailable()) continue;
+            LatencyMetrics metrics = new LatencyMetrics();
+            try (HttpClient client = new HttpClient(executorType).setEventListener(metrics).setRetryHandler(new RetryHandler(0, 0))) {
+                assertThrows(IOException.class, () -> client.get("http://127.0.0.1:" + port).execute(), executorType.name());
+            }
+            assertEquals(Collections.singleton(LatencyMetrics.StatusClass.FAILED), metrics.getStatusClasses("127.0.0.1:" + port), executorType.name());
+        }
+    }
+
+
+    private static class RecordingListener implements HttpEventListener {
+        private final List<String> events;
+
+        private RecordingListener(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void requestStarted(RequestTimeline timeline) {
+            this.events.add("start");
+        }
+
+        @Override
+        public void connectionAcquired(RequestTimeline timeline) {
+            this.events.add("acquired");
+        }
+
+        @Override
+        public void requestSent(RequestTimeline timeline) {
+            this.events.add("sent");
+        }
+
+        @Override
+        public void headersReceived(RequestTimeline timeline) {
+            this.events.add("headers");
+        }
+
+        @Override
+        public void bodyCompleted(RequestTimeline timeline) {
+            this.events.add("completed " + timeline.getStatusCode());
+        }
+
+        @Override
+        public void requestFailed(RequestTimeline timeline, Throwable cause) {
+            this.events.add("failed");
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+package net.lenni0451.commons.httpclient.executor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.RetryHandler;
+import net.lenni0451.commons.httpclient.constants.ContentTypes;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
+import net.lenni0451.commons.httpclient.content.impl.StringContent;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class NettyExecutorTest {
+
+    private static TestWebServer server;
+    private static String baseUrl;
+    private HttpClient client;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(ExecutorType.NETTY.isAvailable());
+        this.client = new HttpClient(ExecutorType.NETTY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (this.client != null) this.client.close();
+    }
+
+    @Test
+    void postString() throws IOException {
+        HttpResponse response = this.client.post(baseUrl + "/echo").setContent(new StringContent("Hello World")).execute();
+        assertEquals(StatusCodes.OK, response.getStatusCode());
+        assertEquals("Hello World", response.getContentAsString());
+    }
+
+    @Test
+    void emptyResponse() throws IOException {
+        HttpResponse response = this.client.get(baseUrl + "/empty").execute();
+        assertEquals(0, response.getContent().length);
+    }
+
+    @Test
+    void redirects() throws IOException {
+        HttpResponse response = this.client.get(baseUrl + "/redirect").execute();
+        assertEquals(StatusCodes.OK, response.getStatusCode());
+        assertEquals("test", response.getContentAsString());
+        assertTrue(response.getURL().getPath().endsWith("/constant"));
+
+        response = this.client.get(baseUrl + "/redirect").setFollowRedirects(false).execute();
+        assertEquals(StatusCodes.MOVED_PERMANENTLY, response.getStatusCode());
+        assertEquals("redirect", response.getContentAsString());
+    }
+
+    @Test
+    void cookieRetry() throws IOException {
+        this.client.setRetryHandler(new RetryHandler(0, 4));
+        HttpResponse response = this.client.get(baseUrl + "/retryCookie").execute();
+        assertEquals("OK", response.getContentAsString());
+    }
+
+    @Test
+    void connectionReuse() throws IOException {
+        String first = this.client.get(baseUrl + "/remoteAddress").execute().getContentAsString();
+        String second = this.client.get(baseUrl + "/remoteAddress").execute().getContentAsString();
+        assertEquals(first, second);
+    }
+
+    @Test
+    void streamedBody() throws IOException {
+        byte[] payload = new byte[4 * 1024 * 1024];
+        new Random(0).nextBytes(payload);
+        HttpResponse response = this.client.post(baseUrl + "/echo")
+                .setContent(new StreamedHttpContent(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(payload), payload.length))
+                .setStreamedResponse(true)
+                .execute();
+        try (InputStream is = response.getInputStream()) {
+            Thread.sleep(500); //Give the body time to fill the stream and pause reading
+            byte[] received = new byte[payload.length];
+            int offset = 0;
+            int read;
+            while ((read = is.read(received, offset, received.length - offset)) > 0) offset += read;
+            assertEquals(payload.length, offset);
+            assertArrayEquals(payload, received);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        //The connection is released after the body has been read
+        assertEquals(StatusCodes.OK, this.client.get(baseUrl + "/constant").execute().getStatusCode());
+    }
+
+    @Test
+    void streamedBodyLength() throws IOException {
+        //A stream which ends early fails the request instead of leaving the server waiting
+        StreamedHttpContent shortContent = new StreamedHttpContent(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(new byte[500]), 1000);
+        assertThrows(IOException.class, () -> assertTimeoutPreemptively(Duration.ofSeconds(10), () -> this.client.post(baseUrl + "/echo").setContent(shortContent).execute()));
+
+        //Additional bytes are not sent
+        StreamedHttpContent longContent = new StreamedHttpContent(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(new byte[2000]), 1000);
+        assertEquals(1000, this.client.post(baseUrl + "/echo").setContent(longContent).execute().getContent().length);
+    }
+
+    @Test
+    void streamedUploadReleasesThread() throws Exception {
+        byte[] payload = new byte[64 * 1024];
+        new Random(0).nextBytes(payload);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        EmbeddedChannel channel = new EmbeddedChannel();
+        try {
+            NettyStreamChunkedInput input = new NettyStreamChunkedInput(channel, new ByteArrayInputStream(payload), payload.length, 1024);
+            input.start(executor);
+            //The read-ahead is full and nothing is sent, the reader must not keep the only thread
+            assertTrue(executor.submit(() -> true).get(5, TimeUnit.SECONDS));
+
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!input.isEndOfInput()) {
+                ByteBuf chunk = input.readChunk(channel.alloc());
+                if (chunk == null) {
+                    assertTrue(System.currentTimeMillis() < deadline);
+                    Thread.sleep(1);
+                    continue;
+                }
+                chunk.readBytes(received, chunk.readableBytes());
+                chunk.release();
+            }
+            input.close();
+            assertArrayEquals(payload, received.toByteArray());
+        } finally {
+            executor.shutdownNow();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    void staleConnectionRetry() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Thread serverThread = new Thread(() -> closeAfterFirstResponse(serverSocket, requests));
+            serverThread.setDaemon(true);
+            serverThread.start();
+            String url = "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+            this.client.setRetryHandler(new RetryHandler(0, 0));
+
+            assertEquals("1", this.client.get(url).execute().getContentAsString());
+            //The pooled connection is closed by the server, idempotent requests are sent again on a new connection
+            assertEquals("1", this.client.get(url).execute().getContentAsString());
+            assertEquals(3, requests.get());
+
+            //The server might have processed the request before closing the connection, so it must not be sent again
+            assertThrows(IOException.class, () -> this.client.post(url).setContent(new StringContent("test")).execute());
+            assertEquals(4, requests.get());
+        }
+    }
+
+    private static void closeAfterFirstResponse(final ServerSocket serverSocket, final AtomicInteger requests) {
+        //Every connection gets one response, the next request on the same connection closes it
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                for (int i = 0; i < 2; i++) {
+                    int contentLength = 0;
+                    String line = reader.readLine();
+                    if (line == null) break;
+                    while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                        if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) contentLength = Integer.parseInt(line.substring(15).trim());
+                    }
+                    for (int j = 0; j < contentLength; j++) reader.read();
+                    requests.incrementAndGet();
+                    if (i == 0) {
+                        socket.getOutputStream().write("HTTP/1.1 200 OK\r\nContent-Length: 1\r\n\r\n1".getBytes(StandardCharsets.ISO_8859_1));
+                        socket.getOutputStream().flush();
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Test
+    void unknownHost() {
+        assertThrows(UnknownHostException.class, () -> this.client.get("http://unknown.invalid/").execute());
+    }
+
+    @Test
+    void closedClient() {
+        this.client.close();
+        assertThrows(IllegalStateException.class, () -> this.client.get(baseUrl + "/echo").execute());
+    }
+
+}
@@ -0,0 +1,79 @@
+package net.lenni0451.commons.httpclient.executor;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.compression.ContentCompression;
+import net.lenni0451.commons.httpclient.content.HttpContent;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestExecutorTest {
+
+    private static Map<String, List<String>> headersOf(final HttpClient client, final HttpRequest request) throws IOException {
+        return client.execute(request).getHeaders();
+    }
+
+    private static HttpClient client() {
+        //Returns the assembled request headers as response headers
+        return new HttpClient(client -> new RequestExecutor(client) {
+            @Nonnull
+            @Override
+            public HttpResponse execute(@Nonnull HttpRequest request) throws IOException {
+                return new HttpResponse(request.getURL(), 200, new byte[0], this.getHeaders(request, this.getCookieManager(request)));
+            }
+        });
+    }
+
+    @Test
+    void precedence() throws IOException {
+        HttpClient client = client();
+        HttpCookie cookie = new HttpCookie("name", "value");
+        cookie.setPath("/");
+        cookie.setVersion(0);
+        client.getCookieManager().getCookieStore().add(URI.create("http://localhost/"), cookie);
+        client.setHeader("X-Client", "client").setHeader("Content-Type", "client/type").setHeader("X-Both", "client");
+
+        HttpRequest request = client.post("http://localhost/").setContent(HttpContent.string("test")).setHeader("X-Both", "request");
+        Map<String, List<String>> headers = headersOf(client, request);
+        assertEquals(Collections.singletonList(ContentCompression.ACCEPT_ENCODING), headers.get("accept-encoding"));
+        assertEquals(Collections.singletonList("client"), headers.get("x-client"));
+        assertEquals(Collections.singletonList("client/type"), headers.get("content-type"));
+        assertEquals(Collections.singletonList("4"), headers.get("content-length"));
+        assertEquals(Collections.singletonList("request"), headers.get("x-both"));
+        assertEquals(Collections.singletonList("name=value"), headers.get("cookie"));
+
+        client.setHeader("Accept-Encoding", "identity");
+        assertEquals(Collections.singletonList("identity"), headersOf(client, client.get("http://localhost/")).get("accept-encoding"));
+    }
+
+    @Test
+    void defaultHeadersCache() {
+        HttpClient client = client();
+        Map<String, List<String>> defaults = client.getDefaultHeaders();
+        assertSame(defaults, client.getDefaultHeaders());
+        assertThrows(UnsupportedOperationException.class, () -> defaults.put("x", Collections.emptyList()));
+
+        client.setHeader("X-Test", "1");
+        Map<String, List<String>> changed = client.getDefaultHeaders();
+        assertNotSame(defaults, changed);
+        assertEquals(Collections.singletonList("1"), changed.get("x-test"));
+
+        client.setResponseDecompression(false);
+        assertFalse(client.getDefaultHeaders().containsKey("accept-encoding"));
+        client.appendHeader("X-Test", "2");
+        assertEquals(2, client.getDefaultHeaders().get("x-test").size());
+        //Snapshots are not changed by later modifications
+        assertEquals(1, changed.get("x-test").size());
+    }
+
+}
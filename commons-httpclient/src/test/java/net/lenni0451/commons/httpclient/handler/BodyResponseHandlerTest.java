@@ -0,0 +1,127 @@
+package net.lenni0451.commons.httpclient.handler;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.ContentTypes;
+import net.lenni0451.commons.httpclient.content.StreamedHttpContent;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyResponseHandlerTest {
+
+    private static final byte[] PAYLOAD = new byte[3 * 1024 * 1024 + 17];
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        new Random(0).nextBytes(PAYLOAD);
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    private static HttpRequest echo(final HttpClient client, final boolean streamed) throws MalformedURLException {
+        return client.post(baseUrl + "/echo")
+                .setContent(new StreamedHttpContent(ContentTypes.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(PAYLOAD), PAYLOAD.length))
+                .setStreamedResponse(streamed);
+    }
+
+    private static byte[] toArray(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void toFile() throws IOException {
+        Path file = Files.createTempFile("response", ".bin");
+        try {
+            for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+                if (!executorType.isAvailable()) continue;
+                try (HttpClient client = new HttpClient(executorType)) {
+                    for (boolean streamed : new boolean[]{true, false}) {
+                        Files.write(file, new byte[]{1, 2, 3}); //Existing content has to be overwritten
+                        assertEquals(file, client.execute(echo(client, streamed), new FileResponseHandler(file)));
+                        assertArrayEquals(PAYLOAD, Files.readAllBytes(file), executorType.name() + " streamed=" + streamed);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void toChannel() throws IOException {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                for (boolean streamed : new boolean[]{true, false}) {
+                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                    long written = client.execute(echo(client, streamed), new ChannelResponseHandler(Channels.newChannel(baos)));
+                    assertEquals(PAYLOAD.length, written);
+                    assertArrayEquals(PAYLOAD, baos.toByteArray(), executorType.name() + " streamed=" + streamed);
+                }
+            }
+        }
+    }
+
+    @Test
+    void toByteBuffer() throws IOException {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                for (boolean streamed : new boolean[]{true, false}) {
+                    for (boolean direct : new boolean[]{true, false}) {
+                        ByteBuffer buffer = client.execute(echo(client, streamed), new ByteBufferResponseHandler(direct));
+                        assertEquals(direct, buffer.isDirect());
+                        assertEquals(0, buffer.position());
+                        assertArrayEquals(PAYLOAD, toArray(buffer), executorType.name() + " streamed=" + streamed + " direct=" + direct);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void contentLength() throws IOException {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.HTTP_CLIENT, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType)) {
+                HttpResponse response = client.get(baseUrl + "/constant").setStreamedResponse(true).execute();
+                assertTrue(response.isStreamed());
+                assertEquals(4, response.getContentLength(), executorType.name());
+                ByteBuffer buffer = new ByteBufferResponseHandler().handle(response);
+                assertEquals(4, buffer.capacity(), executorType.name());
+                assertEquals("test", new String(toArray(buffer), StandardCharsets.UTF_8));
+
+                response = client.get(baseUrl + "/constant").execute();
+                assertFalse(response.isStreamed());
+                assertEquals(4, response.getContentLength());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+package net.lenni0451.commons.httpclient.limiter;
+
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+import net.lenni0451.commons.httpclient.executor.ExecutorType;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.requests.impl.GetRequest;
+import net.lenni0451.commons.httpclient.server.TestWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLimiterTest {
+
+    private static TestWebServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new TestWebServer();
+        baseUrl = "http://127.0.0.1:" + server.bind();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    private static HttpResponse response(final int statusCode) {
+        return new HttpResponse(null, statusCode, new byte[0], Collections.emptyMap());
+    }
+
+    @Test
+    void tokenBucket() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(20, 2);
+        HttpRequest request = new GetRequest(baseUrl);
+        //The burst is available immediately
+        assertTrue(limiter.acquire(request).isDone());
+        assertTrue(limiter.acquire(request).isDone());
+
+        long start = System.nanoTime();
+        List<CompletableFuture<RequestLimiter.Permit>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) futures.add(limiter.acquire(request));
+        assertFalse(futures.get(0).isDone());
+        for (CompletableFuture<RequestLimiter.Permit> future : futures) future.get(5, TimeUnit.SECONDS);
+        //4 tokens at 20 per second take 200ms to be refilled
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 180);
+    }
+
+    @Test
+    void tokenBucketCancel() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1);
+        HttpRequest request = new GetRequest(baseUrl);
+        limiter.acquire(request).get().cancel();
+        assertEquals(1, limiter.getAvailableTokens(), 0.1);
+
+        limiter.acquire(request).get();
+        CompletableFuture<RequestLimiter.Permit> delayed = limiter.acquire(request);
+        assertFalse(delayed.isDone());
+        delayed.cancel(false);
+        //The reserved token is put back, the bucket is not in debt anymore
+        assertEquals(0, limiter.getAvailableTokens(), 0.1);
+        assertTrue(limiter.acquire(request).get(1500, TimeUnit.MILLISECONDS) != null);
+    }
+
+    @Test
+    void tokenBucketClient() throws Exception {
+        for (ExecutorType executorType : new ExecutorType[]{ExecutorType.URL_CONNECTION, ExecutorType.NETTY}) {
+            if (!executorType.isAvailable()) continue;
+            try (HttpClient client = new HttpClient(executorType).setLimiter(new TokenBucketLimiter(50))) {
+                long start = System.nanoTime();
+                List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+                for (int i = 0; i < 5; i++) futures.add(client.get(baseUrl + "/constant").executeAsync());
+                for (int i = 0; i < 5; i++) assertEquals("test", client.get(baseUrl + "/constant").execute().getContentAsString());
+                for (CompletableFuture<HttpResponse> future : futures) assertEquals("test", future.get(5, TimeUnit.SECONDS).getContentAsString());
+                //10 requests at 50 per second with a burst of 1 take at least 180ms
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 170, executorType.name());
+            }
+        }
+    }
+
+    @Test
+    void adaptiveConcurrency() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8);
+        HttpRequest request = new GetRequest(baseUrl);
+        List<RequestLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) permits.add(limiter.acquire(request).get());
+        CompletableFuture<RequestLimiter.Permit> waiting = limiter.acquire(request);
+        assertFalse(waiting.isDone());
+        assertEquals(1, limiter.getWaiting());
+
+        //Fast responses increase the limit and start the waiting request
+        permits.remove(0).release(response(StatusCodes.OK));
+        assertEquals(5, limiter.getLimit());
+        permits.add(waiting.get(1, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getWaiting());
+        assertEquals(4, limiter.getInFlight());
+
+        //Overload responses halve the limit
+        permits.remove(0).release(response(StatusCodes.TOO_MANY_REQUESTS));
+        assertEquals(2, limiter.getLimit());
+        permits.remove(0).release(response(StatusCodes.SERVICE_UNAVAILABLE));
+        assertEquals(1, limiter.getLimit());
+        permits.remove(0).release(null);
+        assertEquals(1, limiter.getLimit());
+
+        //Permits can only be released once
+        RequestLimiter.Permit permit = permits.remove(0);
+        permit.release(response(StatusCodes.OK));
+        permit.release(response(StatusCodes.OK));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void adaptiveConcurrencyCancel() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        HttpRequest request = new GetRequest(baseUrl);
+        RequestLimiter.Permit permit = limiter.acquire(request).get();
+        CompletableFuture<RequestLimiter.Permit> cancelled = limiter.acquire(request);
+        CompletableFuture<RequestLimiter.Permit> waiting = limiter.acquire(request);
+        cancelled.cancel(false);
+        assertEquals(1, limiter.getWaiting());
+
+        //Cancelled waiters are skipped and cancelled permits don't change the limit
+        permit.cancel();
+        assertEquals(1, limiter.getLimit());
+        waiting.get(1, TimeUnit.SECONDS).release(response(StatusCodes.OK));
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    void interruptedExecute() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        RequestLimiter.Permit permit = limiter.acquire(new GetRequest(baseUrl)).get();
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION).setLimiter(limiter)) {
+            Thread thread = new Thread(() -> {
+                try {
+                    client.get(baseUrl + "/constant").execute();
+                } catch (IOException ignored) {
+                }
+            });
+            thread.start();
+            while (limiter.getWaiting() == 0) Thread.sleep(10);
+            thread.interrupt();
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+            assertEquals(0, limiter.getWaiting());
+
+            //The interrupted request must not get the released permit
+            permit.release(response(StatusCodes.OK));
+            assertEquals(0, limiter.getInFlight());
+            assertEquals(0, limiter.getWaiting());
+        }
+    }
+
+    @Test
+    void adaptiveConcurrencyClient() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4);
+        try (HttpClient client = new HttpClient(ExecutorType.URL_CONNECTION).setLimiter(limiter)) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) futures.add(client.get(baseUrl + "/constant").executeAsync());
+            for (CompletableFuture<HttpResponse> future : futures) assertEquals(StatusCodes.OK, future.get(5, TimeUnit.SECONDS).getStatusCode());
+            assertEquals(0, limiter.getInFlight());
+            assertEquals(0, limiter.getWaiting());
+            assertTrue(limiter.getLimit() > 2);
+        }
+    }
+
+    @Test
+    void perHost() throws MalformedURLException {
+        PerHostLimiter limiter = new PerHostLimiter(() -> new TokenBucketLimiter(1));
+        RequestLimiter first = limiter.getLimiter(new URL("http://example.com/a"));
+        assertSame(first, limiter.getLimiter(new URL("http://EXAMPLE.com:80/b")));
+        assertNotSame(first, limiter.getLimiter(new URL("https://example.com/a")));
+        assertNotSame(first, limiter.getLimiter(new URL("http://example.org/a")));
+
+        //Each host has its own bucket
+        assertTrue(limiter.acquire(new GetRequest(new URL("http://example.com"))).isDone());
+        assertTrue(limiter.acquire(new GetRequest(new URL("http://example.org"))).isDone());
+        assertFalse(limiter.acquire(new GetRequest(new URL("http://example.com"))).isDone());
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(0, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter().setBackoffRatio(1));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter().setThresholds(5, 2));
+    }
+
+}
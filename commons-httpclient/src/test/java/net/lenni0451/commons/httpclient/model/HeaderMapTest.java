@@ -0,0 +1,83 @@
+package net.lenni0451.commons.httpclient.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeaderMapTest {
+
+    @Test
+    void caseInsensitive() {
+        HeaderMap headers = new HeaderMap();
+        headers.add("Content-Type", "text/plain");
+        headers.add("CONTENT-TYPE", "text/html");
+        assertTrue(headers.contains("content-type"));
+        assertEquals(Arrays.asList("text/plain", "text/html"), headers.get("Content-type"));
+        assertEquals("text/plain", headers.getFirst("content-TYPE"));
+        assertEquals("text/html", headers.getLast("content-type"));
+        assertEquals(Collections.singleton("content-type"), headers.asMap().keySet());
+
+        headers.set("Content-Type", "application/json");
+        assertEquals(Collections.singletonList("application/json"), headers.get("content-type"));
+        headers.remove("CONTENT-TYPE");
+        assertNull(headers.get("content-type"));
+        assertNull(headers.getFirst("content-type"));
+        assertTrue(headers.isEmpty());
+    }
+
+    @Test
+    void insertionOrder() {
+        HeaderMap headers = new HeaderMap();
+        headers.set("B", "1");
+        headers.set("A", "2");
+        headers.set("C", "3");
+        headers.set("b", "4");
+        assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(headers.asMap().keySet()));
+    }
+
+    @Test
+    void readOnlyViews() {
+        HeaderMap headers = new HeaderMap();
+        headers.add("Accept", "text/plain");
+        Map<String, List<String>> view = headers.asMap();
+        List<String> values = headers.get("accept");
+        assertThrows(UnsupportedOperationException.class, () -> view.put("x", Collections.emptyList()));
+        assertThrows(UnsupportedOperationException.class, () -> values.add("text/html"));
+
+        //The views reflect later changes
+        headers.add("Accept", "text/html");
+        headers.add("Host", "localhost");
+        assertEquals(2, values.size());
+        assertEquals(2, view.size());
+        assertSame(view, headers.asMap());
+    }
+
+    @Test
+    void copyConstructor() {
+        Map<String, List<String>> source = new LinkedHashMap<>();
+        source.put("X-Test", new ArrayList<>(Arrays.asList("a", "b")));
+        source.put("X-Empty", new ArrayList<>());
+        HeaderMap headers = new HeaderMap(source);
+        source.get("X-Test").add("c");
+        assertEquals(Arrays.asList("a", "b"), headers.get("x-test"));
+        assertFalse(headers.contains("x-empty"));
+        assertEquals(1, headers.size());
+    }
+
+    @Test
+    void modificationCount() {
+        HeaderMap headers = new HeaderMap();
+        int count = headers.getModificationCount();
+        headers.add("A", "1");
+        assertNotEquals(count, count = headers.getModificationCount());
+        headers.set("A", "2");
+        assertNotEquals(count, count = headers.getModificationCount());
+        headers.remove("B");
+        assertEquals(count, headers.getModificationCount());
+        headers.remove("A");
+        assertNotEquals(count, headers.getModificationCount());
+    }
+
+}
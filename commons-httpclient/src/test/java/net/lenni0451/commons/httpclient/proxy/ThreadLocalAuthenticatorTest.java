@@ -0,0 +1,70 @@
+package net.lenni0451.commons.httpclient.proxy;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.Authenticator;
+import java.net.PasswordAuthentication;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadLocalAuthenticatorTest {
+
+    private static PasswordAuthentication requestSocks() {
+        return Authenticator.requestPasswordAuthentication("127.0.0.1", null, 1080, "SOCKS5", "SOCKS authentication", null);
+    }
+
+    @Test
+    void threadCredentials() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch latch = new CountDownLatch(4);
+            Future<?>[] futures = new Future[4];
+            for (int i = 0; i < futures.length; i++) {
+                String user = "user" + i;
+                futures[i] = executor.submit(() -> {
+                    PasswordAuthentication previous = ThreadLocalAuthenticator.setCredentials(new PasswordAuthentication(user, "password".toCharArray()));
+                    try {
+                        latch.countDown();
+                        latch.await();
+                        PasswordAuthentication credentials = requestSocks();
+                        assertNotNull(credentials);
+                        assertEquals(user, credentials.getUserName());
+                    } finally {
+                        ThreadLocalAuthenticator.setCredentials(previous);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertNull(requestSocks());
+    }
+
+    @Test
+    void replacedDefault() {
+        Authenticator application = new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication("application", "password".toCharArray());
+            }
+        };
+        //Make sure the authenticator has been installed before the application replaces it
+        ThreadLocalAuthenticator.setCredentials(ThreadLocalAuthenticator.setCredentials(null));
+        Authenticator.setDefault(application);
+        PasswordAuthentication previous = ThreadLocalAuthenticator.setCredentials(new PasswordAuthentication("user", "password".toCharArray()));
+        try {
+            //The proxy credentials are used again and all other requests are passed to the new default authenticator
+            assertEquals("user", requestSocks().getUserName());
+            PasswordAuthentication server = Authenticator.requestPasswordAuthentication("127.0.0.1", null, 80, "http", "Server authentication", "basic");
+            assertNotNull(server);
+            assertEquals("application", server.getUserName());
+        } finally {
+            ThreadLocalAuthenticator.setCredentials(previous);
+            Authenticator.setDefault(null);
+        }
+    }
+
+}
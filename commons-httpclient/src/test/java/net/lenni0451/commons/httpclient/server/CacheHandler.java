@@ -0,0 +1,68 @@
+package net.lenni0451.commons.httpclient.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Responds with the amount of requests made to the path.<br>
+ * The query parameters {@code control}, {@code etag} and {@code vary} set the {@code Cache-Control}, {@code ETag} and {@code Vary} headers of the response.
+ * If the query parameter {@code gzip} is {@code true}, the body is gzip compressed.
+ * If the {@code If-None-Match} header matches the ETag, {@code 304 Not Modified} is returned.
+ */
+public class CacheHandler implements HttpHandler {
+
+    private static final Map<String, AtomicInteger> REQUESTS = new ConcurrentHashMap<>();
+
+    public static int getRequests(final String path) {
+        AtomicInteger requests = REQUESTS.get(path);
+        return requests == null ? 0 : requests.get();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        int requests = REQUESTS.computeIfAbsent(exchange.getRequestURI().getPath(), path -> new AtomicInteger()).incrementAndGet();
+        Map<String, String> query = new HashMap<>();
+        if (exchange.getRequestURI().getQuery() != null) {
+            for (String parameter : exchange.getRequestURI().getQuery().split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals != -1) query.put(parameter.substring(0, equals), parameter.substring(equals + 1));
+            }
+        }
+        if (query.containsKey("control")) exchange.getResponseHeaders().add("Cache-Control", query.get("control"));
+        if (query.containsKey("vary")) exchange.getResponseHeaders().add("Vary", query.get("vary"));
+        if (query.containsKey("etag")) {
+            String etag = "\"" + query.get("etag") + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(StatusCodes.NOT_MODIFIED, -1);
+                exchange.close();
+                return;
+            }
+        }
+        byte[] body = String.valueOf(requests).getBytes(StandardCharsets.UTF_8);
+        if ("true".equals(query.get("gzip"))) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+                gzip.write(body);
+            }
+            body = baos.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(StatusCodes.OK, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package net.lenni0451.commons.httpclient.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Responds with the request body or {@link #PAYLOAD} if the request has no body.<br>
+ * Request bodies with {@code Content-Encoding: gzip} are decompressed before they are echoed.
+ * The query parameter {@code encoding} sets the encoding of the response ({@code gzip}, {@code zlib} or {@code deflate} for raw deflate data).<br>
+ * The received {@code Accept-Encoding} and {@code Content-Encoding} headers are returned as {@code X-Accept-Encoding} and {@code X-Content-Encoding}.
+ */
+public class CompressionHandler implements HttpHandler {
+
+    public static final String PAYLOAD;
+
+    static {
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < 1000; i++) payload.append("Hello World ").append(i).append('\n');
+        PAYLOAD = payload.toString();
+    }
+
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String requestEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        byte[] body;
+        try (InputStream is = "gzip".equals(requestEncoding) ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            body = readAll(is);
+        }
+        if (body.length == 0) body = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        String encoding = null;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.startsWith("encoding=")) encoding = query.substring("encoding=".length());
+        if (encoding != null) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            switch (encoding) {
+                case "gzip":
+                    try (OutputStream os = new GZIPOutputStream(baos)) {
+                        os.write(body);
+                    }
+                    break;
+                case "zlib":
+                case "deflate":
+                    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, encoding.equals("deflate"));
+                    try (OutputStream os = new DeflaterOutputStream(baos, deflater)) {
+                        os.write(body);
+                    } finally {
+                        deflater.end();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown encoding: " + encoding);
+            }
+            body = baos.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", encoding.equals("gzip") ? "gzip" : "deflate");
+        }
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null) exchange.getResponseHeaders().add("X-Accept-Encoding", acceptEncoding);
+        if (requestEncoding != null) exchange.getResponseHeaders().add("X-Content-Encoding", requestEncoding);
+        exchange.sendResponseHeaders(StatusCodes.OK, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static byte[] readAll(final InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = is.read(buffer)) != -1) baos.write(buffer, 0, read);
+        return baos.toByteArray();
+    }
+
+}
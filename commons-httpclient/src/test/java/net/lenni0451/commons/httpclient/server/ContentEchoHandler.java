@@ -10,6 +10,11 @@ public class ContentEchoHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange httpExchange) throws IOException {
+        //Echo how the request body was framed
+        String contentLength = httpExchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) httpExchange.getResponseHeaders().set("X-Content-Length", contentLength);
+        String transferEncoding = httpExchange.getRequestHeaders().getFirst("Transfer-Encoding");
+        if (transferEncoding != null) httpExchange.getResponseHeaders().set("X-Transfer-Encoding", transferEncoding);
         httpExchange.sendResponseHeaders(200, 0);
         httpExchange.getResponseBody().write(HttpRequestUtils.readFromStream(httpExchange.getRequestBody()));
         httpExchange.close();
@@ -0,0 +1,49 @@
+package net.lenni0451.commons.httpclient.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.lenni0451.commons.httpclient.constants.StatusCodes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fails the first requests of every id with the given status code.<br>
+ * The query parameters {@code id}, {@code failures}, {@code status} and {@code delay} control the behavior.
+ * Successful responses contain the number of the attempt.
+ */
+public class FlakyHandler implements HttpHandler {
+
+    private static final Map<String, AtomicInteger> ATTEMPTS = new ConcurrentHashMap<>();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (exchange.getRequestURI().getQuery() != null) {
+            for (String parameter : exchange.getRequestURI().getQuery().split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals != -1) query.put(parameter.substring(0, equals), parameter.substring(equals + 1));
+            }
+        }
+        int attempt = ATTEMPTS.computeIfAbsent(query.get("id"), id -> new AtomicInteger()).incrementAndGet();
+        int failures = Integer.parseInt(query.getOrDefault("failures", "0"));
+        int status = attempt <= failures ? Integer.parseInt(query.getOrDefault("status", "503")) : StatusCodes.OK;
+        try {
+            Thread.sleep(Long.parseLong(query.getOrDefault("delay", "0")));
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+
+        byte[] body = String.valueOf(attempt).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package net.lenni0451.commons.httpclient.server;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.*;
+import io.netty.util.AsciiString;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cleartext HTTP/2 server which supports the h2c upgrade, prior knowledge and plain HTTP/1.1.<br>
+ * Every response contains the protocol and the id of the connection it was sent over (e.g. {@code HTTP/2:1}).
+ */
+public class Http2TestServer {
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private NioEventLoopGroup group;
+    private Channel channel;
+
+    public int bind() throws InterruptedException {
+        this.group = new NioEventLoopGroup(1);
+        this.channel = new ServerBootstrap()
+                .group(this.group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        int connection = Http2TestServer.this.connections.incrementAndGet();
+                        HttpServerCodec sourceCodec = new HttpServerCodec();
+                        HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(sourceCodec, protocol -> {
+                            if (!AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) return null;
+                            return new Http2ServerUpgradeCodec(Http2FrameCodecBuilder.forServer().build(), new Http2MultiplexHandler(new Http2StreamHandler(connection)));
+                        });
+                        ChannelHandler priorKnowledgeHandler = new ChannelInitializer<Channel>() {
+                            @Override
+                            protected void initChannel(Channel channel) {
+                                channel.pipeline().addLast(Http2FrameCodecBuilder.forServer().build(), new Http2MultiplexHandler(new Http2StreamHandler(connection)));
+                            }
+                        };
+                        channel.pipeline().addLast(new CleartextHttp2ServerUpgradeHandler(sourceCodec, upgradeHandler, priorKnowledgeHandler));
+                        channel.pipeline().addLast(new HttpObjectAggregator(1024 * 1024));
+                        channel.pipeline().addLast(new Http1Handler(connection));
+                    }
+                })
+                .bind(new InetSocketAddress("127.0.0.1", 0))
+                .sync()
+                .channel();
+        return ((InetSocketAddress) this.channel.localAddress()).getPort();
+    }
+
+    /**
+     * @return The amount of connections which have been opened to the server
+     */
+    public int getConnections() {
+        return this.connections.get();
+    }
+
+    public void stop() {
+        if (this.channel != null) this.channel.close().syncUninterruptibly();
+        if (this.group != null) this.group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private static ByteBuf content(final String protocol, final int connection) {
+        return Unpooled.copiedBuffer(protocol + ":" + connection, StandardCharsets.UTF_8);
+    }
+
+
+    @ChannelHandler.Sharable
+    private static class Http2StreamHandler extends SimpleChannelInboundHandler<Http2HeadersFrame> {
+        private final int connection;
+
+        private Http2StreamHandler(final int connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Http2HeadersFrame frame) {
+            if (!frame.isEndStream()) return; //The test requests don't have a body
+            ByteBuf content = content("HTTP/2", this.connection);
+            Http2Headers headers = new DefaultHttp2Headers().status(HttpResponseStatus.OK.codeAsText());
+            headers.setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+            ctx.write(new DefaultHttp2HeadersFrame(headers));
+            ctx.writeAndFlush(new DefaultHttp2DataFrame(content, true));
+        }
+    }
+
+
+    private static class Http1Handler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        private final int connection;
+
+        private Http1Handler(final int connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, content("HTTP/1.1", this.connection));
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+            ctx.writeAndFlush(response);
+        }
+    }
+
+}
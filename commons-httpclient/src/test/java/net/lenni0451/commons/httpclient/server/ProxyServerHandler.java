@@ -0,0 +1,37 @@
+package net.lenni0451.commons.httpclient.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Acts as an HTTP proxy which answers all requests itself.<br>
+ * The response contains the requested host and the user of the proxy authorization.
+ * Requests to {@code /proxy/auth} require a proxy authorization.
+ */
+public class ProxyServerHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String authorization = exchange.getRequestHeaders().getFirst("Proxy-Authorization");
+        String user = "";
+        if (authorization != null && authorization.startsWith("Basic ")) {
+            String credentials = new String(Base64.getDecoder().decode(authorization.substring(6)), StandardCharsets.UTF_8);
+            user = credentials.substring(0, credentials.indexOf(':'));
+        } else if (exchange.getRequestURI().getPath().equals("/proxy/auth")) {
+            exchange.getResponseHeaders().add("Proxy-Authenticate", "Basic realm=\"proxy\"");
+            exchange.sendResponseHeaders(407, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] response = (exchange.getRequestURI().getHost() + ":" + user).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+}
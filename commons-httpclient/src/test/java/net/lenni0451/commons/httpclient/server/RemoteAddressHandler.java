@@ -0,0 +1,19 @@
+package net.lenni0451.commons.httpclient.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class RemoteAddressHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        byte[] address = exchange.getRemoteAddress().toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, address.length);
+        exchange.getResponseBody().write(address);
+        exchange.close();
+    }
+
+}
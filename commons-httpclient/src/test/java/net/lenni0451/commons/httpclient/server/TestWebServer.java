@@ -20,6 +20,11 @@ public class TestWebServer {
         this.server.createContext("/contentType", new ContentTypeEchoHandler());
         this.server.createContext("/redirect", new RedirectHandler());
         this.server.createContext("/constant", new ConstantContentHandler());
+        this.server.createContext("/remoteAddress", new RemoteAddressHandler());
+        this.server.createContext("/proxy", new ProxyServerHandler());
+        this.server.createContext("/cache", new CacheHandler());
+        this.server.createContext("/compression", new CompressionHandler());
+        this.server.createContext("/flaky", new FlakyHandler());
     }
 
     public int bind() throws IOException {
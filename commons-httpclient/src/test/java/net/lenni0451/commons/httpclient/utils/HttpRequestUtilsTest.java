@@ -0,0 +1,75 @@
+package net.lenni0451.commons.httpclient.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpRequestUtilsTest {
+
+    private static byte[] payload(final int size) {
+        byte[] payload = new byte[size];
+        new Random(size).nextBytes(payload);
+        return payload;
+    }
+
+    @Test
+    void readFromStream() throws IOException {
+        for (int size : new int[]{0, 1, 1000, 8192, 100_000}) {
+            byte[] payload = payload(size);
+            assertArrayEquals(payload, HttpRequestUtils.readFromStream(new ByteArrayInputStream(payload)));
+            for (long sizeHint : new long[]{-1, 0, size / 2, size, size * 2L}) {
+                assertArrayEquals(payload, HttpRequestUtils.readFromStream(new ByteArrayInputStream(payload), sizeHint), "Size " + size + " Hint " + sizeHint);
+            }
+        }
+    }
+
+    @Test
+    void readFromSlowStream() throws IOException {
+        byte[] payload = payload(20_000);
+        //Only return a few bytes per read to make sure partial reads are handled
+        InputStream is = new ByteArrayInputStream(payload) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        assertArrayEquals(payload, HttpRequestUtils.readFromStream(is, payload.length));
+    }
+
+    @Test
+    void transfer() throws IOException {
+        byte[] payload = payload(100_000);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        assertEquals(payload.length, HttpRequestUtils.transfer(new ByteArrayInputStream(payload), Channels.newChannel(baos)));
+        assertArrayEquals(payload, baos.toByteArray());
+
+        Path file = Files.createTempFile("transfer", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+                assertEquals(payload.length, HttpRequestUtils.transfer(new ByteArrayInputStream(payload), channel));
+                assertEquals(payload.length + 3, channel.position());
+            }
+            byte[] written = Files.readAllBytes(file);
+            assertEquals(payload.length + 3, written.length);
+            assertArrayEquals(payload, Arrays.copyOfRange(written, 3, written.length));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package net.lenni0451.commons.httpclient.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ThreadUtilsTest {
+
+    @Test
+    void virtualExecutor() throws Exception {
+        ExecutorService executor = ThreadUtils.newVirtualExecutor("Test");
+        if (!ThreadUtils.isVirtualThreadsAvailable()) {
+            assertNull(executor);
+            return;
+        }
+        assertNotNull(executor);
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertTrue(thread.getName().startsWith("Test-"));
+            assertTrue((boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void availableOnJava21() {
+        String version = System.getProperty("java.specification.version");
+        assumeTrue(!version.startsWith("1.") && Integer.parseInt(version) >= 21);
+        assertTrue(ThreadUtils.isVirtualThreadsAvailable());
+    }
+
+    @Test
+    void daemonPool() throws Exception {
+        ExecutorService executor = ThreadUtils.newDaemonPool("Test", 2);
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertTrue(thread.isDaemon());
+            assertEquals("Test-1", thread.getName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}